@@ -0,0 +1,213 @@
+package com.ecs.benchmark;
+
+import com.artemis.BaseSystem;
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.artemis.utils.IntBag;
+import com.ecs.combat.DamageBuffer;
+import com.ecs.combat.HealthChangeTracker;
+import com.ecs.combat.ImpactBuffer;
+import com.ecs.component.Body;
+import com.ecs.component.Position;
+import com.ecs.component.SpatialNode;
+import com.ecs.component.Stats;
+import com.ecs.persistence.DirtyTracker;
+import com.ecs.spatial.SpatialHashGrid;
+import com.ecs.system.AreaDamageSystem;
+import com.ecs.system.DamageSystem;
+import com.ecs.system.DeathSystem;
+import com.ecs.system.ProjectileSystem;
+import com.ecs.system.SpatialSystem;
+import com.ecs.system.TimerSystem;
+import com.ecs.timer.TimerChannel;
+import com.ecs.timer.TimerScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for one tick of a single combat system, in a world holding only that system, so
+ * that each system's cost is measured on its own rather than as the difference between
+ * {@link SystemBenchmark} stages. The input a system consumes each tick is produced before
+ * every invocation, outside the measurement:
+ *
+ * <ul>
+ *   <li>{@code timer}: {@code entityCount} timers spread over a second; expired ones are
+ *       scheduled again.</li>
+ *   <li>{@code projectile}: {@code entityCount} projectiles in flight, a sixtieth of which
+ *       detonate and are replaced.</li>
+ *   <li>{@code areaDamage}: one impact per hundred bodies, against {@code entityCount} bodies
+ *       in the spatial grid.</li>
+ *   <li>{@code damage}: one hit on each of {@code entityCount} units.</li>
+ *   <li>{@code death}: a tenth of {@code entityCount} units change health, and a tenth of
+ *       those die and are replaced.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CombatSystemBenchmark {
+
+    private static final float DELTA = 1f / 60f;
+    // Roughly the density of SystemBenchmark's pairs
+    private static final float SPACING = 10f;
+    private static final float BLAST_RADIUS = 10f;
+
+    @Param({"1000", "10000", "100000"})
+    public int entityCount;
+
+    @Param({"timer", "projectile", "areaDamage", "damage", "death"})
+    public String system;
+
+    private final Random random = new Random(42);
+    private final TimerScheduler timerScheduler = new TimerScheduler();
+    private final ImpactBuffer impactBuffer = new ImpactBuffer();
+    private final DamageBuffer damageBuffer = new DamageBuffer();
+    private final HealthChangeTracker healthChangeTracker = new HealthChangeTracker();
+    private World world;
+    private BaseSystem measured;
+    private TimerChannel timerChannel;
+    private ProjectileSystem projectileSystem;
+    private int[] units;
+    private final IntBag killed = new IntBag();
+    private int cursor;
+    private float extent;
+
+    @Setup
+    public void setUp() {
+        SpatialHashGrid grid = new SpatialHashGrid();
+        WorldConfigurationBuilder builder = new WorldConfigurationBuilder();
+        if (system.equals("timer")) {
+            measured = new TimerSystem(timerScheduler);
+        } else if (system.equals("projectile")) {
+            projectileSystem = new ProjectileSystem(impactBuffer);
+            measured = projectileSystem;
+        } else if (system.equals("areaDamage")) {
+            // Indexes the bodies once and is then switched off
+            builder.with(new SpatialSystem(grid));
+            measured = new AreaDamageSystem(grid, impactBuffer, damageBuffer);
+        } else if (system.equals("damage")) {
+            measured = new DamageSystem(damageBuffer, healthChangeTracker, new DirtyTracker());
+        } else if (system.equals("death")) {
+            measured = new DeathSystem(healthChangeTracker, new ArrayList<>());
+        } else {
+            throw new IllegalArgumentException("Unknown system " + system);
+        }
+        world = new World(builder.with(measured).build());
+
+        extent = (float) Math.ceil(Math.sqrt(entityCount)) * SPACING;
+        units = new int[entityCount];
+        for (int i = 0; i < entityCount; i++) {
+            units[i] = createUnit();
+        }
+        if (system.equals("timer")) {
+            timerChannel = timerScheduler.channel("benchmark");
+            for (int i = 0; i < entityCount; i++) {
+                timerChannel.schedule(units[i], (i % 60 + 1) * DELTA);
+            }
+        } else if (system.equals("projectile")) {
+            for (int i = 0; i < entityCount; i++) {
+                launch(false);
+            }
+        }
+        flush();
+        if (system.equals("areaDamage")) {
+            world.getSystem(SpatialSystem.class).setEnabled(false);
+        }
+    }
+
+    private int createUnit() {
+        float x = random.nextFloat() * extent;
+        float y = random.nextFloat() * extent;
+        int entityId = world.create();
+        world.edit(entityId)
+                .add(new Position(x, y))
+                .add(new Body(0.5f))
+                .add(new SpatialNode(x, y))
+                .add(new Stats(100));
+        return entityId;
+    }
+
+    private void launch(boolean detonating) {
+        float x = random.nextFloat() * extent;
+        float y = random.nextFloat() * extent;
+        // Stationary, so only projectiles aimed at their own position detonate
+        float distance = detonating ? 0 : extent;
+        projectileSystem.launch(-1, x, y, x + distance, y, 0, BLAST_RADIUS, 10);
+    }
+
+    /**
+     * Produces the input the measured system consumes in the next tick.
+     */
+    @Setup(Level.Invocation)
+    public void prepareTick() {
+        if (system.equals("timer")) {
+            IntBag expired = timerChannel.getExpired();
+            for (int i = 0; i < expired.size(); i++) {
+                timerChannel.schedule(expired.get(i), 1f);
+            }
+        } else if (system.equals("projectile")) {
+            impactBuffer.clear();
+            for (int i = 0; i < entityCount / 60; i++) {
+                launch(true);
+            }
+        } else if (system.equals("areaDamage")) {
+            damageBuffer.aggregate();
+            for (int i = 0; i < entityCount / 100; i++) {
+                impactBuffer.emit(-1, random.nextFloat() * extent, random.nextFloat() * extent, BLAST_RADIUS, 1);
+            }
+        } else if (system.equals("damage")) {
+            healthChangeTracker.clear();
+            for (int i = 0; i < entityCount; i++) {
+                damageBuffer.emit(-1, units[i], 0);
+            }
+        } else {
+            for (int i = 0; i < killed.size(); i++) {
+                units[killed.get(i)] = createUnit();
+            }
+            killed.clear();
+            for (int i = 0; i < entityCount / 10; i++) {
+                int slot = cursor;
+                cursor = (cursor + 1) % entityCount;
+                if (i % 10 == 0) {
+                    world.getMapper(Stats.class).get(units[slot]).health = 0;
+                    killed.add(slot);
+                }
+                healthChangeTracker.markChanged(units[slot]);
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Applies pending entity changes without running the measured system.
+     */
+    private void flush() {
+        measured.setEnabled(false);
+        world.setDelta(DELTA);
+        world.process();
+        measured.setEnabled(true);
+    }
+
+    @Benchmark
+    public void tick() {
+        world.setDelta(DELTA);
+        world.process();
+    }
+}
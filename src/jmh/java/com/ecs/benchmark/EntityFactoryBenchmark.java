@@ -0,0 +1,88 @@
+package com.ecs.benchmark;
+
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.ecs.component.Body;
+import com.ecs.component.CombatStats;
+import com.ecs.component.SpatialNode;
+import com.ecs.component.Stats;
+import com.ecs.factory.EntityFactory;
+import com.ecs.registry.TemplateRegistry;
+import com.ecs.service.YamlService;
+import com.ecs.spatial.SpatialHashGrid;
+import com.ecs.system.SpatialSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for spawning {@code entityCount} entities from a template into a fresh world,
+ * one at a time and as a batch, including the flush that adds them to the spatial grid.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityFactoryBenchmark {
+
+    private static final String TEMPLATE = "soldier";
+
+    @Param({"1000", "100000"})
+    public int entityCount;
+
+    private EntityFactory factory;
+    private float[] xs;
+    private float[] ys;
+    private World world;
+
+    @Setup
+    public void setUp() {
+        TemplateRegistry registry = new TemplateRegistry(new YamlService());
+        registry.registerTemplate(TEMPLATE, List.of(
+                new Stats(80), new CombatStats(12, 2.5f, 1.5f), new Body(1.0f), new SpatialNode()));
+        factory = new EntityFactory(registry);
+        xs = new float[entityCount];
+        ys = new float[entityCount];
+        for (int i = 0; i < entityCount; i++) {
+            xs[i] = (i % 1000) * 10;
+            ys[i] = (i / 1000) * 10;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newWorld() {
+        world = new World(new WorldConfigurationBuilder()
+                .with(new SpatialSystem(new SpatialHashGrid()))
+                .build());
+    }
+
+    @Benchmark
+    public World spawnEach() {
+        for (int i = 0; i < entityCount; i++) {
+            factory.prepare(TEMPLATE).at(xs[i], ys[i]).build(world);
+        }
+        world.process();
+        return world;
+    }
+
+    @Benchmark
+    public World spawnBatch() {
+        factory.spawnBatch(world, TEMPLATE, xs, ys);
+        world.process();
+        return world;
+    }
+}
@@ -0,0 +1,111 @@
+package com.ecs.benchmark;
+
+import com.artemis.Aspect;
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.artemis.utils.IntBag;
+import com.ecs.component.Identity;
+import com.ecs.component.Persistent;
+import com.ecs.component.Position;
+import com.ecs.component.Stats;
+import com.ecs.component.Velocity;
+import com.ecs.persistence.DirtyTracker;
+import com.ecs.persistence.SaveProgress;
+import com.ecs.service.PersistenceService;
+import com.ecs.service.YamlService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for saving {@code entityCount} persistent entities to a binary snapshot and
+ * loading them back.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+
+    @Param({"1000", "100000"})
+    public int entityCount;
+
+    private Path directory;
+    private Path saveFile;
+    private Path loadFile;
+    private PersistenceService source;
+    private World target;
+    private PersistenceService loader;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("persistence-benchmark");
+        saveFile = directory.resolve("save.snap");
+        loadFile = directory.resolve("load.snap");
+
+        World world = new World(new WorldConfigurationBuilder().build());
+        for (int i = 0; i < entityCount; i++) {
+            int entityId = world.create();
+            world.edit(entityId)
+                    .add(new Persistent())
+                    .add(new Position(i, -i))
+                    .add(new Velocity(1, i * 0.5f))
+                    .add(new Stats(i % 100 + 1))
+                    .add(new Identity("unit-" + i));
+        }
+        world.process();
+        source = new PersistenceService(new YamlService(), world, new DirtyTracker(), 12, new SaveProgress());
+        source.save(loadFile.toString());
+
+        target = new World(new WorldConfigurationBuilder().build());
+        loader = new PersistenceService(new YamlService(), target, new DirtyTracker(), 12, new SaveProgress());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(saveFile);
+        Files.deleteIfExists(loadFile);
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Empties the load target, so each load creates every entity afresh.
+     */
+    @Setup(Level.Invocation)
+    public void clearTarget() {
+        IntBag entities = target.getAspectSubscriptionManager().get(Aspect.all()).getEntities();
+        for (int i = 0; i < entities.size(); i++) {
+            target.delete(entities.get(i));
+        }
+        target.process();
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        source.save(saveFile.toString());
+    }
+
+    @Benchmark
+    public World load() throws IOException {
+        loader.load(loadFile.toString());
+        target.process();
+        return target;
+    }
+}
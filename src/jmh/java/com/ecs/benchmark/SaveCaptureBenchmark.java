@@ -0,0 +1,101 @@
+package com.ecs.benchmark;
+
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.ecs.component.Identity;
+import com.ecs.component.Persistent;
+import com.ecs.component.Position;
+import com.ecs.component.Stats;
+import com.ecs.component.Velocity;
+import com.ecs.persistence.DirtyTracker;
+import com.ecs.persistence.SaveProgress;
+import com.ecs.service.PersistenceService;
+import com.ecs.service.YamlService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for the game loop's share of a background save of {@code entityCount} persistent
+ * entities: one tick's slice of the capture. Sampled, so the percentiles bound the pause a
+ * save adds to a tick regardless of world size.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SaveCaptureBenchmark {
+
+    @Param({"10000", "100000"})
+    public int entityCount;
+
+    private Path directory;
+    private Path saveFile;
+    private PersistenceService persistenceService;
+    private CompletableFuture<Path> pendingSave;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("capture-benchmark");
+        saveFile = directory.resolve("save.snap");
+
+        World world = new World(new WorldConfigurationBuilder().build());
+        for (int i = 0; i < entityCount; i++) {
+            int entityId = world.create();
+            world.edit(entityId)
+                    .add(new Persistent())
+                    .add(new Position(i, -i))
+                    .add(new Velocity(1, i * 0.5f))
+                    .add(new Stats(i % 100 + 1))
+                    .add(new Identity("unit-" + i));
+        }
+        world.process();
+        persistenceService = new PersistenceService(new YamlService(), world, new DirtyTracker(), 12,
+                new SaveProgress());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (pendingSave != null) {
+            pendingSave.join();
+        }
+        Files.deleteIfExists(saveFile);
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Starts the next save once the previous one is captured and written.
+     */
+    @Setup(Level.Invocation)
+    public void startSave() {
+        if (!persistenceService.isCapturing()) {
+            if (pendingSave != null) {
+                pendingSave.join();
+            }
+            pendingSave = persistenceService.saveAsync(saveFile.toString());
+        }
+    }
+
+    @Benchmark
+    public void captureSlice() {
+        persistenceService.continueCapture();
+    }
+}
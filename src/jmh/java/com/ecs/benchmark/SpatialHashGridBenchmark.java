@@ -0,0 +1,107 @@
+package com.ecs.benchmark;
+
+import com.artemis.utils.IntBag;
+import com.ecs.spatial.SpatialHashGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for spatial grid updates and queries. Entities are scattered over a square sized
+ * so that occupied cells hold {@code density} entities on average.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpatialHashGridBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entityCount;
+
+    @Param({"1", "10", "100"})
+    public int density;
+
+    private SpatialHashGrid grid;
+    private SpatialHashGrid bulkGrid;
+    private int[] ids;
+    private float[] xs;
+    private float[] ys;
+    private float[] otherXs;
+    private float[] otherYs;
+    private final IntBag nearby = new IntBag();
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        float side = (float) Math.sqrt((double) entityCount / density) * SpatialHashGrid.CELL_SIZE;
+        ids = new int[entityCount];
+        xs = new float[entityCount];
+        ys = new float[entityCount];
+        otherXs = new float[entityCount];
+        otherYs = new float[entityCount];
+        for (int i = 0; i < entityCount; i++) {
+            ids[i] = i;
+            xs[i] = random.nextFloat() * side;
+            ys[i] = random.nextFloat() * side;
+            otherXs[i] = random.nextFloat() * side;
+            otherYs[i] = random.nextFloat() * side;
+        }
+        grid = new SpatialHashGrid();
+        grid.insertAll(ids, xs, ys, entityCount);
+        bulkGrid = new SpatialHashGrid();
+    }
+
+    private int next() {
+        cursor = cursor + 1 < entityCount ? cursor + 1 : 0;
+        return cursor;
+    }
+
+    /**
+     * Moves one entity to another cell, swapping between two positions per entity.
+     */
+    @Benchmark
+    public void removeInsert() {
+        int i = next();
+        grid.remove(i, xs[i], ys[i]);
+        float x = otherXs[i];
+        float y = otherYs[i];
+        otherXs[i] = xs[i];
+        otherYs[i] = ys[i];
+        xs[i] = x;
+        ys[i] = y;
+        grid.insert(i, x, y);
+    }
+
+    @Benchmark
+    public void getNearby(Blackhole blackhole) {
+        int i = next();
+        nearby.clear();
+        grid.getNearby(xs[i], ys[i], nearby);
+        blackhole.consume(nearby.size());
+    }
+
+    /**
+     * Fills an empty grid with every entity at once.
+     */
+    @Benchmark
+    public void insertAll() {
+        bulkGrid.clear();
+        bulkGrid.insertAll(ids, xs, ys, entityCount);
+    }
+}
@@ -0,0 +1,123 @@
+package com.ecs.benchmark;
+
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.ecs.ai.ChaseNode;
+import com.ecs.ai.CombatNode;
+import com.ecs.ai.SequenceNode;
+import com.ecs.combat.DamageBuffer;
+import com.ecs.combat.HealthChangeTracker;
+import com.ecs.combat.TargetIndex;
+import com.ecs.component.*;
+import com.ecs.persistence.DirtyTracker;
+import com.ecs.spatial.SpatialHashGrid;
+import com.ecs.storage.MotionStore;
+import com.ecs.system.*;
+import com.ecs.timer.TimerScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for ticking the combat pipeline, built up one stage at a time: movement, then
+ * spatial indexing, then AI, then attacks, damage and death. Scores are per tick, so a stage's
+ * own cost is its score less the previous stage's, and its per-entity cost that divided by
+ * {@code entityCount}. {@link CombatSystemBenchmark} measures the combat systems one at a
+ * time.
+ *
+ * <p>Half the entities are attackers chasing and hitting a target each; targets never die,
+ * so every tick does the same work.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SystemBenchmark {
+
+    private static final float DELTA = 1f / 60f;
+
+    @Param({"1000", "10000", "100000"})
+    public int entityCount;
+
+    @Param({"movement", "spatial", "ai", "combat"})
+    public String stage;
+
+    private World world;
+
+    @Setup
+    public void setUp() {
+        DirtyTracker dirtyTracker = new DirtyTracker();
+        SpatialHashGrid grid = new SpatialHashGrid();
+        DamageBuffer damageBuffer = new DamageBuffer();
+        HealthChangeTracker healthChangeTracker = new HealthChangeTracker();
+        TargetIndex targetIndex = new TargetIndex();
+        TimerScheduler timerScheduler = new TimerScheduler();
+        boolean spatial = !stage.equals("movement");
+        boolean ai = stage.equals("ai") || stage.equals("combat");
+        boolean combat = stage.equals("combat");
+
+        WorldConfigurationBuilder builder = new WorldConfigurationBuilder();
+        if (combat) {
+            builder.with(new TimerSystem(timerScheduler));
+        }
+        builder.with(new MovementSystem(new MotionStore(), dirtyTracker));
+        if (spatial) {
+            builder.with(new SpatialSystem(grid));
+        }
+        if (ai) {
+            builder.with(new AiSystem(targetIndex));
+        }
+        if (combat) {
+            builder.with(new BasicAttackSystem(damageBuffer, timerScheduler))
+                    .with(new DamageSystem(damageBuffer, healthChangeTracker, dirtyTracker))
+                    .with(new DeathSystem(healthChangeTracker, new ArrayList<>()));
+        }
+        world = new World(builder.build());
+
+        int pairs = entityCount / 2;
+        int columns = (int) Math.ceil(Math.sqrt(pairs));
+        for (int i = 0; i < pairs; i++) {
+            float x = (i % columns) * 20;
+            float y = (i / columns) * 20;
+            int target = world.create();
+            world.edit(target)
+                    .add(new Position(x + 5, y))
+                    .add(new Body(1.0f))
+                    .add(new SpatialNode(x + 5, y))
+                    .add(new Stats(Float.MAX_VALUE));
+
+            int attacker = world.create();
+            world.edit(attacker)
+                    .add(new Position(x, y))
+                    .add(new Velocity(1, 0.5f))
+                    .add(new Body(1.0f))
+                    .add(new SpatialNode(x, y))
+                    .add(new Stats(100))
+                    .add(new CombatStats(10, 2.0f, 4.0f))
+                    .add(new AiBehavior(new SequenceNode(
+                            new ChaseNode(targetIndex, target, 5.0f),
+                            new CombatNode(targetIndex, target))));
+        }
+        world.setDelta(DELTA);
+        world.process();
+    }
+
+    @Benchmark
+    public void tick() {
+        world.setDelta(DELTA);
+        world.process();
+    }
+}
@@ -1,6 +1,7 @@
 package com.ecs;
 
 import com.ecs.core.GameLoop;
+import com.ecs.replay.ReplayRunner;
 import io.micronaut.context.ApplicationContext;
 import io.micronaut.context.event.ShutdownEvent;
 import io.micronaut.runtime.Micronaut;
@@ -9,9 +10,12 @@ import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.file.Paths;
+
 /**
  * Main application entry point.
- * Bootstraps the Micronaut context and starts the game loop.
+ * Bootstraps the Micronaut context and starts the game loop, or replays a recorded run
+ * when {@code ecs.replay.run} names a command journal.
  */
 @Slf4j
 @Singleton
@@ -45,11 +49,18 @@ public class Application {
         }
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
         ApplicationContext context = Micronaut.build(args)
                 .mainClass(Application.class)
                 .start();
 
+        String replay = context.getProperty("ecs.replay.run", String.class).orElse(null);
+        if (replay != null) {
+            context.getBean(ReplayRunner.class).replay(Paths.get(replay));
+            context.close();
+            return;
+        }
+
         // Start the game loop
         Application app = context.getBean(Application.class);
         app.startGameLoop();
@@ -2,26 +2,42 @@ package com.ecs.ai;
 
 import com.artemis.ComponentMapper;
 import com.artemis.World;
+import com.ecs.combat.TargetIndex;
 import com.ecs.component.Position;
 import com.ecs.component.Velocity;
+import com.ecs.system.MovementSystem;
 
 /**
  * Behavior node that chases a target by setting velocity towards it.
+ * Fails once the target has died, as reported by the {@link TargetIndex}.
+ * Velocity is set through the {@link MovementSystem} when the world has one, so that its
+ * motion store sees the change.
  */
 public class ChaseNode implements BehaviorNode {
 
+    private final TargetIndex targetIndex;
+    private final long targetHandle;
     private final int targetId;
     private final float speed;
 
-    public ChaseNode(int targetId, float speed) {
+    private World boundWorld;
+    private ComponentMapper<Position> positionMapper;
+    private ComponentMapper<Velocity> velocityMapper;
+    private MovementSystem movementSystem;
+
+    public ChaseNode(TargetIndex targetIndex, int targetId, float speed) {
+        this.targetIndex = targetIndex;
+        this.targetHandle = targetIndex.handle(targetId);
         this.targetId = targetId;
         this.speed = speed;
     }
 
     @Override
     public Status execute(World world, int entityId) {
-        ComponentMapper<Position> positionMapper = world.getMapper(Position.class);
-        ComponentMapper<Velocity> velocityMapper = world.getMapper(Velocity.class);
+        bindMappers(world);
+        if (!targetIndex.track(entityId, targetHandle)) {
+            return Status.FAILURE;
+        }
 
         Position myPosition = positionMapper.get(entityId);
         Position targetPosition = positionMapper.get(targetId);
@@ -38,15 +54,35 @@ public class ChaseNode implements BehaviorNode {
 
         if (distance < 0.1f) {
             // Already at target
-            myVelocity.dx = 0;
-            myVelocity.dy = 0;
+            setVelocity(entityId, myVelocity, 0, 0);
             return Status.SUCCESS;
         }
 
         // Normalize and apply speed
-        myVelocity.dx = (dx / distance) * speed;
-        myVelocity.dy = (dy / distance) * speed;
+        setVelocity(entityId, myVelocity, (dx / distance) * speed, (dy / distance) * speed);
 
         return Status.RUNNING;
     }
+
+    private void setVelocity(int entityId, Velocity velocity, float dx, float dy) {
+        if (movementSystem != null) {
+            movementSystem.setVelocity(entityId, dx, dy);
+        } else {
+            velocity.dx = dx;
+            velocity.dy = dy;
+        }
+    }
+
+    /**
+     * Looks up component mappers and the movement system once per world instead of on every
+     * execution.
+     */
+    private void bindMappers(World world) {
+        if (world != boundWorld) {
+            positionMapper = world.getMapper(Position.class);
+            velocityMapper = world.getMapper(Velocity.class);
+            movementSystem = world.getSystem(MovementSystem.class);
+            boundWorld = world;
+        }
+    }
 }
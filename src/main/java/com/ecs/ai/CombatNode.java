@@ -2,6 +2,7 @@ package com.ecs.ai;
 
 import com.artemis.ComponentMapper;
 import com.artemis.World;
+import com.ecs.combat.TargetIndex;
 import com.ecs.component.AttackIntent;
 import com.ecs.component.Body;
 import com.ecs.component.CombatStats;
@@ -9,21 +10,32 @@ import com.ecs.component.Position;
 
 /**
  * Behavior node that adds attack intent if target is in range.
+ * Fails once the target has died, as reported by the {@link TargetIndex}.
  */
 public class CombatNode implements BehaviorNode {
 
+    private final TargetIndex targetIndex;
+    private final long targetHandle;
     private final int targetId;
 
-    public CombatNode(int targetId) {
+    private World boundWorld;
+    private ComponentMapper<Position> positionMapper;
+    private ComponentMapper<Body> bodyMapper;
+    private ComponentMapper<CombatStats> combatStatsMapper;
+    private ComponentMapper<AttackIntent> attackIntentMapper;
+
+    public CombatNode(TargetIndex targetIndex, int targetId) {
+        this.targetIndex = targetIndex;
+        this.targetHandle = targetIndex.handle(targetId);
         this.targetId = targetId;
     }
 
     @Override
     public Status execute(World world, int entityId) {
-        ComponentMapper<Position> positionMapper = world.getMapper(Position.class);
-        ComponentMapper<Body> bodyMapper = world.getMapper(Body.class);
-        ComponentMapper<CombatStats> combatStatsMapper = world.getMapper(CombatStats.class);
-        ComponentMapper<AttackIntent> attackIntentMapper = world.getMapper(AttackIntent.class);
+        bindMappers(world);
+        if (!targetIndex.track(entityId, targetHandle)) {
+            return Status.FAILURE;
+        }
 
         Position myPosition = positionMapper.get(entityId);
         Position targetPosition = positionMapper.get(targetId);
@@ -50,7 +62,7 @@ public class CombatNode implements BehaviorNode {
             // Add attack intent if not already present
             AttackIntent intent = attackIntentMapper.get(entityId);
             if (intent == null) {
-                intent = world.edit(entityId).create(AttackIntent.class);
+                intent = attackIntentMapper.create(entityId);
             }
             intent.targetId = targetId;
             return Status.SUCCESS;
@@ -58,4 +70,17 @@ public class CombatNode implements BehaviorNode {
 
         return Status.FAILURE;
     }
+
+    /**
+     * Looks up component mappers once per world instead of on every execution.
+     */
+    private void bindMappers(World world) {
+        if (world != boundWorld) {
+            positionMapper = world.getMapper(Position.class);
+            bodyMapper = world.getMapper(Body.class);
+            combatStatsMapper = world.getMapper(CombatStats.class);
+            attackIntentMapper = world.getMapper(AttackIntent.class);
+            boundWorld = world;
+        }
+    }
 }
@@ -13,16 +13,20 @@ import com.ecs.spatial.SpatialHashGrid;
 public class FindTargetNode implements BehaviorNode {
 
     private final SpatialHashGrid grid;
+    private final IntBag nearby = new IntBag();
     private int lastFoundTarget = -1;
 
+    private World boundWorld;
+    private ComponentMapper<Position> positionMapper;
+    private ComponentMapper<Body> bodyMapper;
+
     public FindTargetNode(SpatialHashGrid grid) {
         this.grid = grid;
     }
 
     @Override
     public Status execute(World world, int entityId) {
-        ComponentMapper<Position> positionMapper = world.getMapper(Position.class);
-        ComponentMapper<Body> bodyMapper = world.getMapper(Body.class);
+        bindMappers(world);
 
         Position myPosition = positionMapper.get(entityId);
         if (myPosition == null) {
@@ -30,7 +34,8 @@ public class FindTargetNode implements BehaviorNode {
         }
 
         // Get nearby entities
-        IntBag nearby = grid.getNearby(myPosition.x, myPosition.y);
+        nearby.clear();
+        grid.getNearby(myPosition.x, myPosition.y, nearby);
 
         float closestDistance = Float.MAX_VALUE;
         int closestTarget = -1;
@@ -67,4 +72,15 @@ public class FindTargetNode implements BehaviorNode {
     public int getLastFoundTarget() {
         return lastFoundTarget;
     }
+
+    /**
+     * Looks up component mappers once per world instead of on every execution.
+     */
+    private void bindMappers(World world) {
+        if (world != boundWorld) {
+            positionMapper = world.getMapper(Position.class);
+            bodyMapper = world.getMapper(Body.class);
+            boundWorld = world;
+        }
+    }
 }
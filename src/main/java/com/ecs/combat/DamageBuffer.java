@@ -0,0 +1,124 @@
+package com.ecs.combat;
+
+import com.artemis.utils.IntBag;
+import it.unimi.dsi.fastutil.ints.Int2FloatOpenHashMap;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Collects damage events emitted during attack resolution.
+ * Each emitting thread writes into its own buffer, so attacks can be resolved in parallel.
+ * Events are aggregated per target on the loop thread before being applied.
+ */
+@Singleton
+public class DamageBuffer {
+
+    private final List<DamageModifier> modifiers;
+    private final List<EventBuffer> buffers = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<EventBuffer> localBuffer = ThreadLocal.withInitial(this::registerBuffer);
+
+    private final Int2FloatOpenHashMap totals = new Int2FloatOpenHashMap();
+    private final IntBag targets = new IntBag();
+
+    public DamageBuffer() {
+        this(new ArrayList<>());
+    }
+
+    @Inject
+    public DamageBuffer(List<DamageModifier> modifiers) {
+        this.modifiers = new ArrayList<>(modifiers);
+    }
+
+    /**
+     * Registers a damage modifier applied to every subsequent event.
+     *
+     * @param modifier the modifier to add
+     */
+    public void addModifier(DamageModifier modifier) {
+        modifiers.add(modifier);
+    }
+
+    /**
+     * Emits a damage event into the calling thread's buffer.
+     *
+     * @param sourceId the attacking entity ID
+     * @param targetId the target entity ID
+     * @param amount   the damage amount
+     */
+    public void emit(int sourceId, int targetId, float amount) {
+        localBuffer.get().add(sourceId, targetId, amount);
+    }
+
+    /**
+     * Drains all thread buffers and sums the damage per target.
+     * Must be called on the loop thread once attack resolution has finished.
+     *
+     * @return the targets that received damage, in first-hit order
+     */
+    public IntBag aggregate() {
+        totals.clear();
+        targets.clear();
+
+        for (int b = 0; b < buffers.size(); b++) {
+            EventBuffer buffer = buffers.get(b);
+            for (int i = 0; i < buffer.size; i++) {
+                int targetId = buffer.targetIds[i];
+                float amount = buffer.amounts[i];
+                for (int m = 0; m < modifiers.size(); m++) {
+                    amount = modifiers.get(m).modify(buffer.sourceIds[i], targetId, amount);
+                }
+                if (!totals.containsKey(targetId)) {
+                    targets.add(targetId);
+                }
+                totals.addTo(targetId, amount);
+            }
+            buffer.size = 0;
+        }
+
+        return targets;
+    }
+
+    /**
+     * Gets the aggregated damage for a target from the last {@link #aggregate()} call.
+     *
+     * @param targetId the target entity ID
+     * @return the total damage, or 0 if the target was not hit
+     */
+    public float getTotal(int targetId) {
+        return totals.get(targetId);
+    }
+
+    private EventBuffer registerBuffer() {
+        EventBuffer buffer = new EventBuffer();
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * Growable parallel arrays of damage events owned by a single thread.
+     */
+    private static final class EventBuffer {
+        private int[] sourceIds = new int[64];
+        private int[] targetIds = new int[64];
+        private float[] amounts = new float[64];
+        private int size;
+
+        private void add(int sourceId, int targetId, float amount) {
+            if (size == targetIds.length) {
+                int capacity = size * 2;
+                sourceIds = Arrays.copyOf(sourceIds, capacity);
+                targetIds = Arrays.copyOf(targetIds, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+            }
+            sourceIds[size] = sourceId;
+            targetIds[size] = targetId;
+            amounts[size] = amount;
+            size++;
+        }
+    }
+}
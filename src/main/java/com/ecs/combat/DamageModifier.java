@@ -0,0 +1,18 @@
+package com.ecs.combat;
+
+/**
+ * Hook for adjusting damage events before they are aggregated per target.
+ * Implementations are applied in registration order.
+ */
+@FunctionalInterface
+public interface DamageModifier {
+    /**
+     * Adjusts the amount of a single damage event.
+     *
+     * @param sourceId the attacking entity ID
+     * @param targetId the target entity ID
+     * @param amount   the incoming damage amount
+     * @return the adjusted damage amount
+     */
+    float modify(int sourceId, int targetId, float amount);
+}
@@ -0,0 +1,20 @@
+package com.ecs.combat;
+
+import com.artemis.World;
+import com.artemis.utils.IntBag;
+
+/**
+ * Listener notified once per tick with the batch of entities that died.
+ * Components of the dead entities are still readable during the callback;
+ * the entities are deleted right after all listeners have run.
+ */
+@FunctionalInterface
+public interface DeathListener {
+    /**
+     * Called with the entities that died this tick.
+     *
+     * @param world        the world
+     * @param deadEntities the dead entity IDs; only valid for the duration of the call
+     */
+    void onDeath(World world, IntBag deadEntities);
+}
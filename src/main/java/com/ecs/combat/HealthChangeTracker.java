@@ -0,0 +1,59 @@
+package com.ecs.combat;
+
+import com.artemis.utils.BitVector;
+import com.artemis.utils.IntBag;
+import jakarta.inject.Singleton;
+
+/**
+ * Tracks entities whose health changed during the current tick.
+ * Anything that modifies {@code Stats.health} should mark the entity here so that
+ * death detection only needs to look at changed entities.
+ *
+ * <p>Not thread-safe; must only be used from the game loop thread.</p>
+ */
+@Singleton
+public class HealthChangeTracker {
+
+    private final BitVector marked = new BitVector();
+    private final IntBag changed = new IntBag();
+
+    /**
+     * Marks an entity as having changed health this tick.
+     *
+     * @param entityId the entity ID
+     */
+    public void markChanged(int entityId) {
+        if (!marked.get(entityId)) {
+            marked.set(entityId);
+            changed.add(entityId);
+        }
+    }
+
+    /**
+     * Gets the entities marked since the last {@link #clear()}.
+     *
+     * @return the changed entity IDs, in marking order
+     */
+    public IntBag getChanged() {
+        return changed;
+    }
+
+    /**
+     * Checks whether any entity has been marked since the last {@link #clear()}.
+     *
+     * @return true if no entity changed health
+     */
+    public boolean isEmpty() {
+        return changed.isEmpty();
+    }
+
+    /**
+     * Clears all marks.
+     */
+    public void clear() {
+        for (int i = 0; i < changed.size(); i++) {
+            marked.clear(changed.get(i));
+        }
+        changed.clear();
+    }
+}
@@ -0,0 +1,79 @@
+package com.ecs.combat;
+
+import jakarta.inject.Singleton;
+
+import java.util.Arrays;
+
+/**
+ * Collects area-of-effect impacts emitted during a tick.
+ * Impacts are stored as parallel primitive arrays and resolved in bulk by the AreaDamageSystem.
+ *
+ * <p>Not thread-safe; must only be used from the game loop thread.</p>
+ */
+@Singleton
+public class ImpactBuffer {
+
+    private int[] sourceIds = new int[64];
+    private float[] xs = new float[64];
+    private float[] ys = new float[64];
+    private float[] radii = new float[64];
+    private float[] damages = new float[64];
+    private int size;
+
+    /**
+     * Emits an impact that damages every entity within the radius.
+     *
+     * @param sourceId the entity responsible for the impact
+     * @param x        the impact x position
+     * @param y        the impact y position
+     * @param radius   the blast radius
+     * @param damage   the damage dealt to each entity hit
+     */
+    public void emit(int sourceId, float x, float y, float radius, float damage) {
+        if (size == xs.length) {
+            int capacity = size * 2;
+            sourceIds = Arrays.copyOf(sourceIds, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            radii = Arrays.copyOf(radii, capacity);
+            damages = Arrays.copyOf(damages, capacity);
+        }
+        sourceIds[size] = sourceId;
+        xs[size] = x;
+        ys[size] = y;
+        radii[size] = radius;
+        damages[size] = damage;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getSourceId(int index) {
+        return sourceIds[index];
+    }
+
+    public float getX(int index) {
+        return xs[index];
+    }
+
+    public float getY(int index) {
+        return ys[index];
+    }
+
+    public float getRadius(int index) {
+        return radii[index];
+    }
+
+    public float getDamage(int index) {
+        return damages[index];
+    }
+
+    /**
+     * Discards all buffered impacts.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,203 @@
+package com.ecs.combat;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.EntitySubscription;
+import com.artemis.World;
+import com.artemis.utils.IntBag;
+import com.ecs.component.AttackIntent;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import jakarta.inject.Singleton;
+
+import java.util.Arrays;
+
+/**
+ * Reverse index from targets to the entities pursuing them.
+ *
+ * <p>Targets are referenced through generation-checked handles: a handle packs the
+ * entity ID with the generation it had when the handle was taken. When a target is removed
+ * from the world, whether it died, was unloaded with its region or rolled back, its
+ * generation is bumped, which invalidates every outstanding handle in O(1), and only the
+ * pursuers recorded for that target are touched. This also prevents a recycled entity ID
+ * from being silently picked up as the old target.</p>
+ *
+ * <p>Not thread-safe; must only be used from the game loop thread.</p>
+ */
+@Singleton
+public class TargetIndex implements EntitySubscription.SubscriptionListener {
+
+    /**
+     * Handle value that never refers to a live entity.
+     */
+    public static final long NO_TARGET = -1L;
+
+    private static final int HANDLE_SHIFT_BITS = 32;
+    private static final long LOWER_32_BITS_MASK = 0xFFFFFFFFL;
+
+    private final Int2ObjectOpenHashMap<IntOpenHashSet> pursuersByTarget = new Int2ObjectOpenHashMap<>();
+    private final Int2IntOpenHashMap targetByPursuer = new Int2IntOpenHashMap();
+    private int[] generations = new int[64];
+    private ComponentMapper<AttackIntent> attackIntentMapper;
+
+    public TargetIndex() {
+        targetByPursuer.defaultReturnValue(-1);
+    }
+
+    /**
+     * Gets a handle for the current generation of an entity.
+     *
+     * @param entityId the entity ID
+     * @return the handle
+     */
+    public long handle(int entityId) {
+        return ((long) generationOf(entityId) << HANDLE_SHIFT_BITS) | (entityId & LOWER_32_BITS_MASK);
+    }
+
+    /**
+     * Extracts the entity ID from a handle.
+     *
+     * @param handle the handle
+     * @return the entity ID
+     */
+    public static int entityId(long handle) {
+        return (int) handle;
+    }
+
+    /**
+     * Checks whether a handle still refers to the same entity generation.
+     *
+     * @param handle the handle
+     * @return true if the entity the handle was taken from has not died since
+     */
+    public boolean isValid(long handle) {
+        return handle != NO_TARGET && generationOf(entityId(handle)) == (int) (handle >>> HANDLE_SHIFT_BITS);
+    }
+
+    /**
+     * Records that a pursuer is targeting the entity behind a handle.
+     * A pursuer tracks at most one target; tracking a new one releases the previous one.
+     *
+     * @param pursuerId    the pursuing entity ID
+     * @param targetHandle the target handle
+     * @return true if the target is still valid and is now tracked
+     */
+    public boolean track(int pursuerId, long targetHandle) {
+        if (!isValid(targetHandle)) {
+            return false;
+        }
+
+        int targetId = entityId(targetHandle);
+        int previous = targetByPursuer.put(pursuerId, targetId);
+        if (previous == targetId) {
+            return true;
+        }
+        if (previous != -1) {
+            removePursuer(previous, pursuerId);
+        }
+
+        IntOpenHashSet pursuers = pursuersByTarget.get(targetId);
+        if (pursuers == null) {
+            pursuers = new IntOpenHashSet();
+            pursuersByTarget.put(targetId, pursuers);
+        }
+        pursuers.add(pursuerId);
+        return true;
+    }
+
+    /**
+     * Stops tracking the current target of a pursuer.
+     *
+     * @param pursuerId the pursuing entity ID
+     */
+    public void release(int pursuerId) {
+        int targetId = targetByPursuer.remove(pursuerId);
+        if (targetId != -1) {
+            removePursuer(targetId, pursuerId);
+        }
+    }
+
+    /**
+     * Gets the number of entities currently pursuing a target.
+     *
+     * @param targetId the target entity ID
+     * @return the pursuer count
+     */
+    public int getPursuerCount(int targetId) {
+        IntOpenHashSet pursuers = pursuersByTarget.get(targetId);
+        return pursuers != null ? pursuers.size() : 0;
+    }
+
+    /**
+     * Invalidates entities as they are removed from the world, however they were deleted.
+     *
+     * @param world the world to follow
+     */
+    public void attach(World world) {
+        attackIntentMapper = world.getMapper(AttackIntent.class);
+        world.getAspectSubscriptionManager().get(Aspect.all()).addSubscriptionListener(this);
+    }
+
+    @Override
+    public void inserted(IntBag entities) {
+    }
+
+    @Override
+    public void removed(IntBag entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            invalidate(entities.get(i), attackIntentMapper);
+        }
+    }
+
+    /**
+     * Invalidates all handles to an entity and detaches it from the index.
+     * Pursuers of the entity lose any attack intent aimed at it.
+     *
+     * @param entityId           the entity that is going away
+     * @param attackIntentMapper mapper used to clear the pursuers' attack intents
+     */
+    public void invalidate(int entityId, ComponentMapper<AttackIntent> attackIntentMapper) {
+        ensureCapacity(entityId);
+        generations[entityId]++;
+
+        release(entityId);
+
+        IntOpenHashSet pursuers = pursuersByTarget.remove(entityId);
+        if (pursuers == null) {
+            return;
+        }
+
+        IntIterator iterator = pursuers.iterator();
+        while (iterator.hasNext()) {
+            int pursuerId = iterator.nextInt();
+            targetByPursuer.remove(pursuerId);
+
+            AttackIntent intent = attackIntentMapper.get(pursuerId);
+            if (intent != null && intent.targetId == entityId) {
+                attackIntentMapper.remove(pursuerId);
+            }
+        }
+    }
+
+    private void removePursuer(int targetId, int pursuerId) {
+        IntOpenHashSet pursuers = pursuersByTarget.get(targetId);
+        if (pursuers != null) {
+            pursuers.remove(pursuerId);
+            if (pursuers.isEmpty()) {
+                pursuersByTarget.remove(targetId);
+            }
+        }
+    }
+
+    private int generationOf(int entityId) {
+        return entityId < generations.length ? generations[entityId] : 0;
+    }
+
+    private void ensureCapacity(int entityId) {
+        if (entityId >= generations.length) {
+            generations = Arrays.copyOf(generations, Math.max(entityId + 1, generations.length * 2));
+        }
+    }
+}
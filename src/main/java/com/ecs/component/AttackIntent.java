@@ -1,14 +1,14 @@
 package com.ecs.component;
 
-import com.artemis.Component;
+import com.artemis.PooledComponent;
 import com.artemis.annotations.Transient;
 
 /**
  * Attack intent component indicating an entity wants to attack a target.
- * Transient component that is not serialized.
+ * Transient, pooled component that is not serialized.
  */
 @Transient
-public class AttackIntent extends Component {
+public class AttackIntent extends PooledComponent {
     public int targetId;
 
     public AttackIntent() {
@@ -17,4 +17,9 @@ public class AttackIntent extends Component {
     public AttackIntent(int targetId) {
         this.targetId = targetId;
     }
+
+    @Override
+    protected void reset() {
+        targetId = 0;
+    }
 }
@@ -0,0 +1,18 @@
+package com.ecs.component;
+
+import com.artemis.Component;
+
+/**
+ * Focus component marking an entity, such as a player or camera, that keeps the world
+ * regions around it loaded.
+ */
+public class Focus extends Component {
+    public float radius;
+
+    public Focus() {
+    }
+
+    public Focus(float radius) {
+        this.radius = radius;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecs.component;
+
+import com.artemis.Component;
+
+/**
+ * Projectile component for an in-flight attack that explodes on reaching its target point.
+ * The projectile is moved by its Velocity like any other entity.
+ */
+public class Projectile extends Component {
+    public int sourceId;
+    public float targetX;
+    public float targetY;
+    public float speed;
+    public float radius; // Blast radius
+    public float damage;
+
+    public Projectile() {
+    }
+
+    public Projectile(int sourceId, float targetX, float targetY, float speed, float radius, float damage) {
+        this.sourceId = sourceId;
+        this.targetX = targetX;
+        this.targetY = targetY;
+        this.speed = speed;
+        this.radius = radius;
+        this.damage = damage;
+    }
+}
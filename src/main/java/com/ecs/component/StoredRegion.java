@@ -0,0 +1,21 @@
+package com.ecs.component;
+
+import com.artemis.Component;
+
+/**
+ * Stored region component, kept on a persistent entity for each region whose entities were
+ * unloaded to a region file. Being saved with the world, it tells which region files hold
+ * entities that a world save does not.
+ */
+public class StoredRegion extends Component {
+    public long key;
+    public long version; // Version of the region file holding the entities
+
+    public StoredRegion() {
+    }
+
+    public StoredRegion(long key, long version) {
+        this.key = key;
+        this.version = version;
+    }
+}
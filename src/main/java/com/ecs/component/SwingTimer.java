@@ -1,14 +1,15 @@
 package com.ecs.component;
 
-import com.artemis.Component;
+import com.artemis.PooledComponent;
 import com.artemis.annotations.Transient;
 
 /**
- * Swing timer component for attack cooldown tracking.
- * Transient component that is not serialized.
+ * Swing timer component marking an entity whose attack is on cooldown.
+ * The remaining time is tracked by the timer scheduler, which removes this component on expiry.
+ * Transient, pooled component that is not serialized.
  */
 @Transient
-public class SwingTimer extends Component {
+public class SwingTimer extends PooledComponent {
     public float cooldown;
 
     public SwingTimer() {
@@ -17,4 +18,9 @@ public class SwingTimer extends Component {
     public SwingTimer(float cooldown) {
         this.cooldown = cooldown;
     }
+
+    @Override
+    protected void reset() {
+        cooldown = 0;
+    }
 }
@@ -1,6 +1,14 @@
 package com.ecs.core;
 
+import com.artemis.Aspect;
+import com.artemis.EntitySubscription;
 import com.artemis.World;
+import com.ecs.diagnostics.TickEvent;
+import com.ecs.metrics.SimulationMetrics;
+import com.ecs.replay.CommandRecorder;
+import com.ecs.service.PersistenceService;
+import com.ecs.view.WorldViewPublisher;
+import io.micronaut.core.annotation.Nullable;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
@@ -8,6 +16,9 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * Main game loop that processes the world at regular intervals.
  * Handles clock skips gracefully by capping maximum delta time.
+ * When a {@link WorldViewPublisher} is present, a view of the world is published after ticks,
+ * and when {@link SimulationMetrics} are present, each tick is recorded there. Saves in
+ * progress in the {@link PersistenceService} capture their next slice of entities between ticks.
  */
 @Slf4j
 @Singleton
@@ -18,13 +29,28 @@ public class GameLoop implements Runnable {
 
     private final World world;
     private final WorldCommandQueue commandQueue;
+    private final CommandRecorder recorder;
+    private final WorldViewPublisher viewPublisher;
+    private final SimulationMetrics metrics;
+    private final PersistenceService persistenceService;
+    private EntitySubscription allEntities;
     private volatile boolean running = true;
     private long lastTime;
 
-    @Inject
     public GameLoop(World world, WorldCommandQueue commandQueue) {
+        this(world, commandQueue, null, null, null, null);
+    }
+
+    @Inject
+    public GameLoop(World world, WorldCommandQueue commandQueue, @Nullable CommandRecorder recorder,
+                    @Nullable WorldViewPublisher viewPublisher, @Nullable SimulationMetrics metrics,
+                    @Nullable PersistenceService persistenceService) {
         this.world = world;
         this.commandQueue = commandQueue;
+        this.recorder = recorder;
+        this.viewPublisher = viewPublisher;
+        this.metrics = metrics;
+        this.persistenceService = persistenceService;
     }
 
     /**
@@ -48,17 +74,42 @@ public class GameLoop implements Runnable {
 
                 // Cap delta to prevent instability from clock skips or long pauses
                 // This prevents the "spiral of death" where updates take longer than real time
+                long lagNanos = 0;
                 if (delta > MAX_DELTA_TIME) {
+                    lagNanos = (long) ((delta - MAX_DELTA_TIME) * 1_000_000_000L);
                     log.warn("Large delta time detected: {}s, capping to {}s", delta, MAX_DELTA_TIME);
                     delta = MAX_DELTA_TIME;
                 }
 
+                TickEvent tickEvent = null;
+                if (TickEvent.PROBE.isEnabled()) {
+                    tickEvent = new TickEvent();
+                    tickEvent.begin();
+                }
+
+                // Capture the next slice of a save started on an earlier tick
+                if (persistenceService != null) {
+                    persistenceService.continueCapture();
+                }
+
                 // Process queued commands
                 commandQueue.process(world);
+                if (recorder != null) {
+                    recorder.recordTick(delta);
+                }
 
                 // Update world with delta time
                 world.setDelta(delta);
                 world.process();
+                if (viewPublisher != null) {
+                    viewPublisher.publish(world);
+                }
+                if (tickEvent != null) {
+                    commitTickEvent(tickEvent, delta);
+                }
+                if (metrics != null) {
+                    metrics.recordTick(world, System.nanoTime() - currentTime, lagNanos);
+                }
 
                 // Sleep to prevent CPU spinning
                 Thread.sleep(SLEEP_MILLIS);
@@ -70,4 +121,17 @@ public class GameLoop implements Runnable {
             }
         }
     }
+
+    private void commitTickEvent(TickEvent event, float delta) {
+        event.end();
+        if (event.shouldCommit()) {
+            // Only subscribed once tick events are recorded, since it is kept up to date every tick
+            if (allEntities == null) {
+                allEntities = world.getAspectSubscriptionManager().get(Aspect.all());
+            }
+            event.delta = delta;
+            event.entityCount = allEntities.getEntities().size();
+            event.commit();
+        }
+    }
 }
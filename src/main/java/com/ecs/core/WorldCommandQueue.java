@@ -1,20 +1,38 @@
 package com.ecs.core;
 
 import com.artemis.World;
+import com.ecs.diagnostics.CommandDrainEvent;
+import com.ecs.replay.CommandRecorder;
+import io.micronaut.core.annotation.Nullable;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 /**
  * Thread-safe command queue for deferred world operations.
  * Commands are queued and executed during the world processing phase.
+ * When a {@link CommandRecorder} is present, each drained command is recorded before it runs.
  */
 @Slf4j
 @Singleton
 public class WorldCommandQueue {
     private final ConcurrentLinkedQueue<Consumer<World>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private long drainedCount;
+    private final CommandRecorder recorder;
+
+    public WorldCommandQueue() {
+        this(null);
+    }
+
+    @Inject
+    public WorldCommandQueue(@Nullable CommandRecorder recorder) {
+        this.recorder = recorder;
+    }
 
     /**
      * Enqueues a command to be executed on the world.
@@ -23,6 +41,25 @@ public class WorldCommandQueue {
      */
     public void enqueue(Consumer<World> command) {
         queue.offer(command);
+        depth.incrementAndGet();
+    }
+
+    /**
+     * Gets the number of commands waiting to be executed.
+     *
+     * @return the queue depth
+     */
+    public int getDepth() {
+        return depth.get();
+    }
+
+    /**
+     * Gets the number of commands drained since startup. Must be called on the game loop thread.
+     *
+     * @return the drained command count
+     */
+    public long getDrainedCount() {
+        return drainedCount;
     }
 
     /**
@@ -33,13 +70,29 @@ public class WorldCommandQueue {
      * @param world the world to execute commands on
      */
     public void process(World world) {
+        CommandDrainEvent event = null;
+        if (CommandDrainEvent.PROBE.isEnabled()) {
+            event = new CommandDrainEvent();
+            event.begin();
+        }
+        int drained = 0;
         Consumer<World> command;
         while ((command = queue.poll()) != null) {
+            depth.decrementAndGet();
+            drained++;
+            if (recorder != null) {
+                recorder.recordCommand(command);
+            }
             try {
                 command.accept(world);
             } catch (Exception e) {
                 log.error("Error executing command: {}", e.getMessage(), e);
             }
         }
+        drainedCount += drained;
+        if (event != null && drained > 0) {
+            event.commands = drained;
+            event.commit();
+        }
     }
 }
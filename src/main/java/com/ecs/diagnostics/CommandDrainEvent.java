@@ -0,0 +1,27 @@
+package com.ecs.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning the execution of queued world commands. Only recorded when commands were
+ * drained. Disabled by default; enable {@code com.ecs.CommandDrain} in the recording settings.
+ */
+@Name("com.ecs.CommandDrain")
+@Label("Command Drain")
+@Category({"ECS", "Simulation"})
+@Description("Execution of the commands queued for the world")
+@Enabled(false)
+@StackTrace(false)
+public class CommandDrainEvent extends Event {
+
+    public static final CommandDrainEvent PROBE = new CommandDrainEvent();
+
+    @Label("Commands")
+    public int commands;
+}
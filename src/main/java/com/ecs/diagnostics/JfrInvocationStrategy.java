@@ -0,0 +1,37 @@
+package com.ecs.diagnostics;
+
+import com.artemis.BaseSystem;
+import com.artemis.InvocationStrategy;
+
+/**
+ * Invocation strategy recording a {@link SystemEvent} for each system processed, so GC pauses
+ * and allocation in a recording can be attributed to systems. Processes systems exactly like
+ * the default strategy while the event is disabled.
+ */
+public class JfrInvocationStrategy extends InvocationStrategy {
+
+    @Override
+    protected void process() {
+        if (!SystemEvent.PROBE.isEnabled()) {
+            super.process();
+            return;
+        }
+
+        BaseSystem[] systemsData = systems.getData();
+        for (int i = 0, s = systems.size(); i < s; i++) {
+            if (disabled.get(i)) {
+                continue;
+            }
+            updateEntityStates();
+            SystemEvent event = new SystemEvent();
+            event.begin();
+            systemsData[i].process();
+            event.end();
+            if (event.shouldCommit()) {
+                event.system = systemsData[i].getClass().getSimpleName();
+                event.commit();
+            }
+        }
+        updateEntityStates();
+    }
+}
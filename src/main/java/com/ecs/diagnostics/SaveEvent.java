@@ -0,0 +1,37 @@
+package com.ecs.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning one phase of a save: capturing entities on the game loop, writing a
+ * snapshot or journal segment, or compacting a journal. Disabled by default; enable
+ * {@code com.ecs.Save} in the recording settings.
+ */
+@Name("com.ecs.Save")
+@Label("Save")
+@Category({"ECS", "Persistence"})
+@Description("A phase of saving the world")
+@Enabled(false)
+public class SaveEvent extends Event {
+
+    public static final String CAPTURE = "capture";
+    public static final String WRITE = "write";
+    public static final String APPEND = "append";
+    public static final String COMPACT = "compact";
+
+    public static final SaveEvent PROBE = new SaveEvent();
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("File")
+    public String file;
+
+    @Label("Entity Count")
+    public int entityCount;
+}
@@ -0,0 +1,40 @@
+package com.ecs.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for a spatial grid query taking longer than its threshold, 1 ms unless set in the
+ * recording settings. Disabled by default; enable {@code com.ecs.SpatialQuery} in the recording
+ * settings.
+ */
+@Name("com.ecs.SpatialQuery")
+@Label("Long Spatial Query")
+@Category({"ECS", "Spatial"})
+@Description("A spatial grid query over the threshold")
+@Enabled(false)
+@Threshold("1 ms")
+public class SpatialQueryEvent extends Event {
+
+    public static final SpatialQueryEvent PROBE = new SpatialQueryEvent();
+
+    @Label("Min X")
+    public float minX;
+
+    @Label("Min Y")
+    public float minY;
+
+    @Label("Max X")
+    public float maxX;
+
+    @Label("Max Y")
+    public float maxY;
+
+    @Label("Results")
+    public int results;
+}
@@ -0,0 +1,28 @@
+package com.ecs.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one system's processing within a tick, recorded by the
+ * {@link JfrInvocationStrategy}. Disabled by default; enable {@code com.ecs.System} in the
+ * recording settings.
+ */
+@Name("com.ecs.System")
+@Label("System")
+@Category({"ECS", "Simulation"})
+@Description("Processing of one system within a tick")
+@Enabled(false)
+@StackTrace(false)
+public class SystemEvent extends Event {
+
+    public static final SystemEvent PROBE = new SystemEvent();
+
+    @Label("System")
+    public String system;
+}
@@ -0,0 +1,33 @@
+package com.ecs.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event spanning one game loop tick, from draining commands to the end of world processing.
+ * Disabled by default; enable {@code com.ecs.Tick} in the recording settings.
+ */
+@Name("com.ecs.Tick")
+@Label("Tick")
+@Category({"ECS", "Simulation"})
+@Description("A game loop tick")
+@Enabled(false)
+@StackTrace(false)
+public class TickEvent extends Event {
+
+    /** Instance for checking whether the event is enabled, so disabled ticks allocate nothing. */
+    public static final TickEvent PROBE = new TickEvent();
+
+    @Label("Delta")
+    @Timespan(Timespan.SECONDS)
+    public float delta;
+
+    @Label("Entity Count")
+    public int entityCount;
+}
@@ -3,6 +3,7 @@ package com.ecs.factory;
 import com.artemis.BaseSystem;
 import com.artemis.World;
 import com.artemis.WorldConfigurationBuilder;
+import com.ecs.diagnostics.JfrInvocationStrategy;
 import io.micronaut.context.annotation.Factory;
 import io.micronaut.core.annotation.Order;
 import jakarta.inject.Inject;
@@ -26,13 +27,15 @@ public class ArtemisFactory {
 
     /**
      * Creates a configured World instance with all registered systems.
-     * Systems are registered in order determined by @Order annotations.
+     * Systems are registered in order determined by @Order annotations, and are timed by JFR
+     * when recording system events.
      *
      * @return the configured World
      */
     @Singleton
     public World createWorld() {
-        WorldConfigurationBuilder builder = new WorldConfigurationBuilder();
+        WorldConfigurationBuilder builder = new WorldConfigurationBuilder()
+                .register(new JfrInvocationStrategy());
 
         // Sort systems by @Order annotation (lower values = higher priority)
         systems.stream()
@@ -1,25 +1,39 @@
 package com.ecs.factory;
 
+import com.artemis.Archetype;
+import com.artemis.ArchetypeBuilder;
 import com.artemis.Component;
 import com.artemis.ComponentMapper;
+import com.artemis.EntityEdit;
 import com.artemis.World;
+import com.artemis.utils.IntBag;
 import com.ecs.component.Identity;
 import com.ecs.component.Position;
+import com.ecs.persistence.ComponentSerializer;
+import com.ecs.persistence.ComponentSerializers;
 import com.ecs.registry.TemplateRegistry;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
-import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Factory for creating entities from templates or custom builders.
+ *
+ * <p>Each template is compiled once per world into a {@link SpawnPlan}: an Artemis
+ * {@link Archetype} holding the template's full composition and the generated
+ * {@link ComponentSerializer} of each component. Spawning creates the entity with its final composition in one step and
+ * copies the template values into the components Artemis created.</p>
  */
 @Singleton
 public class EntityFactory {
 
     private final TemplateRegistry templateRegistry;
+    private final Map<String, SpawnPlan> plans = new HashMap<>();
+    private World plannedWorld;
 
     @Inject
     public EntityFactory(TemplateRegistry templateRegistry) {
@@ -36,6 +50,143 @@ public class EntityFactory {
         return new EntityBuilder(id);
     }
 
+    /**
+     * Spawns many entities from a template at the given positions.
+     * All entities are created before the next world flush, so systems receive them as one
+     * insertion batch.
+     *
+     * @param world the world to spawn in
+     * @param id    the template name
+     * @param xs    the x positions
+     * @param ys    the y positions, same length as {@code xs}
+     * @return the spawned entity IDs, in position order
+     */
+    public IntBag spawnBatch(World world, String id, float[] xs, float[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("Position arrays differ in length: " + xs.length + " != " + ys.length);
+        }
+        return spawnBatch(world, id, xs.length, (index, position) -> {
+            position.x = xs[index];
+            position.y = ys[index];
+        });
+    }
+
+    /**
+     * Spawns many entities from a template with positions supplied by a generator.
+     *
+     * @param world     the world to spawn in
+     * @param id        the template name
+     * @param count     the number of entities to spawn
+     * @param generator sets the position of each spawned entity
+     * @return the spawned entity IDs, in generation order
+     */
+    public IntBag spawnBatch(World world, String id, int count, PositionGenerator generator) {
+        SpawnPlan plan = planFor(world, id);
+        ComponentMapper<Position> positionMapper = world.getMapper(Position.class);
+        IntBag spawned = new IntBag(count);
+        for (int i = 0; i < count; i++) {
+            int entityId = plan.spawn(world, id, true);
+            generator.place(i, positionMapper.get(entityId));
+            spawned.add(entityId);
+        }
+        return spawned;
+    }
+
+    /**
+     * Creates a command that spawns a batch of entities when executed by the
+     * {@link com.ecs.core.WorldCommandQueue}. The positions are copied, so the arrays may be
+     * reused by the caller. The command can be journaled for replays.
+     *
+     * @param id the template name
+     * @param xs the x positions
+     * @param ys the y positions, same length as {@code xs}
+     * @return the command
+     */
+    public SpawnBatchCommand spawnBatchCommand(String id, float[] xs, float[] ys) {
+        return new SpawnBatchCommand(this, id, xs.clone(), ys.clone());
+    }
+
+    /**
+     * Sets the position of each entity in a batch spawn.
+     */
+    @FunctionalInterface
+    public interface PositionGenerator {
+        /**
+         * Sets the position of the entity at an index of the batch.
+         *
+         * @param index    the index within the batch
+         * @param position the entity's position component to fill
+         */
+        void place(int index, Position position);
+    }
+
+    /**
+     * Gets the spawn plan of a template, compiling it if the world or the template changed.
+     */
+    private SpawnPlan planFor(World world, String id) {
+        if (world != plannedWorld) {
+            plans.clear();
+            plannedWorld = world;
+        }
+        List<Component> template = templateRegistry.getTemplate(id);
+        SpawnPlan plan = plans.get(id);
+        if (plan == null || plan.template != template) {
+            plan = new SpawnPlan(world, template);
+            plans.put(id, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Precomputed archetypes and serializers for spawning one template into one world.
+     */
+    private static final class SpawnPlan {
+        private final List<Component> template;
+        private final Component[] sources;
+        private final ComponentMapper<?>[] mappers;
+        private final ComponentSerializer<Component>[] serializers;
+        private final ComponentMapper<Identity> identityMapper;
+        private final ComponentMapper<Position> positionMapper;
+        private final Archetype archetype;
+        private final Archetype positionedArchetype;
+
+        @SuppressWarnings("unchecked")
+        private SpawnPlan(World world, List<Component> template) {
+            this.template = template;
+            List<Component> components = template != null ? template : List.of();
+            int count = components.size();
+            this.sources = components.toArray(new Component[0]);
+            this.mappers = new ComponentMapper<?>[count];
+            this.serializers = (ComponentSerializer<Component>[]) new ComponentSerializer<?>[count];
+
+            ArchetypeBuilder builder = new ArchetypeBuilder().add(Identity.class);
+            boolean hasPosition = false;
+            for (int i = 0; i < count; i++) {
+                Class<? extends Component> type = sources[i].getClass();
+                builder.add(type);
+                mappers[i] = world.getMapper(type);
+                serializers[i] = (ComponentSerializer<Component>) ComponentSerializers.of(type);
+                hasPosition |= type == Position.class;
+            }
+            this.identityMapper = world.getMapper(Identity.class);
+            this.positionMapper = world.getMapper(Position.class);
+            this.archetype = builder.build(world);
+            this.positionedArchetype = hasPosition ? archetype : builder.add(Position.class).build(world);
+        }
+
+        /**
+         * Creates an entity with the template's composition and copies the template values.
+         */
+        private int spawn(World world, String id, boolean positioned) {
+            int entityId = world.create(positioned ? positionedArchetype : archetype);
+            identityMapper.get(entityId).id = id;
+            for (int i = 0; i < sources.length; i++) {
+                serializers[i].copy(sources[i], mappers[i].get(entityId));
+            }
+            return entityId;
+        }
+    }
+
     /**
      * Builder for fluent entity creation.
      */
@@ -80,57 +231,26 @@ public class EntityFactory {
          * @return the entity ID
          */
         public int build(World world) {
-            int entityId = world.create();
-
-            // Always attach Identity component with the id
-            ComponentMapper<Identity> identityMapper = world.getMapper(Identity.class);
-            Identity identity = world.edit(entityId).create(Identity.class);
-            identity.id = id;
-
-            // Add components from template if id matches a template
-            List<Component> templateComponents = templateRegistry.getTemplate(id);
-            if (templateComponents != null) {
-                for (Component templateComp : templateComponents) {
-                    Component copy = copyComponent(templateComp);
-                    world.edit(entityId).add(copy);
-                }
-            }
+            boolean positioned = x != null && y != null;
+            int entityId = planFor(world, id).spawn(world, id, positioned);
 
             // Add custom components
-            for (Component component : components) {
-                world.edit(entityId).add(component);
+            if (!components.isEmpty()) {
+                EntityEdit edit = world.edit(entityId);
+                for (Component component : components) {
+                    edit.add(component);
+                }
             }
 
             // Apply position override if specified
-            if (x != null && y != null) {
+            if (positioned) {
                 ComponentMapper<Position> positionMapper = world.getMapper(Position.class);
-                Position posComp = positionMapper.get(entityId);
-                if (posComp == null) {
-                    posComp = world.edit(entityId).create(Position.class);
-                }
+                Position posComp = positionMapper.create(entityId);
                 posComp.x = x;
                 posComp.y = y;
             }
 
             return entityId;
         }
-
-        /**
-         * Copies a component using reflection.
-         *
-         * @param source the source component
-         * @return the copied component
-         */
-        private Component copyComponent(Component source) {
-            try {
-                Component copy = source.getClass().getDeclaredConstructor().newInstance();
-                for (Field field : source.getClass().getFields()) {
-                    field.set(copy, field.get(source));
-                }
-                return copy;
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to copy component: " + e.getMessage(), e);
-            }
-        }
     }
 }
@@ -0,0 +1,84 @@
+package com.ecs.factory;
+
+import com.artemis.World;
+import com.ecs.replay.CommandCodec;
+import com.ecs.replay.JournaledCommand;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Command spawning a batch of template entities, created by
+ * {@link EntityFactory#spawnBatchCommand(String, float[], float[])}.
+ */
+public final class SpawnBatchCommand implements JournaledCommand {
+
+    public static final int TYPE_ID = 1;
+
+    private final EntityFactory entityFactory;
+    private final String templateId;
+    private final float[] xs;
+    private final float[] ys;
+
+    SpawnBatchCommand(EntityFactory entityFactory, String templateId, float[] xs, float[] ys) {
+        this.entityFactory = entityFactory;
+        this.templateId = templateId;
+        this.xs = xs;
+        this.ys = ys;
+    }
+
+    @Override
+    public void accept(World world) {
+        entityFactory.spawnBatch(world, templateId, xs, ys);
+    }
+
+    @Override
+    public int getTypeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeUTF(templateId);
+        out.writeInt(xs.length);
+        for (int i = 0; i < xs.length; i++) {
+            out.writeFloat(xs[i]);
+            out.writeFloat(ys[i]);
+        }
+    }
+
+    /**
+     * Decodes journaled spawn batches.
+     */
+    @Singleton
+    public static class Codec implements CommandCodec {
+
+        private final EntityFactory entityFactory;
+
+        @Inject
+        public Codec(EntityFactory entityFactory) {
+            this.entityFactory = entityFactory;
+        }
+
+        @Override
+        public int getTypeId() {
+            return TYPE_ID;
+        }
+
+        @Override
+        public JournaledCommand read(DataInput in) throws IOException {
+            String templateId = in.readUTF();
+            int count = in.readInt();
+            float[] xs = new float[count];
+            float[] ys = new float[count];
+            for (int i = 0; i < count; i++) {
+                xs[i] = in.readFloat();
+                ys[i] = in.readFloat();
+            }
+            return new SpawnBatchCommand(entityFactory, templateId, xs, ys);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.ecs.metrics;
+
+import com.artemis.Aspect;
+import com.artemis.EntitySubscription;
+import com.artemis.World;
+import com.ecs.component.AiBehavior;
+import com.ecs.component.Persistent;
+import com.ecs.component.Projectile;
+import com.ecs.component.Stats;
+import com.ecs.core.WorldCommandQueue;
+import com.ecs.spatial.SpatialHashGrid;
+import com.ecs.system.BasicAttackSystem;
+import com.ecs.system.DeathSystem;
+import io.micronaut.context.event.ShutdownEvent;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Registry of simulation gauges, exported through JMX as {@value #OBJECT_NAME}.
+ *
+ * <p>The game loop reports each tick through {@link #recordTick(World, long, long)}. Once per
+ * sample window, the registry then samples entity counts, the command queue, the spatial grid
+ * and the combat systems on the game loop thread, from counters that are kept up to date
+ * anyway, and publishes the results to volatile fields for JMX to read. Neither step
+ * allocates.</p>
+ */
+@Slf4j
+@Singleton
+public class SimulationMetrics implements SimulationMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.ecs:type=SimulationMetrics";
+
+    private static final long DEFAULT_SAMPLE_INTERVAL_NANOS = 1_000_000_000L;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final WorldCommandQueue commandQueue;
+    private final SpatialHashGrid grid;
+    private final long sampleIntervalNanos;
+
+    // Sample window, used on the game loop thread only
+    private long windowStart;
+    private int windowTicks;
+    private long windowTickNanos;
+    private long windowMaxTickNanos;
+    private long windowLagNanos;
+    private long lastDrained;
+    private long lastDeaths;
+    private long lastAttacks;
+    private World world;
+    private EntitySubscription allEntities;
+    private EntitySubscription persistentEntities;
+    private EntitySubscription livingEntities;
+    private EntitySubscription aiEntities;
+    private EntitySubscription projectiles;
+    private DeathSystem deathSystem;
+    private BasicAttackSystem attackSystem;
+
+    // Published samples
+    private volatile int entityCount;
+    private volatile int persistentEntityCount;
+    private volatile int livingEntityCount;
+    private volatile int aiEntityCount;
+    private volatile int projectileCount;
+    private volatile double commandDrainRate;
+    private volatile int gridEntityCount;
+    private volatile int gridCellCount;
+    private volatile int gridMaxOccupancy;
+    private volatile double gridAverageOccupancy;
+    private volatile double tickRate;
+    private volatile double averageTickMillis;
+    private volatile double maxTickMillis;
+    private volatile double lagMillis;
+    private volatile double deathRate;
+    private volatile double attackRate;
+
+    @Inject
+    public SimulationMetrics(WorldCommandQueue commandQueue, SpatialHashGrid grid) {
+        this(commandQueue, grid, DEFAULT_SAMPLE_INTERVAL_NANOS);
+    }
+
+    /**
+     * Creates a registry sampling at the given interval.
+     *
+     * @param commandQueue        the command queue
+     * @param grid                the spatial grid
+     * @param sampleIntervalNanos the sample window length, or 0 to sample every tick
+     */
+    public SimulationMetrics(WorldCommandQueue commandQueue, SpatialHashGrid grid, long sampleIntervalNanos) {
+        this.commandQueue = commandQueue;
+        this.grid = grid;
+        this.sampleIntervalNanos = sampleIntervalNanos;
+        this.windowStart = System.nanoTime();
+    }
+
+    /**
+     * Records a processed tick, sampling the world at the end of each window. Called on the
+     * game loop thread.
+     *
+     * @param world     the world
+     * @param tickNanos the time spent processing the tick
+     * @param lagNanos  the real time dropped from the tick's delta
+     */
+    public void recordTick(World world, long tickNanos, long lagNanos) {
+        if (this.world != world) {
+            attach(world);
+        }
+        windowTicks++;
+        windowTickNanos += tickNanos;
+        windowMaxTickNanos = Math.max(windowMaxTickNanos, tickNanos);
+        windowLagNanos += lagNanos;
+
+        long now = System.nanoTime();
+        if (now - windowStart >= sampleIntervalNanos) {
+            sample(Math.max(now - windowStart, 1L));
+            windowStart = now;
+        }
+    }
+
+    private void attach(World world) {
+        this.world = world;
+        allEntities = world.getAspectSubscriptionManager().get(Aspect.all());
+        persistentEntities = world.getAspectSubscriptionManager().get(Aspect.all(Persistent.class));
+        livingEntities = world.getAspectSubscriptionManager().get(Aspect.all(Stats.class));
+        aiEntities = world.getAspectSubscriptionManager().get(Aspect.all(AiBehavior.class));
+        projectiles = world.getAspectSubscriptionManager().get(Aspect.all(Projectile.class));
+        deathSystem = world.getSystem(DeathSystem.class);
+        attackSystem = world.getSystem(BasicAttackSystem.class);
+        lastDeaths = deathSystem != null ? deathSystem.getDeathCount() : 0;
+        lastAttacks = attackSystem != null ? attackSystem.getAttackCount() : 0;
+    }
+
+    private void sample(long windowNanos) {
+        double seconds = windowNanos / NANOS_PER_SECOND;
+
+        entityCount = allEntities.getEntities().size();
+        persistentEntityCount = persistentEntities.getEntities().size();
+        livingEntityCount = livingEntities.getEntities().size();
+        aiEntityCount = aiEntities.getEntities().size();
+        projectileCount = projectiles.getEntities().size();
+
+        long drained = commandQueue.getDrainedCount();
+        commandDrainRate = (drained - lastDrained) / seconds;
+        lastDrained = drained;
+
+        int cells = grid.getCellCount();
+        gridEntityCount = grid.size();
+        gridCellCount = cells;
+        gridMaxOccupancy = grid.getMaxOccupancy();
+        gridAverageOccupancy = cells > 0 ? (double) grid.size() / cells : 0.0;
+
+        tickRate = windowTicks / seconds;
+        averageTickMillis = windowTicks > 0 ? windowTickNanos / NANOS_PER_MILLI / windowTicks : 0.0;
+        maxTickMillis = windowMaxTickNanos / NANOS_PER_MILLI;
+        lagMillis = windowLagNanos / NANOS_PER_MILLI;
+        windowTicks = 0;
+        windowTickNanos = 0;
+        windowMaxTickNanos = 0;
+        windowLagNanos = 0;
+
+        if (deathSystem != null) {
+            long deaths = deathSystem.getDeathCount();
+            deathRate = (deaths - lastDeaths) / seconds;
+            lastDeaths = deaths;
+        }
+        if (attackSystem != null) {
+            long attacks = attackSystem.getAttackCount();
+            attackRate = (attacks - lastAttacks) / seconds;
+            lastAttacks = attacks;
+        }
+    }
+
+    /**
+     * Registers the registry with the platform MBean server.
+     */
+    public void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            log.warn("Failed to register simulation metrics: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the registry from the platform MBean server.
+     */
+    public void unregisterMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            log.warn("Failed to unregister simulation metrics: {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onStartup(StartupEvent event) {
+        registerMBean();
+    }
+
+    @EventListener
+    public void onShutdown(ShutdownEvent event) {
+        unregisterMBean();
+    }
+
+    @Override
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    @Override
+    public int getPersistentEntityCount() {
+        return persistentEntityCount;
+    }
+
+    @Override
+    public int getLivingEntityCount() {
+        return livingEntityCount;
+    }
+
+    @Override
+    public int getAiEntityCount() {
+        return aiEntityCount;
+    }
+
+    @Override
+    public int getProjectileCount() {
+        return projectileCount;
+    }
+
+    @Override
+    public int getCommandQueueDepth() {
+        return commandQueue.getDepth();
+    }
+
+    @Override
+    public double getCommandDrainRate() {
+        return commandDrainRate;
+    }
+
+    @Override
+    public int getGridEntityCount() {
+        return gridEntityCount;
+    }
+
+    @Override
+    public int getGridCellCount() {
+        return gridCellCount;
+    }
+
+    @Override
+    public int getGridMaxOccupancy() {
+        return gridMaxOccupancy;
+    }
+
+    @Override
+    public double getGridAverageOccupancy() {
+        return gridAverageOccupancy;
+    }
+
+    @Override
+    public double getTickRate() {
+        return tickRate;
+    }
+
+    @Override
+    public double getAverageTickMillis() {
+        return averageTickMillis;
+    }
+
+    @Override
+    public double getMaxTickMillis() {
+        return maxTickMillis;
+    }
+
+    @Override
+    public double getLagMillis() {
+        return lagMillis;
+    }
+
+    @Override
+    public double getDeathRate() {
+        return deathRate;
+    }
+
+    @Override
+    public double getAttackRate() {
+        return attackRate;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecs.metrics;
+
+/**
+ * Management interface of the {@link SimulationMetrics}, registered with the platform MBean
+ * server as {@value SimulationMetrics#OBJECT_NAME}. Rates and tick timings cover the last
+ * sample window; counts are taken at its end.
+ */
+public interface SimulationMetricsMXBean {
+
+    int getEntityCount();
+
+    int getPersistentEntityCount();
+
+    /**
+     * Gets the number of entities with Stats.
+     *
+     * @return the living entity count
+     */
+    int getLivingEntityCount();
+
+    /**
+     * Gets the number of entities with an AiBehavior.
+     *
+     * @return the AI entity count
+     */
+    int getAiEntityCount();
+
+    int getProjectileCount();
+
+    int getCommandQueueDepth();
+
+    /**
+     * Gets the commands drained from the queue per second.
+     *
+     * @return the drain rate
+     */
+    double getCommandDrainRate();
+
+    int getGridEntityCount();
+
+    int getGridCellCount();
+
+    int getGridMaxOccupancy();
+
+    double getGridAverageOccupancy();
+
+    /**
+     * Gets the ticks processed per second.
+     *
+     * @return the tick rate
+     */
+    double getTickRate();
+
+    double getAverageTickMillis();
+
+    double getMaxTickMillis();
+
+    /**
+     * Gets the real time the game loop dropped by capping long ticks, so that the simulation
+     * fell behind the clock.
+     *
+     * @return the lag in milliseconds
+     */
+    double getLagMillis();
+
+    double getDeathRate();
+
+    /**
+     * Gets the attacks landing in range per second.
+     *
+     * @return the attack rate
+     */
+    double getAttackRate();
+}
@@ -0,0 +1,72 @@
+package com.ecs.persistence;
+
+/**
+ * Value type of a persisted component field, with its tag in the snapshot schema.
+ */
+public enum ColumnType {
+    FLOAT('F'),
+    INT('I'),
+    LONG('J'),
+    DOUBLE('D'),
+    BOOLEAN('Z'),
+    STRING('S');
+
+    private final byte tag;
+
+    ColumnType(char tag) {
+        this.tag = (byte) tag;
+    }
+
+    /**
+     * Gets the schema tag of this type.
+     *
+     * @return the tag
+     */
+    public byte getTag() {
+        return tag;
+    }
+
+    /**
+     * Gets the column type of a field type.
+     *
+     * @param fieldType the Java field type
+     * @return the column type, or null if the field type cannot be persisted
+     */
+    public static ColumnType of(Class<?> fieldType) {
+        if (fieldType == float.class) {
+            return FLOAT;
+        }
+        if (fieldType == int.class) {
+            return INT;
+        }
+        if (fieldType == long.class) {
+            return LONG;
+        }
+        if (fieldType == double.class) {
+            return DOUBLE;
+        }
+        if (fieldType == boolean.class) {
+            return BOOLEAN;
+        }
+        if (fieldType == String.class) {
+            return STRING;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the column type with a schema tag.
+     *
+     * @param tag the tag
+     * @return the column type
+     * @throws IllegalArgumentException if the tag is unknown
+     */
+    public static ColumnType fromTag(byte tag) {
+        for (ColumnType type : values()) {
+            if (type.tag == tag) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column type tag " + tag);
+    }
+}
@@ -0,0 +1,132 @@
+package com.ecs.persistence;
+
+import java.util.Arrays;
+
+/**
+ * Column storage for one component type of a {@link WorldSnapshot}.
+ * Row {@code r} holds the fields of the component owned by snapshot entity {@code getEntity(r)};
+ * rows are appended in entity order. Arrays are kept across {@link #clear()} for reuse.
+ */
+public final class ComponentColumns {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final ComponentSchema schema;
+    private final Object[] columns;
+    private int[] entities = new int[INITIAL_CAPACITY];
+    private int size;
+
+    ComponentColumns(ComponentSchema schema) {
+        this.schema = schema;
+        this.columns = new Object[schema.getFieldCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = newColumn(schema.getColumnType(i), INITIAL_CAPACITY);
+        }
+    }
+
+    public ComponentSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return the row count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the snapshot entity index owning a row.
+     *
+     * @param row the row
+     * @return the snapshot entity index
+     */
+    public int getEntity(int row) {
+        return entities[row];
+    }
+
+    public float[] floats(int field) {
+        return (float[]) columns[field];
+    }
+
+    public int[] ints(int field) {
+        return (int[]) columns[field];
+    }
+
+    public long[] longs(int field) {
+        return (long[]) columns[field];
+    }
+
+    public double[] doubles(int field) {
+        return (double[]) columns[field];
+    }
+
+    public boolean[] booleans(int field) {
+        return (boolean[]) columns[field];
+    }
+
+    public String[] strings(int field) {
+        return (String[]) columns[field];
+    }
+
+    /**
+     * Appends a row for a snapshot entity.
+     *
+     * @param entity the snapshot entity index
+     * @return the new row
+     */
+    public int addRow(int entity) {
+        ensureCapacity(size + 1);
+        entities[size] = entity;
+        return size++;
+    }
+
+    /**
+     * Grows the columns to hold at least the given number of rows.
+     *
+     * @param capacity the row capacity
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= entities.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, entities.length * 2);
+        entities = Arrays.copyOf(entities, newCapacity);
+        for (int i = 0; i < columns.length; i++) {
+            Object grown = newColumn(schema.getColumnType(i), newCapacity);
+            System.arraycopy(columns[i], 0, grown, 0, size);
+            columns[i] = grown;
+        }
+    }
+
+    /**
+     * Removes all rows, keeping the allocated arrays.
+     */
+    public void clear() {
+        for (int i = 0; i < columns.length; i++) {
+            if (schema.getColumnType(i) == ColumnType.STRING) {
+                Arrays.fill(strings(i), 0, size, null);
+            }
+        }
+        size = 0;
+    }
+
+    private static Object newColumn(ColumnType type, int capacity) {
+        switch (type) {
+            case FLOAT:
+                return new float[capacity];
+            case INT:
+                return new int[capacity];
+            case LONG:
+                return new long[capacity];
+            case DOUBLE:
+                return new double[capacity];
+            case BOOLEAN:
+                return new boolean[capacity];
+            default:
+                return new String[capacity];
+        }
+    }
+}
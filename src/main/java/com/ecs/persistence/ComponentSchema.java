@@ -0,0 +1,94 @@
+package com.ecs.persistence;
+
+import com.artemis.Component;
+
+/**
+ * Describes how a component type is persisted: one column per public instance field.
+ * Schemas are built once per type and copy field values between components and
+ * {@link ComponentColumns} through the type's {@link ComponentSerializer}, without boxing
+ * primitives.
+ */
+public final class ComponentSchema {
+
+    private static final ClassValue<ComponentSchema> SCHEMAS = new ClassValue<>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected ComponentSchema computeValue(Class<?> type) {
+            return new ComponentSchema(ComponentSerializers.of((Class<? extends Component>) type));
+        }
+    };
+
+    private final ComponentSerializer<Component> serializer;
+
+    @SuppressWarnings("unchecked")
+    private ComponentSchema(ComponentSerializer<? extends Component> serializer) {
+        for (int i = 0; i < serializer.getFieldCount(); i++) {
+            if (serializer.getColumnType(i) == null) {
+                throw new IllegalArgumentException("Component " + serializer.getType().getName() + " field "
+                        + serializer.getFieldName(i) + " has an unsupported type");
+            }
+        }
+        this.serializer = (ComponentSerializer<Component>) serializer;
+    }
+
+    /**
+     * Gets the schema of a component type.
+     *
+     * @param type the component type
+     * @return the schema
+     * @throws IllegalArgumentException if the type has a field that cannot be persisted
+     */
+    public static ComponentSchema of(Class<? extends Component> type) {
+        return SCHEMAS.get(type);
+    }
+
+    public Class<? extends Component> getType() {
+        return serializer.getType();
+    }
+
+    public int getFieldCount() {
+        return serializer.getFieldCount();
+    }
+
+    public String getFieldName(int field) {
+        return serializer.getFieldName(field);
+    }
+
+    public ColumnType getColumnType(int field) {
+        return serializer.getColumnType(field);
+    }
+
+    /**
+     * Gets the index of a field.
+     *
+     * @param name the field name
+     * @param type the expected column type
+     * @return the field index, or -1 if there is no such field with that type
+     */
+    public int indexOf(String name, ColumnType type) {
+        int field = serializer.indexOf(name);
+        return field >= 0 && serializer.getColumnType(field) == type ? field : -1;
+    }
+
+    /**
+     * Copies a component's fields into a row of its columns.
+     *
+     * @param component the component
+     * @param columns   the columns of this schema
+     * @param row       the row to write
+     */
+    public void capture(Component component, ComponentColumns columns, int row) {
+        serializer.capture(component, columns, row);
+    }
+
+    /**
+     * Copies a row of the columns into a component's fields.
+     *
+     * @param columns   the columns of this schema
+     * @param row       the row to read
+     * @param component the component to fill
+     */
+    public void restore(ComponentColumns columns, int row, Component component) {
+        serializer.restore(columns, row, component);
+    }
+}
@@ -0,0 +1,112 @@
+package com.ecs.persistence;
+
+import com.artemis.Component;
+
+/**
+ * Typed access to the public instance fields of one component type.
+ *
+ * <p>The build generates an implementation per component with
+ * {@link ComponentSerializerGenerator}, which reads and writes the fields directly; see
+ * {@link ComponentSerializers}. Per-entity operations ({@link #capture}, {@link #restore} and
+ * {@link #copy}) never box. {@link #get} and {@link #set} box and are meant for YAML and
+ * other per-template data.</p>
+ *
+ * @param <T> the component type
+ */
+public interface ComponentSerializer<T extends Component> {
+
+    Class<T> getType();
+
+    int getFieldCount();
+
+    String getFieldName(int field);
+
+    /**
+     * Gets the column type of a field.
+     *
+     * @param field the field index
+     * @return the column type, or null if the field cannot be persisted
+     */
+    ColumnType getColumnType(int field);
+
+    /**
+     * Creates a component with default field values.
+     *
+     * @return the new component
+     */
+    T newInstance();
+
+    /**
+     * Copies the component's fields into a row of its columns.
+     *
+     * @param component the component
+     * @param columns   the columns of this type
+     * @param row       the row to write
+     */
+    void capture(T component, ComponentColumns columns, int row);
+
+    /**
+     * Copies a row of the columns into the component's fields.
+     *
+     * @param columns   the columns of this type
+     * @param row       the row to read
+     * @param component the component to fill
+     */
+    void restore(ComponentColumns columns, int row, T component);
+
+    /**
+     * Copies all fields of one component into another.
+     *
+     * @param source the component to copy from
+     * @param target the component to copy into
+     */
+    void copy(T source, T target);
+
+    /**
+     * Gets a field value.
+     *
+     * @param component the component
+     * @param field     the field index
+     * @return the boxed value
+     */
+    Object get(T component, int field);
+
+    /**
+     * Sets a field value. Numbers are converted to the field's numeric type, since YAML loads
+     * decimals as Double and integers as Integer or Long.
+     *
+     * @param component the component
+     * @param field     the field index
+     * @param value     the value
+     */
+    void set(T component, int field, Object value);
+
+    /**
+     * Gets the index of a field.
+     *
+     * @param name the field name
+     * @return the field index, or -1 if there is no such field
+     */
+    default int indexOf(String name) {
+        for (int i = 0; i < getFieldCount(); i++) {
+            if (getFieldName(i).equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether every field can be persisted.
+     *
+     * @return true if all fields have a column type
+     */
+    default boolean isPersistable() {
+        for (int i = 0; i < getFieldCount(); i++) {
+            if (getColumnType(i) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,202 @@
+package com.ecs.persistence;
+
+import com.artemis.Component;
+import com.artemis.annotations.Transient;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Build-time generator of the {@link ComponentSerializer}s.
+ *
+ * <p>Runs after compilation (see the {@code component-serializers} execution in the pom). For
+ * each component whose fields can all be persisted, it writes a serializer source that reads
+ * and writes the fields directly, compiles it into the classes directory, and lists the
+ * persisted types in {@link ComponentSerializers#INDEX_RESOURCE}. Components with other field
+ * types, such as {@code AiBehavior}, keep the reflective serializer.</p>
+ */
+@Slf4j
+public final class ComponentSerializerGenerator {
+
+    private ComponentSerializerGenerator() {
+    }
+
+    /**
+     * Generates and compiles the serializers.
+     *
+     * @param args the classes directory and the directory for the generated sources
+     * @throws IOException if generation or compilation fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            log.error("Usage: ComponentSerializerGenerator <classes-dir> <generated-sources-dir>");
+            System.exit(2);
+        }
+        generate(Paths.get(args[0]), Paths.get(args[1]));
+    }
+
+    /**
+     * Generates and compiles the serializers of the components on the classpath.
+     *
+     * @param classesDir the directory to compile into and write the index to
+     * @param sourcesDir the directory to write the sources to
+     * @throws IOException if generation or compilation fails
+     */
+    public static void generate(Path classesDir, Path sourcesDir) throws IOException {
+        List<Class<? extends Component>> types =
+                ComponentSerializers.scanComponentPackage(ComponentSerializerGenerator.class.getClassLoader());
+        Path packageDir = sourcesDir.resolve(ComponentSerializers.GENERATED_PACKAGE.replace('.', '/'));
+        Files.createDirectories(packageDir);
+
+        List<Path> sources = new ArrayList<>();
+        StringBuilder index = new StringBuilder();
+        for (Class<? extends Component> type : types) {
+            List<Field> fields = ReflectiveComponentSerializer.instanceFields(type);
+            if (!fields.stream().allMatch(field -> ColumnType.of(field.getType()) != null)) {
+                log.info("Skipping {}: it has fields that cannot be serialized", type.getName());
+                continue;
+            }
+            Path source = packageDir.resolve(type.getSimpleName() + "Serializer.java");
+            Files.writeString(source, generateSource(type, fields), StandardCharsets.UTF_8);
+            sources.add(source);
+            if (!type.isAnnotationPresent(Transient.class)) {
+                index.append(type.getName()).append('\n');
+            }
+        }
+
+        compile(sources, classesDir);
+        Path indexFile = classesDir.resolve(ComponentSerializers.INDEX_RESOURCE);
+        Files.createDirectories(indexFile.getParent());
+        Files.writeString(indexFile, index.toString(), StandardCharsets.UTF_8);
+        log.info("Generated {} component serializers into {}", sources.size(), classesDir);
+    }
+
+    static String generateSource(Class<? extends Component> type, List<Field> fields) {
+        String typeName = type.getName();
+        String className = type.getSimpleName() + "Serializer";
+        StringBuilder out = new StringBuilder();
+        out.append("package ").append(ComponentSerializers.GENERATED_PACKAGE).append(";\n\n");
+        out.append("import com.ecs.persistence.ColumnType;\n");
+        out.append("import com.ecs.persistence.ComponentColumns;\n");
+        out.append("import com.ecs.persistence.ComponentSerializer;\n\n");
+        out.append("/**\n * Serializer of {@link ").append(typeName)
+                .append("}, generated by ComponentSerializerGenerator.\n */\n");
+        out.append("public final class ").append(className)
+                .append(" implements ComponentSerializer<").append(typeName).append("> {\n\n");
+
+        out.append("    private static final String[] FIELD_NAMES = {");
+        for (int i = 0; i < fields.size(); i++) {
+            out.append(i > 0 ? ", " : "").append('"').append(fields.get(i).getName()).append('"');
+        }
+        out.append("};\n");
+        out.append("    private static final ColumnType[] COLUMN_TYPES = {");
+        for (int i = 0; i < fields.size(); i++) {
+            out.append(i > 0 ? ", " : "").append("ColumnType.").append(columnType(fields.get(i)).name());
+        }
+        out.append("};\n\n");
+
+        method(out, "Class<" + typeName + "> getType()", "        return " + typeName + ".class;\n");
+        method(out, "int getFieldCount()", "        return FIELD_NAMES.length;\n");
+        method(out, "String getFieldName(int field)", "        return FIELD_NAMES[field];\n");
+        method(out, "ColumnType getColumnType(int field)", "        return COLUMN_TYPES[field];\n");
+        method(out, typeName + " newInstance()", "        return new " + typeName + "();\n");
+
+        StringBuilder capture = new StringBuilder();
+        StringBuilder restore = new StringBuilder();
+        StringBuilder copy = new StringBuilder();
+        StringBuilder get = new StringBuilder("        switch (field) {\n");
+        StringBuilder set = new StringBuilder("        switch (field) {\n");
+        for (int i = 0; i < fields.size(); i++) {
+            String name = fields.get(i).getName();
+            ColumnType columnType = columnType(fields.get(i));
+            String column = "columns." + columnType.name().toLowerCase(Locale.ROOT) + "s(" + i + ")[row]";
+            capture.append("        ").append(column).append(" = component.").append(name).append(";\n");
+            restore.append("        component.").append(name).append(" = ").append(column).append(";\n");
+            copy.append("        target.").append(name).append(" = source.").append(name).append(";\n");
+            get.append("            case ").append(i).append(":\n                return component.")
+                    .append(name).append(";\n");
+            set.append("            case ").append(i).append(":\n                component.").append(name)
+                    .append(" = ").append(unbox(columnType)).append(";\n                break;\n");
+        }
+        get.append("            default:\n                throw new IndexOutOfBoundsException(field);\n        }\n");
+        set.append("            default:\n                throw new IndexOutOfBoundsException(field);\n        }\n");
+
+        method(out, "void capture(" + typeName + " component, ComponentColumns columns, int row)",
+                capture.toString());
+        method(out, "void restore(ComponentColumns columns, int row, " + typeName + " component)",
+                restore.toString());
+        method(out, "void copy(" + typeName + " source, " + typeName + " target)", copy.toString());
+        method(out, "Object get(" + typeName + " component, int field)", get.toString());
+        method(out, "void set(" + typeName + " component, int field, Object value)", set.toString());
+        out.setLength(out.length() - 1); // no blank line before the closing brace
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private static void method(StringBuilder out, String signature, String body) {
+        out.append("    @Override\n    public ").append(signature).append(" {\n")
+                .append(body).append("    }\n\n");
+    }
+
+    private static ColumnType columnType(Field field) {
+        return ColumnType.of(field.getType());
+    }
+
+    private static String unbox(ColumnType type) {
+        switch (type) {
+            case FLOAT:
+                return "((Number) value).floatValue()";
+            case INT:
+                return "((Number) value).intValue()";
+            case LONG:
+                return "((Number) value).longValue()";
+            case DOUBLE:
+                return "((Number) value).doubleValue()";
+            case BOOLEAN:
+                return "(Boolean) value";
+            default:
+                return "(String) value";
+        }
+    }
+
+    private static void compile(List<Path> sources, Path classesDir) throws IOException {
+        if (sources.isEmpty()) {
+            return;
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IOException("Generating component serializers requires a JDK");
+        }
+        List<String> arguments = new ArrayList<>(List.of(
+                "--release", "17",
+                "-d", classesDir.toString(),
+                "-classpath", classesDir + File.pathSeparator + locationOf(Component.class)));
+        for (Path source : sources) {
+            arguments.add(source.toString());
+        }
+        int result = compiler.run(null, null, null, arguments.toArray(new String[0]));
+        if (result != 0) {
+            throw new IOException("Compiling the generated component serializers failed");
+        }
+    }
+
+    private static String locationOf(Class<?> type) throws IOException {
+        try {
+            return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (URISyntaxException e) {
+            throw new IOException("Cannot locate " + type.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.ecs.persistence;
+
+import com.artemis.Component;
+import com.artemis.annotations.Transient;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Looks up the {@link ComponentSerializer} of each component type and the list of persisted
+ * component types.
+ *
+ * <p>Both come from the build: {@link ComponentSerializerGenerator} compiles a serializer per
+ * component into {@value #GENERATED_PACKAGE} and writes the persisted types to
+ * {@value #INDEX_RESOURCE}. Without them, serializers fall back to reflection and the
+ * component package is scanned instead.</p>
+ */
+public final class ComponentSerializers {
+
+    /**
+     * Package of the generated serializers.
+     */
+    public static final String GENERATED_PACKAGE = "com.ecs.persistence.generated";
+
+    /**
+     * Package holding the component types.
+     */
+    public static final String COMPONENT_PACKAGE = "com.ecs.component";
+
+    /**
+     * Classpath resource listing the persisted component types, one class name per line.
+     */
+    public static final String INDEX_RESOURCE = "META-INF/ecs/persisted-components";
+
+    private static final ClassValue<ComponentSerializer<?>> SERIALIZERS = new ClassValue<>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected ComponentSerializer<?> computeValue(Class<?> type) {
+            try {
+                Class<?> generated = Class.forName(generatedName(type), true, type.getClassLoader());
+                return (ComponentSerializer<?>) generated.getDeclaredConstructor().newInstance();
+            } catch (ClassNotFoundException e) {
+                return new ReflectiveComponentSerializer<>((Class<? extends Component>) type);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot create serializer for " + type.getName(), e);
+            }
+        }
+    };
+
+    private static volatile List<Class<? extends Component>> persistedTypes;
+
+    private ComponentSerializers() {
+    }
+
+    /**
+     * Gets the serializer of a component type.
+     *
+     * @param type the component type
+     * @param <T>  the component type
+     * @return the generated serializer, or a reflective one if none was generated
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Component> ComponentSerializer<T> of(Class<T> type) {
+        return (ComponentSerializer<T>) SERIALIZERS.get(type);
+    }
+
+    /**
+     * Gets the name of the generated serializer of a component type.
+     *
+     * @param type the component type
+     * @return the fully qualified class name
+     */
+    public static String generatedName(Class<?> type) {
+        return GENERATED_PACKAGE + "." + type.getSimpleName() + "Serializer";
+    }
+
+    /**
+     * Gets the component types saved with persistent entities: every component that is not
+     * {@link Transient} and whose fields can all be persisted, sorted by name.
+     *
+     * @return the persisted component types
+     */
+    public static List<Class<? extends Component>> getPersistedTypes() {
+        List<Class<? extends Component>> types = persistedTypes;
+        if (types == null) {
+            ClassLoader loader = ComponentSerializers.class.getClassLoader();
+            try {
+                types = readIndex(loader);
+                if (types == null) {
+                    types = new ArrayList<>();
+                    for (Class<? extends Component> type : scanComponentPackage(loader)) {
+                        if (isPersisted(type)) {
+                            types.add(type);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to list component types", e);
+            }
+            types = Collections.unmodifiableList(types);
+            persistedTypes = types;
+        }
+        return types;
+    }
+
+    /**
+     * Checks whether a component type is persisted.
+     *
+     * @param type the component type
+     * @return true if the type is neither transient nor has unsupported fields
+     */
+    public static boolean isPersisted(Class<? extends Component> type) {
+        return !type.isAnnotationPresent(Transient.class) && of(type).isPersistable();
+    }
+
+    /**
+     * Lists the concrete component classes of {@value #COMPONENT_PACKAGE} on the classpath, in
+     * directories and jars alike, sorted by name.
+     *
+     * @param loader the class loader to search
+     * @return the component types
+     * @throws IOException if the classpath cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Class<? extends Component>> scanComponentPackage(ClassLoader loader) throws IOException {
+        String path = COMPONENT_PACKAGE.replace('.', '/');
+        List<String> classNames = new ArrayList<>();
+        Enumeration<URL> roots = loader.getResources(path);
+        while (roots.hasMoreElements()) {
+            URL root = roots.nextElement();
+            if ("file".equals(root.getProtocol())) {
+                try (Stream<Path> files = Files.list(Paths.get(root.toURI()))) {
+                    files.map(file -> file.getFileName().toString())
+                            .filter(name -> name.endsWith(".class") && name.indexOf('$') < 0)
+                            .forEach(name -> classNames.add(COMPONENT_PACKAGE + "."
+                                    + name.substring(0, name.length() - ".class".length())));
+                } catch (URISyntaxException e) {
+                    throw new IOException("Invalid classpath entry " + root, e);
+                }
+            } else if ("jar".equals(root.getProtocol())) {
+                JarFile jar = ((JarURLConnection) root.openConnection()).getJarFile();
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    if (name.startsWith(path + "/") && name.endsWith(".class") && name.indexOf('$') < 0
+                            && name.indexOf('/', path.length() + 1) < 0) {
+                        classNames.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+                    }
+                }
+            }
+        }
+
+        List<Class<? extends Component>> types = new ArrayList<>();
+        for (String className : classNames) {
+            Class<?> type;
+            try {
+                type = Class.forName(className, false, loader);
+            } catch (ClassNotFoundException e) {
+                continue;
+            }
+            if (Component.class.isAssignableFrom(type) && !Modifier.isAbstract(type.getModifiers())
+                    && !types.contains(type)) {
+                types.add((Class<? extends Component>) type);
+            }
+        }
+        types.sort(Comparator.comparing(Class::getName));
+        return types;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Class<? extends Component>> readIndex(ClassLoader loader) throws IOException {
+        InputStream in = loader.getResourceAsStream(INDEX_RESOURCE);
+        if (in == null) {
+            return null;
+        }
+        List<Class<? extends Component>> types = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    try {
+                        types.add((Class<? extends Component>) Class.forName(line, true, loader));
+                    } catch (ClassNotFoundException e) {
+                        throw new IOException("Indexed component " + line + " is missing", e);
+                    }
+                }
+            }
+        }
+        return types;
+    }
+}
@@ -0,0 +1,159 @@
+package com.ecs.persistence;
+
+import com.artemis.utils.Bag;
+import com.artemis.utils.BitVector;
+import com.artemis.utils.IntBag;
+import jakarta.inject.Singleton;
+
+/**
+ * Tracks entities whose persisted state changed since the last save.
+ * Entities are marked when they are created or deleted, or gain or lose a persisted component,
+ * by the {@code PersistenceTrackingSystem}. Anything that modifies the fields of a persisted
+ * component should mark the entity here so that incremental saves capture it; periodic full
+ * saves pick up changes that were not marked.
+ *
+ * <p>Other consumers of changes, such as rollback snapshots, can {@link #subscribe(boolean)}
+ * to their own {@link ChangeSet}, which they clear on their own schedule. Moves made by
+ * integration are marked separately, so that consumers copying motion in bulk can skip
+ * them.</p>
+ *
+ * <p>Not thread-safe; must only be used from the game loop thread.</p>
+ */
+@Singleton
+public class DirtyTracker {
+
+    private final ChangeSet saved = new ChangeSet(true);
+    private final Bag<ChangeSet> subscribers = new Bag<>();
+
+    /**
+     * Marks an entity as created or changed.
+     *
+     * @param entityId the entity ID
+     */
+    public void markChanged(int entityId) {
+        saved.markChanged(entityId);
+        for (int i = 0, s = subscribers.size(); i < s; i++) {
+            subscribers.get(i).markChanged(entityId);
+        }
+    }
+
+    /**
+     * Marks an entity whose position or velocity was changed by integration.
+     *
+     * @param entityId the entity ID
+     */
+    public void markMoved(int entityId) {
+        saved.markChanged(entityId);
+        for (int i = 0, s = subscribers.size(); i < s; i++) {
+            ChangeSet changes = subscribers.get(i);
+            if (changes.includesMoves) {
+                changes.markChanged(entityId);
+            }
+        }
+    }
+
+    /**
+     * Marks an entity as deleted. Its ID may be reused and marked changed afterwards, so
+     * deletes are applied before changes.
+     *
+     * @param entityId the entity ID
+     */
+    public void markDeleted(int entityId) {
+        saved.markDeleted(entityId);
+        for (int i = 0, s = subscribers.size(); i < s; i++) {
+            subscribers.get(i).markDeleted(entityId);
+        }
+    }
+
+    /**
+     * Gets the entities marked changed since the last {@link #clear()}.
+     *
+     * @return the changed entity IDs, in marking order
+     */
+    public IntBag getChanged() {
+        return saved.getChanged();
+    }
+
+    /**
+     * Gets the entities marked deleted since the last {@link #clear()}.
+     *
+     * @return the deleted entity IDs, in marking order
+     */
+    public IntBag getDeleted() {
+        return saved.getDeleted();
+    }
+
+    /**
+     * Clears all marks.
+     */
+    public void clear() {
+        saved.clear();
+    }
+
+    /**
+     * Creates a change set receiving all marks from now on.
+     *
+     * @param includeMoves whether moves made by integration are marked as changes
+     * @return the change set
+     */
+    public ChangeSet subscribe(boolean includeMoves) {
+        ChangeSet changes = new ChangeSet(includeMoves);
+        subscribers.add(changes);
+        return changes;
+    }
+
+    /**
+     * Entities changed and deleted since the change set was last cleared.
+     */
+    public static final class ChangeSet {
+
+        private final boolean includesMoves;
+        private final BitVector changedBits = new BitVector();
+        private final IntBag changed = new IntBag();
+        private final IntBag deleted = new IntBag();
+
+        private ChangeSet(boolean includesMoves) {
+            this.includesMoves = includesMoves;
+        }
+
+        private void markChanged(int entityId) {
+            if (!changedBits.get(entityId)) {
+                changedBits.set(entityId);
+                changed.add(entityId);
+            }
+        }
+
+        private void markDeleted(int entityId) {
+            deleted.add(entityId);
+        }
+
+        /**
+         * Gets the changed entities.
+         *
+         * @return the changed entity IDs, in marking order
+         */
+        public IntBag getChanged() {
+            return changed;
+        }
+
+        /**
+         * Gets the deleted entities.
+         *
+         * @return the deleted entity IDs, in marking order
+         */
+        public IntBag getDeleted() {
+            return deleted;
+        }
+
+        /**
+         * Clears all marks.
+         */
+        public void clear() {
+            for (int i = 0; i < changed.size(); i++) {
+                changedBits.clear(changed.get(i));
+            }
+            changed.clear();
+            deleted.clear();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.ecs.persistence;
+
+import com.artemis.Component;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fallback {@link ComponentSerializer} used when no generated serializer is on the classpath,
+ * such as when running from an IDE without the build's code generation step.
+ */
+final class ReflectiveComponentSerializer<T extends Component> implements ComponentSerializer<T> {
+
+    private final Class<T> type;
+    private final Field[] fields;
+    private final ColumnType[] columnTypes;
+
+    ReflectiveComponentSerializer(Class<T> type) {
+        this.type = type;
+        this.fields = instanceFields(type).toArray(new Field[0]);
+        this.columnTypes = new ColumnType[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            columnTypes[i] = ColumnType.of(fields[i].getType());
+        }
+    }
+
+    /**
+     * Lists the public, non-static, non-final fields of a type, in declaration order.
+     */
+    static List<Field> instanceFields(Class<?> type) {
+        List<Field> result = new ArrayList<>();
+        for (Field field : type.getFields()) {
+            int modifiers = field.getModifiers();
+            if (!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers)) {
+                result.add(field);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Class<T> getType() {
+        return type;
+    }
+
+    @Override
+    public int getFieldCount() {
+        return fields.length;
+    }
+
+    @Override
+    public String getFieldName(int field) {
+        return fields[field].getName();
+    }
+
+    @Override
+    public ColumnType getColumnType(int field) {
+        return columnTypes[field];
+    }
+
+    @Override
+    public T newInstance() {
+        try {
+            return type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate " + type.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void capture(T component, ComponentColumns columns, int row) {
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                Field field = fields[i];
+                switch (columnTypes[i]) {
+                    case FLOAT:
+                        columns.floats(i)[row] = field.getFloat(component);
+                        break;
+                    case INT:
+                        columns.ints(i)[row] = field.getInt(component);
+                        break;
+                    case LONG:
+                        columns.longs(i)[row] = field.getLong(component);
+                        break;
+                    case DOUBLE:
+                        columns.doubles(i)[row] = field.getDouble(component);
+                        break;
+                    case BOOLEAN:
+                        columns.booleans(i)[row] = field.getBoolean(component);
+                        break;
+                    default:
+                        columns.strings(i)[row] = (String) field.get(component);
+                        break;
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Failed to capture " + type.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void restore(ComponentColumns columns, int row, T component) {
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                Field field = fields[i];
+                switch (columnTypes[i]) {
+                    case FLOAT:
+                        field.setFloat(component, columns.floats(i)[row]);
+                        break;
+                    case INT:
+                        field.setInt(component, columns.ints(i)[row]);
+                        break;
+                    case LONG:
+                        field.setLong(component, columns.longs(i)[row]);
+                        break;
+                    case DOUBLE:
+                        field.setDouble(component, columns.doubles(i)[row]);
+                        break;
+                    case BOOLEAN:
+                        field.setBoolean(component, columns.booleans(i)[row]);
+                        break;
+                    default:
+                        field.set(component, columns.strings(i)[row]);
+                        break;
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Failed to restore " + type.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void copy(T source, T target) {
+        try {
+            for (Field field : fields) {
+                field.set(target, field.get(source));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Failed to copy " + type.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object get(T component, int field) {
+        try {
+            return fields[field].get(component);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Failed to read " + type.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void set(T component, int field, Object value) {
+        Class<?> fieldType = fields[field].getType();
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (fieldType == float.class) {
+                value = number.floatValue();
+            } else if (fieldType == double.class) {
+                value = number.doubleValue();
+            } else if (fieldType == int.class) {
+                value = number.intValue();
+            } else if (fieldType == long.class) {
+                value = number.longValue();
+            }
+        }
+        try {
+            fields[field].set(component, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Failed to write " + type.getName() + ": " + e.getMessage(), e);
+        }
+    }
+}
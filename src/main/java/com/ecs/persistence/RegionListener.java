@@ -0,0 +1,20 @@
+package com.ecs.persistence;
+
+import com.artemis.World;
+import com.artemis.utils.IntBag;
+
+/**
+ * Listener notified when the {@link com.ecs.system.RegionStreamingSystem} brings a region's
+ * entities back into the world. Regions only hold persisted components, so transient state
+ * such as an {@link com.ecs.component.AiBehavior} has to be re-attached here.
+ */
+@FunctionalInterface
+public interface RegionListener {
+    /**
+     * Called with the entities restored from a region.
+     *
+     * @param world    the world
+     * @param entities the restored entity IDs; only valid for the duration of the call
+     */
+    void onRegionLoaded(World world, IntBag entities);
+}
@@ -0,0 +1,158 @@
+package com.ecs.persistence;
+
+import com.ecs.spatial.SpatialHashGrid;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Directory of region snapshot files, one {@link SnapshotFile} per unloaded region.
+ *
+ * <p>A region is a square block of {@value #REGION_CELLS} x {@value #REGION_CELLS}
+ * {@link SpatialHashGrid} cells, so a grid cell never spans two regions. Regions are
+ * identified by a key packing their x and y coordinates like grid cell keys.</p>
+ *
+ * <p>Each write of a region creates a new version of its file rather than replacing the old
+ * one, so a world save can keep referring to the version it was taken with until the next
+ * save no longer needs it. Versions only ever increase, also across restarts.</p>
+ */
+public final class RegionStore {
+
+    /**
+     * The side length of a region in grid cells.
+     */
+    public static final int REGION_CELLS = 8;
+
+    /**
+     * The side length of a region in world units.
+     */
+    public static final float REGION_SIZE = REGION_CELLS * SpatialHashGrid.CELL_SIZE;
+
+    private static final int COORDINATE_SHIFT_BITS = 32;
+    private static final long LOWER_32_BITS_MASK = 0xFFFFFFFFL;
+
+    private static final String PREFIX = "region_";
+    private static final String SUFFIX = ".snap";
+
+    private final Path directory;
+    private final AtomicLong latestVersion = new AtomicLong();
+
+    /**
+     * Creates a store over a directory, creating the directory if needed.
+     *
+     * @param directory the region directory
+     * @throws IOException if the directory cannot be created or listed
+     */
+    public RegionStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String version = name.substring(name.lastIndexOf('_') + 1, name.length() - SUFFIX.length());
+                try {
+                    latestVersion.accumulateAndGet(Long.parseLong(version), Math::max);
+                } catch (NumberFormatException e) {
+                    // Not a region file
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the region coordinate of a world coordinate.
+     *
+     * @param coordinate the x or y world coordinate
+     * @return the region coordinate
+     */
+    public static int regionCoordinate(float coordinate) {
+        return Math.floorDiv((int) Math.floor(coordinate / SpatialHashGrid.CELL_SIZE), REGION_CELLS);
+    }
+
+    /**
+     * Gets the key of a region.
+     *
+     * @param regionX the region x coordinate
+     * @param regionY the region y coordinate
+     * @return the region key
+     */
+    public static long key(int regionX, int regionY) {
+        return ((long) regionX << COORDINATE_SHIFT_BITS) | (regionY & LOWER_32_BITS_MASK);
+    }
+
+    /**
+     * Gets the key of the region containing a position.
+     *
+     * @param x the x position
+     * @param y the y position
+     * @return the region key
+     */
+    public static long keyOf(float x, float y) {
+        return key(regionCoordinate(x), regionCoordinate(y));
+    }
+
+    /**
+     * Gets a version of a region's file.
+     *
+     * @param key     the region key
+     * @param version the file version
+     * @return the region file, which may not exist
+     */
+    public Path pathFor(long key, long version) {
+        int regionX = (int) (key >> COORDINATE_SHIFT_BITS);
+        int regionY = (int) key;
+        return directory.resolve(PREFIX + regionX + "_" + regionY + "_" + version + SUFFIX);
+    }
+
+    /**
+     * Picks the version of the next region file to write. Thread-safe.
+     *
+     * @return a version higher than that of every file written so far
+     */
+    public long nextVersion() {
+        return latestVersion.incrementAndGet();
+    }
+
+    /**
+     * Writes a version of a region's file.
+     *
+     * @param key      the region key
+     * @param version  the file version, from {@link #nextVersion()}
+     * @param snapshot the entities of the region
+     * @throws IOException if writing fails
+     */
+    public void write(long key, long version, WorldSnapshot snapshot) throws IOException {
+        SnapshotFile.write(snapshot, pathFor(key, version));
+    }
+
+    /**
+     * Reads a version of a region's file.
+     *
+     * @param key     the region key
+     * @param version the file version
+     * @param target  the snapshot to append the entities to
+     * @return false if the file does not exist
+     * @throws IOException if the file cannot be read
+     */
+    public boolean read(long key, long version, WorldSnapshot target) throws IOException {
+        Path path = pathFor(key, version);
+        if (!Files.exists(path)) {
+            return false;
+        }
+        SnapshotFile.read(path, target);
+        return true;
+    }
+
+    /**
+     * Deletes a version of a region's file once no save needs it.
+     *
+     * @param key     the region key
+     * @param version the file version
+     * @throws IOException if deleting fails
+     */
+    public void delete(long key, long version) throws IOException {
+        Files.deleteIfExists(pathFor(key, version));
+    }
+}
@@ -0,0 +1,129 @@
+package com.ecs.persistence;
+
+import jakarta.inject.Singleton;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Numbers the saves of the {@code PersistenceService} and tracks which have been written, so
+ * that other components can tell when state they handed to the world is safely on disk.
+ *
+ * <p>Each save covers the persistent entities created or changed before it started, so
+ * entities created while {@link #getStarted()} returns {@code n} are on disk once
+ * {@link #getCompleted()} exceeds {@code n}.</p>
+ *
+ * <p>A failed save holds {@link #getCompleted()} below it until a full save that started
+ * after it completes, since saves appended to a journal only hold what changed since the
+ * save before them.</p>
+ *
+ * <p>Components that take state out of the world and write it elsewhere, such as region
+ * streaming, can make later saves wait for their writes through {@link #addWrite}, and can
+ * hold such changes back while {@link #isCapturing()}, since a capture spanning several ticks
+ * would hold the state neither in the world nor in their files.</p>
+ */
+@Singleton
+public class SaveProgress {
+
+    private final AtomicLong started = new AtomicLong();
+    private volatile long completed;
+    // Lowest failed save not yet covered by a later full save
+    private long failed = Long.MAX_VALUE;
+    private long lastFull;
+    // Used on the game loop thread only
+    private CompletableFuture<?> pendingWrite = CompletableFuture.completedFuture(null);
+    private boolean capturing;
+
+    /**
+     * Numbers a save whose capture is starting. Called on the game loop thread.
+     *
+     * @return the save's number
+     */
+    public long begin() {
+        capturing = true;
+        return started.incrementAndGet();
+    }
+
+    /**
+     * Records that the capture of the save that began last has finished, whether or not it
+     * succeeded. Called on the game loop thread.
+     */
+    public void captured() {
+        capturing = false;
+    }
+
+    /**
+     * Checks whether a save is being captured. Called on the game loop thread.
+     *
+     * @return true between {@link #begin()} and {@link #captured()}
+     */
+    public boolean isCapturing() {
+        return capturing;
+    }
+
+    /**
+     * Makes the saves that begin from now on wait for a write of state taken out of the world,
+     * and fail if it fails. Writes must complete in the order they are added. Called on the
+     * game loop thread.
+     *
+     * @param write the write
+     */
+    public void addWrite(CompletableFuture<?> write) {
+        pendingWrite = write;
+    }
+
+    /**
+     * Gets the write that a save beginning now must wait for. Called on the game loop thread.
+     *
+     * @return the latest write added
+     */
+    public CompletableFuture<?> getPendingWrite() {
+        return pendingWrite;
+    }
+
+    /**
+     * Records that a save has been written successfully.
+     *
+     * @param save the save's number
+     * @param full whether the save holds every persistent entity, rather than the changes
+     *             since the previous save
+     */
+    public synchronized void complete(long save, boolean full) {
+        if (full) {
+            lastFull = Math.max(lastFull, save);
+            if (save > failed) {
+                failed = Long.MAX_VALUE;
+            }
+        }
+        completed = Math.max(completed, Math.min(save, failed - 1));
+    }
+
+    /**
+     * Records that a save could not be written.
+     *
+     * @param save the save's number
+     */
+    public synchronized void fail(long save) {
+        if (save > lastFull) {
+            failed = Math.min(failed, save);
+        }
+    }
+
+    /**
+     * Gets the number of the most recently started save.
+     *
+     * @return the save number, or 0 if none has started
+     */
+    public long getStarted() {
+        return started.get();
+    }
+
+    /**
+     * Gets the number of the latest save that has been written successfully.
+     *
+     * @return the save number, or 0 if none has completed
+     */
+    public long getCompleted() {
+        return completed;
+    }
+}
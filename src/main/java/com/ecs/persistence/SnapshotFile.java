@@ -0,0 +1,580 @@
+package com.ecs.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Binary snapshot file: a self-describing, chunked, columnar encoding of a {@link WorldSnapshot}.
+ *
+ * <p>Layout, little-endian:</p>
+ * <pre>
+ * header:    int magic, int version, int headerLength,
+ *            int schemaCount, schemaCount x (string type, int fieldCount, fieldCount x (string name, byte tag)),
+ *            int entityCount, int chunkCount, chunkCount x (long offset, int length)
+ * chunk:     int firstEntity, int entityCount, entityCount x int entityId,
+ *            per schema: int rowCount, byte dense, [short entity x rowCount unless dense],
+ *                        per field: rowCount values
+ * string:    int byteLength (-1 for null), UTF-8 bytes
+ * </pre>
+ *
+ * <p>Chunks hold up to {@value #CHUNK_ENTITIES} entities and are located through the chunk
+ * directory, so each one can be memory-mapped and decoded on its own. Readers match schemas by
+ * type and field name, so fields added to a component since a save are left at their
+ * defaults and removed fields are skipped.</p>
+ *
+ * <p>A snapshot can also be embedded in a larger file, such as a {@link SnapshotJournal}
+ * segment; chunk offsets are then absolute positions in that file. Version 1 files have no
+ * entity ID column, and their entities get their snapshot index as ID.</p>
+ */
+public final class SnapshotFile implements Closeable {
+
+    /**
+     * Maximum number of entities per chunk.
+     */
+    public static final int CHUNK_ENTITIES = 4096;
+
+    private static final int MAGIC = 0x45435353; // "ECSS"
+    private static final int VERSION = 2;
+    private static final int WRITE_BUFFER_BYTES = 1 << 18;
+
+    private final FileChannel channel;
+    private final boolean ownsChannel;
+    private final int version;
+    private final String[] typeNames;
+    private final String[][] fieldNames;
+    private final ColumnType[][] fieldTypes;
+    private final int entityCount;
+    private final long[] chunkOffsets;
+    private final int[] chunkLengths;
+
+    private SnapshotFile(FileChannel channel, long start, boolean ownsChannel) throws IOException {
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+        ByteBuffer prefix = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(prefix, start);
+        prefix.flip();
+        if (prefix.remaining() < 12 || prefix.getInt() != MAGIC) {
+            throw new IOException("Not a snapshot file");
+        }
+        this.version = prefix.getInt();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        int headerLength = prefix.getInt();
+
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, start, headerLength)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        header.position(12);
+        int schemaCount = header.getInt();
+        this.typeNames = new String[schemaCount];
+        this.fieldNames = new String[schemaCount][];
+        this.fieldTypes = new ColumnType[schemaCount][];
+        for (int s = 0; s < schemaCount; s++) {
+            typeNames[s] = getString(header);
+            int fieldCount = header.getInt();
+            fieldNames[s] = new String[fieldCount];
+            fieldTypes[s] = new ColumnType[fieldCount];
+            for (int f = 0; f < fieldCount; f++) {
+                fieldNames[s][f] = getString(header);
+                fieldTypes[s][f] = ColumnType.fromTag(header.get());
+            }
+        }
+
+        this.entityCount = header.getInt();
+        int chunkCount = header.getInt();
+        this.chunkOffsets = new long[chunkCount];
+        this.chunkLengths = new int[chunkCount];
+        for (int c = 0; c < chunkCount; c++) {
+            chunkOffsets[c] = header.getLong();
+            chunkLengths[c] = header.getInt();
+        }
+    }
+
+    /**
+     * Checks whether a file starts with the snapshot magic number.
+     *
+     * @param path the file
+     * @return true if the file is a binary snapshot
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isSnapshot(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(magic, 0);
+            return magic.position() == 4 && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Opens a snapshot file and reads its header.
+     *
+     * @param path the file
+     * @return the open snapshot file
+     * @throws IOException if the file cannot be read or is not a supported snapshot
+     */
+    public static SnapshotFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new SnapshotFile(channel, 0, true);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a snapshot embedded in another file. Closing it leaves the channel open.
+     *
+     * @param channel the channel of the enclosing file
+     * @param start   the position of the snapshot in the file
+     * @return the open snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public static SnapshotFile open(FileChannel channel, long start) throws IOException {
+        return new SnapshotFile(channel, start, false);
+    }
+
+    /**
+     * Reads a whole snapshot file.
+     *
+     * @param path   the file
+     * @param target the snapshot to append the entities to
+     * @throws IOException if the file cannot be read
+     */
+    public static void read(Path path, WorldSnapshot target) throws IOException {
+        try (SnapshotFile file = open(path)) {
+            file.readAll(target);
+        }
+    }
+
+    /**
+     * Reads all chunks.
+     *
+     * @param target the snapshot to append the entities to
+     * @throws IOException if a chunk cannot be read
+     */
+    public void readAll(WorldSnapshot target) throws IOException {
+        for (int c = 0; c < getChunkCount(); c++) {
+            readChunk(c, target);
+        }
+    }
+
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    public int getChunkCount() {
+        return chunkOffsets.length;
+    }
+
+    /**
+     * Memory-maps a chunk and appends its entities to a snapshot.
+     * Chunks may be read concurrently into different snapshots.
+     *
+     * @param chunk  the chunk index
+     * @param target the snapshot to append the entities to
+     * @throws IOException if the chunk cannot be read
+     */
+    public void readChunk(int chunk, WorldSnapshot target) throws IOException {
+        ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, chunkOffsets[chunk], chunkLengths[chunk])
+                .order(ByteOrder.LITTLE_ENDIAN);
+        int first = in.getInt();
+        int count = in.getInt();
+        int base = target.addEntities(count);
+        for (int i = 0; i < count; i++) {
+            target.setEntityId(base + i, version > 1 ? in.getInt() : first + i);
+        }
+
+        for (int s = 0; s < typeNames.length; s++) {
+            int rowCount = in.getInt();
+            boolean dense = in.get() != 0;
+            int schemaIndex = target.indexOf(typeNames[s]);
+            ComponentColumns columns = schemaIndex >= 0 ? target.getColumns(schemaIndex) : null;
+
+            int firstRow = 0;
+            if (columns != null) {
+                firstRow = columns.size();
+                columns.ensureCapacity(firstRow + rowCount);
+            }
+            for (int r = 0; r < rowCount; r++) {
+                int entity = dense ? r : in.getShort() & 0xFFFF;
+                if (columns != null) {
+                    columns.addRow(base + entity);
+                }
+            }
+
+            for (int f = 0; f < fieldNames[s].length; f++) {
+                ColumnType type = fieldTypes[s][f];
+                int field = columns != null ? columns.getSchema().indexOf(fieldNames[s][f], type) : -1;
+                if (field < 0) {
+                    skipColumn(in, type, rowCount);
+                } else {
+                    getColumn(in, type, columns, field, firstRow, rowCount);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (ownsChannel) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes a snapshot to a file, replacing it atomically.
+     * The snapshot is written to a temporary file next to the target and then renamed, so
+     * readers and crashes never see a partially written snapshot.
+     *
+     * @param snapshot the snapshot
+     * @param path     the file
+     * @throws IOException if writing fails
+     */
+    public static void write(WorldSnapshot snapshot, Path path) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            writeTo(snapshot, temp);
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeTo(WorldSnapshot snapshot, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(snapshot, channel);
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Writes a snapshot at the current position of a channel, leaving the position at its end.
+     * The caller is responsible for forcing the data to disk.
+     *
+     * @param snapshot the snapshot
+     * @param channel  the channel to write to
+     * @return the number of bytes written
+     * @throws IOException if writing fails
+     */
+    public static long write(WorldSnapshot snapshot, FileChannel channel) throws IOException {
+        long start = channel.position();
+        Output out = new Output(channel, start);
+        List<ComponentSchema> schemas = snapshot.getSchemas();
+
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.putInt(0); // header length, patched below
+        out.putInt(schemas.size());
+        for (ComponentSchema schema : schemas) {
+            out.putString(schema.getType().getName());
+            out.putInt(schema.getFieldCount());
+            for (int f = 0; f < schema.getFieldCount(); f++) {
+                out.putString(schema.getFieldName(f));
+                out.put(schema.getColumnType(f).getTag());
+            }
+        }
+
+        int entityCount = snapshot.getEntityCount();
+        int chunkCount = (entityCount + CHUNK_ENTITIES - 1) / CHUNK_ENTITIES;
+        out.putInt(entityCount);
+        out.putInt(chunkCount);
+        long directoryOffset = out.position();
+        for (int c = 0; c < chunkCount; c++) {
+            out.putLong(0L);
+            out.putInt(0);
+        }
+        long headerLength = out.position() - start;
+
+        ByteBuffer directory = ByteBuffer.allocate(chunkCount * 12).order(ByteOrder.LITTLE_ENDIAN);
+        int[] rowCursors = new int[schemas.size()];
+        for (int c = 0; c < chunkCount; c++) {
+            long chunkStart = out.position();
+            int first = c * CHUNK_ENTITIES;
+            int end = Math.min(first + CHUNK_ENTITIES, entityCount);
+            putChunk(out, snapshot, first, end, rowCursors);
+            directory.putLong(chunkStart);
+            directory.putInt((int) (out.position() - chunkStart));
+        }
+        out.flush();
+
+        directory.flip();
+        channel.write(directory, directoryOffset);
+        ByteBuffer length = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        length.putInt(0, (int) headerLength);
+        channel.write(length, start + 8);
+        return out.position() - start;
+    }
+
+    /**
+     * Writes the entities first..end. Rows are in entity order, so each schema's rows for the
+     * chunk are the ones from its cursor up to the first row owned by an entity past the chunk.
+     */
+    private static void putChunk(Output out, WorldSnapshot snapshot, int first, int end, int[] rowCursors)
+            throws IOException {
+        int count = end - first;
+        out.putInt(first);
+        out.putInt(count);
+        for (int i = first; i < end; i++) {
+            out.putInt(snapshot.getEntityId(i));
+        }
+
+        for (int s = 0; s < rowCursors.length; s++) {
+            ComponentColumns columns = snapshot.getColumns(s);
+            int startRow = rowCursors[s];
+            int endRow = startRow;
+            while (endRow < columns.size() && columns.getEntity(endRow) < end) {
+                endRow++;
+            }
+            rowCursors[s] = endRow;
+
+            int rowCount = endRow - startRow;
+            boolean dense = rowCount == count;
+            out.putInt(rowCount);
+            out.put(dense ? (byte) 1 : (byte) 0);
+            if (!dense) {
+                for (int r = startRow; r < endRow; r++) {
+                    out.putShort((short) (columns.getEntity(r) - first));
+                }
+            }
+
+            ComponentSchema schema = columns.getSchema();
+            for (int f = 0; f < schema.getFieldCount(); f++) {
+                putColumn(out, schema.getColumnType(f), columns, f, startRow, rowCount);
+            }
+        }
+    }
+
+    private static void putColumn(Output out, ColumnType type, ComponentColumns columns, int field,
+                                  int start, int count) throws IOException {
+        switch (type) {
+            case FLOAT: {
+                float[] values = columns.floats(field);
+                while (count > 0) {
+                    int n = out.reserve(count, 4);
+                    out.buffer.asFloatBuffer().put(values, start, n);
+                    out.skip(n * 4);
+                    start += n;
+                    count -= n;
+                }
+                break;
+            }
+            case INT: {
+                int[] values = columns.ints(field);
+                while (count > 0) {
+                    int n = out.reserve(count, 4);
+                    out.buffer.asIntBuffer().put(values, start, n);
+                    out.skip(n * 4);
+                    start += n;
+                    count -= n;
+                }
+                break;
+            }
+            case LONG: {
+                long[] values = columns.longs(field);
+                while (count > 0) {
+                    int n = out.reserve(count, 8);
+                    out.buffer.asLongBuffer().put(values, start, n);
+                    out.skip(n * 8);
+                    start += n;
+                    count -= n;
+                }
+                break;
+            }
+            case DOUBLE: {
+                double[] values = columns.doubles(field);
+                while (count > 0) {
+                    int n = out.reserve(count, 8);
+                    out.buffer.asDoubleBuffer().put(values, start, n);
+                    out.skip(n * 8);
+                    start += n;
+                    count -= n;
+                }
+                break;
+            }
+            case BOOLEAN: {
+                boolean[] values = columns.booleans(field);
+                for (int i = start; i < start + count; i++) {
+                    out.put(values[i] ? (byte) 1 : (byte) 0);
+                }
+                break;
+            }
+            default: {
+                String[] values = columns.strings(field);
+                for (int i = start; i < start + count; i++) {
+                    out.putString(values[i]);
+                }
+                break;
+            }
+        }
+    }
+
+    private static void getColumn(ByteBuffer in, ColumnType type, ComponentColumns columns, int field,
+                                  int start, int count) {
+        switch (type) {
+            case FLOAT:
+                in.asFloatBuffer().get(columns.floats(field), start, count);
+                in.position(in.position() + count * 4);
+                break;
+            case INT:
+                in.asIntBuffer().get(columns.ints(field), start, count);
+                in.position(in.position() + count * 4);
+                break;
+            case LONG:
+                in.asLongBuffer().get(columns.longs(field), start, count);
+                in.position(in.position() + count * 8);
+                break;
+            case DOUBLE:
+                in.asDoubleBuffer().get(columns.doubles(field), start, count);
+                in.position(in.position() + count * 8);
+                break;
+            case BOOLEAN: {
+                boolean[] values = columns.booleans(field);
+                for (int i = start; i < start + count; i++) {
+                    values[i] = in.get() != 0;
+                }
+                break;
+            }
+            default: {
+                String[] values = columns.strings(field);
+                for (int i = start; i < start + count; i++) {
+                    values[i] = getString(in);
+                }
+                break;
+            }
+        }
+    }
+
+    private static void skipColumn(ByteBuffer in, ColumnType type, int count) {
+        switch (type) {
+            case FLOAT:
+            case INT:
+                in.position(in.position() + count * 4);
+                break;
+            case LONG:
+            case DOUBLE:
+                in.position(in.position() + count * 8);
+                break;
+            case BOOLEAN:
+                in.position(in.position() + count);
+                break;
+            default:
+                for (int i = 0; i < count; i++) {
+                    int length = in.getInt();
+                    if (length > 0) {
+                        in.position(in.position() + length);
+                    }
+                }
+                break;
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Buffered little-endian writer over a file channel that tracks its file position.
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        private long flushed;
+
+        private Output(FileChannel channel, long start) {
+            this.channel = channel;
+            this.flushed = start;
+        }
+
+        long position() {
+            return flushed + buffer.position();
+        }
+
+        void put(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+        }
+
+        void putShort(short value) throws IOException {
+            ensure(2);
+            buffer.putShort(value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void putString(String value) throws IOException {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) {
+                    flushed += channel.write(wrapped);
+                }
+                return;
+            }
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        /**
+         * Makes room for a run of values and returns how many fit, at least one.
+         */
+        int reserve(int count, int valueBytes) throws IOException {
+            ensure(valueBytes);
+            return Math.min(count, buffer.remaining() / valueBytes);
+        }
+
+        void skip(int bytes) {
+            buffer.position(buffer.position() + bytes);
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                flushed += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
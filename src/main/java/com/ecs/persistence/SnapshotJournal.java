@@ -0,0 +1,169 @@
+package com.ecs.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only journal of the changes made since a base {@link SnapshotFile} was written.
+ *
+ * <p>Layout, little-endian, one segment per incremental save:</p>
+ * <pre>
+ * segment:   int magic, long length, int deletedCount, deletedCount x int entityId,
+ *            embedded snapshot of the changed and created entities
+ * </pre>
+ *
+ * <p>Entities are identified by saved entity ID. A segment's deletes are applied before its
+ * snapshot, since a deleted entity's ID may have been reused by a created one. The length is
+ * written last, so a segment torn by a crash is recognised and ignored along with anything
+ * after it, and the next append overwrites it.</p>
+ *
+ * <p>Segments record the full persisted state of each entity, so replaying a journal over a
+ * base that already includes some of its segments gives the same result.</p>
+ */
+public final class SnapshotJournal {
+
+    private static final int SEGMENT_MAGIC = 0x45435347; // "ECSG"
+    private static final int SEGMENT_HEADER_BYTES = 12;
+
+    private SnapshotJournal() {
+    }
+
+    /**
+     * Receives the segments of a journal in order.
+     */
+    @FunctionalInterface
+    public interface SegmentHandler {
+        /**
+         * Handles a segment.
+         *
+         * @param deleted      the saved IDs of the deleted entities
+         * @param deletedCount the number of deleted entities
+         * @param changed      the changed and created entities
+         */
+        void accept(int[] deleted, int deletedCount, WorldSnapshot changed);
+    }
+
+    /**
+     * Gets the journal belonging to a base snapshot file.
+     *
+     * @param base the base snapshot file
+     * @return the journal file
+     */
+    public static Path pathFor(Path base) {
+        return base.resolveSibling(base.getFileName() + ".journal");
+    }
+
+    /**
+     * Appends a segment and forces it to disk.
+     *
+     * @param journal      the journal file, created if missing
+     * @param deleted      the saved IDs of the deleted entities
+     * @param deletedCount the number of deleted entities
+     * @param changed      the changed and created entities
+     * @return the journal size after the append
+     * @throws IOException if writing fails
+     */
+    public static long append(Path journal, int[] deleted, int deletedCount, WorldSnapshot changed)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long start = validLength(channel);
+            channel.truncate(start);
+            channel.position(start);
+
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES + 4 + deletedCount * 4)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(SEGMENT_MAGIC);
+            header.putLong(0L); // length, patched once the segment is complete
+            header.putInt(deletedCount);
+            for (int i = 0; i < deletedCount; i++) {
+                header.putInt(deleted[i]);
+            }
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            SnapshotFile.write(changed, channel);
+            long end = channel.position();
+            channel.force(false);
+
+            ByteBuffer length = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            length.putLong(0, end - start - SEGMENT_HEADER_BYTES);
+            channel.write(length, start + 4);
+            channel.force(false);
+            return end;
+        }
+    }
+
+    /**
+     * Reads the complete segments of a journal in order.
+     *
+     * @param journal the journal file; a missing file has no segments
+     * @param scratch the snapshot to decode each segment into, cleared before each one
+     * @param handler the handler receiving the segments
+     * @return the number of segments read
+     * @throws IOException if the journal cannot be read
+     */
+    public static int replay(Path journal, WorldSnapshot scratch, SegmentHandler handler) throws IOException {
+        if (!Files.exists(journal)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            long end = validLength(channel);
+            long position = 0;
+            int segments = 0;
+            while (position < end) {
+                ByteBuffer header = read(channel, position, SEGMENT_HEADER_BYTES + 4);
+                long length = header.getLong(4);
+                int deletedCount = header.getInt(SEGMENT_HEADER_BYTES);
+                ByteBuffer deletedBytes = read(channel, position + SEGMENT_HEADER_BYTES + 4, deletedCount * 4);
+                int[] deleted = new int[deletedCount];
+                deletedBytes.asIntBuffer().get(deleted);
+
+                scratch.clear();
+                try (SnapshotFile snapshot = SnapshotFile.open(channel,
+                        position + SEGMENT_HEADER_BYTES + 4 + deletedCount * 4L)) {
+                    snapshot.readAll(scratch);
+                }
+                handler.accept(deleted, deletedCount, scratch);
+                position += SEGMENT_HEADER_BYTES + length;
+                segments++;
+            }
+            return segments;
+        }
+    }
+
+    /**
+     * Walks the segment headers and returns the end of the last complete segment.
+     */
+    private static long validLength(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        while (position + SEGMENT_HEADER_BYTES <= size) {
+            ByteBuffer header = read(channel, position, SEGMENT_HEADER_BYTES);
+            long length = header.getLong(4);
+            if (header.getInt(0) != SEGMENT_MAGIC || length <= 0
+                    || position + SEGMENT_HEADER_BYTES + length > size) {
+                break;
+            }
+            position += SEGMENT_HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of journal");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,202 @@
+package com.ecs.persistence;
+
+import com.artemis.Archetype;
+import com.artemis.ArchetypeBuilder;
+import com.artemis.Component;
+import com.artemis.ComponentMapper;
+import com.artemis.World;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Streams a {@link SnapshotFile} into a world.
+ *
+ * <p>Chunks are decoded in parallel on an executor, each into its own {@link WorldSnapshot},
+ * while the calling thread creates the entities of completed chunks in file order. At most
+ * a fixed window of chunks is in flight, so memory stays bounded by the window rather than
+ * the file size, and chunk snapshots are reused.</p>
+ *
+ * <p>Within a chunk, entities are grouped by composition and each group is created through
+ * an {@link Archetype} for that composition, so every entity gets all of its components in
+ * one step. Field values are then restored column by column.</p>
+ */
+public final class SnapshotLoader {
+
+    private final List<Class<? extends Component>> types;
+    private final Executor executor;
+    private final int window;
+
+    // Per-chunk scratch, used on the calling thread only
+    private final long[] compositions = new long[SnapshotFile.CHUNK_ENTITIES];
+    private final int[] liveIds = new int[SnapshotFile.CHUNK_ENTITIES];
+    private final int[] groupOf = new int[SnapshotFile.CHUNK_ENTITIES];
+    private final int[] order = new int[SnapshotFile.CHUNK_ENTITIES];
+    private final int[] groupStarts = new int[SnapshotFile.CHUNK_ENTITIES + 1];
+    private final int[] cursors = new int[SnapshotFile.CHUNK_ENTITIES];
+    private final Long2IntOpenHashMap groups = new Long2IntOpenHashMap();
+
+    /**
+     * Creates a loader.
+     *
+     * @param types    the persisted component types, at most 64
+     * @param executor the executor decoding chunks
+     * @param window   the maximum number of chunks decoded ahead of entity creation
+     */
+    public SnapshotLoader(List<Class<? extends Component>> types, Executor executor, int window) {
+        if (types.size() > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " component types can be loaded");
+        }
+        this.types = types;
+        this.executor = executor;
+        this.window = Math.max(1, window);
+        groups.defaultReturnValue(-1);
+    }
+
+    /**
+     * Creates the entities of a snapshot file in a world. Must be called on the thread that
+     * owns the world.
+     *
+     * @param path    the snapshot file
+     * @param world   the world to create the entities in
+     * @param liveIds receives saved entity IDs mapped to the created entity IDs
+     * @return the number of entities created
+     * @throws IOException if the file cannot be read
+     */
+    public int load(Path path, World world, Int2IntMap liveIds) throws IOException {
+        Long2ObjectOpenHashMap<Archetype> archetypes = new Long2ObjectOpenHashMap<>();
+        ArrayDeque<WorldSnapshot> free = new ArrayDeque<>(window);
+        ArrayDeque<CompletableFuture<WorldSnapshot>> pending = new ArrayDeque<>(window);
+        int created = 0;
+
+        try (SnapshotFile file = SnapshotFile.open(path)) {
+            try {
+                int chunkCount = file.getChunkCount();
+                int next = 0;
+                for (int c = 0; c < chunkCount; c++) {
+                    while (next < chunkCount && pending.size() < window) {
+                        pending.add(decode(file, next++, free));
+                    }
+                    WorldSnapshot chunk = await(pending.poll());
+                    created += create(chunk, world, liveIds, archetypes);
+                    chunk.clear();
+                    free.add(chunk);
+                }
+            } finally {
+                // The file must not be closed while chunks are still being mapped
+                for (CompletableFuture<WorldSnapshot> future : pending) {
+                    future.exceptionally(e -> null).join();
+                }
+            }
+        }
+        return created;
+    }
+
+    private CompletableFuture<WorldSnapshot> decode(SnapshotFile file, int chunk, ArrayDeque<WorldSnapshot> free) {
+        WorldSnapshot snapshot = free.isEmpty() ? new WorldSnapshot(types) : free.poll();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                file.readChunk(chunk, snapshot);
+                return snapshot;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    private static WorldSnapshot await(CompletableFuture<WorldSnapshot> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Creates the entities of a decoded chunk, grouped by composition.
+     */
+    private int create(WorldSnapshot chunk, World world, Int2IntMap savedToLive,
+                       Long2ObjectOpenHashMap<Archetype> archetypes) {
+        int count = chunk.getEntityCount();
+        List<ComponentSchema> schemas = chunk.getSchemas();
+        Arrays.fill(compositions, 0, count, 0L);
+        for (int s = 0; s < schemas.size(); s++) {
+            ComponentColumns columns = chunk.getColumns(s);
+            long bit = 1L << s;
+            for (int row = 0; row < columns.size(); row++) {
+                compositions[columns.getEntity(row)] |= bit;
+            }
+        }
+
+        // Counting sort of the entities by composition, groups in order of first appearance
+        groups.clear();
+        for (int i = 0; i < count; i++) {
+            int group = groups.get(compositions[i]);
+            if (group < 0) {
+                group = groups.size();
+                groups.put(compositions[i], group);
+                groupStarts[group + 1] = 0;
+            }
+            groupOf[i] = group;
+            groupStarts[group + 1]++;
+        }
+        int groupCount = groups.size();
+        groupStarts[0] = 0;
+        for (int g = 0; g < groupCount; g++) {
+            groupStarts[g + 1] += groupStarts[g];
+            cursors[g] = groupStarts[g];
+        }
+        for (int i = 0; i < count; i++) {
+            order[cursors[groupOf[i]]++] = i;
+        }
+
+        for (int g = 0; g < groupCount; g++) {
+            Archetype archetype = archetypeFor(compositions[order[groupStarts[g]]], world, schemas, archetypes);
+            for (int n = groupStarts[g]; n < groupStarts[g + 1]; n++) {
+                int entity = order[n];
+                int entityId = world.create(archetype);
+                liveIds[entity] = entityId;
+                savedToLive.put(chunk.getEntityId(entity), entityId);
+            }
+        }
+
+        for (int s = 0; s < schemas.size(); s++) {
+            ComponentColumns columns = chunk.getColumns(s);
+            ComponentSchema schema = columns.getSchema();
+            ComponentMapper<? extends Component> mapper = world.getMapper(schema.getType());
+            for (int row = 0; row < columns.size(); row++) {
+                schema.restore(columns, row, mapper.get(liveIds[columns.getEntity(row)]));
+            }
+        }
+        return count;
+    }
+
+    private static Archetype archetypeFor(long composition, World world, List<ComponentSchema> schemas,
+                                          Long2ObjectOpenHashMap<Archetype> archetypes) {
+        Archetype archetype = archetypes.get(composition);
+        if (archetype == null) {
+            ArchetypeBuilder builder = new ArchetypeBuilder();
+            for (int s = 0; s < schemas.size(); s++) {
+                if ((composition & (1L << s)) != 0) {
+                    builder.add(schemas.get(s).getType());
+                }
+            }
+            archetype = builder.build(world);
+            archetypes.put(composition, archetype);
+        }
+        return archetype;
+    }
+}
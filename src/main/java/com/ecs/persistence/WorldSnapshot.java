@@ -0,0 +1,244 @@
+package com.ecs.persistence;
+
+import com.artemis.Component;
+import com.artemis.ComponentMapper;
+import com.artemis.World;
+import com.artemis.utils.BitVector;
+import com.artemis.utils.IntBag;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Columnar copy of the persistent state of a set of entities.
+ *
+ * <p>Entities are numbered 0..n-1 in capture order. Each component type has its own
+ * {@link ComponentColumns}, holding one row per entity that has the component. Each entity
+ * also records the entity ID it was captured from, which identifies it across the
+ * {@link SnapshotJournal} of a save. A snapshot can be cleared and captured again without
+ * reallocating its arrays.</p>
+ */
+public final class WorldSnapshot {
+
+    private final List<ComponentSchema> schemas;
+    private final ComponentColumns[] columns;
+    private int[] entityIds = new int[64];
+    private int entityCount;
+    private final BitVector present = new BitVector(); // Scratch for restoreInto
+
+    /**
+     * Creates an empty snapshot for a set of component types.
+     *
+     * @param types the persisted component types
+     */
+    public WorldSnapshot(List<Class<? extends Component>> types) {
+        List<ComponentSchema> schemaList = new ArrayList<>(types.size());
+        for (Class<? extends Component> type : types) {
+            schemaList.add(ComponentSchema.of(type));
+        }
+        this.schemas = Collections.unmodifiableList(schemaList);
+        this.columns = new ComponentColumns[schemaList.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new ComponentColumns(schemaList.get(i));
+        }
+    }
+
+    public List<ComponentSchema> getSchemas() {
+        return schemas;
+    }
+
+    /**
+     * Gets the columns of a component type.
+     *
+     * @param schemaIndex the index of the type in {@link #getSchemas()}
+     * @return the columns
+     */
+    public ComponentColumns getColumns(int schemaIndex) {
+        return columns[schemaIndex];
+    }
+
+    /**
+     * Gets the index of a component type.
+     *
+     * @param typeName the fully qualified component class name
+     * @return the schema index, or -1 if the type is not part of this snapshot
+     */
+    public int indexOf(String typeName) {
+        for (int i = 0; i < schemas.size(); i++) {
+            if (schemas.get(i).getType().getName().equals(typeName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the number of captured entities.
+     *
+     * @return the entity count
+     */
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    /**
+     * Gets the entity ID a snapshot entity was captured from.
+     *
+     * @param entity the snapshot entity index
+     * @return the saved entity ID
+     */
+    public int getEntityId(int entity) {
+        return entityIds[entity];
+    }
+
+    /**
+     * Sets the saved entity ID of a snapshot entity.
+     *
+     * @param entity   the snapshot entity index
+     * @param entityId the saved entity ID
+     */
+    public void setEntityId(int entity, int entityId) {
+        entityIds[entity] = entityId;
+    }
+
+    /**
+     * Reserves entity indices for appended entities.
+     *
+     * @param count the number of entities to add
+     * @return the index of the first added entity
+     */
+    public int addEntities(int count) {
+        int first = entityCount;
+        entityCount += count;
+        if (entityCount > entityIds.length) {
+            entityIds = Arrays.copyOf(entityIds, Math.max(entityCount, entityIds.length * 2));
+        }
+        return first;
+    }
+
+    /**
+     * Removes all entities, keeping the allocated arrays.
+     */
+    public void clear() {
+        for (ComponentColumns column : columns) {
+            column.clear();
+        }
+        entityCount = 0;
+    }
+
+    /**
+     * Replaces the contents of this snapshot with the state of the given entities.
+     *
+     * @param world    the world to capture from
+     * @param entities the entity IDs to capture, in snapshot order
+     */
+    public void capture(World world, IntBag entities) {
+        clear();
+        append(world, entities);
+    }
+
+    /**
+     * Adds the state of the given entities after the entities already captured.
+     *
+     * @param world    the world to capture from
+     * @param entities the entity IDs to capture, in snapshot order
+     */
+    public void append(World world, IntBag entities) {
+        int count = entities.size();
+        int[] ids = entities.getData();
+        int first = addEntities(count);
+        System.arraycopy(ids, 0, entityIds, first, count);
+
+        for (int s = 0; s < columns.length; s++) {
+            ComponentColumns column = columns[s];
+            ComponentSchema schema = column.getSchema();
+            ComponentMapper<? extends Component> mapper = world.getMapper(schema.getType());
+            for (int i = 0; i < count; i++) {
+                Component component = mapper.get(ids[i]);
+                if (component != null) {
+                    schema.capture(component, column, column.addRow(first + i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates one new entity per snapshot entity and restores its components.
+     *
+     * @param world the world to create the entities in
+     * @return the created entity IDs, indexed by snapshot entity
+     */
+    public IntBag restore(World world) {
+        IntBag created = new IntBag(entityCount);
+        for (int i = 0; i < entityCount; i++) {
+            created.add(world.create());
+        }
+        int[] ids = created.getData();
+
+        for (ComponentColumns column : columns) {
+            ComponentSchema schema = column.getSchema();
+            ComponentMapper<? extends Component> mapper = world.getMapper(schema.getType());
+            for (int row = 0; row < column.size(); row++) {
+                schema.restore(column, row, mapper.create(ids[column.getEntity(row)]));
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Applies the snapshot to a world that already holds earlier saved state. Entities are
+     * matched by saved entity ID: unknown ones are created and known ones are updated, losing
+     * any persisted component that is not part of this snapshot.
+     *
+     * @param world   the world to apply to
+     * @param liveIds maps saved entity IDs to entity IDs in the world; new entities are added.
+     *                Its default return value must be negative
+     * @return the entity IDs in the world, indexed by snapshot entity
+     */
+    public IntBag applyTo(World world, Int2IntMap liveIds) {
+        IntBag live = new IntBag(entityCount);
+        BitVector updated = new BitVector();
+        for (int i = 0; i < entityCount; i++) {
+            int entityId = liveIds.get(entityIds[i]);
+            if (entityId < 0) {
+                entityId = world.create();
+                liveIds.put(entityIds[i], entityId);
+            } else {
+                updated.set(i);
+            }
+            live.add(entityId);
+        }
+        restoreInto(world, live.getData(), updated);
+        return live;
+    }
+
+    /**
+     * Restores each snapshot entity into a given world entity. Persisted components missing
+     * from the snapshot are removed from the entities that already existed, so that they end
+     * up with exactly the captured components.
+     *
+     * @param world    the world to restore into
+     * @param targets  the world entity IDs, indexed by snapshot entity
+     * @param existing the snapshot entities whose targets existed before
+     */
+    public void restoreInto(World world, int[] targets, BitVector existing) {
+        for (ComponentColumns column : columns) {
+            ComponentSchema schema = column.getSchema();
+            ComponentMapper<? extends Component> mapper = world.getMapper(schema.getType());
+            present.clear();
+            for (int row = 0; row < column.size(); row++) {
+                int entity = column.getEntity(row);
+                schema.restore(column, row, mapper.create(targets[entity]));
+                present.set(entity);
+            }
+            for (int i = existing.nextSetBit(0); i >= 0; i = existing.nextSetBit(i + 1)) {
+                if (!present.get(i)) {
+                    mapper.remove(targets[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.ecs.registry;
+
+import com.artemis.Component;
+import com.ecs.persistence.ColumnType;
+import com.ecs.persistence.ComponentSerializer;
+import com.ecs.persistence.ComponentSerializers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Precompiled binary bundle of prefab templates.
+ *
+ * <p>The bundle is produced at build time by {@link PrefabBundleCompiler} and read at startup
+ * with a single read. Its index maps each template name to the offset of its encoded
+ * components, which are only decoded on first use. Layout:</p>
+ * <pre>
+ * int magic, int version, int templateCount
+ * templateCount x (UTF name, int offset)
+ * blocks: short componentCount, componentCount x (UTF type, short fieldCount,
+ *         fieldCount x (UTF name, byte tag, value))
+ * </pre>
+ */
+public final class PrefabBundle {
+
+    /**
+     * Classpath location of the bundle.
+     */
+    public static final String RESOURCE = "prefabs.bundle";
+
+    private static final int MAGIC = 0x45435342; // "ECSB"
+    private static final int VERSION = 1;
+
+    private final byte[] data;
+    private final int blocksStart;
+    private final Map<String, Integer> offsets;
+
+    private PrefabBundle(byte[] data, int blocksStart, Map<String, Integer> offsets) {
+        this.data = data;
+        this.blocksStart = blocksStart;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Reads a bundle and its index.
+     *
+     * @param inputStream the bundle; read fully but not closed
+     * @return the bundle
+     * @throws IOException if the stream cannot be read or is not a supported bundle
+     */
+    public static PrefabBundle read(InputStream inputStream) throws IOException {
+        byte[] data = inputStream.readAllBytes();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a prefab bundle");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported prefab bundle version " + version);
+        }
+
+        int count = in.readInt();
+        Map<String, Integer> offsets = new LinkedHashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            offsets.put(name, in.readInt());
+        }
+        return new PrefabBundle(data, data.length - in.available(), offsets);
+    }
+
+    /**
+     * Writes templates as a bundle.
+     *
+     * @param templates the templates by name
+     * @param out       the stream to write to; not closed
+     * @throws IOException              if writing fails
+     * @throws IllegalArgumentException if a component has a field type the bundle cannot hold
+     */
+    public static void write(Map<String, List<Component>> templates, OutputStream out) throws IOException {
+        ByteArrayOutputStream blocks = new ByteArrayOutputStream();
+        DataOutputStream blockOut = new DataOutputStream(blocks);
+        Map<String, Integer> offsets = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Component>> template : templates.entrySet()) {
+            offsets.put(template.getKey(), blockOut.size());
+            writeTemplate(template.getValue(), blockOut);
+        }
+        blockOut.flush();
+
+        DataOutputStream headerOut = new DataOutputStream(out);
+        headerOut.writeInt(MAGIC);
+        headerOut.writeInt(VERSION);
+        headerOut.writeInt(offsets.size());
+        for (Map.Entry<String, Integer> entry : offsets.entrySet()) {
+            headerOut.writeUTF(entry.getKey());
+            headerOut.writeInt(entry.getValue());
+        }
+        blocks.writeTo(headerOut);
+        headerOut.flush();
+    }
+
+    /**
+     * Gets the names of the bundled templates.
+     *
+     * @return the template names
+     */
+    public Set<String> getTemplateNames() {
+        return Collections.unmodifiableSet(offsets.keySet());
+    }
+
+    /**
+     * Checks whether a template is bundled.
+     *
+     * @param name the template name
+     * @return true if the bundle holds the template
+     */
+    public boolean contains(String name) {
+        return offsets.containsKey(name);
+    }
+
+    /**
+     * Decodes a template into new component instances.
+     *
+     * @param name the template name
+     * @return the template components, or null if the template is not bundled
+     */
+    public List<Component> decode(String name) {
+        Integer offset = offsets.get(name);
+        if (offset == null) {
+            return null;
+        }
+        int start = blocksStart + offset;
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, start, data.length - start));
+        try {
+            int componentCount = in.readShort();
+            List<Component> components = new ArrayList<>(componentCount);
+            for (int i = 0; i < componentCount; i++) {
+                components.add(readComponent(in));
+            }
+            return components;
+        } catch (IOException | ReflectiveOperationException e) {
+            throw new IllegalStateException("Corrupt prefab bundle entry " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeTemplate(List<Component> components, DataOutputStream out) throws IOException {
+        out.writeShort(components.size());
+        for (Component component : components) {
+            ComponentSerializer<Component> serializer =
+                    (ComponentSerializer<Component>) ComponentSerializers.of(component.getClass());
+            out.writeUTF(component.getClass().getName());
+            ByteArrayOutputStream fieldBytes = new ByteArrayOutputStream();
+            DataOutputStream fieldOut = new DataOutputStream(fieldBytes);
+            int written = 0;
+            for (int field = 0; field < serializer.getFieldCount(); field++) {
+                Object value = serializer.get(component, field);
+                if (value != null) {
+                    fieldOut.writeUTF(serializer.getFieldName(field));
+                    writeValue(serializer, field, value, fieldOut);
+                    written++;
+                }
+            }
+            out.writeShort(written);
+            fieldBytes.writeTo(out);
+        }
+    }
+
+    private static void writeValue(ComponentSerializer<?> serializer, int field, Object value, DataOutputStream out)
+            throws IOException {
+        ColumnType type = serializer.getColumnType(field);
+        if (type == null) {
+            throw new IllegalArgumentException("Field " + serializer.getFieldName(field) + " of "
+                    + serializer.getType().getName() + " has an unsupported type");
+        }
+        out.writeByte(type.getTag());
+        switch (type) {
+            case FLOAT:
+                out.writeFloat((Float) value);
+                break;
+            case INT:
+                out.writeInt((Integer) value);
+                break;
+            case LONG:
+                out.writeLong((Long) value);
+                break;
+            case DOUBLE:
+                out.writeDouble((Double) value);
+                break;
+            case BOOLEAN:
+                out.writeBoolean((Boolean) value);
+                break;
+            default:
+                out.writeUTF((String) value);
+                break;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Component readComponent(DataInputStream in) throws IOException, ReflectiveOperationException {
+        Class<?> type = Class.forName(in.readUTF());
+        if (!Component.class.isAssignableFrom(type)) {
+            throw new IOException("Not a component type: " + type.getName());
+        }
+        ComponentSerializer<Component> serializer =
+                (ComponentSerializer<Component>) ComponentSerializers.of((Class<? extends Component>) type);
+        Component component = serializer.newInstance();
+        int fieldCount = in.readShort();
+        for (int i = 0; i < fieldCount; i++) {
+            String name = in.readUTF();
+            int field = serializer.indexOf(name);
+            if (field < 0) {
+                throw new NoSuchFieldException(type.getName() + "." + name);
+            }
+            byte tag = in.readByte();
+            if (tag == 'F') {
+                serializer.set(component, field, in.readFloat());
+            } else if (tag == 'I') {
+                serializer.set(component, field, in.readInt());
+            } else if (tag == 'J') {
+                serializer.set(component, field, in.readLong());
+            } else if (tag == 'D') {
+                serializer.set(component, field, in.readDouble());
+            } else if (tag == 'Z') {
+                serializer.set(component, field, in.readBoolean());
+            } else if (tag == 'S') {
+                serializer.set(component, field, in.readUTF());
+            } else {
+                throw new IOException("Unknown field tag " + tag);
+            }
+        }
+        return component;
+    }
+}
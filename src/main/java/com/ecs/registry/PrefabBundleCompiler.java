@@ -0,0 +1,75 @@
+package com.ecs.registry;
+
+import com.artemis.Component;
+import com.ecs.service.YamlService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Build step compiling a directory of YAML prefabs into a {@link PrefabBundle}.
+ * Run by Maven in the {@code process-classes} phase, after the component classes are compiled.
+ * Any invalid prefab fails the build.
+ */
+@Slf4j
+public final class PrefabBundleCompiler {
+
+    private PrefabBundleCompiler() {
+    }
+
+    /**
+     * Compiles the prefabs of a directory into a bundle file.
+     * Nothing is written if the directory does not exist.
+     *
+     * @param prefabDir  the directory of YAML prefabs
+     * @param bundleFile the bundle file to write
+     * @return the number of compiled templates
+     * @throws IOException              if reading or writing fails
+     * @throws IllegalArgumentException if a prefab is invalid
+     */
+    public static int compile(Path prefabDir, Path bundleFile) throws IOException {
+        if (!Files.isDirectory(prefabDir)) {
+            log.info("No prefab directory at {}, skipping bundle", prefabDir);
+            return 0;
+        }
+
+        PrefabParser parser = new PrefabParser(new YamlService(), true);
+        Map<String, List<Component>> templates = new LinkedHashMap<>();
+        try (Stream<Path> files = Files.list(prefabDir)) {
+            for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                String templateName = TemplateRegistry.templateName(file.getFileName().toString());
+                if (templateName != null && Files.isRegularFile(file)) {
+                    templates.put(templateName, parser.parse(templateName, Files.newInputStream(file)));
+                }
+            }
+        }
+
+        Files.createDirectories(bundleFile.toAbsolutePath().getParent());
+        try (OutputStream out = Files.newOutputStream(bundleFile)) {
+            PrefabBundle.write(templates, out);
+        }
+        log.info("Compiled {} prefabs into {} ({} bytes)", templates.size(), bundleFile, Files.size(bundleFile));
+        return templates.size();
+    }
+
+    /**
+     * Entry point for the build.
+     *
+     * @param args the prefab directory and the bundle file
+     * @throws IOException if reading or writing fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: PrefabBundleCompiler <prefab dir> <bundle file>");
+        }
+        compile(Paths.get(args[0]), Paths.get(args[1]));
+    }
+}
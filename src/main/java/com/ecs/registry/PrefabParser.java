@@ -0,0 +1,130 @@
+package com.ecs.registry;
+
+import com.artemis.Component;
+import com.ecs.persistence.ComponentSerializer;
+import com.ecs.persistence.ComponentSerializers;
+import com.ecs.service.YamlService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parser turning YAML prefab documents into template components.
+ *
+ * <p>A lenient parser logs and skips invalid prefabs and components, as the registry does at
+ * runtime. A strict parser throws instead, so that the prefab bundle build fails on bad
+ * input.</p>
+ */
+@Slf4j
+public class PrefabParser {
+
+    private final YamlService yamlService;
+    private final boolean strict;
+
+    /**
+     * Creates a parser.
+     *
+     * @param yamlService the YAML service
+     * @param strict      whether invalid input throws instead of being logged and skipped
+     */
+    public PrefabParser(YamlService yamlService, boolean strict) {
+        this.yamlService = yamlService;
+        this.strict = strict;
+    }
+
+    /**
+     * Parses a template from an input stream.
+     *
+     * @param templateName the template name, for logging
+     * @param inputStream  the YAML prefab; closed by this method
+     * @return the template components, or null if the prefab is invalid and the parser is lenient
+     * @throws IllegalArgumentException if the prefab is invalid and the parser is strict
+     */
+    @SuppressWarnings("unchecked")
+    public List<Component> parse(String templateName, InputStream inputStream) {
+        try (InputStream stream = inputStream) {
+            Map<String, Object> templateData = (Map<String, Object>) yamlService.getYaml().load(stream);
+
+            if (templateData == null || !templateData.containsKey("components")) {
+                if (strict) {
+                    throw new IllegalArgumentException("Template " + templateName + " has no components");
+                }
+                log.warn("Template {} has no components", templateName);
+                return null;
+            }
+
+            List<Map<String, Object>> componentsData = (List<Map<String, Object>>) templateData.get("components");
+            List<Component> components = new ArrayList<>();
+
+            for (Map<String, Object> componentData : componentsData) {
+                try {
+                    Component component = instantiateComponent(componentData);
+                    components.add(component);
+                } catch (Exception e) {
+                    if (strict) {
+                        throw new IllegalArgumentException("Invalid component in template " + templateName
+                                + ": " + e.getMessage(), e);
+                    }
+                    log.error("Failed to instantiate component in template {}: {}", templateName, e.getMessage());
+                }
+            }
+
+            log.info("Loaded template '{}' with {} components", templateName, components.size());
+            return components;
+        } catch (Exception e) {
+            if (strict) {
+                throw e instanceof IllegalArgumentException ? (IllegalArgumentException) e
+                        : new IllegalArgumentException("Failed to parse template " + templateName + ": " + e.getMessage(), e);
+            }
+            log.error("Failed to parse template {}: {}", templateName, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Instantiates a component from YAML data.
+     */
+    @SuppressWarnings("unchecked")
+    private Component instantiateComponent(Map<String, Object> data) throws Exception {
+        String typeName = (String) data.get("type");
+
+        if (typeName == null) {
+            throw new IllegalArgumentException("Component type is missing");
+        }
+
+        // Restrict to known component classes
+        if (!typeName.startsWith("com.ecs.component.")) {
+            throw new IllegalArgumentException("Disallowed component type: " + typeName);
+        }
+
+        Class<?> rawClass = Class.forName(typeName);
+        if (!Component.class.isAssignableFrom(rawClass)) {
+            throw new IllegalArgumentException("Type is not a valid Component: " + typeName);
+        }
+
+        ComponentSerializer<Component> serializer =
+                (ComponentSerializer<Component>) ComponentSerializers.of((Class<? extends Component>) rawClass);
+        Component component = serializer.newInstance();
+
+        // Set field values
+        Map<String, Object> fields = (Map<String, Object>) data.get("fields");
+        if (fields != null) {
+            for (Map.Entry<String, Object> entry : fields.entrySet()) {
+                int field = serializer.indexOf(entry.getKey());
+                if (field < 0) {
+                    if (strict) {
+                        throw new IllegalArgumentException("Field " + entry.getKey() + " not found in component " + typeName);
+                    }
+                    log.warn("Field {} not found in component {}", entry.getKey(), typeName);
+                } else {
+                    serializer.set(component, field, entry.getValue());
+                }
+            }
+        }
+
+        return component;
+    }
+}
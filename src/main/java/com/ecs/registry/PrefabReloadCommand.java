@@ -0,0 +1,105 @@
+package com.ecs.registry;
+
+import com.artemis.Component;
+import com.artemis.World;
+import com.ecs.replay.CommandCodec;
+import com.ecs.replay.JournaledCommand;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Command swapping a reloaded prefab into the {@link TemplateRegistry}, or dropping a deleted
+ * one, queued by the {@link PrefabWatcher}. The prefab's YAML is journaled, so replays spawn
+ * from the same templates as the recorded run.
+ */
+public final class PrefabReloadCommand implements JournaledCommand {
+
+    public static final int TYPE_ID = 2;
+
+    private final TemplateRegistry templateRegistry;
+    private final String templateName;
+    private final byte[] source;
+    private final List<Component> template;
+
+    /**
+     * Creates a command for a reloaded or deleted prefab.
+     *
+     * @param templateRegistry the registry to update
+     * @param templateName     the template name
+     * @param source           the prefab YAML, or null if the prefab was deleted
+     * @param template         the parsed prefab, or null if the prefab was deleted
+     */
+    PrefabReloadCommand(TemplateRegistry templateRegistry, String templateName, byte[] source,
+                        List<Component> template) {
+        this.templateRegistry = templateRegistry;
+        this.templateName = templateName;
+        this.source = source;
+        this.template = template;
+    }
+
+    @Override
+    public void accept(World world) {
+        if (template == null) {
+            templateRegistry.removeOverride(templateName);
+        } else {
+            templateRegistry.registerTemplate(templateName, template);
+        }
+    }
+
+    @Override
+    public int getTypeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeUTF(templateName);
+        if (source == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(source.length);
+            out.write(source);
+        }
+    }
+
+    /**
+     * Decodes journaled prefab reloads, parsing the prefab again.
+     */
+    @Singleton
+    public static class Codec implements CommandCodec {
+
+        private final TemplateRegistry templateRegistry;
+
+        @Inject
+        public Codec(TemplateRegistry templateRegistry) {
+            this.templateRegistry = templateRegistry;
+        }
+
+        @Override
+        public int getTypeId() {
+            return TYPE_ID;
+        }
+
+        @Override
+        public JournaledCommand read(DataInput in) throws IOException {
+            String templateName = in.readUTF();
+            int length = in.readInt();
+            if (length < 0) {
+                return new PrefabReloadCommand(templateRegistry, templateName, null, null);
+            }
+            byte[] source = new byte[length];
+            in.readFully(source);
+            List<Component> template = templateRegistry.parseTemplate(templateName, new ByteArrayInputStream(source));
+            if (template == null) {
+                throw new IOException("Journaled prefab " + templateName + " no longer parses");
+            }
+            return new PrefabReloadCommand(templateRegistry, templateName, source, template);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.ecs.registry;
+
+import com.artemis.Component;
+import com.ecs.core.WorldCommandQueue;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.ShutdownEvent;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+
+/**
+ * Reloads prefabs from the external prefab directory when their files change.
+ *
+ * <p>Changed files are parsed on the watcher thread. The parsed template is then swapped into
+ * the {@link TemplateRegistry} by a {@link WorldCommandQueue} command, so a reload always
+ * takes effect between two ticks and never while a spawn is in progress. A prefab that fails
+ * to parse keeps its previous version, and a deleted prefab falls back to the classpath or
+ * bundled prefab it overrode.</p>
+ */
+@Slf4j
+@Singleton
+@Requires(property = "ecs.prefabs.watch", value = "true")
+public class PrefabWatcher implements Runnable {
+
+    private final TemplateRegistry templateRegistry;
+    private final WorldCommandQueue commandQueue;
+    private WatchService watchService;
+    private Thread watcherThread;
+
+    @Inject
+    public PrefabWatcher(TemplateRegistry templateRegistry, WorldCommandQueue commandQueue) {
+        this.templateRegistry = templateRegistry;
+        this.commandQueue = commandQueue;
+    }
+
+    /**
+     * Starts watching the external prefab directory.
+     *
+     * @throws IOException if the directory cannot be watched
+     */
+    public synchronized void start() throws IOException {
+        Path directory = templateRegistry.getExternalDir();
+        if (directory == null || watcherThread != null) {
+            return;
+        }
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        watcherThread = new Thread(this, "PrefabWatcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        log.info("Watching prefabs in {}", directory);
+    }
+
+    /**
+     * Stops watching.
+     */
+    public synchronized void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("Failed to close prefab watcher: {}", e.getMessage());
+            }
+            watchService = null;
+            watcherThread = null;
+        }
+    }
+
+    @EventListener
+    public void onStartup(StartupEvent event) {
+        try {
+            start();
+        } catch (IOException e) {
+            log.error("Failed to watch prefab directory: {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onShutdown(ShutdownEvent event) {
+        stop();
+    }
+
+    @Override
+    public void run() {
+        WatchService service = watchService;
+        Path directory = templateRegistry.getExternalDir();
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        continue;
+                    }
+                    Path file = directory.resolve((Path) event.context());
+                    String templateName = TemplateRegistry.templateName(file.getFileName().toString());
+                    if (templateName != null) {
+                        reload(templateName, file);
+                    }
+                }
+                if (!key.reset()) {
+                    log.warn("Prefab directory {} is no longer accessible", directory);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    /**
+     * Parses a changed prefab and queues its swap into the registry.
+     *
+     * @param templateName the template name
+     * @param file         the prefab file
+     */
+    void reload(String templateName, Path file) {
+        if (!Files.exists(file)) {
+            commandQueue.enqueue(new PrefabReloadCommand(templateRegistry, templateName, null, null));
+            log.info("Prefab {} removed", templateName);
+            return;
+        }
+
+        byte[] source;
+        try {
+            source = Files.readAllBytes(file);
+        } catch (IOException e) {
+            log.error("Failed to read prefab {}: {}", file, e.getMessage());
+            return;
+        }
+        List<Component> template = templateRegistry.parseTemplate(templateName, new ByteArrayInputStream(source));
+        if (template != null) {
+            commandQueue.enqueue(new PrefabReloadCommand(templateRegistry, templateName, source, template));
+            log.info("Prefab {} reloaded", templateName);
+        }
+    }
+}
@@ -2,156 +2,252 @@ package com.ecs.registry;
 
 import com.artemis.Component;
 import com.ecs.service.YamlService;
+import io.micronaut.context.annotation.Value;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.Field;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 /**
  * Registry for entity templates loaded from YAML prefab files.
+ *
+ * <p>At startup the registry only discovers prefabs: every {@code prefabs/*.yml} (or
+ * {@code .yaml}) on the classpath, in directories and jars alike, plus the files of an optional
+ * external directory set by {@code ecs.prefabs.dir}. External prefabs override classpath
+ * prefabs with the same name. A prefab is parsed on its first {@link #getTemplate} call and
+ * cached, so startup cost does not grow with the number of prefabs.</p>
+ *
+ * <p>When the build produced a {@link PrefabBundle}, templates it contains are decoded from it
+ * on first use, without any YAML parsing, and win over classpath prefabs of the same name.
+ * Classpath prefabs missing from the bundle, such as those of other jars, are still loaded
+ * from YAML. External prefabs override both.</p>
  */
 @Singleton
 @Slf4j
 public class TemplateRegistry {
 
-    private final YamlService yamlService;
-    private final Map<String, List<Component>> templates = new HashMap<>();
+    static final String PREFABS_DIR = "prefabs";
+
+    private final PrefabParser parser;
+    private final Path externalDir;
+    private final ClassLoader classLoader;
+    private final Map<String, URL> sources = new ConcurrentHashMap<>();
+    private final Map<String, URL> classpathSources = new ConcurrentHashMap<>();
+    private PrefabBundle bundle;
+    private final Map<String, List<Component>> templates = new ConcurrentHashMap<>();
 
-    @Inject
     public TemplateRegistry(YamlService yamlService) {
-        this.yamlService = yamlService;
-        loadTemplates();
+        this(yamlService, "");
+    }
+
+    @Inject
+    public TemplateRegistry(YamlService yamlService, @Value("${ecs.prefabs.dir:}") String externalDir) {
+        this(yamlService, externalDir, TemplateRegistry.class.getClassLoader());
     }
 
     /**
-     * Scans the prefabs directory via classpath and loads all YAML templates.
-     * 
-     * <p><strong>Note:</strong> Current implementation requires manual listing of template names.
-     * A future enhancement could use ClassGraph or Reflections library to dynamically discover
-     * all YAML files in the prefabs directory.</p>
+     * Creates a registry discovering classpath prefabs and the bundle through a class loader.
+     *
+     * @param yamlService the YAML service
+     * @param externalDir the external prefab directory, or blank for none
+     * @param classLoader the class loader to discover prefabs with
      */
-    private void loadTemplates() {
-        try {
-            // Use ClassLoader to get resources from classpath (works in JAR)
-            ClassLoader classLoader = getClass().getClassLoader();
-            URL prefabsUrl = classLoader.getResource("prefabs");
-            
-            if (prefabsUrl == null) {
-                log.info("Prefabs directory not found in classpath, skipping template loading.");
-                return;
+    public TemplateRegistry(YamlService yamlService, String externalDir, ClassLoader classLoader) {
+        this.parser = new PrefabParser(yamlService, false);
+        this.externalDir = externalDir == null || externalDir.isBlank() ? null : Paths.get(externalDir);
+        this.classLoader = classLoader;
+        discoverTemplates();
+    }
+
+    /**
+     * Indexes the prefab files on the classpath and in the external directory without parsing them.
+     */
+    private void discoverTemplates() {
+        long start = System.nanoTime();
+        bundle = readBundle();
+        scanClasspath();
+        if (bundle != null) {
+            classpathSources.keySet().removeIf(bundle::contains);
+        }
+        sources.putAll(classpathSources);
+
+        if (externalDir != null) {
+            try {
+                discoverInDirectory(externalDir, sources);
+            } catch (IOException e) {
+                log.error("Failed to scan prefab directory {}: {}", externalDir, e.getMessage());
             }
+        }
+
+        log.info("Discovered {} templates in {} ms ({} bundled)", getTemplateNames().size(),
+                (System.nanoTime() - start) / 1_000_000, bundle != null ? bundle.getTemplateNames().size() : 0);
+    }
+
+    private PrefabBundle readBundle() {
+        try (InputStream stream = classLoader.getResourceAsStream(PrefabBundle.RESOURCE)) {
+            return stream != null ? PrefabBundle.read(stream) : null;
+        } catch (IOException e) {
+            log.error("Failed to read prefab bundle, loading prefabs from YAML: {}", e.getMessage());
+            return null;
+        }
+    }
 
-            // TODO: Use resource scanner library to dynamically discover YAML files
-            String[] templateNames = {"example"}; // Manually maintained list
-            
-            for (String templateName : templateNames) {
+    private void scanClasspath() {
+        try {
+            Enumeration<URL> roots = classLoader.getResources(PREFABS_DIR);
+            while (roots.hasMoreElements()) {
+                URL root = roots.nextElement();
                 try {
-                    String resourcePath = "prefabs/" + templateName + ".yml";
-                    InputStream inputStream = classLoader.getResourceAsStream(resourcePath);
-                    
-                    if (inputStream == null) {
-                        resourcePath = "prefabs/" + templateName + ".yaml";
-                        inputStream = classLoader.getResourceAsStream(resourcePath);
-                    }
-                    
-                    if (inputStream != null) {
-                        loadTemplate(templateName, inputStream);
-                        inputStream.close();
+                    if ("jar".equals(root.getProtocol())) {
+                        discoverInJar(root);
+                    } else if ("file".equals(root.getProtocol())) {
+                        discoverInDirectory(Paths.get(root.toURI()), classpathSources);
+                    } else {
+                        log.warn("Unsupported prefab location {}", root);
                     }
-                } catch (Exception e) {
-                    log.error("Failed to load template {}: {}", templateName, e.getMessage());
+                } catch (IOException | URISyntaxException e) {
+                    log.error("Failed to scan prefabs in {}: {}", root, e.getMessage());
                 }
             }
-            
-            log.info("Loaded {} templates", templates.size());
-        } catch (Exception e) {
-            log.error("Failed to load templates: {}", e.getMessage());
+        } catch (IOException e) {
+            log.error("Failed to scan classpath for prefabs: {}", e.getMessage());
         }
     }
 
-    /**
-     * Loads a single template from an input stream.
-     */
-    @SuppressWarnings("unchecked")
-    private void loadTemplate(String templateName, InputStream inputStream) {
-        try (InputStream stream = inputStream) {
-            Map<String, Object> templateData = (Map<String, Object>) yamlService.getYaml().load(stream);
-            
-            if (templateData == null || !templateData.containsKey("components")) {
-                log.warn("Template {} has no components", templateName);
-                return;
+    private void discoverInJar(URL root) throws IOException {
+        URLConnection connection = root.openConnection();
+        if (!(connection instanceof JarURLConnection)) {
+            return;
+        }
+        String prefix = PREFABS_DIR + "/";
+        JarFile jar = ((JarURLConnection) connection).getJarFile();
+        String jarUrl = root.toString().substring(0, root.toString().indexOf("!/") + 2);
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            String entryName = entries.nextElement().getName();
+            if (entryName.startsWith(prefix) && entryName.indexOf('/', prefix.length()) < 0) {
+                String templateName = templateName(entryName.substring(prefix.length()));
+                if (templateName != null) {
+                    classpathSources.put(templateName, new URL(jarUrl + entryName));
+                }
             }
+        }
+    }
 
-            List<Map<String, Object>> componentsData = (List<Map<String, Object>>) templateData.get("components");
-            List<Component> components = new ArrayList<>();
-
-            for (Map<String, Object> componentData : componentsData) {
-                try {
-                    Component component = instantiateComponent(componentData);
-                    components.add(component);
-                } catch (Exception e) {
-                    log.error("Failed to instantiate component in template {}: {}", templateName, e.getMessage());
+    private void discoverInDirectory(Path directory, Map<String, URL> found) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            log.warn("Prefab directory {} does not exist", directory);
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String templateName = templateName(file.getFileName().toString());
+                if (templateName != null && Files.isRegularFile(file)) {
+                    found.put(templateName, file.toUri().toURL());
                 }
             }
-
-            templates.put(templateName, components);
-            log.info("Loaded template '{}' with {} components", templateName, components.size());
-        } catch (Exception e) {
-            log.error("Failed to parse template {}: {}", templateName, e.getMessage());
         }
     }
 
     /**
-     * Instantiates a component from YAML data.
+     * Gets the template name of a prefab file.
+     *
+     * @param fileName the file name
+     * @return the name without extension, or null if the file is not a prefab
      */
-    @SuppressWarnings("unchecked")
-    private Component instantiateComponent(Map<String, Object> data) throws Exception {
-        String typeName = (String) data.get("type");
-        
-        if (typeName == null) {
-            throw new IllegalArgumentException("Component type is missing");
+    static String templateName(String fileName) {
+        if (fileName.endsWith(".yml")) {
+            return fileName.substring(0, fileName.length() - 4);
         }
-
-        // Restrict to known component classes
-        if (!typeName.startsWith("com.ecs.component.")) {
-            throw new IllegalArgumentException("Disallowed component type: " + typeName);
+        if (fileName.endsWith(".yaml")) {
+            return fileName.substring(0, fileName.length() - 5);
         }
+        return null;
+    }
+
+    /**
+     * Parses a template from an input stream, logging and skipping invalid content.
+     *
+     * @param templateName the template name, for logging
+     * @param inputStream  the YAML prefab; closed by this method
+     * @return the template components, or null if the prefab is invalid
+     */
+    List<Component> parseTemplate(String templateName, InputStream inputStream) {
+        return parser.parse(templateName, inputStream);
+    }
 
-        Class<?> rawClass = Class.forName(typeName);
-        if (!Component.class.isAssignableFrom(rawClass)) {
-            throw new IllegalArgumentException("Type is not a valid Component: " + typeName);
+    /**
+     * Gets a template by name, parsing its prefab or decoding it from the bundle on first use.
+     *
+     * @param name the template name
+     * @return the list of components, or null if not found
+     */
+    public List<Component> getTemplate(String name) {
+        List<Component> template = templates.get(name);
+        if (template != null) {
+            return template;
+        }
+        URL source = sources.get(name);
+        if (source == null) {
+            return bundle != null ? cache(name, bundle.decode(name)) : null;
         }
 
-        Component component = ((Class<? extends Component>) rawClass).getDeclaredConstructor().newInstance();
+        try {
+            template = parseTemplate(name, source.openStream());
+        } catch (IOException e) {
+            log.error("Failed to read template {}: {}", name, e.getMessage());
+        }
+        if (template == null) {
+            // Drop invalid prefabs so they are not parsed again on every lookup
+            sources.remove(name, source);
+            return null;
+        }
+        return cache(name, template);
+    }
 
-        // Set field values
-        Map<String, Object> fields = (Map<String, Object>) data.get("fields");
-        if (fields != null) {
-            for (Map.Entry<String, Object> entry : fields.entrySet()) {
-                try {
-                    Field field = component.getClass().getField(entry.getKey());
-                    field.set(component, entry.getValue());
-                } catch (NoSuchFieldException e) {
-                    log.warn("Field {} not found in component {}", entry.getKey(), typeName);
-                }
-            }
+    private List<Component> cache(String name, List<Component> template) {
+        if (template == null) {
+            return null;
         }
+        List<Component> existing = templates.putIfAbsent(name, template);
+        return existing != null ? existing : template;
+    }
 
-        return component;
+    /**
+     * Gets the names of all known templates, parsed or not.
+     *
+     * @return the template names
+     */
+    public Set<String> getTemplateNames() {
+        Set<String> names = new HashSet<>(sources.keySet());
+        names.addAll(templates.keySet());
+        if (bundle != null) {
+            names.addAll(bundle.getTemplateNames());
+        }
+        return names;
     }
 
     /**
-     * Gets a template by name.
+     * Gets the external prefab directory.
      *
-     * @param name the template name
-     * @return the list of components, or null if not found
+     * @return the directory, or null if none is configured
      */
-    public List<Component> getTemplate(String name) {
-        return templates.get(name);
+    public Path getExternalDir() {
+        return externalDir;
     }
 
     /**
@@ -163,4 +259,31 @@ public class TemplateRegistry {
     public void registerTemplate(String name, List<Component> components) {
         templates.put(name, components);
     }
+
+    /**
+     * Removes a template and forgets its prefab file.
+     * A bundled template of the same name becomes visible again.
+     *
+     * @param name the template name
+     */
+    public void removeTemplate(String name) {
+        templates.remove(name);
+        sources.remove(name);
+    }
+
+    /**
+     * Drops the external override of a template.
+     * The classpath or bundled prefab of the same name, if any, is used again.
+     *
+     * @param name the template name
+     */
+    public void removeOverride(String name) {
+        templates.remove(name);
+        URL classpathSource = classpathSources.get(name);
+        if (classpathSource != null) {
+            sources.put(name, classpathSource);
+        } else {
+            sources.remove(name);
+        }
+    }
 }
@@ -0,0 +1,27 @@
+package com.ecs.replay;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+/**
+ * Decodes journaled commands of one type. Codecs are beans, discovered by the
+ * {@link ReplayRunner}.
+ */
+public interface CommandCodec {
+
+    /**
+     * Gets the type ID of the commands this codec decodes.
+     *
+     * @return the type ID, matching {@link JournaledCommand#getTypeId()}
+     */
+    int getTypeId();
+
+    /**
+     * Reads a command written by {@link JournaledCommand#write(java.io.DataOutput)}.
+     *
+     * @param in the input
+     * @return the command
+     * @throws IOException if reading fails
+     */
+    JournaledCommand read(DataInput in) throws IOException;
+}
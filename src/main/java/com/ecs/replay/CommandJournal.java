@@ -0,0 +1,255 @@
+package com.ecs.replay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Binary journal of a simulation run: the commands drained from the
+ * {@link com.ecs.core.WorldCommandQueue} and the delta of each tick, in execution order.
+ *
+ * <p>Layout, big-endian:</p>
+ * <pre>
+ * header:    int magic, int version
+ * command:   byte 1, short typeId, int length, length bytes written by the command
+ * tick:      byte 2, float delta
+ * gap:       byte 3, UTF reason
+ * </pre>
+ *
+ * <p>The run starts from the snapshot at {@link #snapshotPathFor(Path)}. Commands carry their
+ * length, so a reader can skip types it has no codec for. A gap records something the journal
+ * could not capture, such as a command that is not journaled, after which a replay may
+ * diverge. A record cut off by a crash ends the journal.</p>
+ */
+public final class CommandJournal {
+
+    private static final int MAGIC = 0x45435352; // "ECSR"
+    private static final int VERSION = 2;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private static final byte COMMAND = 1;
+    private static final byte TICK = 2;
+    private static final byte GAP = 3;
+
+    private CommandJournal() {
+    }
+
+    /**
+     * Gets the snapshot a journaled run starts from.
+     *
+     * @param journal the journal file
+     * @return the snapshot file
+     */
+    public static Path snapshotPathFor(Path journal) {
+        return journal.resolveSibling(journal.getFileName() + ".snap");
+    }
+
+    /**
+     * Appends records to a new journal.
+     */
+    public static final class Writer implements Closeable {
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        private final DataOutputStream payloadOut = new DataOutputStream(payload);
+
+        /**
+         * Creates a journal, replacing any existing file.
+         *
+         * @param path the journal file
+         * @throws IOException if the file cannot be created
+         */
+        public Writer(Path path) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_BYTES));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        /**
+         * Writes a command record.
+         *
+         * @param command the command
+         * @throws IOException if writing fails
+         */
+        public void writeCommand(JournaledCommand command) throws IOException {
+            payload.reset();
+            command.write(payloadOut);
+            out.writeByte(COMMAND);
+            out.writeShort(command.getTypeId());
+            out.writeInt(payload.size());
+            payload.writeTo(out);
+        }
+
+        /**
+         * Writes a tick record.
+         *
+         * @param delta the tick delta in seconds
+         * @throws IOException if writing fails
+         */
+        public void writeTick(float delta) throws IOException {
+            out.writeByte(TICK);
+            out.writeFloat(delta);
+        }
+
+        /**
+         * Writes a gap record.
+         *
+         * @param reason what is missing from the journal
+         * @throws IOException if writing fails
+         */
+        public void writeGap(String reason) throws IOException {
+            out.writeByte(GAP);
+            out.writeUTF(reason);
+        }
+
+        /**
+         * Writes buffered records to the file.
+         *
+         * @throws IOException if writing fails
+         */
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads the records of a journal in order.
+     */
+    public static final class Reader implements Closeable {
+        private final DataInputStream in;
+        private byte kind;
+        private float delta;
+        private String gapReason;
+        private int typeId;
+        private byte[] payload = new byte[0];
+        private int payloadLength;
+
+        /**
+         * Opens a journal.
+         *
+         * @param path the journal file
+         * @throws IOException if the file cannot be read or is not a journal
+         */
+        public Reader(Path path) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_BYTES));
+            try {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("Not a command journal: " + path);
+                }
+                int version = in.readInt();
+                if (version < 1 || version > VERSION) {
+                    throw new IOException("Unsupported command journal version " + version);
+                }
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Advances to the next record.
+         *
+         * @return false at the end of the journal
+         * @throws IOException if reading fails
+         */
+        public boolean next() throws IOException {
+            try {
+                int next = in.read();
+                if (next < 0) {
+                    return false;
+                }
+                if (next == TICK) {
+                    delta = in.readFloat();
+                } else if (next == GAP) {
+                    gapReason = in.readUTF();
+                } else if (next == COMMAND) {
+                    typeId = in.readShort();
+                    int length = in.readInt();
+                    if (payload.length < length) {
+                        payload = new byte[length];
+                    }
+                    in.readFully(payload, 0, length);
+                    payloadLength = length;
+                } else {
+                    throw new IOException("Corrupt command journal record " + next);
+                }
+                kind = (byte) next;
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Checks whether the current record is a tick.
+         *
+         * @return true for a tick
+         */
+        public boolean isTick() {
+            return kind == TICK;
+        }
+
+        /**
+         * Checks whether the current record is a gap.
+         *
+         * @return true for a gap
+         */
+        public boolean isGap() {
+            return kind == GAP;
+        }
+
+        /**
+         * Gets the delta of the current tick record.
+         *
+         * @return the delta in seconds
+         */
+        public float getDelta() {
+            return delta;
+        }
+
+        /**
+         * Gets what is missing at the current gap record.
+         *
+         * @return the reason
+         */
+        public String getGapReason() {
+            return gapReason;
+        }
+
+        /**
+         * Gets the type ID of the current command record.
+         *
+         * @return the type ID
+         */
+        public int getTypeId() {
+            return typeId;
+        }
+
+        /**
+         * Gets the arguments of the current command record.
+         *
+         * @return an input over the command's bytes
+         */
+        public DataInput getPayload() {
+            return new DataInputStream(new ByteArrayInputStream(payload, 0, payloadLength));
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
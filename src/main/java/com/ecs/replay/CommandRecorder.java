@@ -0,0 +1,157 @@
+package com.ecs.replay;
+
+import com.artemis.Aspect;
+import com.artemis.Component;
+import com.artemis.World;
+import com.ecs.component.AiBehavior;
+import com.ecs.component.AttackIntent;
+import com.ecs.component.SwingTimer;
+import com.ecs.service.PersistenceService;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.ShutdownEvent;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Records a simulation run into a {@link CommandJournal} for later replay by the
+ * {@link ReplayRunner}. Enabled by setting {@code ecs.replay.record} to the journal file.
+ *
+ * <p>Before the first record, the persistent entities are saved as the run's starting
+ * snapshot. Commands that are neither {@link JournaledCommand}s nor {@link ExternalCommand}s
+ * are executed but recorded only as a gap, as are AI behaviours and attacks in progress,
+ * which the snapshot cannot hold. A replay of a journal with gaps reports itself incomplete. If writing fails,
+ * recording stops and the simulation carries on.</p>
+ */
+@Slf4j
+@Singleton
+@Requires(property = "ecs.replay.record")
+public class CommandRecorder {
+
+    // Transient state that the starting snapshot cannot hold and loading does not rebuild
+    private static final List<Class<? extends Component>> UNSAVED_TYPES =
+            List.of(AiBehavior.class, AttackIntent.class, SwingTimer.class);
+
+    private final World world;
+    private final PersistenceService persistenceService;
+    private final Path journalPath;
+    private final Set<Class<?>> unjournaledTypes = new HashSet<>();
+    private CommandJournal.Writer writer;
+    private boolean stopped;
+
+    @Inject
+    public CommandRecorder(World world, PersistenceService persistenceService,
+                           @Value("${ecs.replay.record}") String journalPath) {
+        this.world = world;
+        this.persistenceService = persistenceService;
+        this.journalPath = Paths.get(journalPath);
+    }
+
+    /**
+     * Records a command about to be executed. Called on the game loop thread.
+     *
+     * @param command the command
+     */
+    public synchronized void recordCommand(Consumer<World> command) {
+        if (command instanceof ExternalCommand) {
+            return;
+        }
+        if (start()) {
+            try {
+                if (command instanceof JournaledCommand) {
+                    writer.writeCommand((JournaledCommand) command);
+                } else {
+                    if (unjournaledTypes.add(command.getClass())) {
+                        log.warn("Command {} is not journaled, replays of {} may diverge",
+                                command.getClass().getName(), journalPath);
+                    }
+                    writer.writeGap("Unjournaled command " + command.getClass().getName());
+                }
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+    }
+
+    /**
+     * Records a tick, after its commands and before the world is processed. Called on the
+     * game loop thread.
+     *
+     * @param delta the tick delta in seconds
+     */
+    public synchronized void recordTick(float delta) {
+        if (start()) {
+            try {
+                writer.writeTick(delta);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+    }
+
+    /**
+     * Flushes and closes the journal.
+     */
+    @EventListener
+    public void onShutdown(ShutdownEvent event) {
+        stop();
+    }
+
+    /**
+     * Stops recording and closes the journal.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        if (writer != null) {
+            try {
+                writer.close();
+                log.info("Recorded run to {}", journalPath);
+            } catch (IOException e) {
+                log.error("Failed to close command journal {}: {}", journalPath, e.getMessage(), e);
+            }
+            writer = null;
+        }
+    }
+
+    private boolean start() {
+        if (writer != null) {
+            return true;
+        }
+        if (stopped) {
+            return false;
+        }
+        try {
+            persistenceService.save(CommandJournal.snapshotPathFor(journalPath).toString());
+            writer = new CommandJournal.Writer(journalPath);
+            log.info("Recording run to {}", journalPath);
+            for (Class<? extends Component> type : UNSAVED_TYPES) {
+                int count = world.getAspectSubscriptionManager().get(Aspect.all(type)).getEntities().size();
+                if (count > 0) {
+                    log.warn("{} {} components are not in the starting snapshot, replays of {} may diverge",
+                            count, type.getSimpleName(), journalPath);
+                    writer.writeGap(count + " " + type.getSimpleName()
+                            + " components missing from the starting snapshot");
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            fail(e);
+            return false;
+        }
+    }
+
+    private void fail(IOException e) {
+        log.error("Recording to {} failed, stopping: {}", journalPath, e.getMessage(), e);
+        stop();
+    }
+}
@@ -0,0 +1,13 @@
+package com.ecs.replay;
+
+import com.artemis.World;
+
+import java.util.function.Consumer;
+
+/**
+ * A {@link com.ecs.core.WorldCommandQueue} command that only touches state outside the
+ * simulation, such as a save. It is left out of the {@link CommandJournal} without making
+ * the journal incomplete.
+ */
+public interface ExternalCommand extends Consumer<World> {
+}
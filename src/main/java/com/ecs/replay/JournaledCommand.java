@@ -0,0 +1,30 @@
+package com.ecs.replay;
+
+import com.artemis.World;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * A {@link com.ecs.core.WorldCommandQueue} command that can be written to a
+ * {@link CommandJournal} and decoded again by the {@link CommandCodec} with the same type ID.
+ * Commands that change simulation state should be journaled, or replays will diverge.
+ */
+public interface JournaledCommand extends Consumer<World> {
+
+    /**
+     * Gets the type ID identifying this command's codec.
+     *
+     * @return the type ID
+     */
+    int getTypeId();
+
+    /**
+     * Writes the command's arguments.
+     *
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    void write(DataOutput out) throws IOException;
+}
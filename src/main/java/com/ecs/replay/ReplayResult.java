@@ -0,0 +1,109 @@
+package com.ecs.replay;
+
+/**
+ * Counts and timings of a replay.
+ */
+public final class ReplayResult {
+
+    private int ticks;
+    private int commands;
+    private int skippedCommands;
+    private int gaps;
+    private double simulatedSeconds;
+    private long elapsedNanos;
+    private long slowestTickNanos;
+    private int slowestTick = -1;
+
+    void recordTick(float delta, long nanos) {
+        if (nanos > slowestTickNanos) {
+            slowestTickNanos = nanos;
+            slowestTick = ticks;
+        }
+        simulatedSeconds += delta;
+        ticks++;
+    }
+
+    void recordCommand() {
+        commands++;
+    }
+
+    void recordSkippedCommand() {
+        skippedCommands++;
+    }
+
+    void recordGap() {
+        gaps++;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    public int getCommands() {
+        return commands;
+    }
+
+    /**
+     * Gets the number of commands skipped because no codec knew their type.
+     *
+     * @return the skipped command count
+     */
+    public int getSkippedCommands() {
+        return skippedCommands;
+    }
+
+    /**
+     * Gets the number of gaps in the journal, such as commands that were executed but not
+     * journaled.
+     *
+     * @return the gap count
+     */
+    public int getGaps() {
+        return gaps;
+    }
+
+    /**
+     * Checks whether everything recorded was replayed. An incomplete replay may diverge from
+     * the recorded run, so its state and timings are not a faithful repeat.
+     *
+     * @return true if the journal has no gaps and no command was skipped
+     */
+    public boolean isComplete() {
+        return gaps == 0 && skippedCommands == 0;
+    }
+
+    public double getSimulatedSeconds() {
+        return simulatedSeconds;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getSlowestTickNanos() {
+        return slowestTickNanos;
+    }
+
+    /**
+     * Gets the index of the slowest tick.
+     *
+     * @return the tick index, or -1 if no tick was replayed
+     */
+    public int getSlowestTick() {
+        return slowestTick;
+    }
+
+    @Override
+    public String toString() {
+        double elapsedSeconds = elapsedNanos / 1e9;
+        return String.format("%d ticks, %d commands (%d skipped), %d gaps, %.2fs simulated in %.3fs (%.1fx), "
+                        + "slowest tick #%d took %.3f ms",
+                ticks, commands, skippedCommands, gaps, simulatedSeconds, elapsedSeconds,
+                elapsedSeconds > 0 ? simulatedSeconds / elapsedSeconds : 0.0,
+                slowestTick, slowestTickNanos / 1e6);
+    }
+}
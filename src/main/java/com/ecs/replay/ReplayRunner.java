@@ -0,0 +1,100 @@
+package com.ecs.replay;
+
+import com.artemis.World;
+import com.ecs.service.PersistenceService;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Replays a run recorded by the {@link CommandRecorder}.
+ *
+ * <p>The starting snapshot is loaded into the world, then each tick's commands are executed
+ * and the world is processed with the recorded delta, back to back without sleeping. Given
+ * the same systems and a world holding nothing but the snapshot, the replay repeats the
+ * recorded run and finishes much faster than real time, which turns a recorded incident
+ * into a repeatable benchmark. Gaps in the journal, such as commands that were not journaled
+ * or AI behaviours left out of the snapshot, are counted in the {@link ReplayResult}, which
+ * then reports the replay as incomplete.</p>
+ */
+@Slf4j
+@Singleton
+public class ReplayRunner {
+
+    private final World world;
+    private final PersistenceService persistenceService;
+    private final Int2ObjectOpenHashMap<CommandCodec> codecs = new Int2ObjectOpenHashMap<>();
+
+    @Inject
+    public ReplayRunner(World world, PersistenceService persistenceService, List<CommandCodec> codecs) {
+        this.world = world;
+        this.persistenceService = persistenceService;
+        for (CommandCodec codec : codecs) {
+            CommandCodec previous = this.codecs.put(codec.getTypeId(), codec);
+            if (previous != null) {
+                throw new IllegalStateException("Command type " + codec.getTypeId() + " is claimed by both "
+                        + previous.getClass().getName() + " and " + codec.getClass().getName());
+            }
+        }
+    }
+
+    /**
+     * Replays a journal into the world.
+     *
+     * @param journal the journal file
+     * @return timings of the replay
+     * @throws IOException if the journal or its snapshot cannot be read
+     */
+    public ReplayResult replay(Path journal) throws IOException {
+        Path snapshot = CommandJournal.snapshotPathFor(journal);
+        if (Files.exists(snapshot)) {
+            persistenceService.load(snapshot.toString());
+        }
+
+        ReplayResult result = new ReplayResult();
+        long start = System.nanoTime();
+        try (CommandJournal.Reader reader = new CommandJournal.Reader(journal)) {
+            while (reader.next()) {
+                if (reader.isTick()) {
+                    long tickStart = System.nanoTime();
+                    world.setDelta(reader.getDelta());
+                    world.process();
+                    result.recordTick(reader.getDelta(), System.nanoTime() - tickStart);
+                    continue;
+                }
+                if (reader.isGap()) {
+                    if (result.getGaps() == 0) {
+                        log.warn("Journal {} is incomplete, the replay may diverge: {}", journal, reader.getGapReason());
+                    }
+                    result.recordGap();
+                    continue;
+                }
+
+                CommandCodec codec = codecs.get(reader.getTypeId());
+                if (codec == null) {
+                    result.recordSkippedCommand();
+                    continue;
+                }
+                try {
+                    codec.read(reader.getPayload()).accept(world);
+                } catch (Exception e) {
+                    log.error("Error executing replayed command: {}", e.getMessage(), e);
+                }
+                result.recordCommand();
+            }
+        }
+        result.setElapsedNanos(System.nanoTime() - start);
+        if (result.isComplete()) {
+            log.info("Replayed {}: {}", journal, result);
+        } else {
+            log.warn("Replayed {} incompletely: {}", journal, result);
+        }
+        return result;
+    }
+}
@@ -1,19 +1,25 @@
 package com.ecs.service;
 
 import com.ecs.core.WorldCommandQueue;
+import com.ecs.replay.ExternalCommand;
 import io.micronaut.scheduling.annotation.Scheduled;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Scheduled task for automatic game state persistence.
+ * The world is captured between ticks; encoding and writing happen off the game loop.
+ * Saves are incremental, appending the entities changed since the previous save, with a full
+ * save every {@code ecs.persistence.full-save-interval} auto-saves.
  */
+@Slf4j
 @Singleton
 public class AutoSaveTask {
 
     private final WorldCommandQueue commandQueue;
     private final PersistenceService persistenceService;
-    private static final String SAVE_FILE = "autosave.yml";
+    private static final String SAVE_FILE = "autosave.snap";
 
     @Inject
     public AutoSaveTask(WorldCommandQueue commandQueue, PersistenceService persistenceService) {
@@ -26,14 +32,14 @@ public class AutoSaveTask {
      */
     @Scheduled(fixedDelay = "5m")
     public void autoSave() {
-        commandQueue.enqueue(world -> {
-            try {
-                persistenceService.save(SAVE_FILE);
-                System.out.println("Auto-save completed: " + SAVE_FILE);
-            } catch (Exception e) {
-                System.err.println("Auto-save failed: " + e.getMessage());
-                e.printStackTrace();
-            }
-        });
+        ExternalCommand save = world -> persistenceService.saveIncremental(SAVE_FILE)
+                .whenComplete((path, error) -> {
+                    if (error != null) {
+                        log.error("Auto-save failed: {}", error.getMessage(), error);
+                    } else {
+                        log.info("Auto-save completed: {}", path);
+                    }
+                });
+        commandQueue.enqueue(save);
     }
 }
@@ -2,47 +2,487 @@ package com.ecs.service;
 
 import com.artemis.Aspect;
 import com.artemis.Component;
+import com.artemis.ComponentMapper;
 import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
 import com.artemis.utils.IntBag;
+import com.ecs.component.Body;
 import com.ecs.component.Persistent;
+import com.ecs.component.Position;
+import com.ecs.component.SpatialNode;
+import com.ecs.diagnostics.SaveEvent;
+import com.ecs.persistence.ComponentSerializer;
+import com.ecs.persistence.ComponentSerializers;
+import com.ecs.persistence.DirtyTracker;
+import com.ecs.persistence.SaveProgress;
+import com.ecs.persistence.SnapshotFile;
+import com.ecs.persistence.SnapshotJournal;
+import com.ecs.persistence.SnapshotLoader;
+import com.ecs.persistence.WorldSnapshot;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.ShutdownEvent;
+import io.micronaut.runtime.event.annotation.EventListener;
 import jakarta.inject.Inject;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntIterator;
 import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Service for persisting and loading entities to/from YAML files.
+ * Service for persisting and loading entities.
+ *
+ * <p>Saves are binary {@link SnapshotFile}s. YAML remains available as a human-readable
+ * debug export through {@link #exportYaml(String)}, and {@link #load(String)} accepts both
+ * formats.</p>
+ *
+ * <p>{@link #saveAsync(String)} splits a save in two: the entities are captured into a
+ * snapshot buffer on the game loop thread, which only copies field values, and the snapshot
+ * is encoded and written by a background writer thread. The capture takes at most
+ * {@value #CAPTURE_SLICE} entities per tick, continued by {@link #continueCapture()}, so a
+ * large world does not stall the loop. Each entity is saved as it was when its slice was
+ * captured; dirty marks are cleared when the capture starts, so the next incremental save
+ * records anything that changed during it.</p>
+ *
+ * <p>{@link #saveIncremental(String)} only captures the entities marked in the
+ * {@link DirtyTracker} since the previous save and appends them to the file's
+ * {@link SnapshotJournal}, so its cost scales with churn rather than world size. Every
+ * {@code ecs.persistence.full-save-interval} appends, a full save is taken instead, so that
+ * field changes nobody marked are not lost for good. After a failed write, appends still
+ * queued behind it fail too, since their changes are relative to the failed save, and the
+ * next save is a full one. Once the
+ * journal outgrows a fraction of the base snapshot, the writer thread compacts both into a new
+ * base. {@link #load(String)} streams the base through a {@link SnapshotLoader} and then
+ * replays its journal.</p>
  */
+@Slf4j
 @Singleton
 public class PersistenceService {
 
+    // One snapshot can be captured while the other is being written
+    private static final int SNAPSHOT_BUFFERS = 2;
+    // Entities captured per tick by a full save
+    static final int CAPTURE_SLICE = 4_096;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    // Compact once the journal is this large relative to the base snapshot
+    private static final double COMPACTION_RATIO = 0.5;
+    // Chunks decoded ahead of entity creation while loading
+    private static final int LOAD_WINDOW = 2 * Runtime.getRuntime().availableProcessors();
+    // With a single processor, handing chunks to another thread only adds overhead
+    private static final Executor LOAD_EXECUTOR = Runtime.getRuntime().availableProcessors() > 1
+            ? ForkJoinPool.commonPool() : Runnable::run;
+
     private final YamlService yamlService;
     private final World world;
+    private final DirtyTracker dirtyTracker;
+    private final int fullSaveInterval;
+    // Journal segments appended since the last full save
+    private int journalSegments;
+    private final SaveProgress saveProgress;
+    private final IntBag dirtyEntities = new IntBag();
+    private final IntBag captureSlice = new IntBag(CAPTURE_SLICE);
+    private PendingCapture pendingCapture;
+    private final Map<String, ComponentSerializer<Component>> yamlSerializers = new HashMap<>();
+    // The base snapshot written by this service that the dirty marks are relative to
+    private volatile Path journalBase;
+    // Set on the writer thread when a write fails, until a full save is written again
+    private boolean writeFailed;
+    private final Queue<WorldSnapshot> freeSnapshots = new ConcurrentLinkedQueue<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "SnapshotWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @Inject
-    public PersistenceService(YamlService yamlService, World world) {
+    public PersistenceService(YamlService yamlService, World world, DirtyTracker dirtyTracker,
+                              @Value("${ecs.persistence.full-save-interval:12}") int fullSaveInterval,
+                              SaveProgress saveProgress) {
         this.yamlService = yamlService;
         this.world = world;
+        this.dirtyTracker = dirtyTracker;
+        this.fullSaveInterval = fullSaveInterval;
+        this.saveProgress = saveProgress;
+        for (int i = 0; i < SNAPSHOT_BUFFERS; i++) {
+            freeSnapshots.add(new WorldSnapshot(getAllComponentTypes()));
+        }
     }
 
     /**
-     * Saves all entities with the Persistent component to a YAML file.
+     * Saves all entities with the Persistent component to a binary snapshot file.
      *
      * @param filename the file to save to
      * @throws IOException if file writing fails
      */
     public void save(String filename) throws IOException {
+        Path path = Paths.get(filename);
+        WorldSnapshot snapshot = new WorldSnapshot(getAllComponentTypes());
+        long sequence = saveProgress.begin();
+        CompletableFuture<?> pendingWrite = saveProgress.getPendingWrite();
+        try {
+            SaveEvent capture = beginSave();
+            snapshot.capture(world, getPersistentEntities());
+            saveProgress.captured();
+            commitSave(capture, SaveEvent.CAPTURE, path, snapshot);
+            awaitWrite(pendingWrite);
+            SaveEvent write = beginSave();
+            SnapshotFile.write(snapshot, path);
+            commitSave(write, SaveEvent.WRITE, path, snapshot);
+            Files.deleteIfExists(SnapshotJournal.pathFor(path));
+        } catch (IOException | RuntimeException e) {
+            saveProgress.captured();
+            saveProgress.fail(sequence);
+            throw e;
+        }
+        journalBase = null;
+        saveProgress.complete(sequence, true);
+    }
+
+    /**
+     * Captures all entities with the Persistent component and writes them to a binary
+     * snapshot file in the background. Must be called on the game loop thread.
+     *
+     * <p>The first slice of entities is captured right away, and the rest by later
+     * {@link #continueCapture()} calls. If a capture is still in progress, or both snapshot
+     * buffers are still waiting to be written, the save is skipped and the returned future
+     * fails.</p>
+     *
+     * @param filename the file to save to
+     * @return a future completing with the saved file once it has been written
+     */
+    public CompletableFuture<Path> saveAsync(String filename) {
+        if (pendingCapture != null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("A previous save is still being captured"));
+        }
+        WorldSnapshot snapshot = freeSnapshots.poll();
+        if (snapshot == null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Previous saves are still being written"));
+        }
+
+        IntBag persistent = getPersistentEntities();
+        IntBag entities = new IntBag(persistent.size());
+        entities.addAll(persistent);
+        PendingCapture capture = new PendingCapture(Paths.get(filename), snapshot, entities);
+        snapshot.clear();
+        dirtyTracker.clear();
+        journalBase = capture.path;
+        journalSegments = 0;
+        capture.sequence = saveProgress.begin();
+        capture.pendingWrite = saveProgress.getPendingWrite();
+        pendingCapture = capture;
+        continueCapture();
+        return capture.result;
+    }
+
+    /**
+     * Checks whether a save is still being captured.
+     *
+     * @return true if {@link #continueCapture()} has work left
+     */
+    public boolean isCapturing() {
+        return pendingCapture != null;
+    }
+
+    /**
+     * Captures the next slice of entities of a pending save, and hands the snapshot to the
+     * writer once all are captured. Called once per tick on the game loop thread.
+     */
+    public void continueCapture() {
+        PendingCapture capture = pendingCapture;
+        if (capture == null) {
+            return;
+        }
+
+        SaveEvent event = beginSave();
+        ComponentMapper<Persistent> persistentMapper = world.getMapper(Persistent.class);
+        int end = Math.min(capture.next + CAPTURE_SLICE, capture.entities.size());
+        captureSlice.clear();
+        for (int i = capture.next; i < end; i++) {
+            // Skip entities deleted, or no longer persistent, since the save started
+            int entityId = capture.entities.get(i);
+            if (world.getEntityManager().isActive(entityId) && persistentMapper.has(entityId)) {
+                captureSlice.add(entityId);
+            }
+        }
+        capture.snapshot.append(world, captureSlice);
+        capture.next = end;
+        commitSave(event, SaveEvent.CAPTURE, capture.path, capture.snapshot);
+
+        if (end == capture.entities.size()) {
+            pendingCapture = null;
+            saveProgress.captured();
+            write(capture.path, capture.snapshot, capture.sequence, capture.pendingWrite)
+                    .whenComplete((path, error) -> {
+                        if (error != null) {
+                            capture.result.completeExceptionally(
+                                    error instanceof CompletionException ? error.getCause() : error);
+                        } else {
+                            capture.result.complete(path);
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Writes a captured snapshot as the new base of its file on the writer thread.
+     */
+    private CompletableFuture<Path> write(Path path, WorldSnapshot snapshot, long sequence,
+                                          CompletableFuture<?> pendingWrite) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                awaitWrite(pendingWrite);
+                SaveEvent write = beginSave();
+                SnapshotFile.write(snapshot, path);
+                commitSave(write, SaveEvent.WRITE, path, snapshot);
+                Files.deleteIfExists(SnapshotJournal.pathFor(path));
+                writeFailed = false;
+                saveProgress.complete(sequence, true);
+                return path;
+            } catch (IOException e) {
+                failWrite(sequence);
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                failWrite(sequence);
+                throw e;
+            } finally {
+                snapshot.clear();
+                freeSnapshots.add(snapshot);
+            }
+        }, writer);
+    }
+
+    /**
+     * Captures the persistent entities changed, created or deleted since the previous save and
+     * appends them to the file's journal in the background. Must be called on the game loop
+     * thread.
+     *
+     * <p>Falls back to {@link #saveAsync(String)} when there is no base snapshot from this
+     * session to append to, such as the first save after startup or a load, or after a
+     * failed write, and every {@code fullSaveInterval} appends. Fails while a full save is
+     * still being captured; the changes stay marked for the next incremental save. Also
+     * fails if an earlier write failed after this save was captured.</p>
+     *
+     * @param filename the base snapshot file
+     * @return a future completing with the base file once the changes have been written
+     */
+    public CompletableFuture<Path> saveIncremental(String filename) {
+        Path path = Paths.get(filename);
+        if (!path.equals(journalBase) || pendingCapture != null || journalSegments >= fullSaveInterval) {
+            return saveAsync(filename);
+        }
+        WorldSnapshot snapshot = freeSnapshots.poll();
+        if (snapshot == null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Previous saves are still being written"));
+        }
+
+        SaveEvent capture = beginSave();
+        ComponentMapper<Persistent> persistentMapper = world.getMapper(Persistent.class);
+        IntBag changed = dirtyTracker.getChanged();
+        dirtyEntities.clear();
+        for (int i = 0; i < changed.size(); i++) {
+            int entityId = changed.get(i);
+            if (world.getEntityManager().isActive(entityId) && persistentMapper.has(entityId)) {
+                dirtyEntities.add(entityId);
+            }
+        }
+        snapshot.capture(world, dirtyEntities);
+        IntBag deletedBag = dirtyTracker.getDeleted();
+        int[] deleted = Arrays.copyOf(deletedBag.getData(), deletedBag.size());
+        dirtyTracker.clear();
+        journalSegments++;
+        long sequence = saveProgress.begin();
+        saveProgress.captured();
+        CompletableFuture<?> pendingWrite = saveProgress.getPendingWrite();
+        commitSave(capture, SaveEvent.CAPTURE, path, snapshot);
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                if (writeFailed) {
+                    throw new IOException("An earlier write to " + path + " failed");
+                }
+                awaitWrite(pendingWrite);
+                SaveEvent append = beginSave();
+                long journalSize = SnapshotJournal.append(SnapshotJournal.pathFor(path),
+                        deleted, deleted.length, snapshot);
+                commitSave(append, SaveEvent.APPEND, path, snapshot);
+                if (journalSize > Files.size(path) * COMPACTION_RATIO) {
+                    compact(path);
+                }
+                saveProgress.complete(sequence, false);
+                return path;
+            } catch (IOException e) {
+                failWrite(sequence);
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                failWrite(sequence);
+                throw e;
+            } finally {
+                snapshot.clear();
+                freeSnapshots.add(snapshot);
+            }
+        }, writer);
+    }
+
+    /**
+     * Waits for a write outside the world that a save depends on, such as an unloaded region.
+     */
+    private static void awaitWrite(CompletableFuture<?> write) throws IOException {
+        try {
+            write.join();
+        } catch (CompletionException e) {
+            throw new IOException("A write the save depends on failed", e.getCause());
+        }
+    }
+
+    /**
+     * Records a failed write on the writer thread. Appends queued behind it would miss the
+     * changes it held, so they fail as well, and the next save is a full one.
+     */
+    private void failWrite(long sequence) {
+        writeFailed = true;
+        journalBase = null;
+        saveProgress.fail(sequence);
+    }
+
+    /**
+     * A full save whose entities are captured over several ticks.
+     */
+    private static final class PendingCapture {
+        final Path path;
+        final WorldSnapshot snapshot;
+        final IntBag entities;
+        final CompletableFuture<Path> result = new CompletableFuture<>();
+        long sequence;
+        CompletableFuture<?> pendingWrite;
+        int next;
+
+        PendingCapture(Path path, WorldSnapshot snapshot, IntBag entities) {
+            this.path = path;
+            this.snapshot = snapshot;
+            this.entities = entities;
+        }
+    }
+
+    /**
+     * Folds a journal into a new base snapshot by replaying both into a scratch world.
+     * Saved entity IDs are kept, so later segments still apply to the new base.
+     */
+    private void compact(Path path) throws IOException {
+        long start = System.nanoTime();
+        SaveEvent event = beginSave();
+        World scratch = new World(new WorldConfigurationBuilder().build());
+        Int2IntOpenHashMap liveIds = replay(path, scratch);
+
+        int[] savedIds = liveIds.keySet().toIntArray();
+        Arrays.sort(savedIds);
+        IntBag entities = new IntBag(savedIds.length);
+        for (int savedId : savedIds) {
+            entities.add(liveIds.get(savedId));
+        }
+        WorldSnapshot compacted = new WorldSnapshot(getAllComponentTypes());
+        compacted.capture(scratch, entities);
+        for (int i = 0; i < savedIds.length; i++) {
+            compacted.setEntityId(i, savedIds[i]);
+        }
+
+        // A crash between these two steps leaves the old journal, which replays harmlessly
+        SnapshotFile.write(compacted, path);
+        Files.deleteIfExists(SnapshotJournal.pathFor(path));
+        commitSave(event, SaveEvent.COMPACT, path, compacted);
+        log.info("Compacted {} with {} entities in {} ms", path, savedIds.length,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static SaveEvent beginSave() {
+        if (!SaveEvent.PROBE.isEnabled()) {
+            return null;
+        }
+        SaveEvent event = new SaveEvent();
+        event.begin();
+        return event;
+    }
+
+    private static void commitSave(SaveEvent event, String phase, Path path, WorldSnapshot snapshot) {
+        if (event != null && event.shouldCommit()) {
+            event.phase = phase;
+            event.file = path.toString();
+            event.entityCount = snapshot.getEntityCount();
+            event.commit();
+        }
+    }
+
+    /**
+     * Applies a base snapshot and its journal to a world.
+     *
+     * @return saved entity IDs mapped to entity IDs in the world
+     */
+    private Int2IntOpenHashMap replay(Path path, World target) throws IOException {
+        Int2IntOpenHashMap liveIds = new Int2IntOpenHashMap();
+        liveIds.defaultReturnValue(-1);
+        new SnapshotLoader(getAllComponentTypes(), LOAD_EXECUTOR, LOAD_WINDOW)
+                .load(path, target, liveIds);
+
+        WorldSnapshot snapshot = new WorldSnapshot(getAllComponentTypes());
+        SnapshotJournal.replay(SnapshotJournal.pathFor(path), snapshot, (deleted, deletedCount, changed) -> {
+            for (int i = 0; i < deletedCount; i++) {
+                int entityId = liveIds.remove(deleted[i]);
+                if (entityId >= 0) {
+                    target.delete(entityId);
+                }
+            }
+            changed.applyTo(target, liveIds);
+        });
+        return liveIds;
+    }
+
+    /**
+     * Waits for pending background saves before shutdown.
+     */
+    @EventListener
+    public void onShutdown(ShutdownEvent event) {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Pending saves did not finish within {}s", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Exports all entities with the Persistent component to a YAML file, for debugging.
+     *
+     * @param filename the file to export to
+     * @throws IOException if file writing fails
+     */
+    public void exportYaml(String filename) throws IOException {
         List<Map<String, Object>> entities = new ArrayList<>();
 
         // Query all entities with Persistent component
-        IntBag entityIds = world.getAspectSubscriptionManager()
-                .get(Aspect.all(Persistent.class))
-                .getEntities();
+        IntBag entityIds = getPersistentEntities();
 
         for (int i = 0; i < entityIds.size(); i++) {
             int entityId = entityIds.get(i);
@@ -76,35 +516,58 @@ public class PersistenceService {
         yamlService.dump(filename, entities);
     }
     
+    private IntBag getPersistentEntities() {
+        return world.getAspectSubscriptionManager()
+                .get(Aspect.all(Persistent.class))
+                .getEntities();
+    }
+
     /**
-     * Gets all component types to serialize.
-     * Returns all known persistent component types, excluding:
-     * - @Transient components (handled by annotation check)
-     * - AiBehavior (contains non-serializable BehaviorNode state)
+     * Gets all component types to serialize, as indexed by the build. Excludes @Transient
+     * components and components with fields that cannot be persisted, such as AiBehavior's
+     * BehaviorNode state.
      */
     private List<Class<? extends Component>> getAllComponentTypes() {
-        List<Class<? extends Component>> types = new ArrayList<>();
-        // Include all persistent component types
-        types.add(com.ecs.component.Position.class);
-        types.add(com.ecs.component.Velocity.class);
-        types.add(com.ecs.component.Identity.class);
-        types.add(com.ecs.component.Body.class);
-        types.add(com.ecs.component.Stats.class);
-        types.add(com.ecs.component.CombatStats.class);
-        types.add(com.ecs.component.Persistent.class);
-        // Note: AiBehavior excluded - contains non-serializable BehaviorNode references
-        // Note: SwingTimer, AttackIntent, and SpatialNode are @Transient and handled by annotation check
-        return types;
-    }
-
-    /**
-     * Loads entities from a YAML file and creates them in the world.
+        return ComponentSerializers.getPersistedTypes();
+    }
+
+    /**
+     * Loads entities from a binary snapshot and its journal, or from a YAML export, and creates
+     * them in the world. Loaded bodies rejoin the spatial grid. The next incremental save
+     * writes a new base snapshot.
      *
      * @param filename the file to load from
      * @throws IOException if file reading fails
      */
-    @SuppressWarnings("unchecked")
     public void load(String filename) throws IOException {
+        Path path = Paths.get(filename);
+        IntBag loaded = new IntBag();
+        if (SnapshotFile.isSnapshot(path)) {
+            IntIterator liveIds = replay(path, world).values().iterator();
+            while (liveIds.hasNext()) {
+                loaded.add(liveIds.nextInt());
+            }
+            // Saved order, so that the grid is rebuilt the same way on every load
+            Arrays.sort(loaded.getData(), 0, loaded.size());
+        } else {
+            loadYaml(filename, loaded);
+        }
+
+        ComponentMapper<Body> bodyMapper = world.getMapper(Body.class);
+        ComponentMapper<Position> positionMapper = world.getMapper(Position.class);
+        ComponentMapper<SpatialNode> spatialNodeMapper = world.getMapper(SpatialNode.class);
+        for (int i = 0; i < loaded.size(); i++) {
+            // Grid membership is transient, so loaded bodies rejoin the spatial grid here
+            int entityId = loaded.get(i);
+            if (bodyMapper.has(entityId) && positionMapper.has(entityId)) {
+                spatialNodeMapper.create(entityId);
+            }
+        }
+        journalBase = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadYaml(String filename, IntBag loaded) throws IOException {
         List<Map<String, Object>> entities;
         try (java.io.FileReader reader = new java.io.FileReader(filename)) {
             entities = (List<Map<String, Object>>) yamlService.getYaml().load(reader);
@@ -116,6 +579,7 @@ public class PersistenceService {
 
         for (Map<String, Object> entityData : entities) {
             int entityId = world.create();
+            loaded.add(entityId);
             List<Map<String, Object>> componentsData = 
                     (List<Map<String, Object>>) entityData.get("components");
 
@@ -138,17 +602,16 @@ public class PersistenceService {
      * @param component the component to serialize
      * @return the serialized data
      */
+    @SuppressWarnings("unchecked")
     private Map<String, Object> serializeComponent(Component component) {
         Map<String, Object> data = new HashMap<>();
         data.put("type", component.getClass().getName());
 
+        ComponentSerializer<Component> serializer =
+                (ComponentSerializer<Component>) ComponentSerializers.of(component.getClass());
         Map<String, Object> fields = new HashMap<>();
-        for (Field field : component.getClass().getFields()) {
-            try {
-                fields.put(field.getName(), field.get(component));
-            } catch (IllegalAccessException e) {
-                System.err.println("Failed to serialize field " + field.getName() + ": " + e.getMessage());
-            }
+        for (int field = 0; field < serializer.getFieldCount(); field++) {
+            fields.put(serializer.getFieldName(field), serializer.get(component, field));
         }
         data.put("fields", fields);
         return data;
@@ -169,6 +632,29 @@ public class PersistenceService {
             throw new IllegalArgumentException("Component type is missing");
         }
 
+        ComponentSerializer<Component> serializer = yamlSerializers.get(typeName);
+        if (serializer == null) {
+            serializer = (ComponentSerializer<Component>) ComponentSerializers.of(resolveComponentType(typeName));
+            yamlSerializers.put(typeName, serializer);
+        }
+        Component component = serializer.newInstance();
+
+        Map<String, Object> fields = (Map<String, Object>) data.get("fields");
+        if (fields != null) {
+            for (Map.Entry<String, Object> entry : fields.entrySet()) {
+                int field = serializer.indexOf(entry.getKey());
+                if (field < 0) {
+                    throw new NoSuchFieldException(typeName + "." + entry.getKey());
+                }
+                serializer.set(component, field, entry.getValue());
+            }
+        }
+
+        return component;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Class<? extends Component> resolveComponentType(String typeName) throws ClassNotFoundException {
         // Restrict deserialization to known-safe component classes
         if (!typeName.startsWith("com.ecs.component.")) {
             throw new IllegalArgumentException("Disallowed component type: " + typeName);
@@ -179,17 +665,6 @@ public class PersistenceService {
             throw new IllegalArgumentException("Type is not a valid Component: " + typeName);
         }
 
-        Class<? extends Component> componentClass = (Class<? extends Component>) rawClass;
-        Component component = componentClass.getDeclaredConstructor().newInstance();
-
-        Map<String, Object> fields = (Map<String, Object>) data.get("fields");
-        if (fields != null) {
-            for (Map.Entry<String, Object> entry : fields.entrySet()) {
-                Field field = componentClass.getField(entry.getKey());
-                field.set(component, entry.getValue());
-            }
-        }
-
-        return component;
+        return (Class<? extends Component>) rawClass;
     }
 }
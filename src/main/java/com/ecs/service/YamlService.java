@@ -4,6 +4,7 @@ import jakarta.inject.Singleton;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 
+import java.io.BufferedWriter;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -46,7 +47,7 @@ public class YamlService {
      * @throws IOException if file writing fails
      */
     public void dump(String filename, Object data) throws IOException {
-        try (FileWriter writer = new FileWriter(filename)) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
             yaml.dump(data, writer);
         }
     }
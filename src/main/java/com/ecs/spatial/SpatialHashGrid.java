@@ -1,9 +1,15 @@
 package com.ecs.spatial;
 
+import com.artemis.utils.Bag;
 import com.artemis.utils.IntBag;
+import com.ecs.diagnostics.SpatialQueryEvent;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.ints.IntComparator;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import jakarta.inject.Singleton;
 
+import java.util.function.Consumer;
+
 /**
  * Spatial hash grid for efficient proximity queries.
  * Entities are bucketed into grid cells based on their position.
@@ -11,13 +17,27 @@ import jakarta.inject.Singleton;
 @Singleton
 public class SpatialHashGrid {
 
-    private static final int CELL_SIZE = 100;
+    /**
+     * The side length of a grid cell in world units.
+     */
+    public static final int CELL_SIZE = 100;
     
     // Hash computation constants for combining x and y coordinates into a single long key
     private static final int COORDINATE_SHIFT_BITS = 32;
     private static final long LOWER_32_BITS_MASK = 0xFFFFFFFFL;
     
     private final Long2ObjectOpenHashMap<IntBag> grid = new Long2ObjectOpenHashMap<>();
+    private final Bag<IntBag> freeCells = new Bag<>(); // Emptied cells kept for reuse
+    private int size;
+
+    // Finds the fullest cell without allocating an iterator
+    private int maxOccupancy;
+    private final Consumer<IntBag> maxOccupancyScan = cell -> maxOccupancy = Math.max(maxOccupancy, cell.size());
+
+    // Scratch space for bulk insertion
+    private final IntComparator byBulkKey = (a, b) -> Long.compare(this.bulkKeys[a], this.bulkKeys[b]);
+    private long[] bulkKeys = new long[64];
+    private int[] bulkOrder = new int[64];
 
     /**
      * Computes the hash key for a grid cell by packing x and y coordinates into a single long.
@@ -65,10 +85,54 @@ public class SpatialHashGrid {
 
         IntBag cell = grid.get(key);
         if (cell == null) {
-            cell = new IntBag();
+            cell = freeCells.isEmpty() ? new IntBag() : freeCells.removeLast();
             grid.put(key, cell);
         }
         cell.add(id);
+        size++;
+    }
+
+    /**
+     * Inserts many entities at once.
+     * Entities are sorted by cell so that each cell is looked up and grown once.
+     *
+     * @param ids   the entity IDs
+     * @param xs    the x positions
+     * @param ys    the y positions
+     * @param count the number of entities to insert from the arrays
+     */
+    public void insertAll(int[] ids, float[] xs, float[] ys, int count) {
+        if (bulkOrder.length < count) {
+            int capacity = Math.max(count, bulkOrder.length * 2);
+            bulkOrder = new int[capacity];
+            bulkKeys = new long[capacity];
+        }
+        for (int i = 0; i < count; i++) {
+            bulkOrder[i] = i;
+            bulkKeys[i] = hash(getCellX(xs[i]), getCellY(ys[i]));
+        }
+        IntArrays.quickSort(bulkOrder, 0, count, byBulkKey);
+
+        int runStart = 0;
+        while (runStart < count) {
+            long key = bulkKeys[bulkOrder[runStart]];
+            int runEnd = runStart + 1;
+            while (runEnd < count && bulkKeys[bulkOrder[runEnd]] == key) {
+                runEnd++;
+            }
+
+            IntBag cell = grid.get(key);
+            if (cell == null) {
+                cell = freeCells.isEmpty() ? new IntBag() : freeCells.removeLast();
+                grid.put(key, cell);
+            }
+            cell.ensureCapacity(cell.size() + (runEnd - runStart));
+            for (int i = runStart; i < runEnd; i++) {
+                cell.add(ids[bulkOrder[i]]);
+            }
+            runStart = runEnd;
+        }
+        size += count;
     }
 
     /**
@@ -85,9 +149,12 @@ public class SpatialHashGrid {
 
         IntBag cell = grid.get(key);
         if (cell != null) {
-            cell.removeValue(id);
+            if (cell.removeValue(id)) {
+                size--;
+            }
             if (cell.isEmpty()) {
                 grid.remove(key);
+                freeCells.add(cell);
             }
         }
     }
@@ -101,6 +168,21 @@ public class SpatialHashGrid {
      */
     public IntBag getNearby(float x, float y) {
         IntBag result = new IntBag();
+        getNearby(x, y, result);
+        return result;
+    }
+
+    /**
+     * Appends all entities near a position (including the center cell and its 8 neighbors)
+     * to the given bag, without allocating.
+     *
+     * @param x   the x position
+     * @param y   the y position
+     * @param out the bag to append entity IDs to
+     */
+    public void getNearby(float x, float y, IntBag out) {
+        SpatialQueryEvent event = beginQuery();
+        int start = out.size();
         int cellX = getCellX(x);
         int cellY = getCellY(y);
 
@@ -111,13 +193,82 @@ public class SpatialHashGrid {
                 IntBag cell = grid.get(key);
                 if (cell != null) {
                     for (int i = 0; i < cell.size(); i++) {
-                        result.add(cell.get(i));
+                        out.add(cell.get(i));
                     }
                 }
             }
         }
+        if (event != null) {
+            commitQuery(event, (cellX - 1) * (float) CELL_SIZE, (cellY - 1) * (float) CELL_SIZE,
+                    (cellX + 2) * (float) CELL_SIZE, (cellY + 2) * (float) CELL_SIZE, out.size() - start);
+        }
+    }
 
-        return result;
+    /**
+     * Gets the hash key of the grid cell containing a position.
+     * Positions in the same cell always share a key.
+     *
+     * @param x the x position
+     * @param y the y position
+     * @return the cell key
+     */
+    public long cellKey(float x, float y) {
+        return hash(getCellX(x), getCellY(y));
+    }
+
+    /**
+     * Appends all entities in the cells overlapping a rectangle to the given bag.
+     * Entities are only filtered by cell, not by exact position.
+     *
+     * @param minX the minimum x position
+     * @param minY the minimum y position
+     * @param maxX the maximum x position
+     * @param maxY the maximum y position
+     * @param out  the bag to append entity IDs to
+     */
+    public void query(float minX, float minY, float maxX, float maxY, IntBag out) {
+        SpatialQueryEvent event = beginQuery();
+        int start = out.size();
+        int minCellX = getCellX(minX);
+        int minCellY = getCellY(minY);
+        int maxCellX = getCellX(maxX);
+        int maxCellY = getCellY(maxY);
+
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                IntBag cell = grid.get(hash(cellX, cellY));
+                if (cell != null) {
+                    for (int i = 0; i < cell.size(); i++) {
+                        out.add(cell.get(i));
+                    }
+                }
+            }
+        }
+        if (event != null) {
+            commitQuery(event, minX, minY, maxX, maxY, out.size() - start);
+        }
+    }
+
+    private static SpatialQueryEvent beginQuery() {
+        if (!SpatialQueryEvent.PROBE.isEnabled()) {
+            return null;
+        }
+        SpatialQueryEvent event = new SpatialQueryEvent();
+        event.begin();
+        return event;
+    }
+
+    private static void commitQuery(SpatialQueryEvent event, float minX, float minY, float maxX, float maxY,
+                                    int results) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.minX = minX;
+            event.minY = minY;
+            event.maxX = maxX;
+            event.maxY = maxY;
+            event.results = results;
+            event.commit();
+        }
     }
 
     /**
@@ -125,5 +276,35 @@ public class SpatialHashGrid {
      */
     public void clear() {
         grid.clear();
+        size = 0;
+    }
+
+    /**
+     * Gets the number of entities in the grid.
+     *
+     * @return the entity count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of cells holding entities.
+     *
+     * @return the occupied cell count
+     */
+    public int getCellCount() {
+        return grid.size();
+    }
+
+    /**
+     * Gets the number of entities in the fullest cell. Visits every cell.
+     *
+     * @return the maximum cell occupancy
+     */
+    public int getMaxOccupancy() {
+        maxOccupancy = 0;
+        grid.values().forEach(maxOccupancyScan);
+        return maxOccupancy;
     }
 }
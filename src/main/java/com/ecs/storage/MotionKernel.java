@@ -0,0 +1,38 @@
+package com.ecs.storage;
+
+/**
+ * Integrates packed positions by packed velocities.
+ */
+public interface MotionKernel {
+    /**
+     * Applies {@code position += velocity * delta} to the first {@code count} entries.
+     *
+     * @param x     the x positions
+     * @param y     the y positions
+     * @param dx    the x velocities
+     * @param dy    the y velocities
+     * @param count the number of entries to integrate
+     * @param delta the time step in seconds
+     */
+    void integrate(float[] x, float[] y, float[] dx, float[] dy, int count, float delta);
+
+    /**
+     * Gets the preferred kernel for this JVM.
+     * The SIMD kernel is used when the {@code jdk.incubator.vector} module is resolved
+     * (run with {@code --add-modules jdk.incubator.vector}); otherwise the scalar kernel is used.
+     *
+     * @return the kernel
+     */
+    static MotionKernel preferred() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (MotionKernel) Class.forName("com.ecs.storage.VectorMotionKernel")
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return new ScalarMotionKernel();
+            }
+        }
+        return new ScalarMotionKernel();
+    }
+}
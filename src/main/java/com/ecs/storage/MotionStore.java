@@ -0,0 +1,253 @@
+package com.ecs.storage;
+
+import com.artemis.utils.BitVector;
+import com.artemis.utils.IntBag;
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Singleton;
+
+import java.util.Arrays;
+
+/**
+ * Structure-of-arrays storage for the hot numeric motion data of moving entities.
+ *
+ * <p>Positions and velocities are packed into dense {@code float[]} columns so that
+ * integration runs over contiguous memory instead of chasing component references.
+ * Entities are kept densely packed; removal swaps the last entry into the freed slot.</p>
+ *
+ * <p>The store holds the position and velocity of every entity it contains. Components are
+ * copied into it when an entity starts moving, and Position components of moving entities
+ * are mirrored from it after each integration step, so code reading them through mappers
+ * keeps working. The {@code MovementSystem} copies the components of entities marked
+ * changed back into the store before integrating. Not thread-safe; must only be used from
+ * the game loop thread.</p>
+ *
+ * <p>Used by default; set {@code ecs.movement.storage} to any other value than {@code soa} to
+ * integrate through the components instead.</p>
+ */
+@Singleton
+@Requires(property = "ecs.movement.storage", value = "soa", defaultValue = "soa")
+public class MotionStore {
+
+    private static final int ABSENT = -1;
+
+    private float[] x = new float[256];
+    private float[] y = new float[256];
+    private float[] dx = new float[256];
+    private float[] dy = new float[256];
+    private int[] entityByIndex = new int[256];
+    private int[] indexByEntity = new int[256];
+    private int size;
+
+    // Entities whose velocity was overwritten since the last clearVelocityChanges()
+    private final BitVector velocityChanged = new BitVector();
+    private final IntBag velocityChanges = new IntBag();
+
+    public MotionStore() {
+        Arrays.fill(indexByEntity, ABSENT);
+    }
+
+    /**
+     * Adds an entity to the store.
+     *
+     * @param entityId the entity ID
+     * @param x        the x position
+     * @param y        the y position
+     * @param dx       the x velocity
+     * @param dy       the y velocity
+     */
+    public void add(int entityId, float x, float y, float dx, float dy) {
+        ensureEntityCapacity(entityId);
+        int index = indexByEntity[entityId];
+        if (index == ABSENT) {
+            ensureCapacity(size + 1);
+            index = size++;
+            entityByIndex[index] = entityId;
+            indexByEntity[entityId] = index;
+        }
+        this.x[index] = x;
+        this.y[index] = y;
+        this.dx[index] = dx;
+        this.dy[index] = dy;
+    }
+
+    /**
+     * Removes an entity from the store.
+     *
+     * @param entityId the entity ID
+     */
+    public void remove(int entityId) {
+        if (!contains(entityId)) {
+            return;
+        }
+        int index = indexByEntity[entityId];
+        int last = --size;
+        if (index != last) {
+            int movedEntity = entityByIndex[last];
+            x[index] = x[last];
+            y[index] = y[last];
+            dx[index] = dx[last];
+            dy[index] = dy[last];
+            entityByIndex[index] = movedEntity;
+            indexByEntity[movedEntity] = index;
+        }
+        indexByEntity[entityId] = ABSENT;
+    }
+
+    /**
+     * Checks whether an entity is in the store.
+     *
+     * @param entityId the entity ID
+     * @return true if the entity is stored
+     */
+    public boolean contains(int entityId) {
+        return entityId >= 0 && entityId < indexByEntity.length && indexByEntity[entityId] != ABSENT;
+    }
+
+    /**
+     * Overwrites the stored position of an entity.
+     *
+     * @param entityId the entity ID
+     * @param x        the x position
+     * @param y        the y position
+     */
+    public void setPosition(int entityId, float x, float y) {
+        int index = indexByEntity[entityId];
+        this.x[index] = x;
+        this.y[index] = y;
+    }
+
+    /**
+     * Overwrites the stored velocity of an entity, recording the entity if it changed.
+     *
+     * @param entityId the entity ID
+     * @param dx       the x velocity
+     * @param dy       the y velocity
+     */
+    public void setVelocity(int entityId, float dx, float dy) {
+        int index = indexByEntity[entityId];
+        if (this.dx[index] == dx && this.dy[index] == dy) {
+            return;
+        }
+        this.dx[index] = dx;
+        this.dy[index] = dy;
+        if (!velocityChanged.get(entityId)) {
+            velocityChanged.set(entityId);
+            velocityChanges.add(entityId);
+        }
+    }
+
+    /**
+     * Gets the entities whose velocity changed since the last {@link #clearVelocityChanges()}.
+     * Entities removed since may be included.
+     *
+     * @return the entity IDs, in change order
+     */
+    public IntBag getVelocityChanges() {
+        return velocityChanges;
+    }
+
+    /**
+     * Forgets the recorded velocity changes.
+     */
+    public void clearVelocityChanges() {
+        for (int i = 0; i < velocityChanges.size(); i++) {
+            velocityChanged.clear(velocityChanges.get(i));
+        }
+        velocityChanges.clear();
+    }
+
+    /**
+     * Gets the dense index of an entity.
+     *
+     * @param entityId the entity ID
+     * @return the index, or -1 if the entity is not stored
+     */
+    public int indexOf(int entityId) {
+        return entityId < indexByEntity.length ? indexByEntity[entityId] : ABSENT;
+    }
+
+    /**
+     * Gets the entities in dense index order.
+     *
+     * @param out the bag to fill
+     */
+    public void getEntities(IntBag out) {
+        out.clear();
+        for (int i = 0; i < size; i++) {
+            out.add(entityByIndex[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getEntity(int index) {
+        return entityByIndex[index];
+    }
+
+    /**
+     * Gets the packed entity column. Only the first {@link #size()} entries are valid.
+     */
+    public int[] entities() {
+        return entityByIndex;
+    }
+
+    /**
+     * Gets the packed x column. Only the first {@link #size()} entries are valid.
+     */
+    public float[] xs() {
+        return x;
+    }
+
+    /**
+     * Gets the packed y column. Only the first {@link #size()} entries are valid.
+     */
+    public float[] ys() {
+        return y;
+    }
+
+    /**
+     * Gets the packed x velocity column. Only the first {@link #size()} entries are valid.
+     */
+    public float[] dxs() {
+        return dx;
+    }
+
+    /**
+     * Gets the packed y velocity column. Only the first {@link #size()} entries are valid.
+     */
+    public float[] dys() {
+        return dy;
+    }
+
+    /**
+     * Removes all entities from the store.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            indexByEntity[entityByIndex[i]] = ABSENT;
+        }
+        size = 0;
+        clearVelocityChanges();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > x.length) {
+            int newCapacity = Math.max(capacity, x.length * 2);
+            x = Arrays.copyOf(x, newCapacity);
+            y = Arrays.copyOf(y, newCapacity);
+            dx = Arrays.copyOf(dx, newCapacity);
+            dy = Arrays.copyOf(dy, newCapacity);
+            entityByIndex = Arrays.copyOf(entityByIndex, newCapacity);
+        }
+    }
+
+    private void ensureEntityCapacity(int entityId) {
+        if (entityId >= indexByEntity.length) {
+            int oldLength = indexByEntity.length;
+            indexByEntity = Arrays.copyOf(indexByEntity, Math.max(entityId + 1, oldLength * 2));
+            Arrays.fill(indexByEntity, oldLength, indexByEntity.length, ABSENT);
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package com.ecs.storage;
+
+import com.artemis.Aspect;
+import com.artemis.Component;
+import com.artemis.ComponentMapper;
+import com.artemis.EntitySubscription;
+import com.artemis.World;
+import com.artemis.utils.BitVector;
+import com.artemis.utils.IntBag;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Off-heap storage for a primitive-only component type.
+ *
+ * <p>Each entity owns a fixed-size record laid out from the component's public primitive
+ * fields. Records are stored in direct buffers of {@value #PAGE_ENTITIES} entities, allocated
+ * on demand and indexed by entity ID, so the GC only sees one small object per page no matter
+ * how many entities are stored. Fields are read and written through typed accessors such as
+ * {@link FloatField}, which hold the field's offset and never box, and throw if the entity has
+ * no record. Whole components are copied in and out through var handles resolved once per
+ * field.</p>
+ *
+ * <p>Once {@link #attach(World) attached}, the store follows the component's lifecycle:
+ * a record is written when an entity gains the component and dropped when it loses it or
+ * is deleted. Later writes to the heap component are not seen; the record must be updated
+ * through {@link #put(int, Component)} or an accessor.</p>
+ *
+ * <p>Not thread-safe; must only be used from the game loop thread.</p>
+ *
+ * @param <T> the component type
+ */
+public class OffHeapComponentStore<T extends Component> implements EntitySubscription.SubscriptionListener {
+
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_ENTITIES = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_ENTITIES - 1;
+
+    private final Class<T> type;
+    private final Field[] fields;
+    private final VarHandle[] handles;
+    private final int[] offsets;
+    private final int stride;
+    private final BitVector present = new BitVector();
+    private ByteBuffer[] pages = new ByteBuffer[16];
+    private int size;
+    private ComponentMapper<T> mapper;
+
+    /**
+     * Creates a store for a component type.
+     *
+     * @param type the component type; all public instance fields must be primitives
+     * @throws IllegalArgumentException if the type has a non-primitive field
+     */
+    public OffHeapComponentStore(Class<T> type) {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        this.type = type;
+
+        List<Field> layout = new ArrayList<>();
+        for (Field field : type.getFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            if (!field.getType().isPrimitive()) {
+                throw new IllegalArgumentException("Component " + type.getName()
+                        + " has non-primitive field " + field.getName());
+            }
+            layout.add(field);
+        }
+
+        // Widest fields first keeps every field naturally aligned within the record
+        layout.sort((a, b) -> Integer.compare(sizeOf(b.getType()), sizeOf(a.getType())));
+        this.fields = layout.toArray(new Field[0]);
+        this.handles = new VarHandle[fields.length];
+        this.offsets = new int[fields.length];
+        int offset = 0;
+        for (int i = 0; i < fields.length; i++) {
+            try {
+                handles[i] = lookup.unreflectVarHandle(fields[i]);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Field " + fields[i].getName() + " of "
+                        + type.getName() + " is not accessible", e);
+            }
+            offsets[i] = offset;
+            offset += sizeOf(fields[i].getType());
+        }
+        this.stride = Math.max(8, (offset + 7) & ~7);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Keeps the store in step with the component in a world.
+     * Entities that already have the component are stored right away.
+     *
+     * @param world the world
+     */
+    public void attach(World world) {
+        mapper = world.getMapper(type);
+        EntitySubscription subscription = world.getAspectSubscriptionManager().get(Aspect.all(type));
+        subscription.addSubscriptionListener(this);
+        inserted(subscription.getEntities());
+    }
+
+    @Override
+    public void inserted(IntBag entities) {
+        int[] ids = entities.getData();
+        for (int i = 0, s = entities.size(); i < s; i++) {
+            put(ids[i], mapper.get(ids[i]));
+        }
+    }
+
+    @Override
+    public void removed(IntBag entities) {
+        int[] ids = entities.getData();
+        for (int i = 0, s = entities.size(); i < s; i++) {
+            remove(ids[i]);
+        }
+    }
+
+    /**
+     * Gets the record size in bytes.
+     *
+     * @return the stride
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * Gets the number of stored entities.
+     *
+     * @return the entity count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of off-heap bytes currently allocated.
+     *
+     * @return the allocated bytes
+     */
+    public long getAllocatedBytes() {
+        long pageCount = Arrays.stream(pages).filter(p -> p != null).count();
+        return pageCount * PAGE_ENTITIES * stride;
+    }
+
+    /**
+     * Checks whether an entity has a record in this store.
+     *
+     * @param entityId the entity ID
+     * @return true if the entity is stored
+     */
+    public boolean has(int entityId) {
+        return present.get(entityId);
+    }
+
+    /**
+     * Creates a zeroed record for an entity, or keeps the existing one.
+     *
+     * @param entityId the entity ID
+     */
+    public void create(int entityId) {
+        if (present.get(entityId)) {
+            return;
+        }
+        ByteBuffer page = pageFor(entityId);
+        int base = (entityId & PAGE_MASK) * stride;
+        for (int i = 0; i < stride; i += 8) {
+            page.putLong(base + i, 0L);
+        }
+        present.set(entityId);
+        size++;
+    }
+
+    /**
+     * Removes the record of an entity.
+     *
+     * @param entityId the entity ID
+     */
+    public void remove(int entityId) {
+        if (present.get(entityId)) {
+            present.clear(entityId);
+            size--;
+        }
+    }
+
+    /**
+     * Copies a component's field values into the entity's record, creating it if needed.
+     *
+     * @param entityId  the entity ID
+     * @param component the source component
+     */
+    public void put(int entityId, T component) {
+        create(entityId);
+        ByteBuffer page = pages[entityId >>> PAGE_BITS];
+        int base = (entityId & PAGE_MASK) * stride;
+        for (int i = 0; i < fields.length; i++) {
+            VarHandle handle = handles[i];
+            int index = base + offsets[i];
+            Class<?> fieldType = fields[i].getType();
+            if (fieldType == float.class) {
+                page.putFloat(index, (float) handle.get(component));
+            } else if (fieldType == int.class) {
+                page.putInt(index, (int) handle.get(component));
+            } else if (fieldType == long.class) {
+                page.putLong(index, (long) handle.get(component));
+            } else if (fieldType == double.class) {
+                page.putDouble(index, (double) handle.get(component));
+            } else if (fieldType == boolean.class) {
+                page.put(index, (boolean) handle.get(component) ? (byte) 1 : (byte) 0);
+            } else if (fieldType == short.class) {
+                page.putShort(index, (short) handle.get(component));
+            } else if (fieldType == char.class) {
+                page.putChar(index, (char) handle.get(component));
+            } else {
+                page.put(index, (byte) handle.get(component));
+            }
+        }
+    }
+
+    /**
+     * Copies the entity's record into a component's fields.
+     *
+     * @param entityId the entity ID
+     * @param target   the component to fill
+     * @return the filled component, or null if the entity has no record
+     */
+    public T get(int entityId, T target) {
+        if (!present.get(entityId)) {
+            return null;
+        }
+        ByteBuffer page = pages[entityId >>> PAGE_BITS];
+        int base = (entityId & PAGE_MASK) * stride;
+        for (int i = 0; i < fields.length; i++) {
+            VarHandle handle = handles[i];
+            int index = base + offsets[i];
+            Class<?> fieldType = fields[i].getType();
+            if (fieldType == float.class) {
+                handle.set(target, page.getFloat(index));
+            } else if (fieldType == int.class) {
+                handle.set(target, page.getInt(index));
+            } else if (fieldType == long.class) {
+                handle.set(target, page.getLong(index));
+            } else if (fieldType == double.class) {
+                handle.set(target, page.getDouble(index));
+            } else if (fieldType == boolean.class) {
+                handle.set(target, page.get(index) != 0);
+            } else if (fieldType == short.class) {
+                handle.set(target, page.getShort(index));
+            } else if (fieldType == char.class) {
+                handle.set(target, page.getChar(index));
+            } else {
+                handle.set(target, page.get(index));
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Gets a typed accessor for a float field.
+     *
+     * @param name the field name
+     * @return the accessor
+     */
+    public FloatField floatField(String name) {
+        return new FloatField(offsetOf(name, float.class));
+    }
+
+    /**
+     * Gets a typed accessor for an int field.
+     *
+     * @param name the field name
+     * @return the accessor
+     */
+    public IntField intField(String name) {
+        return new IntField(offsetOf(name, int.class));
+    }
+
+    /**
+     * Gets a typed accessor for a long field.
+     *
+     * @param name the field name
+     * @return the accessor
+     */
+    public LongField longField(String name) {
+        return new LongField(offsetOf(name, long.class));
+    }
+
+    /**
+     * Gets a typed accessor for a boolean field.
+     *
+     * @param name the field name
+     * @return the accessor
+     */
+    public BooleanField booleanField(String name) {
+        return new BooleanField(offsetOf(name, boolean.class));
+    }
+
+    /**
+     * Drops all records and releases the pages.
+     * Direct buffers are returned to the OS once they become unreachable.
+     */
+    public void clear() {
+        Arrays.fill(pages, null);
+        present.clear();
+        size = 0;
+    }
+
+    private int offsetOf(String name, Class<?> fieldType) {
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].getName().equals(name)) {
+                if (fields[i].getType() != fieldType) {
+                    throw new IllegalArgumentException("Field " + name + " of " + type.getName()
+                            + " is " + fields[i].getType() + ", not " + fieldType);
+                }
+                return offsets[i];
+            }
+        }
+        throw new IllegalArgumentException("Component " + type.getName() + " has no field " + name);
+    }
+
+    private ByteBuffer pageFor(int entityId) {
+        int pageIndex = entityId >>> PAGE_BITS;
+        if (pageIndex >= pages.length) {
+            pages = Arrays.copyOf(pages, Math.max(pageIndex + 1, pages.length * 2));
+        }
+        ByteBuffer page = pages[pageIndex];
+        if (page == null) {
+            page = ByteBuffer.allocateDirect(PAGE_ENTITIES * stride).order(ByteOrder.nativeOrder());
+            pages[pageIndex] = page;
+        }
+        return page;
+    }
+
+    private int index(int entityId, int offset) {
+        return (entityId & PAGE_MASK) * stride + offset;
+    }
+
+    private ByteBuffer page(int entityId) {
+        if (!present.get(entityId)) {
+            throw new IllegalArgumentException("Entity " + entityId + " has no " + type.getSimpleName() + " record");
+        }
+        return pages[entityId >>> PAGE_BITS];
+    }
+
+    private static int sizeOf(Class<?> primitive) {
+        if (primitive == long.class || primitive == double.class) {
+            return 8;
+        }
+        if (primitive == int.class || primitive == float.class) {
+            return 4;
+        }
+        if (primitive == short.class || primitive == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    /**
+     * Typed accessor for a float field.
+     */
+    public final class FloatField {
+        private final int offset;
+
+        private FloatField(int offset) {
+            this.offset = offset;
+        }
+
+        public float get(int entityId) {
+            return page(entityId).getFloat(index(entityId, offset));
+        }
+
+        public void set(int entityId, float value) {
+            page(entityId).putFloat(index(entityId, offset), value);
+        }
+    }
+
+    /**
+     * Typed accessor for an int field.
+     */
+    public final class IntField {
+        private final int offset;
+
+        private IntField(int offset) {
+            this.offset = offset;
+        }
+
+        public int get(int entityId) {
+            return page(entityId).getInt(index(entityId, offset));
+        }
+
+        public void set(int entityId, int value) {
+            page(entityId).putInt(index(entityId, offset), value);
+        }
+    }
+
+    /**
+     * Typed accessor for a long field.
+     */
+    public final class LongField {
+        private final int offset;
+
+        private LongField(int offset) {
+            this.offset = offset;
+        }
+
+        public long get(int entityId) {
+            return page(entityId).getLong(index(entityId, offset));
+        }
+
+        public void set(int entityId, long value) {
+            page(entityId).putLong(index(entityId, offset), value);
+        }
+    }
+
+    /**
+     * Typed accessor for a boolean field.
+     */
+    public final class BooleanField {
+        private final int offset;
+
+        private BooleanField(int offset) {
+            this.offset = offset;
+        }
+
+        public boolean get(int entityId) {
+            return page(entityId).get(index(entityId, offset)) != 0;
+        }
+
+        public void set(int entityId, boolean value) {
+            page(entityId).put(index(entityId, offset), value ? (byte) 1 : (byte) 0);
+        }
+    }
+}
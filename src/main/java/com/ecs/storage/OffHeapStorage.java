@@ -0,0 +1,50 @@
+package com.ecs.storage;
+
+import com.artemis.Component;
+import jakarta.inject.Singleton;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registry of off-heap component stores, one per primitive-only component type.
+ * Systems inject this and keep the typed field accessors of the stores they use.
+ */
+@Singleton
+public class OffHeapStorage {
+
+    private final Map<Class<? extends Component>, OffHeapComponentStore<?>> stores = new LinkedHashMap<>();
+
+    /**
+     * Gets or creates the store for a component type.
+     *
+     * @param type the component type
+     * @param <T>  the component type
+     * @return the store
+     * @throws IllegalArgumentException if the type has non-primitive fields
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T extends Component> OffHeapComponentStore<T> store(Class<T> type) {
+        return (OffHeapComponentStore<T>) stores.computeIfAbsent(type, OffHeapComponentStore::new);
+    }
+
+    /**
+     * Gets the off-heap bytes allocated across all stores.
+     *
+     * @return the allocated bytes
+     */
+    public synchronized long getAllocatedBytes() {
+        long total = 0;
+        for (OffHeapComponentStore<?> store : stores.values()) {
+            total += store.getAllocatedBytes();
+        }
+        return total;
+    }
+
+    /**
+     * Drops all records of all stores.
+     */
+    public synchronized void clear() {
+        stores.values().forEach(OffHeapComponentStore::clear);
+    }
+}
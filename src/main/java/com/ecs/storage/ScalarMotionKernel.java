@@ -0,0 +1,16 @@
+package com.ecs.storage;
+
+/**
+ * Plain loop motion kernel, used when the Vector API is unavailable.
+ * The loop shape is simple enough for C2 to auto-vectorize.
+ */
+public class ScalarMotionKernel implements MotionKernel {
+
+    @Override
+    public void integrate(float[] x, float[] y, float[] dx, float[] dy, int count, float delta) {
+        for (int i = 0; i < count; i++) {
+            x[i] += dx[i] * delta;
+            y[i] += dy[i] * delta;
+        }
+    }
+}
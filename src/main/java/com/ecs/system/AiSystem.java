@@ -3,21 +3,33 @@ package com.ecs.system;
 import com.artemis.Aspect;
 import com.artemis.ComponentMapper;
 import com.artemis.systems.IteratingSystem;
+import com.ecs.combat.TargetIndex;
 import com.ecs.component.AiBehavior;
 import io.micronaut.core.annotation.Order;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
 /**
  * System for executing AI behaviors.
+ * Attaches the {@link TargetIndex} used by the behaviours to the world, so that handles to
+ * removed entities are invalidated.
  */
 @Singleton
 @Order(3)
 public class AiSystem extends IteratingSystem {
 
+    private final TargetIndex targetIndex;
     private ComponentMapper<AiBehavior> aiBehaviorMapper;
 
-    public AiSystem() {
+    @Inject
+    public AiSystem(TargetIndex targetIndex) {
         super(Aspect.all(AiBehavior.class));
+        this.targetIndex = targetIndex;
+    }
+
+    @Override
+    protected void initialize() {
+        targetIndex.attach(world);
     }
 
     @Override
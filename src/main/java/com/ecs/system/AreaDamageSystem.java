@@ -0,0 +1,186 @@
+package com.ecs.system;
+
+import com.artemis.Aspect;
+import com.artemis.BaseSystem;
+import com.artemis.ComponentMapper;
+import com.artemis.EntitySubscription;
+import com.artemis.utils.IntBag;
+import com.ecs.combat.DamageBuffer;
+import com.ecs.combat.ImpactBuffer;
+import com.ecs.component.Body;
+import com.ecs.component.Position;
+import com.ecs.component.Stats;
+import com.ecs.spatial.SpatialHashGrid;
+import io.micronaut.core.annotation.Order;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.ints.IntComparator;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.util.Arrays;
+
+/**
+ * System for resolving all area-of-effect impacts of a tick in bulk.
+ *
+ * <p>Impacts are sorted by grid cell. For each run of impacts sharing a cell, the spatial grid
+ * is swept once for the union of their blast areas and the candidates' positions are gathered
+ * into flat arrays, which are then tested against every impact of the run. The sweep is padded
+ * by the largest Body radius seen, so that bodies reaching into a blast from a neighbouring cell
+ * are found. Hits are emitted into the {@link DamageBuffer} and applied by {@link DamageSystem}.</p>
+ */
+@Singleton
+@Order(6)
+public class AreaDamageSystem extends BaseSystem {
+
+    private final SpatialHashGrid grid;
+    private final ImpactBuffer impactBuffer;
+    private final DamageBuffer damageBuffer;
+    private ComponentMapper<Position> positionMapper;
+    private ComponentMapper<Body> bodyMapper;
+    private ComponentMapper<Stats> statsMapper;
+
+    private final IntBag candidates = new IntBag();
+    private final IntComparator byCell = (a, b) -> Long.compare(this.cellKeys[a], this.cellKeys[b]);
+    private long[] cellKeys = new long[64];
+    private int[] order = new int[64];
+    private float[] candidateX = new float[64];
+    private float[] candidateY = new float[64];
+    private float[] candidateRadius = new float[64];
+    private float maxBodyRadius;
+
+    @Inject
+    public AreaDamageSystem(SpatialHashGrid grid, ImpactBuffer impactBuffer, DamageBuffer damageBuffer) {
+        this.grid = grid;
+        this.impactBuffer = impactBuffer;
+        this.damageBuffer = damageBuffer;
+    }
+
+    @Override
+    protected void initialize() {
+        world.getAspectSubscriptionManager().get(Aspect.all(Body.class))
+                .addSubscriptionListener(new EntitySubscription.SubscriptionListener() {
+                    @Override
+                    public void inserted(IntBag entities) {
+                        for (int i = 0; i < entities.size(); i++) {
+                            maxBodyRadius = Math.max(maxBodyRadius, bodyMapper.get(entities.get(i)).radius);
+                        }
+                    }
+
+                    @Override
+                    public void removed(IntBag entities) {
+                    }
+                });
+    }
+
+    @Override
+    protected boolean checkProcessing() {
+        return impactBuffer.size() > 0;
+    }
+
+    @Override
+    protected void processSystem() {
+        int count = impactBuffer.size();
+        sortByCell(count);
+
+        int runStart = 0;
+        while (runStart < count) {
+            int runEnd = runStart + 1;
+            while (runEnd < count && cellKeys[order[runEnd]] == cellKeys[order[runStart]]) {
+                runEnd++;
+            }
+            resolveRun(runStart, runEnd);
+            runStart = runEnd;
+        }
+
+        impactBuffer.clear();
+    }
+
+    private void sortByCell(int count) {
+        if (order.length < count) {
+            int capacity = Math.max(count, order.length * 2);
+            order = new int[capacity];
+            cellKeys = new long[capacity];
+        }
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+            cellKeys[i] = grid.cellKey(impactBuffer.getX(i), impactBuffer.getY(i));
+        }
+        IntArrays.quickSort(order, 0, count, byCell);
+    }
+
+    /**
+     * Resolves the impacts order[start..end) that share a grid cell with one grid sweep.
+     */
+    private void resolveRun(int start, int end) {
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (int i = start; i < end; i++) {
+            int impact = order[i];
+            float radius = impactBuffer.getRadius(impact) + maxBodyRadius;
+            minX = Math.min(minX, impactBuffer.getX(impact) - radius);
+            minY = Math.min(minY, impactBuffer.getY(impact) - radius);
+            maxX = Math.max(maxX, impactBuffer.getX(impact) + radius);
+            maxY = Math.max(maxY, impactBuffer.getY(impact) + radius);
+        }
+
+        candidates.clear();
+        grid.query(minX, minY, maxX, maxY, candidates);
+        int candidateCount = gatherCandidates();
+
+        for (int i = start; i < end; i++) {
+            int impact = order[i];
+            int sourceId = impactBuffer.getSourceId(impact);
+            float x = impactBuffer.getX(impact);
+            float y = impactBuffer.getY(impact);
+            float radius = impactBuffer.getRadius(impact);
+            float damage = impactBuffer.getDamage(impact);
+
+            for (int c = 0; c < candidateCount; c++) {
+                int entityId = candidates.get(c);
+                if (entityId == sourceId) {
+                    continue;
+                }
+                float dx = candidateX[c] - x;
+                float dy = candidateY[c] - y;
+                float reach = radius + candidateRadius[c];
+                if (dx * dx + dy * dy <= reach * reach) {
+                    damageBuffer.emit(sourceId, entityId, damage);
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps only damageable candidates and copies their positions into flat arrays.
+     *
+     * @return the number of remaining candidates
+     */
+    private int gatherCandidates() {
+        if (candidateX.length < candidates.size()) {
+            int capacity = Math.max(candidates.size(), candidateX.length * 2);
+            candidateX = Arrays.copyOf(candidateX, capacity);
+            candidateY = Arrays.copyOf(candidateY, capacity);
+            candidateRadius = Arrays.copyOf(candidateRadius, capacity);
+        }
+
+        int count = 0;
+        int[] ids = candidates.getData();
+        for (int i = 0; i < candidates.size(); i++) {
+            int entityId = ids[i];
+            Position position = positionMapper.get(entityId);
+            if (position == null || !statsMapper.has(entityId)) {
+                continue;
+            }
+            Body body = bodyMapper.get(entityId);
+            ids[count] = entityId;
+            candidateX[count] = position.x;
+            candidateY[count] = position.y;
+            candidateRadius[count] = body != null ? body.radius : 0;
+            count++;
+        }
+        candidates.setSize(count);
+        return count;
+    }
+}
@@ -3,58 +3,91 @@ package com.ecs.system;
 import com.artemis.Aspect;
 import com.artemis.ComponentMapper;
 import com.artemis.systems.IteratingSystem;
+import com.artemis.utils.IntBag;
+import com.ecs.combat.DamageBuffer;
 import com.ecs.component.*;
+import com.ecs.timer.TimerChannel;
+import com.ecs.timer.TimerScheduler;
 import io.micronaut.core.annotation.Order;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * System for processing basic attacks.
+ * Only entities with an attack intent are visited. Swing cooldowns expire through the
+ * {@link TimerScheduler}, and hits are emitted into the {@link DamageBuffer} and applied
+ * later by {@link DamageSystem}.
  */
 @Singleton
 @Order(4)
 @Slf4j
 public class BasicAttackSystem extends IteratingSystem {
 
+    /**
+     * Name of the timer channel used for swing cooldowns.
+     */
+    public static final String SWING_CHANNEL = "swing";
+
+    private final DamageBuffer damageBuffer;
+    private final TimerChannel swingChannel;
+    private long attackCount;
     private ComponentMapper<CombatStats> combatStatsMapper;
     private ComponentMapper<SwingTimer> swingTimerMapper;
     private ComponentMapper<AttackIntent> attackIntentMapper;
     private ComponentMapper<Position> positionMapper;
     private ComponentMapper<Body> bodyMapper;
-    private ComponentMapper<Stats> statsMapper;
 
-    public BasicAttackSystem() {
-        super(Aspect.all(CombatStats.class));
+    @Inject
+    public BasicAttackSystem(DamageBuffer damageBuffer, TimerScheduler timerScheduler) {
+        super(Aspect.all(CombatStats.class, AttackIntent.class));
+        this.damageBuffer = damageBuffer;
+        this.swingChannel = timerScheduler.channel(SWING_CHANNEL);
+    }
+
+    /**
+     * Gets the number of attacks that landed in range since startup.
+     *
+     * @return the attack count
+     */
+    public long getAttackCount() {
+        return attackCount;
     }
 
     @Override
-    protected void process(int entityId) {
-        CombatStats combatStats = combatStatsMapper.get(entityId);
+    protected void begin() {
+        // Clear cooldowns that expired this tick
+        IntBag expired = swingChannel.getExpired();
+        for (int i = 0; i < expired.size(); i++) {
+            swingTimerMapper.remove(expired.get(i));
+        }
+    }
 
-        // Decrement swing timer
-        SwingTimer timer = swingTimerMapper.get(entityId);
-        if (timer != null) {
-            timer.cooldown -= world.getDelta();
-            if (timer.cooldown <= 0) {
-                world.edit(entityId).remove(SwingTimer.class);
-                timer = null;
+    @Override
+    protected void process(int entityId) {
+        SwingTimer swingTimer = swingTimerMapper.get(entityId);
+        if (swingTimer != null) {
+            if (!swingChannel.isScheduled(entityId)) {
+                // Restored or copied without its timer; start the cooldown again
+                swingChannel.schedule(entityId, swingTimer.cooldown);
             }
+            return; // Still on cooldown
         }
 
-        // Check for attack intent
+        CombatStats combatStats = combatStatsMapper.get(entityId);
         AttackIntent intent = attackIntentMapper.get(entityId);
-        if (intent != null && timer == null) {
-            // Execute attack
-            executeAttack(entityId, intent.targetId, combatStats);
 
-            // Set cooldown
-            float cooldown = 1.0f / combatStats.attackSpeed;
-            SwingTimer newTimer = world.edit(entityId).create(SwingTimer.class);
-            newTimer.cooldown = cooldown;
+        // Execute attack
+        executeAttack(entityId, intent.targetId, combatStats);
 
-            // Remove intent
-            world.edit(entityId).remove(AttackIntent.class);
-        }
+        // Set cooldown
+        float cooldown = 1.0f / combatStats.attackSpeed;
+        SwingTimer newTimer = swingTimerMapper.create(entityId);
+        newTimer.cooldown = cooldown;
+        swingChannel.schedule(entityId, cooldown);
+
+        // Remove intent
+        attackIntentMapper.remove(entityId);
     }
 
     /**
@@ -63,9 +96,8 @@ public class BasicAttackSystem extends IteratingSystem {
     private void executeAttack(int attackerId, int targetId, CombatStats attackerStats) {
         Position attackerPos = positionMapper.get(attackerId);
         Position targetPos = positionMapper.get(targetId);
-        Stats targetStats = statsMapper.get(targetId);
 
-        if (attackerPos == null || targetPos == null || targetStats == null) {
+        if (attackerPos == null || targetPos == null) {
             return;
         }
 
@@ -81,11 +113,13 @@ public class BasicAttackSystem extends IteratingSystem {
             distance -= (attackerBody.radius + targetBody.radius);
         }
 
-        // Check range and apply damage
+        // Check range and emit damage
         if (distance <= attackerStats.range) {
-            targetStats.health -= attackerStats.damage;
-            log.debug("Entity {} attacked {} for {} damage. Target health: {}", 
-                     attackerId, targetId, attackerStats.damage, targetStats.health);
+            damageBuffer.emit(attackerId, targetId, attackerStats.damage);
+            attackCount++;
+            if (log.isDebugEnabled()) {
+                log.debug("Entity {} attacked {} for {} damage.", attackerId, targetId, attackerStats.damage);
+            }
         }
     }
 }
@@ -0,0 +1,56 @@
+package com.ecs.system;
+
+import com.artemis.BaseSystem;
+import com.artemis.ComponentMapper;
+import com.artemis.utils.IntBag;
+import com.ecs.combat.DamageBuffer;
+import com.ecs.combat.HealthChangeTracker;
+import com.ecs.component.Stats;
+import com.ecs.persistence.DirtyTracker;
+import io.micronaut.core.annotation.Order;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * System for applying the damage emitted during attack resolution.
+ * Damage is aggregated per target and applied in a single pass before {@link DeathSystem} runs.
+ */
+@Singleton
+@Order(7)
+@Slf4j
+public class DamageSystem extends BaseSystem {
+
+    private final DamageBuffer damageBuffer;
+    private final HealthChangeTracker healthChangeTracker;
+    private final DirtyTracker dirtyTracker;
+    private ComponentMapper<Stats> statsMapper;
+
+    @Inject
+    public DamageSystem(DamageBuffer damageBuffer, HealthChangeTracker healthChangeTracker,
+                        DirtyTracker dirtyTracker) {
+        this.damageBuffer = damageBuffer;
+        this.healthChangeTracker = healthChangeTracker;
+        this.dirtyTracker = dirtyTracker;
+    }
+
+    @Override
+    protected void processSystem() {
+        IntBag targets = damageBuffer.aggregate();
+
+        for (int i = 0; i < targets.size(); i++) {
+            int targetId = targets.get(i);
+            Stats stats = statsMapper.get(targetId);
+            if (stats == null) {
+                continue;
+            }
+
+            stats.health -= damageBuffer.getTotal(targetId);
+            healthChangeTracker.markChanged(targetId);
+            dirtyTracker.markChanged(targetId);
+            if (log.isDebugEnabled()) {
+                log.debug("Entity {} took {} damage. Health: {}", targetId, damageBuffer.getTotal(targetId), stats.health);
+            }
+        }
+    }
+}
@@ -1,33 +1,109 @@
 package com.ecs.system;
 
 import com.artemis.Aspect;
+import com.artemis.BaseEntitySystem;
 import com.artemis.ComponentMapper;
-import com.artemis.systems.IteratingSystem;
+import com.artemis.utils.IntBag;
+import com.ecs.combat.DeathListener;
+import com.ecs.combat.HealthChangeTracker;
 import com.ecs.component.Stats;
 import io.micronaut.core.annotation.Order;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
  * System for handling entity death when health reaches zero.
+ * Only entities whose health changed this tick are checked, along with entities that gained
+ * Stats, so that units spawned, loaded or restored without health die too. Dead entities are
+ * announced to {@link DeathListener}s and then deleted together, so their removal
+ * from subscriptions and the spatial grid happens in a single flush.
  */
 @Singleton
-@Order(5)
+@Order(8)
 @Slf4j
-public class DeathSystem extends IteratingSystem {
+public class DeathSystem extends BaseEntitySystem {
 
+    private final HealthChangeTracker healthChangeTracker;
+    private final List<DeathListener> listeners;
+    private final IntBag dead = new IntBag();
+    private long deathCount;
     private ComponentMapper<Stats> statsMapper;
 
-    public DeathSystem() {
+    @Inject
+    public DeathSystem(HealthChangeTracker healthChangeTracker, List<DeathListener> listeners) {
         super(Aspect.all(Stats.class));
+        this.healthChangeTracker = healthChangeTracker;
+        this.listeners = new CopyOnWriteArrayList<>(listeners);
+    }
+
+    /**
+     * Subscribes a listener to the death event stream.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(DeathListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unsubscribes a listener from the death event stream.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(DeathListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets the number of entities that have died since startup.
+     *
+     * @return the death count
+     */
+    public long getDeathCount() {
+        return deathCount;
+    }
+
+    @Override
+    protected void inserted(int entityId) {
+        healthChangeTracker.markChanged(entityId);
     }
 
     @Override
-    protected void process(int entityId) {
-        Stats stats = statsMapper.get(entityId);
-        if (stats.health <= 0) {
-            log.debug("Entity {} died.", entityId);
-            world.delete(entityId);
+    protected boolean checkProcessing() {
+        return !healthChangeTracker.isEmpty();
+    }
+
+    @Override
+    protected void processSystem() {
+        IntBag changed = healthChangeTracker.getChanged();
+        for (int i = 0; i < changed.size(); i++) {
+            int entityId = changed.get(i);
+            Stats stats = statsMapper.get(entityId);
+            if (stats != null && stats.health <= 0) {
+                dead.add(entityId);
+            }
+        }
+        healthChangeTracker.clear();
+
+        if (dead.isEmpty()) {
+            return;
+        }
+
+        deathCount += dead.size();
+        for (DeathListener listener : listeners) {
+            listener.onDeath(world, dead);
+        }
+
+        for (int i = 0; i < dead.size(); i++) {
+            if (log.isDebugEnabled()) {
+                log.debug("Entity {} died.", dead.get(i));
+            }
+            world.delete(dead.get(i));
         }
+        dead.clear();
     }
 }
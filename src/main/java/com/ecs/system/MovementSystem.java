@@ -1,34 +1,174 @@
 package com.ecs.system;
 
 import com.artemis.Aspect;
+import com.artemis.BaseEntitySystem;
 import com.artemis.ComponentMapper;
-import com.artemis.systems.IteratingSystem;
+import com.artemis.utils.IntBag;
 import com.ecs.component.Position;
 import com.ecs.component.Velocity;
+import com.ecs.persistence.DirtyTracker;
+import com.ecs.storage.MotionKernel;
+import com.ecs.storage.MotionStore;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.core.annotation.Order;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
 /**
  * System for applying velocity to entity positions.
+ *
+ * <p>When a {@link MotionStore} is available, positions are integrated over its packed arrays
+ * with the preferred {@link MotionKernel}, and only the Position components of entities that
+ * moved are written back. Positions and velocities are best changed through
+ * {@link #setPosition(int, float, float)} and {@link #setVelocity(int, float, float)}, which
+ * update the store as well. Entities marked changed in the {@link DirtyTracker} are copied
+ * from their components into the store again before integrating, so writes made directly to
+ * the components, such as restores, are kept as long as they are marked. Without a store,
+ * each entity is updated through its components.</p>
+ *
+ * <p>Moving entities, and entities whose velocity changed, are marked as moved in the
+ * {@link DirtyTracker}.</p>
  */
 @Singleton
 @Order(1)
-public class MovementSystem extends IteratingSystem {
+public class MovementSystem extends BaseEntitySystem {
 
+    private final MotionStore motionStore;
+    private final MotionKernel kernel;
+    private final DirtyTracker dirtyTracker;
+    // Entities whose components may have been written without going through the store
+    private final DirtyTracker.ChangeSet changes;
     private ComponentMapper<Position> positionMapper;
     private ComponentMapper<Velocity> velocityMapper;
 
-    public MovementSystem() {
+    @Inject
+    public MovementSystem(@Nullable MotionStore motionStore, DirtyTracker dirtyTracker) {
         super(Aspect.all(Position.class, Velocity.class));
+        this.motionStore = motionStore;
+        this.kernel = motionStore != null ? MotionKernel.preferred() : null;
+        this.dirtyTracker = dirtyTracker;
+        this.changes = motionStore != null ? dirtyTracker.subscribe(false) : null;
     }
 
     @Override
-    protected void process(int entityId) {
+    protected void inserted(int entityId) {
+        if (motionStore != null) {
+            Position position = positionMapper.get(entityId);
+            Velocity velocity = velocityMapper.get(entityId);
+            motionStore.add(entityId, position.x, position.y, velocity.dx, velocity.dy);
+        }
+    }
+
+    @Override
+    protected void removed(int entityId) {
+        if (motionStore != null) {
+            motionStore.remove(entityId);
+        }
+    }
+
+    /**
+     * Gets the motion store, if motion is integrated over one.
+     *
+     * @return the store, or null when integrating through components
+     */
+    @Nullable
+    public MotionStore getMotionStore() {
+        return motionStore;
+    }
+
+    /**
+     * Sets the velocity of a moving entity in its component and the motion store.
+     *
+     * @param entityId the entity ID
+     * @param dx       the x velocity
+     * @param dy       the y velocity
+     */
+    public void setVelocity(int entityId, float dx, float dy) {
+        Velocity velocity = velocityMapper.get(entityId);
+        velocity.dx = dx;
+        velocity.dy = dy;
+        if (motionStore != null && motionStore.contains(entityId)) {
+            motionStore.setVelocity(entityId, dx, dy);
+        }
+    }
+
+    /**
+     * Moves an entity to a position, in its component and the motion store.
+     *
+     * @param entityId the entity ID
+     * @param x        the x position
+     * @param y        the y position
+     */
+    public void setPosition(int entityId, float x, float y) {
+        Position position = positionMapper.get(entityId);
+        position.x = x;
+        position.y = y;
+        if (motionStore != null && motionStore.contains(entityId)) {
+            motionStore.setPosition(entityId, x, y);
+        }
+        dirtyTracker.markMoved(entityId);
+    }
+
+    @Override
+    protected void processSystem() {
+        if (motionStore == null) {
+            IntBag entities = subscription.getEntities();
+            int[] ids = entities.getData();
+            for (int i = 0, s = entities.size(); i < s; i++) {
+                process(ids[i]);
+            }
+            return;
+        }
+
+        IntBag changed = changes.getChanged();
+        for (int i = 0; i < changed.size(); i++) {
+            int entityId = changed.get(i);
+            if (motionStore.contains(entityId)) {
+                Position position = positionMapper.get(entityId);
+                Velocity velocity = velocityMapper.get(entityId);
+                motionStore.setPosition(entityId, position.x, position.y);
+                motionStore.setVelocity(entityId, velocity.dx, velocity.dy);
+            }
+        }
+        changes.clear();
+
+        // Entities that stopped or turned are saved even when they did not move
+        IntBag velocityChanges = motionStore.getVelocityChanges();
+        for (int i = 0; i < velocityChanges.size(); i++) {
+            int entityId = velocityChanges.get(i);
+            if (motionStore.contains(entityId)) {
+                dirtyTracker.markMoved(entityId);
+            }
+        }
+        motionStore.clearVelocityChanges();
+
+        int count = motionStore.size();
+        float[] x = motionStore.xs();
+        float[] y = motionStore.ys();
+        float[] dx = motionStore.dxs();
+        float[] dy = motionStore.dys();
+        kernel.integrate(x, y, dx, dy, count, world.getDelta());
+
+        int[] ids = motionStore.entities();
+        for (int i = 0; i < count; i++) {
+            if (dx[i] != 0 || dy[i] != 0) {
+                int entityId = ids[i];
+                Position position = positionMapper.get(entityId);
+                position.x = x[i];
+                position.y = y[i];
+                dirtyTracker.markMoved(entityId);
+            }
+        }
+    }
+
+    private void process(int entityId) {
         Position position = positionMapper.get(entityId);
         Velocity velocity = velocityMapper.get(entityId);
 
         // Apply velocity with delta time
         position.x += velocity.dx * world.getDelta();
         position.y += velocity.dy * world.getDelta();
+        // Without the store's previous velocities a stop can't be detected, so mark every entity
+        dirtyTracker.markMoved(entityId);
     }
 }
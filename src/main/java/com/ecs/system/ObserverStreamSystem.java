@@ -0,0 +1,457 @@
+package com.ecs.system;
+
+import com.artemis.Aspect;
+import com.artemis.BaseEntitySystem;
+import com.artemis.ComponentMapper;
+import com.artemis.utils.Bag;
+import com.artemis.utils.BitVector;
+import com.artemis.utils.IntBag;
+import com.ecs.component.Position;
+import com.ecs.component.Stats;
+import com.ecs.persistence.DirtyTracker;
+import com.ecs.view.ObserverProtocol;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.ShutdownEvent;
+import io.micronaut.core.annotation.Order;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * System for streaming entity state to local observers, such as visualizers and analytics.
+ * Enabled by setting {@code ecs.observer.socket} to the path of the Unix domain socket to serve.
+ *
+ * <p>After each tick, entities that were created, moved, changed or deleted are compared with
+ * the state last sent, and only quantized position changes and changed health are encoded, as
+ * described in {@link ObserverProtocol}. Stream cost therefore follows the change rate rather
+ * than the entity count. Each subscriber only receives entities inside its area of interest,
+ * entering and leaving as they cross it.</p>
+ *
+ * <p>Sockets are written without blocking from the game loop thread. Frames for a subscriber
+ * that falls more than its buffer behind are dropped, and once its buffer has drained it is
+ * sent a reset frame with the full state of its area.</p>
+ */
+@Slf4j
+@Singleton
+@Order(12)
+@Requires(property = "ecs.observer.socket")
+public class ObserverStreamSystem extends BaseEntitySystem {
+
+    private static final int DEFAULT_BUFFER_BYTES = 1 << 20;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int INITIAL_FRAME_BYTES = 64 * 1024;
+
+    private final Path socketPath;
+    private final int bufferBytes;
+    private final ServerSocketChannel server;
+    private final DirtyTracker.ChangeSet changes;
+    private final Bag<Subscriber> subscribers = new Bag<>();
+
+    // Entities created since the last frame, and deleted ones in deletion order
+    private final BitVector createdBits = new BitVector();
+    private final IntBag created = new IntBag();
+    private final IntBag deleted = new IntBag();
+
+    // State last sent for each entity, by entity ID
+    private final BitVector sent = new BitVector();
+    private int[] sentX = new int[INITIAL_CAPACITY];
+    private int[] sentY = new int[INITIAL_CAPACITY];
+    private float[] sentHealth = new float[INITIAL_CAPACITY];
+
+    // Entities whose sent state changed this frame, with their update flags and position deltas
+    private final IntBag updated = new IntBag();
+    private int[] updateFlags = new int[INITIAL_CAPACITY];
+    private int[] deltaX = new int[INITIAL_CAPACITY];
+    private int[] deltaY = new int[INITIAL_CAPACITY];
+
+    private ByteBuffer frame = ByteBuffer.allocate(INITIAL_FRAME_BYTES);
+    private long tick;
+
+    private ComponentMapper<Position> positionMapper;
+    private ComponentMapper<Stats> statsMapper;
+
+    @Inject
+    public ObserverStreamSystem(@Value("${ecs.observer.socket}") String socketPath, DirtyTracker dirtyTracker) {
+        this(Paths.get(socketPath), DEFAULT_BUFFER_BYTES, dirtyTracker);
+    }
+
+    /**
+     * Creates a system serving the stream on a socket.
+     *
+     * @param socketPath   the socket path, replaced if it exists
+     * @param bufferBytes  the bytes buffered for each subscriber before frames are dropped
+     * @param dirtyTracker the tracker marking moved and changed entities
+     */
+    public ObserverStreamSystem(Path socketPath, int bufferBytes, DirtyTracker dirtyTracker) {
+        super(Aspect.all(Position.class));
+        this.socketPath = socketPath;
+        this.bufferBytes = bufferBytes;
+        this.changes = dirtyTracker.subscribe(true);
+        try {
+            Files.deleteIfExists(socketPath);
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+            server.configureBlocking(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open observer socket " + socketPath, e);
+        }
+        log.info("Observer stream listening on {}", socketPath);
+    }
+
+    /**
+     * Gets the number of connected subscribers.
+     *
+     * @return the subscriber count
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    protected void inserted(int entityId) {
+        if (!createdBits.get(entityId)) {
+            createdBits.set(entityId);
+            created.add(entityId);
+        }
+    }
+
+    @Override
+    protected void removed(int entityId) {
+        deleted.add(entityId);
+    }
+
+    @Override
+    protected void processSystem() {
+        tick++;
+        acceptSubscribers();
+        for (int i = subscribers.size() - 1; i >= 0; i--) {
+            readInterest(subscribers.get(i));
+        }
+
+        // Deletes go first, since a deleted entity's ID may already be reused by a created one
+        for (int i = 0; i < deleted.size(); i++) {
+            sent.clear(deleted.get(i));
+        }
+        updated.clear();
+        for (int i = 0; i < created.size(); i++) {
+            update(created.get(i));
+        }
+        IntBag changed = changes.getChanged();
+        for (int i = 0; i < changed.size(); i++) {
+            int entityId = changed.get(i);
+            if (!createdBits.get(entityId)) {
+                update(entityId);
+            }
+        }
+
+        for (int i = subscribers.size() - 1; i >= 0; i--) {
+            Subscriber subscriber = subscribers.get(i);
+            if (subscriber.interested && !subscriber.resync) {
+                sendChanges(subscriber);
+            }
+            if (subscriber.interested && subscriber.resync && subscriber.out.position() == 0) {
+                sendReset(subscriber);
+            }
+            flush(subscriber);
+        }
+
+        for (int i = 0; i < created.size(); i++) {
+            createdBits.clear(created.get(i));
+        }
+        created.clear();
+        deleted.clear();
+        changes.clear();
+    }
+
+    /**
+     * Brings an entity's sent state up to date, recording which parts changed.
+     */
+    private void update(int entityId) {
+        if (!subscription.getActiveEntityIds().get(entityId)) {
+            return;
+        }
+        ensureCapacity(entityId);
+        Position position = positionMapper.get(entityId);
+        int x = ObserverProtocol.quantize(position.x);
+        int y = ObserverProtocol.quantize(position.y);
+        float health = health(entityId);
+
+        int flags = 0;
+        if (!sent.get(entityId)) {
+            flags = ObserverProtocol.UPDATE_POSITION | ObserverProtocol.UPDATE_HEALTH;
+            sent.set(entityId);
+            sentHealth[entityId] = health;
+        } else {
+            if (x != sentX[entityId] || y != sentY[entityId]) {
+                flags = ObserverProtocol.UPDATE_POSITION;
+                deltaX[entityId] = x - sentX[entityId];
+                deltaY[entityId] = y - sentY[entityId];
+            }
+            if (Float.floatToIntBits(health) != Float.floatToIntBits(sentHealth[entityId])) {
+                flags |= ObserverProtocol.UPDATE_HEALTH;
+                sentHealth[entityId] = health;
+            }
+        }
+        sentX[entityId] = x;
+        sentY[entityId] = y;
+        if (flags != 0) {
+            updateFlags[entityId] = flags;
+            updated.add(entityId);
+        }
+    }
+
+    private void sendChanges(Subscriber subscriber) {
+        startFrame(false);
+        int records = 0;
+        for (int i = 0; i < deleted.size(); i++) {
+            int entityId = deleted.get(i);
+            if (subscriber.known.get(entityId)) {
+                subscriber.known.clear(entityId);
+                putRecord(ObserverProtocol.RECORD_REMOVE, entityId);
+                records++;
+            }
+        }
+        for (int i = 0; i < updated.size(); i++) {
+            int entityId = updated.get(i);
+            boolean inside = subscriber.contains(sentX[entityId], sentY[entityId]);
+            if (subscriber.known.get(entityId)) {
+                if (inside) {
+                    putUpdate(entityId, updateFlags[entityId]);
+                } else {
+                    subscriber.known.clear(entityId);
+                    putRecord(ObserverProtocol.RECORD_REMOVE, entityId);
+                }
+                records++;
+            } else if (inside) {
+                subscriber.known.set(entityId);
+                putEnter(entityId);
+                records++;
+            }
+        }
+        if (records > 0) {
+            enqueue(subscriber, records);
+        }
+    }
+
+    /**
+     * Sends the full state of a subscriber's area, after its interest changed or frames were
+     * dropped.
+     */
+    private void sendReset(Subscriber subscriber) {
+        subscriber.known.clear();
+        startFrame(true);
+        int records = 0;
+        IntBag entities = subscription.getEntities();
+        for (int i = 0; i < entities.size(); i++) {
+            int entityId = entities.get(i);
+            if (!sent.get(entityId)) {
+                update(entityId);
+            }
+            if (subscriber.contains(sentX[entityId], sentY[entityId])) {
+                subscriber.known.set(entityId);
+                putEnter(entityId);
+                records++;
+            }
+        }
+        if (frame.position() > subscriber.out.capacity()) {
+            // A full area may not fit the buffer, which is empty at this point
+            subscriber.out = ByteBuffer.allocate(frame.position());
+        }
+        subscriber.resync = false;
+        enqueue(subscriber, records);
+    }
+
+    private void startFrame(boolean reset) {
+        frame.clear();
+        frame.position(4);
+        frame.put(reset ? ObserverProtocol.FRAME_RESET : 0);
+        frame.putLong(tick);
+        frame.putInt(0);
+    }
+
+    private void putRecord(int kind, int entityId) {
+        ensureFrameCapacity();
+        frame.put((byte) kind);
+        ObserverProtocol.putVarInt(frame, entityId);
+    }
+
+    private void putEnter(int entityId) {
+        putRecord(ObserverProtocol.RECORD_ENTER, entityId);
+        ObserverProtocol.putZigZag(frame, sentX[entityId]);
+        ObserverProtocol.putZigZag(frame, sentY[entityId]);
+        frame.putFloat(sentHealth[entityId]);
+    }
+
+    private void putUpdate(int entityId, int flags) {
+        putRecord(ObserverProtocol.RECORD_UPDATE | flags, entityId);
+        if ((flags & ObserverProtocol.UPDATE_POSITION) != 0) {
+            ObserverProtocol.putZigZag(frame, deltaX[entityId]);
+            ObserverProtocol.putZigZag(frame, deltaY[entityId]);
+        }
+        if ((flags & ObserverProtocol.UPDATE_HEALTH) != 0) {
+            frame.putFloat(sentHealth[entityId]);
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, int records) {
+        frame.putInt(0, frame.position() - 4);
+        frame.putInt(4 + 1 + 8, records);
+        frame.flip();
+        if (frame.remaining() > subscriber.out.remaining()) {
+            // Too far behind: drop frames until the buffer drains, then resend its area
+            if (!subscriber.resync) {
+                log.debug("Observer subscriber fell behind; resynchronizing");
+                subscriber.resync = true;
+            }
+            return;
+        }
+        subscriber.out.put(frame);
+    }
+
+    private void flush(Subscriber subscriber) {
+        if (subscriber.out.position() == 0) {
+            return;
+        }
+        try {
+            subscriber.out.flip();
+            subscriber.channel.write(subscriber.out);
+            subscriber.out.compact();
+        } catch (IOException e) {
+            disconnect(subscriber, e.getMessage());
+        }
+    }
+
+    private void acceptSubscribers() {
+        try {
+            SocketChannel channel;
+            while ((channel = server.accept()) != null) {
+                channel.configureBlocking(false);
+                subscribers.add(new Subscriber(channel, bufferBytes));
+                log.info("Observer subscriber connected");
+            }
+        } catch (IOException e) {
+            log.error("Failed to accept observer subscriber: {}", e.getMessage(), e);
+        }
+    }
+
+    private void readInterest(Subscriber subscriber) {
+        try {
+            ByteBuffer in = subscriber.in;
+            while (true) {
+                int read = subscriber.channel.read(in);
+                if (read < 0) {
+                    disconnect(subscriber, "closed");
+                    return;
+                }
+                if (in.hasRemaining()) {
+                    return;
+                }
+                in.flip();
+                subscriber.minX = in.getFloat();
+                subscriber.minY = in.getFloat();
+                subscriber.maxX = in.getFloat();
+                subscriber.maxY = in.getFloat();
+                in.clear();
+                subscriber.interested = true;
+                subscriber.resync = true;
+            }
+        } catch (IOException e) {
+            disconnect(subscriber, e.getMessage());
+        }
+    }
+
+    private void disconnect(Subscriber subscriber, String reason) {
+        subscribers.remove(subscriber);
+        try {
+            subscriber.channel.close();
+        } catch (IOException ignored) {
+            // Already gone
+        }
+        log.info("Observer subscriber disconnected: {}", reason);
+    }
+
+    private float health(int entityId) {
+        Stats stats = statsMapper.get(entityId);
+        return stats != null ? stats.health : Float.NaN;
+    }
+
+    private void ensureCapacity(int entityId) {
+        if (entityId >= sentX.length) {
+            int length = Math.max(entityId + 1, sentX.length * 2);
+            sentX = Arrays.copyOf(sentX, length);
+            sentY = Arrays.copyOf(sentY, length);
+            sentHealth = Arrays.copyOf(sentHealth, length);
+            updateFlags = Arrays.copyOf(updateFlags, length);
+            deltaX = Arrays.copyOf(deltaX, length);
+            deltaY = Arrays.copyOf(deltaY, length);
+        }
+    }
+
+    private void ensureFrameCapacity() {
+        if (frame.remaining() < ObserverProtocol.MAX_RECORD_BYTES) {
+            ByteBuffer grown = ByteBuffer.allocate(frame.capacity() * 2);
+            frame.flip();
+            grown.put(frame);
+            frame = grown;
+        }
+    }
+
+    /**
+     * Closes the socket and all subscriber connections.
+     */
+    @EventListener
+    public void onShutdown(ShutdownEvent event) {
+        dispose();
+    }
+
+    @Override
+    protected void dispose() {
+        for (int i = subscribers.size() - 1; i >= 0; i--) {
+            disconnect(subscribers.get(i), "shutting down");
+        }
+        try {
+            server.close();
+            Files.deleteIfExists(socketPath);
+        } catch (IOException e) {
+            log.warn("Failed to close observer socket {}: {}", socketPath, e.getMessage());
+        }
+    }
+
+    private static final class Subscriber {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(ObserverProtocol.INTEREST_BYTES);
+        final BitVector known = new BitVector();
+        ByteBuffer out;
+        boolean interested;
+        boolean resync;
+        float minX;
+        float minY;
+        float maxX;
+        float maxY;
+
+        Subscriber(SocketChannel channel, int bufferBytes) {
+            this.channel = channel;
+            this.out = ByteBuffer.allocate(bufferBytes);
+        }
+
+        boolean contains(int quantizedX, int quantizedY) {
+            float x = ObserverProtocol.dequantize(quantizedX);
+            float y = ObserverProtocol.dequantize(quantizedY);
+            return x >= minX && x <= maxX && y >= minY && y <= maxY;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.ecs.system;
+
+import com.artemis.Aspect;
+import com.artemis.BaseEntitySystem;
+import com.artemis.Component;
+import com.artemis.ComponentMapper;
+import com.artemis.EntitySubscription;
+import com.artemis.utils.IntBag;
+import com.ecs.component.Persistent;
+import com.ecs.persistence.ComponentSerializers;
+import com.ecs.persistence.DirtyTracker;
+import io.micronaut.core.annotation.Order;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * System for marking persistent entities dirty when they are created or deleted, or when a
+ * persisted component is added to or removed from them.
+ * It only reacts to subscription changes and never processes entities. Changes to the fields
+ * of existing components must still be marked by whoever makes them.
+ */
+@Singleton
+@Order(9)
+public class PersistenceTrackingSystem extends BaseEntitySystem {
+
+    private final DirtyTracker dirtyTracker;
+
+    @Inject
+    public PersistenceTrackingSystem(DirtyTracker dirtyTracker) {
+        super(Aspect.all(Persistent.class));
+        this.dirtyTracker = dirtyTracker;
+    }
+
+    @Override
+    protected void initialize() {
+        for (Class<? extends Component> type : ComponentSerializers.getPersistedTypes()) {
+            if (type != Persistent.class) {
+                world.getAspectSubscriptionManager()
+                        .get(Aspect.all(Persistent.class, type))
+                        .addSubscriptionListener(new CompositionListener(world.getMapper(type)));
+            }
+        }
+    }
+
+    private void markChanged(IntBag entities) {
+        int[] ids = entities.getData();
+        for (int i = 0, s = entities.size(); i < s; i++) {
+            dirtyTracker.markChanged(ids[i]);
+        }
+    }
+
+    @Override
+    protected void inserted(int entityId) {
+        dirtyTracker.markChanged(entityId);
+    }
+
+    @Override
+    protected void removed(int entityId) {
+        dirtyTracker.markDeleted(entityId);
+    }
+
+    /**
+     * Marks persistent entities gaining or losing one persisted component type.
+     */
+    private final class CompositionListener implements EntitySubscription.SubscriptionListener {
+
+        private final ComponentMapper<? extends Component> mapper;
+
+        private CompositionListener(ComponentMapper<? extends Component> mapper) {
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void inserted(IntBag entities) {
+            markChanged(entities);
+        }
+
+        @Override
+        public void removed(IntBag entities) {
+            int[] ids = entities.getData();
+            for (int i = 0, s = entities.size(); i < s; i++) {
+                // Deleted entities keep their components until the removal is processed
+                if (!mapper.has(ids[i])) {
+                    dirtyTracker.markChanged(ids[i]);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected boolean checkProcessing() {
+        return false;
+    }
+
+    @Override
+    protected void processSystem() {
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecs.system;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.systems.IteratingSystem;
+import com.ecs.combat.ImpactBuffer;
+import com.ecs.component.Position;
+import com.ecs.component.Projectile;
+import com.ecs.component.Velocity;
+import io.micronaut.core.annotation.Order;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * System for detonating projectiles that reach their target point.
+ * Detonations are emitted into the {@link ImpactBuffer} and resolved by {@link AreaDamageSystem}.
+ */
+@Singleton
+@Order(5)
+public class ProjectileSystem extends IteratingSystem {
+
+    private final ImpactBuffer impactBuffer;
+    private ComponentMapper<Projectile> projectileMapper;
+    private ComponentMapper<Position> positionMapper;
+    private ComponentMapper<Velocity> velocityMapper;
+
+    @Inject
+    public ProjectileSystem(ImpactBuffer impactBuffer) {
+        super(Aspect.all(Projectile.class, Position.class));
+        this.impactBuffer = impactBuffer;
+    }
+
+    /**
+     * Launches a projectile towards a target point.
+     *
+     * @param sourceId the entity firing the projectile
+     * @param fromX    the launch x position
+     * @param fromY    the launch y position
+     * @param toX      the target x position
+     * @param toY      the target y position
+     * @param speed    the travel speed in units per second
+     * @param radius   the blast radius
+     * @param damage   the damage dealt to each entity in the blast
+     * @return the projectile entity ID
+     */
+    public int launch(int sourceId, float fromX, float fromY, float toX, float toY,
+                      float speed, float radius, float damage) {
+        int entityId = world.create();
+
+        Position position = positionMapper.create(entityId);
+        position.x = fromX;
+        position.y = fromY;
+
+        float dx = toX - fromX;
+        float dy = toY - fromY;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy);
+        Velocity velocity = velocityMapper.create(entityId);
+        if (distance > 0) {
+            velocity.dx = (dx / distance) * speed;
+            velocity.dy = (dy / distance) * speed;
+        }
+
+        Projectile projectile = projectileMapper.create(entityId);
+        projectile.sourceId = sourceId;
+        projectile.targetX = toX;
+        projectile.targetY = toY;
+        projectile.speed = speed;
+        projectile.radius = radius;
+        projectile.damage = damage;
+
+        return entityId;
+    }
+
+    @Override
+    protected void process(int entityId) {
+        Projectile projectile = projectileMapper.get(entityId);
+        Position position = positionMapper.get(entityId);
+
+        // Detonate once the next step would reach or pass the target point
+        float dx = projectile.targetX - position.x;
+        float dy = projectile.targetY - position.y;
+        float step = projectile.speed * world.getDelta();
+        if (dx * dx + dy * dy <= step * step) {
+            impactBuffer.emit(projectile.sourceId, projectile.targetX, projectile.targetY,
+                    projectile.radius, projectile.damage);
+            world.delete(entityId);
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package com.ecs.system;
+
+import com.artemis.Aspect;
+import com.artemis.Component;
+import com.artemis.ComponentMapper;
+import com.artemis.EntitySubscription;
+import com.artemis.systems.IntervalEntitySystem;
+import com.artemis.utils.Bag;
+import com.artemis.utils.IntBag;
+import com.ecs.component.Body;
+import com.ecs.component.Focus;
+import com.ecs.component.Persistent;
+import com.ecs.component.Position;
+import com.ecs.component.SpatialNode;
+import com.ecs.component.StoredRegion;
+import com.ecs.persistence.ComponentSerializers;
+import com.ecs.persistence.RegionListener;
+import com.ecs.persistence.RegionStore;
+import com.ecs.persistence.SaveProgress;
+import com.ecs.persistence.WorldSnapshot;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.ShutdownEvent;
+import io.micronaut.core.annotation.Order;
+import io.micronaut.runtime.event.annotation.EventListener;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * System for streaming world regions in and out around focus points.
+ * Enabled by setting {@code ecs.regions.dir} to the region directory.
+ *
+ * <p>Focus points are entities with a {@link Focus} component and points set through
+ * {@link #setFocusPoint(int, float, float, float)}. Regions within a focus radius are loaded
+ * from the {@link RegionStore}. Regions further than one region beyond every focus radius are
+ * captured, written to the store and have their persistent entities deleted from the world,
+ * so memory and tick cost follow the active area rather than the whole map. A region that an
+ * entity wanders into is loaded before it can be unloaded again.</p>
+ *
+ * <p>World saves and region files never both hold an entity. Unloading a region replaces its
+ * entities with a persistent {@link StoredRegion} entity naming the version of the file they
+ * were written to, and loading it deletes that entity again, so each world save records which
+ * region files it relies on. Only those are ever read; any other file is left over from a
+ * state that was not saved. Saves wait for the region writes before them through
+ * {@link SaveProgress}, and regions are not unloaded while a save is being captured over
+ * several ticks. A loaded region's file is deleted once a world save that started after the
+ * load has completed.</p>
+ *
+ * <p>Reads and writes run on a single I/O thread in submission order; loaded entities are
+ * created on the game loop once their region has been read. Persistent entities without a
+ * Position are never unloaded.</p>
+ *
+ * <p>Regions only hold persisted components. Transient state such as an AI behaviour is not
+ * restored; {@link RegionListener}s are notified of each loaded region to re-attach it.</p>
+ */
+@Slf4j
+@Singleton
+@Order(10)
+@Requires(property = "ecs.regions.dir")
+public class RegionStreamingSystem extends IntervalEntitySystem {
+
+    private static final float STREAM_INTERVAL = 0.5f;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final RegionStore store;
+    private final Executor io;
+    private final SaveProgress saveProgress;
+    private final List<RegionListener> listeners;
+    private final List<Class<? extends Component>> types = ComponentSerializers.getPersistedTypes();
+    private final Queue<ReadRegion> readRegions = new ConcurrentLinkedQueue<>();
+    private final Int2ObjectOpenHashMap<FocusPoint> focusPoints = new Int2ObjectOpenHashMap<>();
+
+    // Region bookkeeping, used on the game loop thread only
+    private final LongOpenHashSet loaded = new LongOpenHashSet();
+    private final LongOpenHashSet pending = new LongOpenHashSet();
+    private final LongOpenHashSet wanted = new LongOpenHashSet();
+    private final LongOpenHashSet kept = new LongOpenHashSet();
+    // Files of loaded regions, by version, which go once the save with the given number has completed
+    private final Long2LongOpenHashMap awaitingSave = new Long2LongOpenHashMap();
+    private final Long2LongOpenHashMap awaitingSaveKeys = new Long2LongOpenHashMap();
+    // StoredRegion entities by region key
+    private final Long2IntOpenHashMap storedRegions = new Long2IntOpenHashMap();
+    private final Long2ObjectOpenHashMap<IntBag> residents = new Long2ObjectOpenHashMap<>();
+    private final Bag<IntBag> freeBags = new Bag<>();
+    private boolean streamDue;
+
+    private EntitySubscription focusEntities;
+    private ComponentMapper<StoredRegion> storedRegionMapper;
+    private ComponentMapper<Position> positionMapper;
+    private ComponentMapper<Focus> focusMapper;
+    private ComponentMapper<Body> bodyMapper;
+    private ComponentMapper<SpatialNode> spatialNodeMapper;
+
+    @Inject
+    public RegionStreamingSystem(@Value("${ecs.regions.dir}") String directory,
+                                 SaveProgress saveProgress, List<RegionListener> listeners) {
+        this(openStore(directory), Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "RegionIO");
+            thread.setDaemon(true);
+            return thread;
+        }), saveProgress, listeners);
+    }
+
+    /**
+     * Creates a system streaming regions through the given executor. The executor must run
+     * tasks one at a time in submission order.
+     *
+     * @param store        the region store
+     * @param io           the executor reading and writing regions
+     * @param saveProgress the progress of world saves
+     * @param listeners    the listeners notified of loaded regions
+     */
+    public RegionStreamingSystem(RegionStore store, Executor io, SaveProgress saveProgress,
+                                 List<RegionListener> listeners) {
+        super(Aspect.all(Persistent.class, Position.class), STREAM_INTERVAL);
+        this.store = store;
+        this.io = io;
+        this.saveProgress = saveProgress;
+        this.listeners = new CopyOnWriteArrayList<>(listeners);
+        storedRegions.defaultReturnValue(-1);
+    }
+
+    private static RegionStore openStore(String directory) {
+        try {
+            return new RegionStore(Paths.get(directory));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    protected void initialize() {
+        focusEntities = world.getAspectSubscriptionManager().get(Aspect.all(Focus.class, Position.class));
+        // Stored regions come back with a loaded world save
+        world.getAspectSubscriptionManager().get(Aspect.all(StoredRegion.class))
+                .addSubscriptionListener(new EntitySubscription.SubscriptionListener() {
+                    @Override
+                    public void inserted(IntBag entities) {
+                        for (int i = 0; i < entities.size(); i++) {
+                            int entityId = entities.get(i);
+                            storedRegions.put(storedRegionMapper.get(entityId).key, entityId);
+                        }
+                    }
+
+                    @Override
+                    public void removed(IntBag entities) {
+                        for (int i = 0; i < entities.size(); i++) {
+                            StoredRegion region = storedRegionMapper.get(entities.get(i));
+                            if (region != null && storedRegions.get(region.key) == entities.get(i)) {
+                                storedRegions.remove(region.key);
+                            }
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Sets or moves a focus point. Must be called on the game loop thread.
+     *
+     * @param id     the focus point ID
+     * @param x      the x position
+     * @param y      the y position
+     * @param radius the radius around the position to keep loaded
+     */
+    public void setFocusPoint(int id, float x, float y, float radius) {
+        FocusPoint point = focusPoints.get(id);
+        if (point == null) {
+            point = new FocusPoint();
+            focusPoints.put(id, point);
+        }
+        point.x = x;
+        point.y = y;
+        point.radius = radius;
+    }
+
+    /**
+     * Subscribes a listener to loaded regions.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(RegionListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a focus point. Must be called on the game loop thread.
+     *
+     * @param id the focus point ID
+     */
+    public void removeFocusPoint(int id) {
+        focusPoints.remove(id);
+    }
+
+    /**
+     * Checks whether a region's entities are in the world.
+     *
+     * @param key the region key
+     * @return true if the region is loaded
+     */
+    public boolean isLoaded(long key) {
+        return loaded.contains(key);
+    }
+
+    @Override
+    protected boolean checkProcessing() {
+        streamDue = super.checkProcessing();
+        return streamDue || !readRegions.isEmpty();
+    }
+
+    @Override
+    protected void processSystem() {
+        restoreReadRegions();
+        if (streamDue) {
+            stream();
+            // A synchronous executor has already read the requested regions
+            restoreReadRegions();
+        }
+    }
+
+    private void stream() {
+        deleteSavedRegions();
+        wanted.clear();
+        kept.clear();
+        IntBag focused = focusEntities.getEntities();
+        for (int i = 0; i < focused.size(); i++) {
+            int entityId = focused.get(i);
+            Position position = positionMapper.get(entityId);
+            addRegions(position.x, position.y, focusMapper.get(entityId).radius);
+        }
+        for (FocusPoint point : focusPoints.values()) {
+            addRegions(point.x, point.y, point.radius);
+        }
+
+        for (IntBag bag : residents.values()) {
+            bag.clear();
+            freeBags.add(bag);
+        }
+        residents.clear();
+        IntBag entities = subscription.getEntities();
+        for (int i = 0; i < entities.size(); i++) {
+            int entityId = entities.get(i);
+            Position position = positionMapper.get(entityId);
+            long key = RegionStore.keyOf(position.x, position.y);
+            IntBag bag = residents.get(key);
+            if (bag == null) {
+                bag = freeBags.isEmpty() ? new IntBag() : freeBags.removeLast();
+                residents.put(key, bag);
+            }
+            bag.add(entityId);
+        }
+
+        for (LongIterator it = wanted.iterator(); it.hasNext(); ) {
+            requestLoad(it.nextLong());
+        }
+        for (LongIterator it = residents.keySet().iterator(); it.hasNext(); ) {
+            requestLoad(it.nextLong());
+        }
+        if (saveProgress.isCapturing()) {
+            // The save would hold the unloaded entities neither in the world nor as stored regions
+            return;
+        }
+        for (LongIterator it = loaded.iterator(); it.hasNext(); ) {
+            long key = it.nextLong();
+            if (!kept.contains(key)) {
+                it.remove();
+                unload(key, residents.get(key));
+            }
+        }
+    }
+
+    /**
+     * Adds the regions overlapping a focus radius to the wanted set and the regions within one
+     * more region to the kept set.
+     */
+    private void addRegions(float x, float y, float radius) {
+        addRegions(x, y, radius, wanted);
+        addRegions(x, y, radius + RegionStore.REGION_SIZE, kept);
+    }
+
+    private static void addRegions(float x, float y, float radius, LongOpenHashSet out) {
+        int minX = RegionStore.regionCoordinate(x - radius);
+        int maxX = RegionStore.regionCoordinate(x + radius);
+        int minY = RegionStore.regionCoordinate(y - radius);
+        int maxY = RegionStore.regionCoordinate(y + radius);
+        for (int regionX = minX; regionX <= maxX; regionX++) {
+            for (int regionY = minY; regionY <= maxY; regionY++) {
+                out.add(RegionStore.key(regionX, regionY));
+            }
+        }
+    }
+
+    private void requestLoad(long key) {
+        if (loaded.contains(key) || pending.contains(key)) {
+            return;
+        }
+        int storedRegion = storedRegions.get(key);
+        if (storedRegion < 0) {
+            // No region file holds any of its entities
+            loaded.add(key);
+            return;
+        }
+        long version = storedRegionMapper.get(storedRegion).version;
+        pending.add(key);
+        io.execute(() -> {
+            WorldSnapshot snapshot = new WorldSnapshot(types);
+            try {
+                if (!store.read(key, version, snapshot)) {
+                    // Retrying would not bring it back, so the region loads empty
+                    log.error("Region file {} is missing", store.pathFor(key, version));
+                }
+                readRegions.add(new ReadRegion(key, version, snapshot, null));
+            } catch (IOException | RuntimeException e) {
+                readRegions.add(new ReadRegion(key, version, null, e));
+            }
+        });
+    }
+
+    private void restoreReadRegions() {
+        ReadRegion region;
+        while ((region = readRegions.poll()) != null) {
+            long key = region.key;
+            pending.remove(key);
+            if (region.error != null) {
+                // Left unloaded and retried on the next pass
+                log.error("Failed to load region {}: {}", store.pathFor(key, region.version),
+                        region.error.getMessage(), region.error);
+                continue;
+            }
+
+            IntBag created = region.snapshot.restore(world);
+            for (int i = 0; i < created.size(); i++) {
+                // Grid membership is transient, so restored bodies rejoin the spatial grid here
+                int entityId = created.get(i);
+                if (bodyMapper.has(entityId) && positionMapper.has(entityId)) {
+                    spatialNodeMapper.create(entityId);
+                }
+            }
+            int storedRegion = storedRegions.get(key);
+            if (storedRegion >= 0 && storedRegionMapper.get(storedRegion).version == region.version) {
+                storedRegions.remove(key);
+                world.delete(storedRegion);
+            }
+            loaded.add(key);
+            // The file is still needed by saves taken before the load
+            awaitingSave.put(region.version, saveProgress.getStarted() + 1);
+            awaitingSaveKeys.put(region.version, key);
+            if (created.size() > 0) {
+                for (RegionListener listener : listeners) {
+                    listener.onRegionLoaded(world, created);
+                }
+                log.debug("Loaded region {} with {} entities", store.pathFor(key, region.version), created.size());
+            }
+        }
+    }
+
+    /**
+     * Deletes the files of loaded regions whose entities a completed save now holds.
+     */
+    private void deleteSavedRegions() {
+        if (awaitingSave.isEmpty()) {
+            return;
+        }
+        long completed = saveProgress.getCompleted();
+        for (Iterator<Long2LongMap.Entry> it = awaitingSave.long2LongEntrySet().iterator(); it.hasNext(); ) {
+            Long2LongMap.Entry entry = it.next();
+            if (entry.getLongValue() > completed) {
+                continue;
+            }
+            long version = entry.getLongKey();
+            long key = awaitingSaveKeys.remove(version);
+            it.remove();
+            io.execute(() -> {
+                try {
+                    store.delete(key, version);
+                } catch (IOException e) {
+                    log.error("Failed to delete loaded region {}: {}", store.pathFor(key, version), e.getMessage(), e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes a region's entities to a new version of its file and replaces them with a
+     * {@link StoredRegion} entity. A region without entities needs neither; the file it was
+     * loaded from is no longer read and goes once saved.
+     */
+    private void unload(long key, IntBag entities) {
+        if (entities == null || entities.isEmpty()) {
+            return;
+        }
+        long version = store.nextVersion();
+        WorldSnapshot snapshot = new WorldSnapshot(types);
+        snapshot.capture(world, entities);
+        for (int i = 0; i < entities.size(); i++) {
+            world.delete(entities.get(i));
+        }
+        int storedRegion = world.create();
+        world.edit(storedRegion).add(new Persistent()).add(new StoredRegion(key, version));
+        storedRegions.put(key, storedRegion);
+        log.debug("Unloading region {} with {} entities", store.pathFor(key, version), entities.size());
+
+        CompletableFuture<Void> write = CompletableFuture.runAsync(() -> {
+            try {
+                store.write(key, version, snapshot);
+            } catch (IOException | RuntimeException e) {
+                // Put the entities back rather than losing them
+                log.error("Failed to write region {}: {}", store.pathFor(key, version), e.getMessage(), e);
+                readRegions.add(new ReadRegion(key, version, snapshot, null));
+                throw e instanceof IOException ? new UncheckedIOException((IOException) e) : (RuntimeException) e;
+            }
+        }, io);
+        saveProgress.addWrite(write);
+    }
+
+    /**
+     * Waits for pending region writes before shutdown.
+     */
+    @EventListener
+    public void onShutdown(ShutdownEvent event) {
+        if (io instanceof ExecutorService) {
+            ExecutorService executor = (ExecutorService) io;
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    log.warn("Pending region writes did not finish within {}s", SHUTDOWN_TIMEOUT_SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class FocusPoint {
+        float x;
+        float y;
+        float radius;
+    }
+
+    /**
+     * A region read on the I/O thread, waiting to be restored on the game loop.
+     */
+    private static final class ReadRegion {
+        final long key;
+        final long version;
+        final WorldSnapshot snapshot;
+        final Exception error;
+
+        ReadRegion(long key, long version, WorldSnapshot snapshot, Exception error) {
+            this.key = key;
+            this.version = version;
+            this.snapshot = snapshot;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,441 @@
+package com.ecs.system;
+
+import com.artemis.Aspect;
+import com.artemis.BaseSystem;
+import com.artemis.Component;
+import com.artemis.ComponentMapper;
+import com.artemis.EntitySubscription;
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.artemis.annotations.SkipWire;
+import com.artemis.utils.BitVector;
+import com.artemis.utils.IntBag;
+import com.ecs.component.Body;
+import com.ecs.component.Persistent;
+import com.ecs.component.Position;
+import com.ecs.component.SpatialNode;
+import com.ecs.component.Velocity;
+import com.ecs.persistence.ComponentSerializers;
+import com.ecs.persistence.DirtyTracker;
+import com.ecs.persistence.WorldSnapshot;
+import com.ecs.spatial.SpatialHashGrid;
+import com.ecs.storage.MotionStore;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.annotation.Order;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * System for keeping a ring of recent world states in memory and rolling the world back to
+ * any of them. Enabled by setting {@code ecs.rollback.frames} to the number of frames to keep;
+ * {@code ecs.rollback.interval} captures a frame every that many ticks instead of every tick.
+ *
+ * <p>Frames are captured at the end of a tick and their buffers are reused as the ring wraps.
+ * Motion is copied in bulk from the {@link MotionStore} columns. Everything else is kept as an
+ * undo log: a private mirror world holds the persistent state as of the newest frame, and each
+ * frame stores the mirror's images of the entities changed, created or deleted since the frame
+ * before, as reported by a {@link DirtyTracker} change set. Capture cost therefore follows
+ * motion and churn rather than world size.</p>
+ *
+ * <p>{@link #restore(int)} undoes the newer frames, restores the frame's motion and rebuilds
+ * the {@link SpatialHashGrid}, all within the calling tick. Only persisted components are
+ * rolled back; recreated entities get new entity IDs and lose their transient components,
+ * though those with a Body rejoin the spatial grid. Frames older than the restored one are
+ * dropped, since their entity IDs no longer match the world.</p>
+ */
+@Slf4j
+@Singleton
+@Order(11)
+@Requires(property = "ecs.rollback.frames")
+public class RollbackSystem extends BaseSystem {
+
+    private final int interval;
+    private final MotionStore motionStore;
+    private final DirtyTracker dirtyTracker;
+    private final DirtyTracker.ChangeSet changes;
+    private final SpatialHashGrid grid;
+    private final List<Class<? extends Component>> types = ComponentSerializers.getPersistedTypes();
+    private final Frame[] frames;
+    private final Frame pending;
+    private int newest = -1;
+    private int frameCount;
+    private long tick;
+
+    // Persistent state as of the newest frame, keyed by entity ID in the world
+    @SkipWire
+    private final World mirror = new World(new WorldConfigurationBuilder().build());
+    private final Int2IntOpenHashMap mirrorIds = new Int2IntOpenHashMap();
+    private boolean mirrored;
+
+    // Scratch, used on the game loop thread only
+    private final WorldSnapshot current;
+    private final IntBag changedEntities = new IntBag();
+    private final IntBag mirrorEntities = new IntBag();
+    private final IntBag frameEntities = new IntBag();
+    private final BitVector existing = new BitVector();
+    private final Int2IntOpenHashMap remap = new Int2IntOpenHashMap();
+    private int[] targets = new int[64];
+    private int[] spatialIds = new int[64];
+    private float[] spatialX = new float[64];
+    private float[] spatialY = new float[64];
+
+    private EntitySubscription persistentEntities;
+    private EntitySubscription movingEntities;
+    private EntitySubscription spatialEntities;
+    private ComponentMapper<Persistent> persistentMapper;
+    private ComponentMapper<Position> positionMapper;
+    private ComponentMapper<Velocity> velocityMapper;
+    private ComponentMapper<SpatialNode> spatialNodeMapper;
+    private ComponentMapper<Body> bodyMapper;
+
+    @Inject
+    public RollbackSystem(@Value("${ecs.rollback.frames}") int capacity,
+                          @Value("${ecs.rollback.interval:1}") int interval,
+                          @Nullable MotionStore motionStore,
+                          DirtyTracker dirtyTracker,
+                          SpatialHashGrid grid) {
+        if (capacity < 1 || interval < 1) {
+            throw new IllegalArgumentException("Rollback frames and interval must be positive");
+        }
+        this.interval = interval;
+        this.motionStore = motionStore;
+        this.dirtyTracker = dirtyTracker;
+        this.changes = dirtyTracker.subscribe(false);
+        this.grid = grid;
+        this.frames = new Frame[capacity];
+        for (int i = 0; i < capacity; i++) {
+            frames[i] = new Frame(types);
+        }
+        this.pending = new Frame(types);
+        this.current = new WorldSnapshot(types);
+        mirrorIds.defaultReturnValue(-1);
+    }
+
+    @Override
+    protected void initialize() {
+        persistentEntities = world.getAspectSubscriptionManager().get(Aspect.all(Persistent.class));
+        movingEntities = world.getAspectSubscriptionManager().get(Aspect.all(Position.class, Velocity.class));
+        spatialEntities = world.getAspectSubscriptionManager().get(Aspect.all(Position.class, SpatialNode.class));
+    }
+
+    /**
+     * Gets the number of frames that can be restored.
+     *
+     * @return the frame count
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Gets the number of ticks processed, as of the end of the latest tick.
+     *
+     * @return the tick count
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the tick a frame was captured at.
+     *
+     * @param framesAgo the frame, 0 being the newest
+     * @return the tick count at the end of the frame's tick
+     */
+    public long getFrameTick(int framesAgo) {
+        return frame(framesAgo).tick;
+    }
+
+    @Override
+    protected void processSystem() {
+        tick++;
+        if (!mirrored) {
+            mirrorWorld();
+        }
+        if (tick % interval != 0) {
+            return;
+        }
+        newest = (newest + 1) % frames.length;
+        frameCount = Math.min(frameCount + 1, frames.length);
+        Frame frame = frames[newest];
+        captureChanges(frame);
+        captureMotion(frame);
+        frame.tick = tick;
+    }
+
+    /**
+     * Rolls the world back to the state captured in a frame. Must be called on the game loop
+     * thread between ticks, such as from a queued world command.
+     *
+     * @param framesAgo the frame to restore, 0 being the newest
+     */
+    public void restore(int framesAgo) {
+        Frame target = frame(framesAgo);
+        long start = System.nanoTime();
+        remap.clear();
+
+        // Changes made since the newest frame are undone like a frame of their own
+        captureChanges(pending);
+        undo(pending);
+        for (int i = 0; i < framesAgo; i++) {
+            undo(frames[(newest - i + frames.length) % frames.length]);
+        }
+        mirror.process();
+        restoreMotion(target);
+        rebuildGrid();
+
+        newest = (newest - framesAgo + frames.length) % frames.length;
+        frameCount = 1;
+        tick = target.tick;
+        changes.clear();
+        log.debug("Restored tick {} in {} us", tick, (System.nanoTime() - start) / 1_000);
+    }
+
+    private Frame frame(int framesAgo) {
+        if (framesAgo < 0 || framesAgo >= frameCount) {
+            throw new IllegalArgumentException("No frame " + framesAgo + " ticks back; " + frameCount + " available");
+        }
+        return frames[(newest - framesAgo + frames.length) % frames.length];
+    }
+
+    /**
+     * Copies every persistent entity into the mirror, once, before the first frame.
+     */
+    private void mirrorWorld() {
+        current.capture(world, persistentEntities.getEntities());
+        current.applyTo(mirror, mirrorIds);
+        mirror.process();
+        changes.clear();
+        mirrored = true;
+    }
+
+    /**
+     * Records the mirror's images of the entities changed since the previous capture, then
+     * brings the mirror up to date.
+     */
+    private void captureChanges(Frame frame) {
+        frame.created.clear();
+        mirrorEntities.clear();
+        frameEntities.clear();
+
+        // Deletes come first, since a deleted entity's ID may have been reused since
+        IntBag deleted = changes.getDeleted();
+        for (int i = 0; i < deleted.size(); i++) {
+            int entityId = deleted.get(i);
+            int mirrorId = mirrorIds.remove(entityId);
+            if (mirrorId >= 0) {
+                mirrorEntities.add(mirrorId);
+                frameEntities.add(entityId);
+            }
+        }
+        frame.deletedCount = frameEntities.size();
+
+        changedEntities.clear();
+        IntBag changed = changes.getChanged();
+        for (int i = 0; i < changed.size(); i++) {
+            int entityId = changed.get(i);
+            if (!world.getEntityManager().isActive(entityId) || !persistentMapper.has(entityId)) {
+                continue;
+            }
+            changedEntities.add(entityId);
+            int mirrorId = mirrorIds.get(entityId);
+            if (mirrorId >= 0) {
+                mirrorEntities.add(mirrorId);
+                frameEntities.add(entityId);
+            } else {
+                frame.created.add(entityId);
+            }
+        }
+        changes.clear();
+
+        frame.before.capture(mirror, mirrorEntities);
+        for (int i = 0; i < frameEntities.size(); i++) {
+            frame.before.setEntityId(i, frameEntities.get(i));
+        }
+        if (!mirrorEntities.isEmpty() || !changedEntities.isEmpty()) {
+            for (int i = 0; i < frame.deletedCount; i++) {
+                mirror.delete(mirrorEntities.get(i));
+            }
+            current.capture(world, changedEntities);
+            current.applyTo(mirror, mirrorIds);
+            mirror.process();
+        }
+    }
+
+    /**
+     * Copies positions and velocities from the motion store columns, or from their components
+     * without a store.
+     */
+    private void captureMotion(Frame frame) {
+        if (motionStore != null) {
+            int count = motionStore.size();
+            frame.ensureMotionCapacity(count);
+            System.arraycopy(motionStore.entities(), 0, frame.motionEntities, 0, count);
+            System.arraycopy(motionStore.xs(), 0, frame.x, 0, count);
+            System.arraycopy(motionStore.ys(), 0, frame.y, 0, count);
+            System.arraycopy(motionStore.dxs(), 0, frame.dx, 0, count);
+            System.arraycopy(motionStore.dys(), 0, frame.dy, 0, count);
+            frame.motionCount = count;
+        } else {
+            IntBag entities = movingEntities.getEntities();
+            int count = entities.size();
+            frame.ensureMotionCapacity(count);
+            int[] ids = entities.getData();
+            for (int i = 0; i < count; i++) {
+                Position position = positionMapper.get(ids[i]);
+                Velocity velocity = velocityMapper.get(ids[i]);
+                frame.motionEntities[i] = ids[i];
+                frame.x[i] = position.x;
+                frame.y[i] = position.y;
+                frame.dx[i] = velocity.dx;
+                frame.dy[i] = velocity.dy;
+            }
+            frame.motionCount = count;
+        }
+    }
+
+    /**
+     * Reverts a frame's changes in the world and the mirror. Frames must be undone newest
+     * first; entity IDs recorded by older frames are translated through {@link #remap}.
+     */
+    private void undo(Frame frame) {
+        IntBag created = frame.created;
+        for (int i = 0; i < created.size(); i++) {
+            int entityId = liveId(created.get(i));
+            if (entityId >= 0) {
+                world.delete(entityId);
+                int mirrorId = mirrorIds.remove(entityId);
+                if (mirrorId >= 0) {
+                    mirror.delete(mirrorId);
+                }
+                remap.put(created.get(i), -1);
+            }
+        }
+
+        WorldSnapshot before = frame.before;
+        int count = before.getEntityCount();
+        if (targets.length < count) {
+            targets = new int[Math.max(count, targets.length * 2)];
+        }
+        existing.clear();
+        for (int i = 0; i < count; i++) {
+            int savedId = before.getEntityId(i);
+            if (i < frame.deletedCount) {
+                targets[i] = world.create();
+                remap.put(savedId, targets[i]);
+            } else {
+                targets[i] = liveId(savedId);
+                existing.set(i);
+            }
+        }
+        before.restoreInto(world, targets, existing);
+        for (int i = 0; i < count; i++) {
+            int entityId = targets[i];
+            if (i < frame.deletedCount && bodyMapper.has(entityId) && positionMapper.has(entityId)) {
+                // Grid membership is transient, so recreated bodies rejoin the spatial grid
+                spatialNodeMapper.create(entityId);
+            }
+            dirtyTracker.markChanged(entityId);
+            before.setEntityId(i, entityId);
+        }
+        before.applyTo(mirror, mirrorIds);
+    }
+
+    private int liveId(int savedId) {
+        return remap.containsKey(savedId) ? remap.get(savedId) : savedId;
+    }
+
+    /**
+     * Writes a frame's motion back to the components and the motion store, and translates its
+     * entity IDs so that the frame can be restored again.
+     */
+    private void restoreMotion(Frame frame) {
+        int[] ids = frame.motionEntities;
+        for (int i = 0; i < frame.motionCount; i++) {
+            int entityId = ids[i] >= 0 ? liveId(ids[i]) : -1;
+            ids[i] = entityId;
+            if (entityId < 0 || !persistentMapper.has(entityId)) {
+                continue;
+            }
+            Position position = positionMapper.get(entityId);
+            Velocity velocity = velocityMapper.get(entityId);
+            position.x = frame.x[i];
+            position.y = frame.y[i];
+            if (velocity != null) {
+                velocity.dx = frame.dx[i];
+                velocity.dy = frame.dy[i];
+            }
+            if (motionStore != null && motionStore.contains(entityId)) {
+                motionStore.setPosition(entityId, frame.x[i], frame.y[i]);
+                motionStore.setVelocity(entityId, frame.dx[i], frame.dy[i]);
+            }
+            dirtyTracker.markMoved(entityId);
+        }
+    }
+
+    /**
+     * Reloads the spatial grid from the restored positions. Entities created or deleted by the
+     * restore are added or removed by the SpatialSystem once the world syncs them.
+     */
+    private void rebuildGrid() {
+        IntBag entities = spatialEntities.getEntities();
+        int count = entities.size();
+        if (spatialIds.length < count) {
+            int capacity = Math.max(count, spatialIds.length * 2);
+            spatialIds = new int[capacity];
+            spatialX = new float[capacity];
+            spatialY = new float[capacity];
+        }
+        int[] ids = entities.getData();
+        for (int i = 0; i < count; i++) {
+            Position position = positionMapper.get(ids[i]);
+            SpatialNode node = spatialNodeMapper.get(ids[i]);
+            node.lastX = position.x;
+            node.lastY = position.y;
+            spatialIds[i] = ids[i];
+            spatialX[i] = position.x;
+            spatialY[i] = position.y;
+        }
+        grid.clear();
+        grid.insertAll(spatialIds, spatialX, spatialY, count);
+    }
+
+    /**
+     * One captured state. Its buffers grow to the largest state seen and are then reused.
+     */
+    private static final class Frame {
+        long tick;
+        // The mirror's images before the frame; the first deletedCount entities were deleted
+        final WorldSnapshot before;
+        int deletedCount;
+        final IntBag created = new IntBag();
+        int motionCount;
+        int[] motionEntities = new int[64];
+        float[] x = new float[64];
+        float[] y = new float[64];
+        float[] dx = new float[64];
+        float[] dy = new float[64];
+
+        Frame(List<Class<? extends Component>> types) {
+            this.before = new WorldSnapshot(types);
+        }
+
+        void ensureMotionCapacity(int capacity) {
+            if (capacity > x.length) {
+                int newCapacity = Math.max(capacity, x.length * 2);
+                motionEntities = Arrays.copyOf(motionEntities, newCapacity);
+                x = new float[newCapacity];
+                y = new float[newCapacity];
+                dx = new float[newCapacity];
+                dy = new float[newCapacity];
+            }
+        }
+    }
+}
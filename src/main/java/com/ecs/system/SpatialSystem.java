@@ -3,6 +3,7 @@ package com.ecs.system;
 import com.artemis.Aspect;
 import com.artemis.ComponentMapper;
 import com.artemis.systems.IteratingSystem;
+import com.artemis.utils.IntBag;
 import com.ecs.component.Position;
 import com.ecs.component.SpatialNode;
 import com.ecs.spatial.SpatialHashGrid;
@@ -21,12 +22,45 @@ public class SpatialSystem extends IteratingSystem {
     private ComponentMapper<Position> positionMapper;
     private ComponentMapper<SpatialNode> spatialNodeMapper;
 
+    // Positions of a batch of inserted entities, loaded into the grid in one pass
+    private int[] insertedIds = new int[64];
+    private float[] insertedX = new float[64];
+    private float[] insertedY = new float[64];
+
     @Inject
     public SpatialSystem(SpatialHashGrid grid) {
         super(Aspect.all(Position.class, SpatialNode.class));
         this.grid = grid;
     }
 
+    @Override
+    public void inserted(IntBag entities) {
+        int count = entities.size();
+        if (count == 1) {
+            inserted(entities.get(0));
+            return;
+        }
+        if (insertedIds.length < count) {
+            int capacity = Math.max(count, insertedIds.length * 2);
+            insertedIds = new int[capacity];
+            insertedX = new float[capacity];
+            insertedY = new float[capacity];
+        }
+
+        int[] ids = entities.getData();
+        for (int i = 0; i < count; i++) {
+            int entityId = ids[i];
+            Position position = positionMapper.get(entityId);
+            SpatialNode node = spatialNodeMapper.get(entityId);
+            node.lastX = position.x;
+            node.lastY = position.y;
+            insertedIds[i] = entityId;
+            insertedX[i] = position.x;
+            insertedY[i] = position.y;
+        }
+        grid.insertAll(insertedIds, insertedX, insertedY, count);
+    }
+
     @Override
     protected void inserted(int entityId) {
         Position position = positionMapper.get(entityId);
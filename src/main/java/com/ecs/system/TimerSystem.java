@@ -0,0 +1,34 @@
+package com.ecs.system;
+
+import com.artemis.BaseSystem;
+import com.ecs.timer.TimerScheduler;
+import io.micronaut.core.annotation.Order;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * System for advancing the {@link TimerScheduler} with the world's tick clock.
+ * Runs first so that later systems see this tick's expirations. Attaches the scheduler to the
+ * world, so that the timers of removed entities are cancelled.
+ */
+@Singleton
+@Order(0)
+public class TimerSystem extends BaseSystem {
+
+    private final TimerScheduler timerScheduler;
+
+    @Inject
+    public TimerSystem(TimerScheduler timerScheduler) {
+        this.timerScheduler = timerScheduler;
+    }
+
+    @Override
+    protected void initialize() {
+        timerScheduler.attach(world);
+    }
+
+    @Override
+    protected void processSystem() {
+        timerScheduler.advance(world.getDelta());
+    }
+}
@@ -0,0 +1,108 @@
+package com.ecs.timer;
+
+import com.artemis.utils.IntBag;
+
+import java.util.Arrays;
+
+/**
+ * A named stream of per-entity timers on the {@link TimerScheduler}.
+ * Each entity has at most one pending timer per channel; scheduling again replaces it.
+ * Expired entities are collected each tick and can be read by systems running after
+ * the {@code TimerSystem}.
+ */
+public final class TimerChannel {
+
+    private static final int NONE = -1;
+
+    private final TimerScheduler scheduler;
+    private final int id;
+    private final String name;
+    private final IntBag expired = new IntBag();
+    private int[] timerByEntity = new int[256]; // Indexed by entity ID, NONE if no timer is pending
+
+    TimerChannel(TimerScheduler scheduler, int id, String name) {
+        this.scheduler = scheduler;
+        this.id = id;
+        this.name = name;
+        Arrays.fill(timerByEntity, NONE);
+    }
+
+    /**
+     * Gets the channel name.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Schedules an expiration for an entity, replacing any pending one.
+     *
+     * @param entityId     the entity ID
+     * @param delaySeconds the delay until expiration in seconds
+     */
+    public void schedule(int entityId, float delaySeconds) {
+        cancel(entityId);
+        ensureCapacity(entityId);
+        timerByEntity[entityId] = scheduler.schedule(id, entityId, delaySeconds);
+    }
+
+    /**
+     * Cancels the pending expiration of an entity, if any.
+     *
+     * @param entityId the entity ID
+     */
+    public void cancel(int entityId) {
+        int timer = timerOf(entityId);
+        if (timer != NONE) {
+            timerByEntity[entityId] = NONE;
+            scheduler.cancel(timer);
+        }
+    }
+
+    /**
+     * Checks whether an entity has a pending expiration.
+     *
+     * @param entityId the entity ID
+     * @return true if a timer is pending
+     */
+    public boolean isScheduled(int entityId) {
+        return timerOf(entityId) != NONE;
+    }
+
+    /**
+     * Gets the entities whose timers expired during the current tick.
+     *
+     * @return the expired entity IDs
+     */
+    public IntBag getExpired() {
+        return expired;
+    }
+
+    void expire(int entityId) {
+        expired.add(entityId);
+    }
+
+    void released(int entityId, int timer) {
+        if (timerOf(entityId) == timer) {
+            timerByEntity[entityId] = NONE;
+        }
+    }
+
+    void clearExpired() {
+        expired.clear();
+    }
+
+    private int timerOf(int entityId) {
+        return entityId < timerByEntity.length ? timerByEntity[entityId] : NONE;
+    }
+
+    private void ensureCapacity(int entityId) {
+        if (entityId >= timerByEntity.length) {
+            int oldLength = timerByEntity.length;
+            timerByEntity = Arrays.copyOf(timerByEntity, Math.max(entityId + 1, oldLength * 2));
+            Arrays.fill(timerByEntity, oldLength, timerByEntity.length, NONE);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.ecs.timer;
+
+import com.artemis.Aspect;
+import com.artemis.EntitySubscription;
+import com.artemis.World;
+import com.artemis.utils.IntBag;
+import jakarta.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel for per-entity expirations driven by the world's tick clock.
+ *
+ * <p>Time is quantised into {@link #RESOLUTION_SECONDS} slots. Timers are bucketed into
+ * {@value #LEVELS} wheels of {@value #SLOTS} slots each, where every level covers
+ * {@value #SLOTS} times the span of the level below. Scheduling and cancelling are O(1);
+ * advancing one slot only touches the timers that expire in it, plus an occasional
+ * cascade of a coarser slot into the finer wheels.</p>
+ *
+ * <p>Timers live in a pool of parallel arrays, so steady-state scheduling does not allocate.
+ * Timers of entities removed from the world are cancelled automatically. Not thread-safe;
+ * must only be used from the game loop thread.</p>
+ */
+@Singleton
+public class TimerScheduler implements EntitySubscription.SubscriptionListener {
+
+    /**
+     * Length of one wheel slot in seconds.
+     */
+    public static final float RESOLUTION_SECONDS = 0.01f;
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+    private static final int NONE = -1;
+
+    private final int[] slotHeads = new int[LEVELS * SLOTS];
+    private final List<TimerChannel> channels = new ArrayList<>();
+
+    // Timer pool, one entry per scheduled timer
+    private int[] entityIds = new int[256];
+    private int[] channelIds = new int[256];
+    private long[] expireTicks = new long[256];
+    private int[] next = new int[256];
+    private int[] prev = new int[256];
+    private int[] slots = new int[256];
+    private int freeHead = NONE;
+    private int poolSize;
+
+    private long currentTick;
+    private double accumulatedSeconds;
+
+    public TimerScheduler() {
+        Arrays.fill(slotHeads, NONE);
+    }
+
+    /**
+     * Gets or creates a named timer channel.
+     *
+     * @param name the channel name
+     * @return the channel
+     */
+    public TimerChannel channel(String name) {
+        for (TimerChannel channel : channels) {
+            if (channel.getName().equals(name)) {
+                return channel;
+            }
+        }
+        TimerChannel channel = new TimerChannel(this, channels.size(), name);
+        channels.add(channel);
+        return channel;
+    }
+
+    /**
+     * Advances the wheel by the given amount of time.
+     * Expirations from the previous call are cleared before new ones are collected.
+     *
+     * @param deltaSeconds the elapsed time in seconds
+     */
+    public void advance(float deltaSeconds) {
+        for (int i = 0; i < channels.size(); i++) {
+            channels.get(i).clearExpired();
+        }
+
+        accumulatedSeconds += deltaSeconds;
+        while (accumulatedSeconds >= RESOLUTION_SECONDS) {
+            accumulatedSeconds -= RESOLUTION_SECONDS;
+            tick();
+        }
+    }
+
+    /**
+     * Gets the number of elapsed wheel slots.
+     *
+     * @return the current tick
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Cancels the timers of entities as they are removed from the world, however they were
+     * deleted, so that they never fire for a recycled entity ID.
+     *
+     * @param world the world to follow
+     */
+    public void attach(World world) {
+        world.getAspectSubscriptionManager().get(Aspect.all()).addSubscriptionListener(this);
+    }
+
+    @Override
+    public void inserted(IntBag entities) {
+    }
+
+    @Override
+    public void removed(IntBag entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            for (int c = 0; c < channels.size(); c++) {
+                channels.get(c).cancel(entities.get(i));
+            }
+        }
+    }
+
+    /**
+     * Schedules a timer and returns its pool index.
+     */
+    int schedule(int channelId, int entityId, float delaySeconds) {
+        long ticks = (long) Math.ceil(delaySeconds / RESOLUTION_SECONDS);
+        ticks = Math.max(1, Math.min(ticks, MAX_TICKS));
+
+        int timer = allocate();
+        entityIds[timer] = entityId;
+        channelIds[timer] = channelId;
+        expireTicks[timer] = currentTick + ticks;
+        link(timer);
+        return timer;
+    }
+
+    /**
+     * Cancels a timer by pool index.
+     */
+    void cancel(int timer) {
+        unlink(timer);
+        release(timer);
+    }
+
+    private void tick() {
+        currentTick++;
+
+        // Cascade coarser wheels whenever the finer wheel wraps around
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                break;
+            }
+            cascade(level, (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+        }
+
+        int slot = (int) (currentTick & SLOT_MASK);
+        int timer = slotHeads[slot];
+        slotHeads[slot] = NONE;
+        while (timer != NONE) {
+            int nextTimer = next[timer];
+            channels.get(channelIds[timer]).expire(entityIds[timer]);
+            release(timer);
+            timer = nextTimer;
+        }
+    }
+
+    private void cascade(int level, int slotIndex) {
+        int slot = level * SLOTS + slotIndex;
+        int timer = slotHeads[slot];
+        slotHeads[slot] = NONE;
+        while (timer != NONE) {
+            int nextTimer = next[timer];
+            link(timer);
+            timer = nextTimer;
+        }
+    }
+
+    private void link(int timer) {
+        // A cascaded timer may expire on the current tick; its slot is fired right after the cascade
+        long expireTick = Math.max(expireTicks[timer], currentTick);
+        long remaining = expireTick - currentTick;
+
+        int level = 0;
+        while (level < LEVELS - 1 && remaining >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = level * SLOTS + (int) ((expireTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        int head = slotHeads[slot];
+        next[timer] = head;
+        prev[timer] = NONE;
+        if (head != NONE) {
+            prev[head] = timer;
+        }
+        slotHeads[slot] = timer;
+        slots[timer] = slot;
+    }
+
+    private void unlink(int timer) {
+        if (prev[timer] != NONE) {
+            next[prev[timer]] = next[timer];
+        } else {
+            slotHeads[slots[timer]] = next[timer];
+        }
+        if (next[timer] != NONE) {
+            prev[next[timer]] = prev[timer];
+        }
+    }
+
+    private int allocate() {
+        if (freeHead != NONE) {
+            int timer = freeHead;
+            freeHead = next[timer];
+            return timer;
+        }
+        if (poolSize == entityIds.length) {
+            int capacity = poolSize * 2;
+            entityIds = Arrays.copyOf(entityIds, capacity);
+            channelIds = Arrays.copyOf(channelIds, capacity);
+            expireTicks = Arrays.copyOf(expireTicks, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            slots = Arrays.copyOf(slots, capacity);
+        }
+        return poolSize++;
+    }
+
+    private void release(int timer) {
+        channels.get(channelIds[timer]).released(entityIds[timer], timer);
+        next[timer] = freeHead;
+        freeHead = timer;
+    }
+}
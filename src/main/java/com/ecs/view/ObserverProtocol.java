@@ -0,0 +1,82 @@
+package com.ecs.view;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wire format of the observer stream served by the {@code ObserverStreamSystem}.
+ *
+ * <p>A subscriber connects to the stream's Unix domain socket and sends its interest as
+ * {@value #INTEREST_BYTES} bytes: the floats minX, minY, maxX and maxY of the area it wants to
+ * observe. It may send a new area at any time. The stream then sends frames, each made of:</p>
+ * <ul>
+ *   <li>an int giving the length of the rest of the frame,</li>
+ *   <li>a flags byte, with {@link #FRAME_RESET} set when the subscriber must forget all
+ *   entities before applying the frame,</li>
+ *   <li>the long tick the frame was taken at and the int number of records,</li>
+ *   <li>the records, each starting with a kind byte and the entity ID as a var-int.</li>
+ * </ul>
+ * <p>{@link #RECORD_ENTER} records are followed by the absolute quantized x and y as zig-zag
+ * var-ints and the float health. {@link #RECORD_UPDATE} records carry the flags
+ * {@link #UPDATE_POSITION} and {@link #UPDATE_HEALTH} in their kind byte, followed by the change
+ * in quantized x and y as zig-zag var-ints and the new float health respectively.
+ * {@link #RECORD_REMOVE} records mean the entity was deleted or left the area of interest.
+ * Health is NaN for entities without Stats. Frames without records are not sent.</p>
+ */
+public final class ObserverProtocol {
+
+    /** Quantized positions are in steps of 1 / POSITION_SCALE world units. */
+    public static final float POSITION_SCALE = 16f;
+
+    public static final int INTEREST_BYTES = 16;
+    public static final int FRAME_HEADER_BYTES = 4 + 1 + 8 + 4;
+    public static final byte FRAME_RESET = 1;
+
+    public static final int RECORD_ENTER = 1;
+    public static final int RECORD_UPDATE = 2;
+    public static final int RECORD_REMOVE = 3;
+    public static final int RECORD_KIND_MASK = 3;
+    public static final int UPDATE_POSITION = 4;
+    public static final int UPDATE_HEALTH = 8;
+
+    /** Largest encoded record: kind, ID and two coordinates as var-ints, plus health. */
+    public static final int MAX_RECORD_BYTES = 1 + 5 + 5 + 5 + 4;
+
+    private ObserverProtocol() {
+    }
+
+    public static int quantize(float coordinate) {
+        return Math.round(coordinate * POSITION_SCALE);
+    }
+
+    public static float dequantize(int coordinate) {
+        return coordinate / POSITION_SCALE;
+    }
+
+    public static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    public static void putZigZag(ByteBuffer buffer, int value) {
+        putVarInt(buffer, (value << 1) ^ (value >> 31));
+    }
+
+    public static int getZigZag(ByteBuffer buffer) {
+        int value = getVarInt(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,145 @@
+package com.ecs.view;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Immutable view of the world at the end of a tick, published by the {@link WorldViewPublisher}
+ * for reader threads. Holds the ID, position, health and identity of every entity with a
+ * Position in parallel arrays, indexed from 0 to {@link #size()} - 1.
+ *
+ * <p>Views are pooled: a view obtained from {@link WorldViewPublisher#acquire()} is leased and
+ * stays unchanged until it is {@link #close() closed}, after which the publisher may refill it.
+ * Each lease must be closed exactly once and the view not used afterwards.</p>
+ */
+public final class WorldView implements AutoCloseable {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Leases held on this view, including the publisher's while it is the latest view. */
+    final AtomicInteger leases = new AtomicInteger();
+
+    private long tick;
+    private int size;
+    private int[] entityIds = new int[INITIAL_CAPACITY];
+    private float[] x = new float[INITIAL_CAPACITY];
+    private float[] y = new float[INITIAL_CAPACITY];
+    private float[] health = new float[INITIAL_CAPACITY];
+    private float[] maxHealth = new float[INITIAL_CAPACITY];
+    private String[] identities = new String[INITIAL_CAPACITY];
+
+    WorldView() {
+    }
+
+    /**
+     * Prepares the view to be refilled. Only called while no leases are held.
+     */
+    void reset(long tick, int capacity) {
+        // Drop identities left over from the previous fill
+        Arrays.fill(identities, 0, size, null);
+        this.tick = tick;
+        this.size = 0;
+        if (entityIds.length < capacity) {
+            int length = Math.max(capacity, entityIds.length * 2);
+            entityIds = new int[length];
+            x = new float[length];
+            y = new float[length];
+            health = new float[length];
+            maxHealth = new float[length];
+            identities = new String[length];
+        }
+    }
+
+    void add(int entityId, float x, float y, float health, float maxHealth, String identity) {
+        int i = size++;
+        entityIds[i] = entityId;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.health[i] = health;
+        this.maxHealth[i] = maxHealth;
+        identities[i] = identity;
+    }
+
+    /**
+     * Gets the tick this view was taken at, counted from the first tick of the game loop.
+     *
+     * @return the tick number
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the number of entities in the view.
+     *
+     * @return the entity count
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getEntityId(int index) {
+        return entityIds[index];
+    }
+
+    public float getX(int index) {
+        return x[index];
+    }
+
+    public float getY(int index) {
+        return y[index];
+    }
+
+    /**
+     * Gets an entity's health.
+     *
+     * @param index the entity index
+     * @return the health, or NaN if the entity has no Stats
+     */
+    public float getHealth(int index) {
+        return health[index];
+    }
+
+    /**
+     * Gets an entity's maximum health.
+     *
+     * @param index the entity index
+     * @return the maximum health, or NaN if the entity has no Stats
+     */
+    public float getMaxHealth(int index) {
+        return maxHealth[index];
+    }
+
+    /**
+     * Gets an entity's identity.
+     *
+     * @param index the entity index
+     * @return the identity, or null if the entity has none
+     */
+    public String getIdentity(int index) {
+        return identities[index];
+    }
+
+    /**
+     * Finds an entity in the view.
+     *
+     * @param entityId the entity ID
+     * @return the entity's index, or -1 if it is not in the view
+     */
+    public int indexOf(int entityId) {
+        for (int i = 0; i < size; i++) {
+            if (entityIds[i] == entityId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Releases the lease on this view.
+     */
+    @Override
+    public void close() {
+        leases.decrementAndGet();
+    }
+}
@@ -0,0 +1,124 @@
+package com.ecs.view;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.EntitySubscription;
+import com.artemis.World;
+import com.artemis.utils.Bag;
+import com.artemis.utils.IntBag;
+import com.ecs.component.Identity;
+import com.ecs.component.Position;
+import com.ecs.component.Stats;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Publishes an immutable {@link WorldView} at the end of game loop ticks, so that any number of
+ * reader threads can look at the world without going through the command queue.
+ * Enabled by setting {@code ecs.view.rate} to the views published per second of simulated time;
+ * a rate of 0 publishes after every tick.
+ *
+ * <p>The latest view is held in a single volatile reference. Readers lease it without locks
+ * through {@link #acquire()}, and the loop refills views once their leases are closed, so it
+ * only allocates while readers hold on to older views.</p>
+ */
+@Singleton
+@Requires(property = "ecs.view.rate")
+public class WorldViewPublisher {
+
+    private final float interval;
+    private volatile WorldView latest;
+
+    // Used on the game loop thread only
+    private final Bag<WorldView> retired = new Bag<>();
+    private long tick;
+    private float sincePublish;
+    private World world;
+    private EntitySubscription subscription;
+    private ComponentMapper<Position> positionMapper;
+    private ComponentMapper<Stats> statsMapper;
+    private ComponentMapper<Identity> identityMapper;
+
+    @Inject
+    public WorldViewPublisher(@Value("${ecs.view.rate}") float rate) {
+        this.interval = rate > 0 ? 1f / rate : 0f;
+    }
+
+    /**
+     * Leases the latest view. The view must be closed once the reader is done with it.
+     *
+     * @return the latest view, or null if none has been published yet
+     */
+    public WorldView acquire() {
+        while (true) {
+            WorldView view = latest;
+            if (view == null) {
+                return null;
+            }
+            int leases = view.leases.get();
+            // A view without leases has been replaced and may be refilling; read the newer one
+            if (leases > 0 && view.leases.compareAndSet(leases, leases + 1)) {
+                return view;
+            }
+        }
+    }
+
+    /**
+     * Ends a tick, publishing a view of the world if one is due. Called on the game loop thread
+     * after the world has been processed.
+     *
+     * @param world the world
+     */
+    public void publish(World world) {
+        tick++;
+        sincePublish += world.getDelta();
+        if (sincePublish < interval && latest != null) {
+            return;
+        }
+        sincePublish = 0f;
+
+        if (this.world != world) {
+            this.world = world;
+            subscription = world.getAspectSubscriptionManager().get(Aspect.all(Position.class));
+            positionMapper = world.getMapper(Position.class);
+            statsMapper = world.getMapper(Stats.class);
+            identityMapper = world.getMapper(Identity.class);
+        }
+
+        IntBag entities = subscription.getEntities();
+        WorldView view = freeView();
+        view.reset(tick, entities.size());
+        for (int i = 0, s = entities.size(); i < s; i++) {
+            int entityId = entities.get(i);
+            Position position = positionMapper.get(entityId);
+            Stats stats = statsMapper.get(entityId);
+            Identity identity = identityMapper.get(entityId);
+            view.add(entityId, position.x, position.y,
+                    stats != null ? stats.health : Float.NaN,
+                    stats != null ? stats.maxHealth : Float.NaN,
+                    identity != null ? identity.id : null);
+        }
+
+        // The publisher's own lease keeps the view alive until it is replaced
+        view.leases.set(1);
+        WorldView previous = latest;
+        latest = view;
+        if (previous != null) {
+            previous.close();
+            retired.add(previous);
+        }
+    }
+
+    private WorldView freeView() {
+        for (int i = 0; i < retired.size(); i++) {
+            WorldView view = retired.get(i);
+            if (view.leases.get() == 0) {
+                retired.remove(i);
+                return view;
+            }
+        }
+        return new WorldView();
+    }
+}
@@ -2,6 +2,7 @@ package com.ecs;
 
 import com.artemis.Component;
 import com.artemis.BaseSystem;
+import com.artemis.PooledComponent;
 import com.artemis.systems.IteratingSystem;
 import com.tngtech.archunit.core.domain.JavaClasses;
 import com.tngtech.archunit.core.importer.ClassFileImporter;
@@ -55,7 +56,8 @@ class ArchitectureTest {
 
     @Test
     void componentsMustNotHaveMethods() {
-        // Components should not have any methods except constructors and inherited methods
+        // Components should not have any methods except constructors and inherited methods.
+        // Pooled components may only override reset(), which the pool requires.
         ArchRule rule = classes()
                 .that().areAssignableTo(Component.class)
                 .and().resideInAPackage("..component..")
@@ -63,9 +65,12 @@ class ArchitectureTest {
                     @Override
                     public void check(com.tngtech.archunit.core.domain.JavaClass javaClass, 
                                      com.tngtech.archunit.lang.ConditionEvents events) {
+                        boolean pooled = javaClass.isAssignableTo(PooledComponent.class);
                         javaClass.getMethods().stream()
                                 .filter(method -> method.getOwner().equals(javaClass))
                                 .filter(method -> !method.getName().equals("<init>"))
+                                .filter(method -> !(pooled && method.getName().equals("reset")
+                                        && method.getRawParameterTypes().isEmpty()))
                                 .forEach(method -> {
                                     String message = String.format(
                                         "Component %s declares method %s, but components should only contain data",
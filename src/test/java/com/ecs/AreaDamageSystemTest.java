@@ -0,0 +1,101 @@
+package com.ecs;
+
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.artemis.utils.IntBag;
+import com.ecs.combat.DamageBuffer;
+import com.ecs.combat.ImpactBuffer;
+import com.ecs.component.Body;
+import com.ecs.component.Position;
+import com.ecs.component.SpatialNode;
+import com.ecs.component.Stats;
+import com.ecs.spatial.SpatialHashGrid;
+import com.ecs.system.AreaDamageSystem;
+import com.ecs.system.SpatialSystem;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for resolving area-of-effect impacts in cell-sorted batches.
+ */
+class AreaDamageSystemTest {
+
+    private static final int ENTITY_COUNT = 2_000;
+    private static final int IMPACT_COUNT = 300;
+    private static final float AREA = 1_000;
+
+    @Test
+    void testBatchedImpactsMatchBruteForce() {
+        SpatialHashGrid grid = new SpatialHashGrid();
+        ImpactBuffer impactBuffer = new ImpactBuffer();
+        DamageBuffer damageBuffer = new DamageBuffer();
+        World world = new World(new WorldConfigurationBuilder()
+                .with(new SpatialSystem(grid))
+                .with(new AreaDamageSystem(grid, impactBuffer, damageBuffer))
+                .build());
+
+        Random random = new Random(42);
+        int[] entities = new int[ENTITY_COUNT];
+        float[] xs = new float[ENTITY_COUNT];
+        float[] ys = new float[ENTITY_COUNT];
+        float[] radii = new float[ENTITY_COUNT];
+        boolean[] damageable = new boolean[ENTITY_COUNT];
+        for (int i = 0; i < ENTITY_COUNT; i++) {
+            xs[i] = random.nextFloat() * AREA - AREA / 2;
+            ys[i] = random.nextFloat() * AREA - AREA / 2;
+            radii[i] = i % 3 == 0 ? 0 : random.nextFloat() * 5;
+            // Every tenth entity has no Stats and can't be hit
+            damageable[i] = i % 10 != 0;
+            entities[i] = world.create();
+            world.edit(entities[i]).add(new Position(xs[i], ys[i])).add(new SpatialNode(xs[i], ys[i]));
+            if (radii[i] > 0) {
+                world.edit(entities[i]).add(new Body(radii[i]));
+            }
+            if (damageable[i]) {
+                world.edit(entities[i]).add(new Stats(100));
+            }
+        }
+        world.process();
+
+        // Impacts clustered so that many share a cell, and some straddle cell borders
+        float[] expected = new float[ENTITY_COUNT];
+        for (int i = 0; i < IMPACT_COUNT; i++) {
+            int source = i % 4 == 0 ? entities[random.nextInt(ENTITY_COUNT)] : -1;
+            float x = i % 2 == 0 ? random.nextFloat() * 200 : random.nextFloat() * AREA - AREA / 2;
+            float y = i % 2 == 0 ? random.nextFloat() * 200 - 100 : random.nextFloat() * AREA - AREA / 2;
+            float radius = 5 + random.nextFloat() * 40;
+            float damage = 1 + random.nextInt(5);
+            impactBuffer.emit(source, x, y, radius, damage);
+
+            for (int e = 0; e < ENTITY_COUNT; e++) {
+                if (!damageable[e] || entities[e] == source) {
+                    continue;
+                }
+                float dx = xs[e] - x;
+                float dy = ys[e] - y;
+                float reach = radius + radii[e];
+                if (dx * dx + dy * dy <= reach * reach) {
+                    expected[e] += damage;
+                }
+            }
+        }
+        world.process();
+
+        assertThat(impactBuffer.size()).isEqualTo(0);
+        IntBag targets = damageBuffer.aggregate();
+        int hit = 0;
+        for (int e = 0; e < ENTITY_COUNT; e++) {
+            assertThat(damageBuffer.getTotal(entities[e]))
+                    .as("Damage to entity %d", e)
+                    .isEqualTo(expected[e]);
+            if (expected[e] > 0) {
+                hit++;
+            }
+        }
+        assertThat(hit).isGreaterThan(100);
+        assertThat(targets.size()).isEqualTo(hit);
+    }
+}
@@ -0,0 +1,101 @@
+package com.ecs;
+
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.ecs.ai.ChaseNode;
+import com.ecs.ai.CombatNode;
+import com.ecs.ai.SequenceNode;
+import com.ecs.combat.DamageBuffer;
+import com.ecs.combat.HealthChangeTracker;
+import com.ecs.combat.TargetIndex;
+import com.ecs.component.*;
+import com.ecs.persistence.DirtyTracker;
+import com.ecs.spatial.SpatialHashGrid;
+import com.ecs.system.*;
+import com.ecs.timer.TimerScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that a steady-state combat tick does not allocate.
+ *
+ * <p>Escape analysis and intrinsics depend on the JIT and the JVM, so the check allows a small
+ * budget rather than exactly zero bytes. A single object per attack already exceeds it. Movement
+ * integrates through components, since whether Vector API kernels allocate depends on how they
+ * were compiled; {@code SystemBenchmark} with {@code -prof gc} reports exact rates.</p>
+ */
+class CombatAllocationTest {
+
+    private static final int PAIRS = 50;
+    private static final int WARMUP_TICKS = 20_000;
+    private static final int MEASURED_TICKS = 1_000;
+    private static final long ALLOCATION_BUDGET_BYTES = 16L * MEASURED_TICKS;
+
+    @Test
+    void combatTickStaysWithinAllocationBudget() {
+        SpatialHashGrid grid = new SpatialHashGrid();
+        DamageBuffer damageBuffer = new DamageBuffer();
+        HealthChangeTracker healthChangeTracker = new HealthChangeTracker();
+        TargetIndex targetIndex = new TargetIndex();
+        TimerScheduler timerScheduler = new TimerScheduler();
+        DirtyTracker dirtyTracker = new DirtyTracker();
+
+        World world = new World(new WorldConfigurationBuilder()
+                .with(new TimerSystem(timerScheduler))
+                .with(new MovementSystem(null, dirtyTracker))
+                .with(new SpatialSystem(grid))
+                .with(new AiSystem(targetIndex))
+                .with(new BasicAttackSystem(damageBuffer, timerScheduler))
+                .with(new DamageSystem(damageBuffer, healthChangeTracker, dirtyTracker))
+                .with(new DeathSystem(healthChangeTracker, new ArrayList<>()))
+                .build());
+
+        // Attackers that keep swinging at targets that never die
+        for (int i = 0; i < PAIRS; i++) {
+            float y = i * 2;
+            int target = world.create();
+            world.edit(target)
+                    .add(new Position(5, y))
+                    .add(new Body(1.0f))
+                    .add(new SpatialNode(5, y))
+                    .add(new Stats(Float.MAX_VALUE));
+
+            int attacker = world.create();
+            world.edit(attacker)
+                    .add(new Position(0, y))
+                    .add(new Velocity(0, 0))
+                    .add(new Body(1.0f))
+                    .add(new SpatialNode(0, y))
+                    .add(new Stats(100))
+                    .add(new CombatStats(10, 2.0f, 4.0f))
+                    .add(new AiBehavior(new SequenceNode(
+                            new ChaseNode(targetIndex, target, 5.0f),
+                            new CombatNode(targetIndex, target))));
+        }
+
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            tick(world);
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_TICKS; i++) {
+            tick(world);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(allocated)
+                .as("Bytes allocated over %d combat ticks", MEASURED_TICKS)
+                .isLessThan(ALLOCATION_BUDGET_BYTES);
+    }
+
+    private void tick(World world) {
+        world.setDelta(0.016f);
+        world.process();
+    }
+}
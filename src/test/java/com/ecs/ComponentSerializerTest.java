@@ -0,0 +1,44 @@
+package com.ecs;
+
+import com.artemis.Component;
+import com.ecs.component.*;
+import com.ecs.persistence.ComponentSerializer;
+import com.ecs.persistence.ComponentSerializers;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for component serializers, generated or reflective.
+ */
+class ComponentSerializerTest {
+
+    @Test
+    void testPersistedTypesSkipTransientAndUnserializable() {
+        List<Class<? extends Component>> types = ComponentSerializers.getPersistedTypes();
+
+        assertThat(types).contains(Position.class, Velocity.class, Stats.class, Identity.class, Persistent.class);
+        assertThat(types).doesNotContain(SpatialNode.class, SwingTimer.class, AttackIntent.class, AiBehavior.class);
+    }
+
+    @Test
+    void testSerializerCopiesAndCoercesFields() {
+        ComponentSerializer<Stats> serializer = ComponentSerializers.of(Stats.class);
+        int health = serializer.indexOf("health");
+        assertThat(health).isNotNegative();
+        assertThat(serializer.indexOf("missing")).isNegative();
+
+        // YAML loads decimals as Double, so set must narrow to the field type
+        Stats source = serializer.newInstance();
+        serializer.set(source, health, 12.5d);
+        serializer.set(source, serializer.indexOf("maxHealth"), 40);
+        assertThat(serializer.get(source, health)).isEqualTo(12.5f);
+
+        Stats copy = new Stats();
+        serializer.copy(source, copy);
+        assertThat(copy.health).isEqualTo(12.5f);
+        assertThat(copy.maxHealth).isEqualTo(40f);
+    }
+}
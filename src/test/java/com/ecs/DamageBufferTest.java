@@ -0,0 +1,78 @@
+package com.ecs;
+
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.artemis.utils.IntBag;
+import com.ecs.combat.DamageBuffer;
+import com.ecs.combat.HealthChangeTracker;
+import com.ecs.component.Stats;
+import com.ecs.persistence.DirtyTracker;
+import com.ecs.system.DamageSystem;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for aggregating and applying damage events.
+ */
+class DamageBufferTest {
+
+    @Test
+    void testEventsAreModifiedAndSummedPerTarget() throws Exception {
+        DamageBuffer damageBuffer = new DamageBuffer();
+        // Armor on target 2 first, then a global doubling: order matters
+        damageBuffer.addModifier((sourceId, targetId, amount) -> targetId == 2 ? Math.max(0, amount - 3) : amount);
+        damageBuffer.addModifier((sourceId, targetId, amount) -> amount * 2);
+
+        damageBuffer.emit(10, 1, 5);
+        damageBuffer.emit(11, 2, 5);
+        // Events emitted from another thread land in that thread's buffer
+        Thread worker = new Thread(() -> {
+            damageBuffer.emit(12, 2, 4);
+            damageBuffer.emit(12, 3, 1);
+            damageBuffer.emit(12, 1, 1);
+        });
+        worker.start();
+        worker.join();
+
+        IntBag targets = damageBuffer.aggregate();
+        assertThat(targets.size()).isEqualTo(3);
+        assertThat(targets.get(0)).isEqualTo(1);
+        assertThat(targets.get(1)).isEqualTo(2);
+        assertThat(targets.get(2)).isEqualTo(3);
+        assertThat(damageBuffer.getTotal(1)).isEqualTo(12f);
+        assertThat(damageBuffer.getTotal(2)).isEqualTo(6f);
+        assertThat(damageBuffer.getTotal(3)).isEqualTo(2f);
+        assertThat(damageBuffer.getTotal(4)).isEqualTo(0f);
+
+        // Aggregation drains the buffers
+        assertThat(damageBuffer.aggregate().isEmpty()).isTrue();
+        assertThat(damageBuffer.getTotal(1)).isEqualTo(0f);
+    }
+
+    @Test
+    void testDamageSystemAppliesTotalsAndMarksTargets() {
+        DamageBuffer damageBuffer = new DamageBuffer();
+        HealthChangeTracker healthChangeTracker = new HealthChangeTracker();
+        World world = new World(new WorldConfigurationBuilder()
+                .with(new DamageSystem(damageBuffer, healthChangeTracker, new DirtyTracker()))
+                .build());
+        int target = world.create();
+        world.edit(target).add(new Stats(100));
+        int untouched = world.create();
+        world.edit(untouched).add(new Stats(100));
+        int statless = world.create();
+        world.process();
+
+        damageBuffer.emit(untouched, target, 30);
+        damageBuffer.emit(untouched, target, 25);
+        damageBuffer.emit(target, statless, 10);
+        world.process();
+
+        assertThat(world.getMapper(Stats.class).get(target).health).isEqualTo(45f);
+        assertThat(world.getMapper(Stats.class).get(untouched).health).isEqualTo(100f);
+        IntBag changed = healthChangeTracker.getChanged();
+        assertThat(changed.size()).isEqualTo(1);
+        assertThat(changed.get(0)).isEqualTo(target);
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecs;
+
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.ecs.combat.HealthChangeTracker;
+import com.ecs.component.Stats;
+import com.ecs.system.DeathSystem;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for event-driven death detection.
+ */
+class DeathSystemTest {
+
+    @Test
+    void testOnlyChangedAndInsertedEntitiesDieInOneBatch() {
+        HealthChangeTracker healthChangeTracker = new HealthChangeTracker();
+        DeathSystem deathSystem = new DeathSystem(healthChangeTracker, new ArrayList<>());
+        World world = new World(new WorldConfigurationBuilder()
+                .with(deathSystem)
+                .build());
+        List<List<Integer>> batches = new ArrayList<>();
+        deathSystem.addListener((w, dead) -> {
+            List<Integer> batch = new ArrayList<>();
+            for (int i = 0; i < dead.size(); i++) {
+                // Components are still readable during the callback
+                assertThat(w.getMapper(Stats.class).get(dead.get(i))).isNotNull();
+                batch.add(dead.get(i));
+            }
+            batches.add(batch);
+        });
+
+        int alive = world.create();
+        world.edit(alive).add(new Stats(100));
+        // Entities spawned, loaded or restored without health die on their first tick
+        int spawnedDead = world.create();
+        world.edit(spawnedDead).add(new Stats(0));
+        world.process();
+        assertThat(world.getEntityManager().isActive(spawnedDead)).isFalse();
+        assertThat(batches.size()).isEqualTo(1);
+        assertThat(batches.get(0).size()).isEqualTo(1);
+        assertThat(batches.get(0).get(0)).isEqualTo(spawnedDead);
+
+        // Health dropping without a change mark is not noticed
+        int first = world.create();
+        world.edit(first).add(new Stats(100));
+        int second = world.create();
+        world.edit(second).add(new Stats(100));
+        world.process();
+        world.getMapper(Stats.class).get(first).health = 0;
+        world.getMapper(Stats.class).get(second).health = -5;
+        world.getMapper(Stats.class).get(alive).health = 0;
+        world.process();
+        assertThat(world.getEntityManager().isActive(first)).isTrue();
+        assertThat(batches.size()).isEqualTo(1);
+
+        // Marked entities die together in a single batch
+        healthChangeTracker.markChanged(first);
+        healthChangeTracker.markChanged(second);
+        world.process();
+        assertThat(world.getEntityManager().isActive(first)).isFalse();
+        assertThat(world.getEntityManager().isActive(second)).isFalse();
+        assertThat(world.getEntityManager().isActive(alive)).isTrue();
+        assertThat(batches.size()).isEqualTo(2);
+        assertThat(batches.get(1).size()).isEqualTo(2);
+        assertThat(deathSystem.getDeathCount()).isEqualTo(3L);
+        assertThat(healthChangeTracker.isEmpty()).isTrue();
+    }
+}
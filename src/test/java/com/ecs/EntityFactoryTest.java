@@ -0,0 +1,89 @@
+package com.ecs;
+
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.artemis.utils.IntBag;
+import com.ecs.core.WorldCommandQueue;
+import com.ecs.component.*;
+import com.ecs.factory.EntityFactory;
+import com.ecs.registry.TemplateRegistry;
+import com.ecs.service.YamlService;
+import com.ecs.spatial.SpatialHashGrid;
+import com.ecs.system.SpatialSystem;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for spawning entities from templates.
+ */
+class EntityFactoryTest {
+
+    @Test
+    void testSpawnCopiesTemplate() {
+        TemplateRegistry registry = new TemplateRegistry(new YamlService());
+        registry.registerTemplate("soldier", List.of(new Stats(80), new CombatStats(12, 2.5f, 1.5f)));
+        EntityFactory factory = new EntityFactory(registry);
+        World world = new World(new WorldConfigurationBuilder().build());
+
+        int first = factory.prepare("soldier").at(3, 4).build(world);
+        int second = factory.prepare("soldier").build(world);
+        world.process();
+
+        assertThat(world.getMapper(Identity.class).get(first).id).isEqualTo("soldier");
+        assertThat(world.getMapper(CombatStats.class).get(first).range).isEqualTo(2.5f);
+        assertThat(world.getMapper(Position.class).get(first).x).isEqualTo(3f);
+        assertThat(world.getMapper(Position.class).has(second))
+                .as("Only positioned spawns should get a Position")
+                .isFalse();
+
+        // Spawned components must be copies, not the template instances
+        world.getMapper(Stats.class).get(first).health = 1;
+        assertThat(world.getMapper(Stats.class).get(second).health).isEqualTo(80f);
+        assertThat(registry.getTemplate("soldier").get(0) != world.getMapper(Stats.class).get(second))
+                .isTrue();
+
+        // Re-registering a template replaces the spawn plan
+        registry.registerTemplate("soldier", List.of(new Stats(10)));
+        int third = factory.prepare("soldier").build(world);
+        world.process();
+        assertThat(world.getMapper(Stats.class).get(third).health).isEqualTo(10f);
+        assertThat(world.getMapper(CombatStats.class).has(third)).isFalse();
+    }
+
+    @Test
+    void testBatchSpawnLoadsGrid() {
+        TemplateRegistry registry = new TemplateRegistry(new YamlService());
+        registry.registerTemplate("grunt", List.of(new Stats(20), new Body(1.0f), new SpatialNode()));
+        EntityFactory factory = new EntityFactory(registry);
+        SpatialHashGrid grid = new SpatialHashGrid();
+        WorldCommandQueue queue = new WorldCommandQueue();
+        World world = new World(new WorldConfigurationBuilder()
+                .with(new SpatialSystem(grid))
+                .build());
+
+        // 1000 units spread over a 10x10 block of grid cells
+        int count = 1000;
+        float[] xs = new float[count];
+        float[] ys = new float[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = (i % 100) * 10 + 5;
+            ys[i] = (i / 100) * 100 + 5;
+        }
+        queue.enqueue(factory.spawnBatchCommand("grunt", xs, ys));
+        queue.process(world);
+        world.process();
+
+        IntBag all = new IntBag();
+        grid.query(0, 0, 999, 999, all);
+        assertThat(all.size()).isEqualTo(count);
+
+        IntBag firstCell = new IntBag();
+        grid.query(0, 0, 99, 99, firstCell);
+        assertThat(firstCell.size()).isEqualTo(10);
+        SpatialNode node = world.getMapper(SpatialNode.class).get(firstCell.get(0));
+        assertThat(node.lastY).isEqualTo(5f);
+    }
+}
@@ -0,0 +1,73 @@
+package com.ecs;
+
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.ecs.component.Position;
+import com.ecs.component.Velocity;
+import com.ecs.core.GameLoop;
+import com.ecs.core.WorldCommandQueue;
+import com.ecs.diagnostics.JfrInvocationStrategy;
+import com.ecs.persistence.DirtyTracker;
+import com.ecs.system.MovementSystem;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the JFR events recorded by the game loop.
+ */
+class JfrEventsTest {
+
+    @Test
+    void testTicksSystemsAndCommandsAreRecordedOnceEnabled() throws Exception {
+        World world = new World(new WorldConfigurationBuilder()
+                .register(new JfrInvocationStrategy())
+                .with(new MovementSystem(null, new DirtyTracker()))
+                .build());
+        world.edit(world.create()).add(new Position(0, 0)).add(new Velocity(1, 1));
+        WorldCommandQueue commandQueue = new WorldCommandQueue();
+        GameLoop loop = new GameLoop(world, commandQueue);
+
+        Path file = Files.createTempFile("ecs", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.ecs.Tick");
+            recording.enable("com.ecs.System");
+            recording.enable("com.ecs.CommandDrain");
+            recording.start();
+
+            // Runs the loop until the command stops it
+            commandQueue.enqueue(w -> loop.stop());
+            loop.run();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        List<String> names = events.stream()
+                .map(event -> event.getEventType().getName())
+                .collect(Collectors.toList());
+        assertThat(names).contains("com.ecs.Tick");
+        assertThat(names).contains("com.ecs.CommandDrain");
+        assertThat(names).doesNotContain("com.ecs.Save");
+        List<String> systems = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.ecs.System"))
+                .map(event -> event.getString("system"))
+                .collect(Collectors.toList());
+        assertThat(systems).contains("MovementSystem");
+        RecordedEvent tick = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.ecs.Tick"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(tick.getInt("entityCount")).isEqualTo(1);
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,123 @@
+package com.ecs;
+
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.ecs.component.Position;
+import com.ecs.component.Velocity;
+import com.ecs.persistence.DirtyTracker;
+import com.ecs.storage.MotionKernel;
+import com.ecs.storage.MotionStore;
+import com.ecs.storage.ScalarMotionKernel;
+import com.ecs.system.MovementSystem;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for structure-of-arrays motion storage and its kernels.
+ */
+class MotionStoreTest {
+
+    @Test
+    void testPreferredKernelMatchesScalarKernel() {
+        MotionKernel preferred = MotionKernel.preferred();
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            assertThat(preferred.getClass().getSimpleName()).isEqualTo("VectorMotionKernel");
+        }
+        MotionKernel scalar = new ScalarMotionKernel();
+
+        Random random = new Random(7);
+        // Counts below, at and around multiples of every SIMD width, so the scalar tail is covered
+        int[] counts = {0, 1, 3, 4, 7, 8, 15, 16, 17, 31, 33, 64, 1_001};
+        for (int count : counts) {
+            float[] x = new float[count + 3];
+            float[] y = new float[count + 3];
+            float[] dx = new float[count + 3];
+            float[] dy = new float[count + 3];
+            for (int i = 0; i < x.length; i++) {
+                x[i] = (random.nextFloat() - 0.5f) * 10_000;
+                y[i] = (random.nextFloat() - 0.5f) * 10_000;
+                dx[i] = i % 5 == 0 ? 0 : (random.nextFloat() - 0.5f) * 100;
+                dy[i] = (random.nextFloat() - 0.5f) * 100;
+            }
+            float[] expectedX = x.clone();
+            float[] expectedY = y.clone();
+
+            for (int step = 0; step < 10; step++) {
+                float delta = 0.001f + random.nextFloat() * 0.05f;
+                scalar.integrate(expectedX, expectedY, dx, dy, count, delta);
+                preferred.integrate(x, y, dx, dy, count, delta);
+            }
+            for (int i = 0; i < x.length; i++) {
+                // Bit-identical, and entries past count are left alone
+                assertThat(Float.floatToRawIntBits(x[i]))
+                        .as("x[%d] of %d", i, count)
+                        .isEqualTo(Float.floatToRawIntBits(expectedX[i]));
+                assertThat(Float.floatToRawIntBits(y[i]))
+                        .as("y[%d] of %d", i, count)
+                        .isEqualTo(Float.floatToRawIntBits(expectedY[i]));
+            }
+        }
+    }
+
+    @Test
+    void testMotionIsWrittenThroughTheMovementSystem() {
+        MotionStore motionStore = new MotionStore();
+        DirtyTracker dirtyTracker = new DirtyTracker();
+        MovementSystem movementSystem = new MovementSystem(motionStore, dirtyTracker);
+        World world = new World(new WorldConfigurationBuilder()
+                .with(movementSystem)
+                .build());
+        DirtyTracker.ChangeSet changes = dirtyTracker.subscribe(true);
+
+        int moving = world.create();
+        world.edit(moving).add(new Position(0, 0)).add(new Velocity(10, 0));
+        int idle = world.create();
+        world.edit(idle).add(new Position(5, 5)).add(new Velocity(0, 0));
+        tick(world);
+        assertThat(motionStore.size()).isEqualTo(2);
+        assertThat(world.getMapper(Position.class).get(moving).x).isEqualTo(1f);
+        changes.clear();
+
+        // Velocity and position changes go to the store and are saved, even without motion
+        movementSystem.setVelocity(moving, 0, 0);
+        movementSystem.setVelocity(idle, 0, 20);
+        movementSystem.setPosition(idle, 50, 50);
+        tick(world);
+        Position idlePosition = world.getMapper(Position.class).get(idle);
+        assertThat(idlePosition.x).isEqualTo(50f);
+        assertThat(idlePosition.y).isEqualTo(52f);
+        assertThat(world.getMapper(Velocity.class).get(idle).dy).isEqualTo(20f);
+        assertThat(world.getMapper(Position.class).get(moving).x).isEqualTo(1f);
+        assertThat(changes.getChanged().size()).isEqualTo(2);
+        changes.clear();
+
+        // Stationary entities are neither written nor marked
+        movementSystem.setVelocity(idle, 0, 0);
+        tick(world);
+        changes.clear();
+        tick(world);
+        assertThat(changes.getChanged().size()).isEqualTo(0);
+        assertThat(world.getMapper(Position.class).get(idle).y).isEqualTo(52f);
+
+        // Component writes marked as changes, as restores make them, are copied into the store
+        world.getMapper(Position.class).get(idle).x = 70;
+        world.getMapper(Velocity.class).get(idle).dx = 10;
+        dirtyTracker.markChanged(idle);
+        tick(world);
+        assertThat(world.getMapper(Position.class).get(idle).x).isEqualTo(71f);
+        assertThat(motionStore.xs()[motionStore.indexOf(idle)]).isEqualTo(71f);
+
+        world.delete(moving);
+        tick(world);
+        assertThat(motionStore.contains(moving)).isFalse();
+        assertThat(motionStore.size()).isEqualTo(1);
+    }
+
+    private static void tick(World world) {
+        world.setDelta(0.1f);
+        world.process();
+    }
+}
@@ -0,0 +1,163 @@
+package com.ecs;
+
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.ecs.component.Position;
+import com.ecs.component.Stats;
+import com.ecs.component.Velocity;
+import com.ecs.persistence.DirtyTracker;
+import com.ecs.storage.MotionStore;
+import com.ecs.system.MovementSystem;
+import com.ecs.system.ObserverStreamSystem;
+import com.ecs.view.ObserverProtocol;
+import org.junit.jupiter.api.Test;
+
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for streaming entity deltas to observers.
+ */
+class ObserverStreamTest {
+
+    private static final int ENTITY_COUNT = 1_000;
+    private static final int MOVING = 10;
+    private static final float AREA = 500;
+
+    @Test
+    void testSubscriberMirrorsItsAreaFromDeltas() throws Exception {
+        Path socket = Files.createTempDirectory("observer").resolve("observer.sock");
+        DirtyTracker dirtyTracker = new DirtyTracker();
+        ObserverStreamSystem stream = new ObserverStreamSystem(socket, 1 << 20, dirtyTracker);
+        World world = new World(new WorldConfigurationBuilder()
+                .with(new MovementSystem(new MotionStore(), dirtyTracker))
+                .with(stream)
+                .build());
+        int[] entities = new int[ENTITY_COUNT];
+        for (int i = 0; i < ENTITY_COUNT; i++) {
+            entities[i] = world.create();
+            world.edit(entities[i]).add(new Position(i, 0)).add(new Stats(100));
+        }
+        // Moving entities around the edge of the area, heading in and out of it
+        for (int i = 0; i < MOVING; i++) {
+            world.edit(entities[495 + i]).add(new Velocity(i % 2 == 0 ? 10 : -10, 0));
+        }
+
+        try (SocketChannel client = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            client.connect(UnixDomainSocketAddress.of(socket));
+            ByteBuffer interest = ByteBuffer.allocate(ObserverProtocol.INTEREST_BYTES);
+            interest.putFloat(0).putFloat(-1).putFloat(AREA).putFloat(1).flip();
+            client.write(interest);
+            Map<Integer, float[]> mirror = new HashMap<>();
+
+            tick(world);
+            assertThat(stream.getSubscriberCount()).isEqualTo(1);
+            ByteBuffer frame = readFrame(client);
+            assertThat(frame.get()).isEqualTo(ObserverProtocol.FRAME_RESET);
+            apply(frame, mirror);
+            assertThat(mirror.size()).isEqualTo((int) AREA + 1);
+
+            // Only moving and damaged entities are sent, in a few bytes each
+            world.getMapper(Stats.class).get(entities[10]).health = 40;
+            dirtyTracker.markChanged(entities[10]);
+            world.delete(entities[20]);
+            world.getMapper(Stats.class).get(entities[900]).health = 40;
+            dirtyTracker.markChanged(entities[900]);
+            for (int t = 0; t < 5; t++) {
+                tick(world);
+                frame = readFrame(client);
+                assertThat(frame.remaining()).isLessThan(20 * MOVING + 20);
+                assertThat(frame.get()).isEqualTo((byte) 0);
+                apply(frame, mirror);
+            }
+
+            assertThat(mirror.containsKey(entities[20])).isFalse();
+            assertThat(mirror.get(entities[10])[2]).isEqualTo(40f);
+            assertThat(mirror.containsKey(entities[900])).isFalse();
+            int inside = 0;
+            for (int entityId : entities) {
+                if (!world.getEntityManager().isActive(entityId)) {
+                    continue;
+                }
+                Position position = world.getMapper(Position.class).get(entityId);
+                if (position.x > AREA) {
+                    assertThat(mirror.containsKey(entityId)).isFalse();
+                    continue;
+                }
+                inside++;
+                float[] state = mirror.get(entityId);
+                assertThat(Math.abs(state[0] - position.x)).isLessThan(0.1f);
+                assertThat(state[1]).isEqualTo(0f);
+            }
+            assertThat(mirror.size()).isEqualTo(inside);
+        } finally {
+            world.dispose();
+        }
+    }
+
+    private static void tick(World world) {
+        world.setDelta(0.1f);
+        world.process();
+    }
+
+    /**
+     * Reads one frame, returning it positioned at its flags byte.
+     */
+    private static ByteBuffer readFrame(SocketChannel client) throws Exception {
+        ByteBuffer length = ByteBuffer.allocate(4);
+        readFully(client, length);
+        ByteBuffer frame = ByteBuffer.allocate(length.getInt(0));
+        readFully(client, frame);
+        frame.flip();
+        return frame;
+    }
+
+    private static void readFully(SocketChannel client, ByteBuffer buffer) throws Exception {
+        while (buffer.hasRemaining()) {
+            assertThat(client.read(buffer)).isNotNegative();
+        }
+    }
+
+    /**
+     * Applies a frame's records to a mirror of x, y and health by entity ID.
+     */
+    private static void apply(ByteBuffer frame, Map<Integer, float[]> mirror) {
+        frame.getLong();
+        int records = frame.getInt();
+        for (int i = 0; i < records; i++) {
+            int kind = frame.get();
+            int entityId = ObserverProtocol.getVarInt(frame);
+            switch (kind & ObserverProtocol.RECORD_KIND_MASK) {
+                case ObserverProtocol.RECORD_ENTER:
+                    float x = ObserverProtocol.dequantize(ObserverProtocol.getZigZag(frame));
+                    float y = ObserverProtocol.dequantize(ObserverProtocol.getZigZag(frame));
+                    mirror.put(entityId, new float[]{x, y, frame.getFloat()});
+                    break;
+                case ObserverProtocol.RECORD_UPDATE:
+                    float[] state = mirror.get(entityId);
+                    if ((kind & ObserverProtocol.UPDATE_POSITION) != 0) {
+                        state[0] += ObserverProtocol.dequantize(ObserverProtocol.getZigZag(frame));
+                        state[1] += ObserverProtocol.dequantize(ObserverProtocol.getZigZag(frame));
+                    }
+                    if ((kind & ObserverProtocol.UPDATE_HEALTH) != 0) {
+                        state[2] = frame.getFloat();
+                    }
+                    break;
+                case ObserverProtocol.RECORD_REMOVE:
+                    mirror.remove(entityId);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown record kind " + kind);
+            }
+        }
+        assertThat(frame.hasRemaining()).isFalse();
+    }
+}
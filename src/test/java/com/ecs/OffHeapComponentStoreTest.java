@@ -0,0 +1,87 @@
+package com.ecs;
+
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.ecs.component.CombatStats;
+import com.ecs.component.Identity;
+import com.ecs.component.Stats;
+import com.ecs.storage.OffHeapComponentStore;
+import com.ecs.storage.OffHeapStorage;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for off-heap component records.
+ */
+class OffHeapComponentStoreTest {
+
+    @Test
+    void testRecordsRoundTripAndGuardMissingEntities() {
+        OffHeapStorage storage = new OffHeapStorage();
+        OffHeapComponentStore<Stats> store = storage.store(Stats.class);
+        assertThat(storage.store(Stats.class)).isSameAs(store);
+        assertThat(store.getStride()).isEqualTo(8);
+
+        store.put(3, new Stats(120));
+        // Far away enough to need a page of its own
+        store.put(100_000, new Stats(40));
+        OffHeapComponentStore<Stats>.FloatField health = store.floatField("health");
+        health.set(3, 75);
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.get(3, new Stats()).health).isEqualTo(75f);
+        assertThat(store.get(3, new Stats()).maxHealth).isEqualTo(120f);
+        assertThat(health.get(100_000)).isEqualTo(40f);
+        assertThat(storage.getAllocatedBytes()).isEqualTo(2L * 4_096 * 8);
+
+        // Entities without a record, on allocated and unallocated pages
+        assertThat(store.has(4)).isFalse();
+        assertThat(store.get(4, new Stats())).isNull();
+        assertThat(store.get(50_000, new Stats())).isNull();
+        assertThatThrownBy(() -> health.get(50_000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> health.set(4, 1)).isInstanceOf(IllegalArgumentException.class);
+
+        store.remove(3);
+        assertThat(store.has(3)).isFalse();
+        assertThatThrownBy(() -> health.get(3)).isInstanceOf(IllegalArgumentException.class);
+        // A recreated record starts zeroed
+        store.create(3);
+        assertThat(health.get(3)).isEqualTo(0f);
+
+        assertThatThrownBy(() -> store.intField("health")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.floatField("armor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> storage.store(Identity.class)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testAttachedStoreFollowsTheComponentLifecycle() {
+        OffHeapStorage storage = new OffHeapStorage();
+        World world = new World(new WorldConfigurationBuilder().build());
+        OffHeapComponentStore<CombatStats> store = storage.store(CombatStats.class);
+
+        int existing = world.create();
+        world.edit(existing).add(new CombatStats(7, 2, 1));
+        world.process();
+        // Entities that already have the component are stored when attached
+        store.attach(world);
+        assertThat(store.get(existing, new CombatStats()).damage).isEqualTo(7f);
+
+        int stripped = world.create();
+        world.edit(stripped).add(new CombatStats(3, 2, 1));
+        int deleted = world.create();
+        world.edit(deleted).add(new CombatStats(5, 4, 1));
+        world.process();
+        assertThat(store.size()).isEqualTo(3);
+        assertThat(store.floatField("range").get(deleted)).isEqualTo(4f);
+
+        // Records go with the component, however it is lost
+        world.edit(stripped).remove(CombatStats.class);
+        world.delete(deleted);
+        world.process();
+        assertThat(store.has(stripped)).isFalse();
+        assertThat(store.has(deleted)).isFalse();
+        assertThat(store.has(existing)).isTrue();
+        assertThat(store.size()).isEqualTo(1);
+    }
+}
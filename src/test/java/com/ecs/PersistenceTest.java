@@ -0,0 +1,394 @@
+package com.ecs;
+
+import com.artemis.Aspect;
+import com.artemis.Component;
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.artemis.utils.IntBag;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import com.ecs.component.*;
+import com.ecs.core.WorldCommandQueue;
+import com.ecs.persistence.DirtyTracker;
+import com.ecs.persistence.SaveProgress;
+import com.ecs.persistence.SnapshotJournal;
+import com.ecs.persistence.SnapshotLoader;
+import com.ecs.service.PersistenceService;
+import com.ecs.service.YamlService;
+import com.ecs.system.PersistenceTrackingSystem;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for saving and loading persistent entities.
+ */
+class PersistenceTest {
+
+    private static final int ENTITY_COUNT = 10_000;
+    private static final int YAML_ENTITY_COUNT = 1_000; // SnakeYAML rejects documents over 3 MB
+
+    @Test
+    void testBinarySnapshotRoundTrip() throws Exception {
+        World source = newWorld();
+        populate(source, ENTITY_COUNT);
+        Path file = Files.createTempFile("world", ".snap");
+        newPersistenceService(source).save(file.toString());
+
+        World target = newWorld();
+        newPersistenceService(target).load(file.toString());
+        target.process();
+
+        assertMatches(target, ENTITY_COUNT);
+    }
+
+    @Test
+    void testStreamingLoaderDecodesInParallel() throws Exception {
+        World source = newWorld();
+        populate(source, ENTITY_COUNT);
+        Path file = Files.createTempFile("world", ".snap");
+        newPersistenceService(source).save(file.toString());
+
+        World target = newWorld();
+        Int2IntOpenHashMap liveIds = new Int2IntOpenHashMap();
+        liveIds.defaultReturnValue(-1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Class<? extends Component>> types = List.of(Position.class, Velocity.class,
+                    Identity.class, Stats.class, Persistent.class);
+            int created = new SnapshotLoader(types, executor, 2).load(file, target, liveIds);
+            assertThat(created).isEqualTo(ENTITY_COUNT);
+        } finally {
+            executor.shutdown();
+        }
+        target.process();
+
+        assertThat(liveIds.size()).isEqualTo(ENTITY_COUNT);
+        assertMatches(target, ENTITY_COUNT);
+    }
+
+    @Test
+    void testBackgroundSave() throws Exception {
+        World source = newWorld();
+        populate(source, ENTITY_COUNT);
+        PersistenceService persistenceService = newPersistenceService(source);
+        Path file = Files.createTempFile("world", ".snap");
+
+        // Entities are captured a slice per tick; changes made after the capture must not leak into the file
+        var pending = persistenceService.saveAsync(file.toString());
+        assertThat(persistenceService.isCapturing()).isTrue();
+        while (persistenceService.isCapturing()) {
+            persistenceService.continueCapture();
+        }
+        IntBag entities = persistentEntities(source);
+        for (int n = 0; n < entities.size(); n++) {
+            source.delete(entities.get(n));
+        }
+        source.process();
+        assertThat(pending.get()).isEqualTo(file);
+        assertThat(Files.exists(file.resolveSibling(file.getFileName() + ".tmp"))).isFalse();
+
+        World target = newWorld();
+        newPersistenceService(target).load(file.toString());
+        target.process();
+
+        assertMatches(target, ENTITY_COUNT);
+    }
+
+    @Test
+    void testIncrementalSaveReplaysJournal() throws Exception {
+        DirtyTracker dirtyTracker = new DirtyTracker();
+        World source = new World(new WorldConfigurationBuilder()
+                .with(new PersistenceTrackingSystem(dirtyTracker))
+                .build());
+        populate(source, ENTITY_COUNT);
+        PersistenceService persistenceService = new PersistenceService(new YamlService(), source, dirtyTracker,
+                12, new SaveProgress());
+        Path file = Files.createTempFile("world", ".snap");
+        Path journal = SnapshotJournal.pathFor(file);
+
+        // The first save has no base to append to and writes a full snapshot
+        saveIncremental(persistenceService, file);
+        long baseSize = Files.size(file);
+        assertThat(Files.exists(journal)).isFalse();
+
+        // Delete, damage and create a few entities; the deleted IDs are reused by the new ones
+        IntBag entities = persistentEntities(source);
+        for (int n = 0; n < 100; n++) {
+            source.delete(entities.get(n * 7));
+        }
+        for (int n = 0; n < 200; n++) {
+            int entityId = entities.get(n * 11 + 1);
+            source.getMapper(Stats.class).get(entityId).health -= 1;
+            source.getMapper(Velocity.class).remove(entityId);
+            dirtyTracker.markChanged(entityId);
+        }
+        source.process();
+        populate(source, 50);
+        saveIncremental(persistenceService, file);
+
+        assertThat(Files.size(file)).isEqualTo(baseSize);
+        assertThat(Files.size(journal)).isLessThan(baseSize / 10);
+        assertThat(describe(load(file))).isEqualTo(describe(source));
+
+        // Touching every entity outgrows the base, so the journal is compacted into it
+        entities = persistentEntities(source);
+        for (int n = 0; n < entities.size(); n++) {
+            source.getMapper(Position.class).get(entities.get(n)).x += 0.5f;
+            dirtyTracker.markChanged(entities.get(n));
+        }
+        saveIncremental(persistenceService, file);
+
+        assertThat(Files.exists(journal)).isFalse();
+        assertThat(describe(load(file))).isEqualTo(describe(source));
+    }
+
+    @Test
+    void testChangesDuringASlicedCaptureAreJournaled() throws Exception {
+        DirtyTracker dirtyTracker = new DirtyTracker();
+        World source = new World(new WorldConfigurationBuilder()
+                .with(new PersistenceTrackingSystem(dirtyTracker))
+                .build());
+        populate(source, 2 * ENTITY_COUNT);
+        PersistenceService persistenceService = new PersistenceService(new YamlService(), source, dirtyTracker,
+                12, new SaveProgress());
+        Path file = Files.createTempFile("world", ".snap");
+
+        var pending = persistenceService.saveIncremental(file.toString());
+        IntBag entities = new IntBag();
+        entities.addAll(persistentEntities(source));
+        int captured = entities.get(10);
+        int notCaptured = entities.get(entities.size() - 10);
+        assertThat(persistenceService.isCapturing()).isTrue();
+
+        // Change, delete and create entities on both sides of the first slice
+        source.getMapper(Stats.class).get(captured).health = -1;
+        dirtyTracker.markChanged(captured);
+        source.getMapper(Stats.class).get(notCaptured).health = -2;
+        dirtyTracker.markChanged(notCaptured);
+        source.delete(entities.get(20));
+        source.delete(entities.get(entities.size() - 20));
+        source.process();
+        populate(source, 10);
+
+        // Saves cannot start until the capture is complete
+        assertThat(persistenceService.saveIncremental(file.toString()).isCompletedExceptionally()).isTrue();
+        int ticks = 0;
+        while (persistenceService.isCapturing()) {
+            persistenceService.continueCapture();
+            source.process();
+            ticks++;
+        }
+        assertThat(ticks).isGreaterThan(0);
+        assertThat(pending.get()).isEqualTo(file);
+
+        // The base holds each entity as of its slice, and the journal brings it up to date
+        persistenceService.saveIncremental(file.toString()).get();
+        assertThat(Files.exists(SnapshotJournal.pathFor(file))).isTrue();
+        assertThat(describe(load(file))).isEqualTo(describe(source));
+    }
+
+    @Test
+    void testAppendsQueuedBehindAFailedSaveFail() throws Exception {
+        DirtyTracker dirtyTracker = new DirtyTracker();
+        World source = new World(new WorldConfigurationBuilder()
+                .with(new PersistenceTrackingSystem(dirtyTracker))
+                .build());
+        populate(source, YAML_ENTITY_COUNT);
+        SaveProgress saveProgress = new SaveProgress();
+        PersistenceService persistenceService = new PersistenceService(new YamlService(), source, dirtyTracker,
+                12, saveProgress);
+        Path file = Files.createTempFile("world", ".snap");
+        saveIncremental(persistenceService, file);
+        IntBag entities = new IntBag();
+        entities.addAll(persistentEntities(source));
+        source.getMapper(Stats.class).get(entities.get(0)).health = -1;
+        dirtyTracker.markChanged(entities.get(0));
+        saveIncremental(persistenceService, file);
+        List<String> saved = describe(source);
+
+        // A directory in the way of the temporary file makes the next full save fail
+        Path blocker = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectories(blocker.resolve("blocker"));
+        source.getMapper(Stats.class).get(entities.get(1)).health = -2;
+        dirtyTracker.markChanged(entities.get(1));
+        var failed = persistenceService.saveAsync(file.toString());
+        long failedSave = saveProgress.getStarted();
+        source.getMapper(Stats.class).get(entities.get(2)).health = -3;
+        dirtyTracker.markChanged(entities.get(2));
+        var queued = persistenceService.saveIncremental(file.toString());
+        assertThatThrownBy(failed::get).isInstanceOf(ExecutionException.class);
+        assertThatThrownBy(queued::get).isInstanceOf(ExecutionException.class);
+
+        // The journal was not extended with changes relative to the failed save
+        assertThat(describe(load(file))).isEqualTo(saved);
+        assertThat(saveProgress.getCompleted()).isLessThan(failedSave);
+
+        // The next save is a full one, covering the changes of both failed saves
+        Files.delete(blocker.resolve("blocker"));
+        Files.delete(blocker);
+        saveIncremental(persistenceService, file);
+        assertThat(Files.exists(SnapshotJournal.pathFor(file))).isFalse();
+        assertThat(describe(load(file))).isEqualTo(describe(source));
+        assertThat(saveProgress.getCompleted()).isEqualTo(saveProgress.getStarted());
+    }
+
+    @Test
+    void testCommandEditsAreSaved() throws Exception {
+        DirtyTracker dirtyTracker = new DirtyTracker();
+        World source = new World(new WorldConfigurationBuilder()
+                .with(new PersistenceTrackingSystem(dirtyTracker))
+                .build());
+        populate(source, 100);
+        // A full save after every journal segment
+        PersistenceService persistenceService = new PersistenceService(new YamlService(), source, dirtyTracker,
+                1, new SaveProgress());
+        WorldCommandQueue commandQueue = new WorldCommandQueue();
+        Path file = Files.createTempFile("world", ".snap");
+        saveIncremental(persistenceService, file);
+
+        // Edits made by a command that marks nothing itself
+        IntBag entities = persistentEntities(source);
+        int renamed = entities.get(5);
+        int stopped = entities.get(1);
+        int healed = entities.get(2);
+        commandQueue.enqueue(world -> {
+            world.edit(renamed).add(new Identity("renamed"));
+            world.edit(stopped).remove(Velocity.class);
+            world.getMapper(Stats.class).get(healed).health = 1;
+        });
+        commandQueue.process(source);
+        source.process();
+
+        // Components added and removed are tracked and journaled; the unmarked field change is not
+        saveIncremental(persistenceService, file);
+        assertThat(Files.exists(SnapshotJournal.pathFor(file))).isTrue();
+        World loaded = load(file);
+        assertThat(describe(loaded).contains("5.0,-5.0 health=6.0 moving=true id=renamed")).isTrue();
+        assertThat(describe(loaded).contains("1.0,-1.0 health=2.0 moving=false id=unit-1")).isTrue();
+        assertThat(describe(loaded)).isNotEqualTo(describe(source));
+
+        // The periodic full save picks it up
+        saveIncremental(persistenceService, file);
+        assertThat(Files.exists(SnapshotJournal.pathFor(file))).isFalse();
+        assertThat(describe(load(file))).isEqualTo(describe(source));
+    }
+
+    @Test
+    void testYamlExportStillLoads() throws Exception {
+        World source = newWorld();
+        populate(source, YAML_ENTITY_COUNT);
+        Path file = Files.createTempFile("world", ".yml");
+        newPersistenceService(source).exportYaml(file.toString());
+
+        World target = newWorld();
+        newPersistenceService(target).load(file.toString());
+        target.process();
+
+        assertMatches(target, YAML_ENTITY_COUNT);
+    }
+
+    private static World newWorld() {
+        return new World(new WorldConfigurationBuilder().build());
+    }
+
+    /**
+     * Creates entities with a mix of compositions; every third one has no velocity
+     * and every fifth one has no identity.
+     */
+    private static void populate(World world, int count) {
+        for (int i = 0; i < count; i++) {
+            int entityId = world.create();
+            world.edit(entityId)
+                    .add(new Persistent())
+                    .add(new Position(i, -i))
+                    .add(new Stats(i % 100 + 1));
+            if (i % 3 != 0) {
+                world.edit(entityId).add(new Velocity(1, i * 0.5f));
+            }
+            if (i % 5 != 0) {
+                world.edit(entityId).add(new Identity("unit-" + i));
+            }
+        }
+        world.process();
+    }
+
+    private static void assertMatches(World world, int count) {
+        IntBag entities = persistentEntities(world);
+        assertThat(entities.size()).isEqualTo(count);
+
+        // Loaded entities keep their saved order, so the position encodes the original index
+        for (int n = 0; n < entities.size(); n++) {
+            int entityId = entities.get(n);
+            Position position = world.getMapper(Position.class).get(entityId);
+            int i = (int) position.x;
+            assertThat(position.y).isEqualTo((float) -i);
+            assertThat(world.getMapper(Stats.class).get(entityId).maxHealth).isEqualTo((float) (i % 100 + 1));
+            assertThat(world.getMapper(Velocity.class).has(entityId)).isEqualTo(i % 3 != 0);
+            Identity identity = world.getMapper(Identity.class).get(entityId);
+            if (i % 5 != 0) {
+                assertThat(identity.id).isEqualTo("unit-" + i);
+            } else {
+                assertThat(identity).isNull();
+            }
+        }
+    }
+
+    /**
+     * Runs an incremental save to completion, capturing a slice per tick as the game loop does.
+     */
+    private static void saveIncremental(PersistenceService persistenceService, Path file) throws Exception {
+        var pending = persistenceService.saveIncremental(file.toString());
+        while (persistenceService.isCapturing()) {
+            persistenceService.continueCapture();
+        }
+        pending.get();
+    }
+
+    /**
+     * Creates a service for a world whose changes are not tracked, for full saves and loads.
+     */
+    private static PersistenceService newPersistenceService(World world) {
+        return new PersistenceService(new YamlService(), world, new DirtyTracker(), 12, new SaveProgress());
+    }
+
+    private static World load(Path file) throws Exception {
+        World world = newWorld();
+        newPersistenceService(world).load(file.toString());
+        world.process();
+        return world;
+    }
+
+    /**
+     * Lists the persisted state of each entity, sorted, since replayed entities may be
+     * created in a different order.
+     */
+    private static List<String> describe(World world) {
+        IntBag entities = persistentEntities(world);
+        List<String> states = new ArrayList<>(entities.size());
+        for (int n = 0; n < entities.size(); n++) {
+            int entityId = entities.get(n);
+            Position position = world.getMapper(Position.class).get(entityId);
+            Identity identity = world.getMapper(Identity.class).get(entityId);
+            states.add(position.x + "," + position.y
+                    + " health=" + world.getMapper(Stats.class).get(entityId).health
+                    + " moving=" + world.getMapper(Velocity.class).has(entityId)
+                    + " id=" + (identity != null ? identity.id : null));
+        }
+        Collections.sort(states);
+        return states;
+    }
+
+    private static IntBag persistentEntities(World world) {
+        return world.getAspectSubscriptionManager().get(Aspect.all(Persistent.class)).getEntities();
+    }
+}
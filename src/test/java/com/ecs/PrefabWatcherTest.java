@@ -0,0 +1,88 @@
+package com.ecs;
+
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.ecs.component.Stats;
+import com.ecs.core.WorldCommandQueue;
+import com.ecs.registry.PrefabWatcher;
+import com.ecs.registry.TemplateRegistry;
+import com.ecs.service.YamlService;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for reloading prefabs from a watched directory.
+ */
+class PrefabWatcherTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Test
+    void testEditedAddedAndDeletedPrefabsAreReloaded() throws Exception {
+        Path dir = Files.createTempDirectory("prefabs");
+        Files.writeString(dir.resolve("brute.yml"), prefab(250));
+        TemplateRegistry registry = new TemplateRegistry(new YamlService(), dir.toString());
+        WorldCommandQueue commandQueue = new WorldCommandQueue();
+        World world = new World(new WorldConfigurationBuilder().build());
+        PrefabWatcher watcher = new PrefabWatcher(registry, commandQueue);
+        watcher.start();
+        try {
+            assertThat(health(registry, "brute")).isEqualTo(250f);
+            assertThat(health(registry, "scout")).isEqualTo(40f);
+
+            // Edited
+            Files.writeString(dir.resolve("brute.yml"), prefab(300));
+            await(commandQueue, world, () -> health(registry, "brute") == 300f);
+
+            // Added, overriding the classpath prefab
+            Files.writeString(dir.resolve("scout.yml"), prefab(55));
+            await(commandQueue, world, () -> health(registry, "scout") == 55f);
+
+            // Deleting the override falls back to the classpath prefab
+            Files.delete(dir.resolve("scout.yml"));
+            await(commandQueue, world, () -> health(registry, "scout") == 40f);
+
+            // Deleting a prefab with nothing underneath removes the template
+            Files.delete(dir.resolve("brute.yml"));
+            await(commandQueue, world, () -> registry.getTemplate("brute") == null);
+            assertThat(registry.getTemplateNames().contains("brute")).isFalse();
+            assertThat(registry.getTemplateNames().contains("scout")).isTrue();
+        } finally {
+            watcher.stop();
+        }
+    }
+
+    private static String prefab(int health) {
+        return String.join("\n",
+                "components:",
+                "  - type: com.ecs.component.Stats",
+                "    fields:",
+                "      health: " + health,
+                "      maxHealth: " + health);
+    }
+
+    private static float health(TemplateRegistry registry, String name) {
+        return ((Stats) registry.getTemplate(name).get(0)).health;
+    }
+
+    /**
+     * Runs queued commands as the game loop would, until the condition holds.
+     */
+    private static void await(WorldCommandQueue commandQueue, World world, BooleanSupplier condition)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (true) {
+            commandQueue.process(world);
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            assertThat(System.currentTimeMillis()).as("Prefab change not applied in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.ecs;
+
+import com.artemis.Aspect;
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.artemis.utils.IntBag;
+import com.ecs.ai.FindTargetNode;
+import com.ecs.component.*;
+import com.ecs.persistence.DirtyTracker;
+import com.ecs.persistence.RegionStore;
+import com.ecs.persistence.SaveProgress;
+import com.ecs.service.PersistenceService;
+import com.ecs.service.YamlService;
+import com.ecs.spatial.SpatialHashGrid;
+import com.ecs.system.RegionStreamingSystem;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for streaming world regions in and out around focus points.
+ */
+class RegionStreamingTest {
+
+    private static final int UNITS_PER_REGION = 100;
+    private static final float FAR = 10 * RegionStore.REGION_SIZE;
+
+    @Test
+    void testRegionsUnloadAndStreamBackIn() throws Exception {
+        Path directory = Files.createTempDirectory("regions");
+        RegionStore store = new RegionStore(directory);
+        List<Integer> loadedBatches = new ArrayList<>();
+        SpatialHashGrid grid = new SpatialHashGrid();
+        RegionStreamingSystem streaming = new RegionStreamingSystem(store, Runnable::run, new SaveProgress(), List.of(
+                (world, entities) -> {
+                    loadedBatches.add(entities.size());
+                    for (int n = 0; n < entities.size(); n++) {
+                        // Behaviours are not stored in regions, so they are re-attached here
+                        assertThat(world.getMapper(AiBehavior.class).has(entities.get(n))).isFalse();
+                        world.edit(entities.get(n)).add(new AiBehavior(new FindTargetNode(grid)));
+                    }
+                }));
+        World world = new World(new WorldConfigurationBuilder().with(streaming).build());
+
+        populate(world, 0, 0);
+        populate(world, FAR, FAR);
+        int camera = world.create();
+        world.edit(camera).add(new Position(10, 10)).add(new Focus(50));
+        tick(world);
+
+        // The far region is written out and its entities leave the world
+        long farRegion = RegionStore.keyOf(FAR, FAR);
+        assertThat(streaming.isLoaded(farRegion)).isFalse();
+        assertThat(hasRegionFile(directory, FAR, FAR)).isTrue();
+        assertThat(persistentEntities(world).size()).isEqualTo(UNITS_PER_REGION);
+
+        // Moving the focus swaps the regions
+        world.getMapper(Position.class).get(camera).x = FAR + 10;
+        world.getMapper(Position.class).get(camera).y = FAR + 10;
+        tick(world);
+
+        assertThat(streaming.isLoaded(farRegion)).isTrue();
+        assertThat(hasRegionFile(directory, 0, 0)).isTrue();
+        assertThat(loadedBatches).isEqualTo(List.of(UNITS_PER_REGION));
+
+        IntBag entities = persistentEntities(world);
+        assertThat(entities.size()).isEqualTo(UNITS_PER_REGION);
+        for (int n = 0; n < entities.size(); n++) {
+            int entityId = entities.get(n);
+            Position position = world.getMapper(Position.class).get(entityId);
+            int i = (int) (position.x - FAR);
+            assertThat(world.getMapper(Stats.class).get(entityId).maxHealth).isEqualTo((float) (i + 1));
+            assertThat(world.getMapper(SpatialNode.class).has(entityId))
+                    .as("Restored bodies should rejoin the spatial grid")
+                    .isTrue();
+            assertThat(world.getMapper(AiBehavior.class).has(entityId)).isTrue();
+        }
+    }
+
+    @Test
+    void testLoadedRegionFilesAreKeptUntilSaved() throws Exception {
+        Path directory = Files.createTempDirectory("regions");
+        Path saveFile = directory.resolve("world.snap");
+        RegionStore store = new RegionStore(directory);
+        SaveProgress saveProgress = new SaveProgress();
+        RegionStreamingSystem streaming = new RegionStreamingSystem(store, Runnable::run, saveProgress,
+                new ArrayList<>());
+        World world = new World(new WorldConfigurationBuilder().with(streaming).build());
+        PersistenceService persistenceService = new PersistenceService(new YamlService(), world,
+                new DirtyTracker(), 12, saveProgress);
+
+        populate(world, 0, 0);
+        populate(world, FAR, FAR);
+        int camera = world.create();
+        world.edit(camera).add(new Position(10, 10)).add(new Focus(50));
+        tick(world);
+        long farRegion = RegionStore.keyOf(FAR, FAR);
+        assertThat(hasRegionFile(directory, FAR, FAR)).isTrue();
+
+        // A save started before the region is loaded does not hold its entities
+        CompletableFuture<Path> earlierSave = persistenceService.saveAsync(saveFile.toString());
+        world.getMapper(Position.class).get(camera).x = FAR + 10;
+        world.getMapper(Position.class).get(camera).y = FAR + 10;
+        tick(world);
+        earlierSave.get();
+        tick(world);
+        assertThat(streaming.isLoaded(farRegion)).isTrue();
+        assertThat(hasRegionFile(directory, FAR, FAR)).isTrue();
+
+        // Once a later save is on disk, the region file goes
+        persistenceService.saveAsync(saveFile.toString());
+        while (persistenceService.isCapturing()) {
+            persistenceService.continueCapture();
+        }
+        awaitSaved(saveProgress);
+        tick(world);
+        assertThat(hasRegionFile(directory, FAR, FAR)).isFalse();
+        assertThat(hasRegionFile(directory, 0, 0)).isTrue();
+
+        // Reloading the world save brings back the loaded region only
+        World reloaded = new World(new WorldConfigurationBuilder().build());
+        new PersistenceService(new YamlService(), reloaded, new DirtyTracker(), 12, new SaveProgress())
+                .load(saveFile.toString());
+        assertThat(persistentEntities(reloaded).size()).isEqualTo(UNITS_PER_REGION);
+    }
+
+    @Test
+    void testRestartAfterUnloadDoesNotDuplicateEntities() throws Exception {
+        Path directory = Files.createTempDirectory("regions");
+        Path saveFile = directory.resolve("world.snap");
+        SaveProgress saveProgress = new SaveProgress();
+        World world = new World(new WorldConfigurationBuilder()
+                .with(new RegionStreamingSystem(new RegionStore(directory), Runnable::run, saveProgress,
+                        new ArrayList<>()))
+                .build());
+        PersistenceService persistenceService = new PersistenceService(new YamlService(), world,
+                new DirtyTracker(), 12, saveProgress);
+
+        populate(world, 0, 0);
+        populate(world, FAR, FAR);
+        world.process();
+        persistenceService.save(saveFile.toString());
+
+        // The far region is unloaded after the save, and the game stops before the next one
+        int camera = world.create();
+        world.edit(camera).add(new Position(10, 10)).add(new Focus(50));
+        tick(world);
+        assertThat(hasRegionFile(directory, FAR, FAR)).isTrue();
+
+        // The save still holds the far region, so its file is left alone
+        World restarted = restart(directory, saveFile);
+        assertThat(persistentEntities(restarted).size()).isEqualTo(2 * UNITS_PER_REGION);
+
+        // A save after the unload holds the region as stored, and a restart streams it back once
+        persistenceService.save(saveFile.toString());
+        restarted = restart(directory, saveFile);
+        assertThat(persistentEntities(restarted).size()).isEqualTo(UNITS_PER_REGION);
+        int restartedCamera = restarted.create();
+        restarted.edit(restartedCamera).add(new Position(FAR + 10, FAR + 10)).add(new Focus(50));
+        tick(restarted);
+        assertThat(persistentEntities(restarted).size()).isEqualTo(UNITS_PER_REGION);
+        for (int i = 0; i < 2; i++) {
+            restarted.getMapper(Position.class).get(restartedCamera).x = i == 0 ? 10 : FAR + 10;
+            restarted.getMapper(Position.class).get(restartedCamera).y = i == 0 ? 10 : FAR + 10;
+            tick(restarted);
+        }
+        assertThat(persistentEntities(restarted).size()).isEqualTo(UNITS_PER_REGION);
+    }
+
+    @Test
+    void testEmptiedRegionDoesNotComeBack() throws Exception {
+        Path directory = Files.createTempDirectory("regions");
+        World world = new World(new WorldConfigurationBuilder()
+                .with(new RegionStreamingSystem(new RegionStore(directory), Runnable::run, new SaveProgress(),
+                        new ArrayList<>()))
+                .build());
+
+        populate(world, FAR, FAR);
+        int camera = world.create();
+        world.edit(camera).add(new Position(10, 10)).add(new Focus(50));
+        tick(world);
+        assertThat(persistentEntities(world).size()).isEqualTo(0);
+
+        // The region is loaded and its residents move away before it unloads again
+        world.getMapper(Position.class).get(camera).x = FAR + 10;
+        world.getMapper(Position.class).get(camera).y = FAR + 10;
+        tick(world);
+        IntBag entities = persistentEntities(world);
+        for (int n = 0; n < entities.size(); n++) {
+            world.getMapper(Position.class).get(entities.get(n)).x = 10;
+            world.getMapper(Position.class).get(entities.get(n)).y = 10;
+        }
+        world.getMapper(Position.class).get(camera).x = 20;
+        world.getMapper(Position.class).get(camera).y = 20;
+        tick(world);
+
+        // Going back finds no stale copies of them
+        world.getMapper(Position.class).get(camera).x = FAR + 10;
+        world.getMapper(Position.class).get(camera).y = FAR + 10;
+        tick(world);
+        world.getMapper(Position.class).get(camera).x = 20;
+        world.getMapper(Position.class).get(camera).y = 20;
+        tick(world);
+        assertThat(persistentEntities(world).size()).isEqualTo(UNITS_PER_REGION);
+    }
+
+    /**
+     * Loads a world save into a new world streaming from the same directory.
+     */
+    private static World restart(Path directory, Path saveFile) throws Exception {
+        SaveProgress saveProgress = new SaveProgress();
+        World world = new World(new WorldConfigurationBuilder()
+                .with(new RegionStreamingSystem(new RegionStore(directory), Runnable::run, saveProgress,
+                        new ArrayList<>()))
+                .build());
+        new PersistenceService(new YamlService(), world, new DirtyTracker(), 12, saveProgress)
+                .load(saveFile.toString());
+        world.process();
+        return world;
+    }
+
+    private static boolean hasRegionFile(Path directory, float x, float y) throws Exception {
+        String prefix = "region_" + RegionStore.regionCoordinate(x) + "_" + RegionStore.regionCoordinate(y) + "_";
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.anyMatch(file -> file.getFileName().toString().startsWith(prefix));
+        }
+    }
+
+    private static void awaitSaved(SaveProgress saveProgress) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (saveProgress.getCompleted() < saveProgress.getStarted()) {
+            assertThat(System.currentTimeMillis()).as("Save not written in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void populate(World world, float x, float y) {
+        for (int i = 0; i < UNITS_PER_REGION; i++) {
+            int entityId = world.create();
+            world.edit(entityId)
+                    .add(new Persistent())
+                    .add(new Position(x + i, y))
+                    .add(new Body(1.0f))
+                    .add(new Stats(i + 1))
+                    .add(new AiBehavior());
+        }
+    }
+
+    /**
+     * Processes enough ticks for one streaming pass and the entity changes it makes.
+     */
+    private static void tick(World world) {
+        for (int i = 0; i < 3; i++) {
+            world.setDelta(0.5f);
+            world.process();
+        }
+    }
+
+    /**
+     * Gets the persistent entities with a position, leaving out the stored region records.
+     */
+    private static IntBag persistentEntities(World world) {
+        return world.getAspectSubscriptionManager().get(Aspect.all(Persistent.class, Position.class)).getEntities();
+    }
+}
@@ -0,0 +1,432 @@
+package com.ecs;
+
+import com.artemis.Aspect;
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.artemis.utils.IntBag;
+import com.ecs.ai.FindTargetNode;
+import com.ecs.combat.DamageBuffer;
+import com.ecs.combat.HealthChangeTracker;
+import com.ecs.combat.ImpactBuffer;
+import com.ecs.component.*;
+import com.ecs.core.WorldCommandQueue;
+import com.ecs.factory.EntityFactory;
+import com.ecs.factory.SpawnBatchCommand;
+import com.ecs.persistence.DirtyTracker;
+import com.ecs.persistence.SaveProgress;
+import com.ecs.registry.PrefabReloadCommand;
+import com.ecs.registry.TemplateRegistry;
+import com.ecs.replay.CommandCodec;
+import com.ecs.replay.CommandRecorder;
+import com.ecs.replay.ExternalCommand;
+import com.ecs.replay.JournaledCommand;
+import com.ecs.replay.ReplayResult;
+import com.ecs.replay.ReplayRunner;
+import com.ecs.service.PersistenceService;
+import com.ecs.service.YamlService;
+import com.ecs.spatial.SpatialHashGrid;
+import com.ecs.storage.MotionStore;
+import com.ecs.system.AreaDamageSystem;
+import com.ecs.system.BasicAttackSystem;
+import com.ecs.system.DamageSystem;
+import com.ecs.system.DeathSystem;
+import com.ecs.system.MovementSystem;
+import com.ecs.system.ProjectileSystem;
+import com.ecs.system.SpatialSystem;
+import com.ecs.system.TimerSystem;
+import com.ecs.timer.TimerScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for recording runs and replaying them.
+ */
+class ReplayTest {
+
+    private static final int TICKS = 200;
+
+    @Test
+    void testReplayRepeatsRecordedRun() throws Exception {
+        Path journal = Files.createTempFile("run", ".journal");
+        DirtyTracker recordedChanges = new DirtyTracker();
+        World recorded = newWorld(recordedChanges);
+        for (int i = 0; i < 100; i++) {
+            populate(recorded, i);
+        }
+        recorded.process();
+
+        TemplateRegistry templateRegistry = new TemplateRegistry(new YamlService());
+        EntityFactory entityFactory = new EntityFactory(templateRegistry);
+        PersistenceService recordedPersistence = new PersistenceService(new YamlService(), recorded, recordedChanges,
+                12, new SaveProgress());
+        CommandRecorder recorder = new CommandRecorder(recorded, recordedPersistence, journal.toString());
+        WorldCommandQueue commandQueue = new WorldCommandQueue(recorder);
+        for (int tick = 0; tick < TICKS; tick++) {
+            if (tick == 10) {
+                commandQueue.enqueue(entityFactory.spawnBatchCommand("scout",
+                        new float[]{1, 2, 3}, new float[]{-1, -2, -3}));
+            }
+            if (tick == 30) {
+                // Later scouts spawn from the reloaded prefab
+                commandQueue.enqueue(prefabReload(templateRegistry, "scout", 65));
+            }
+            if (tick == 40) {
+                commandQueue.enqueue(entityFactory.spawnBatchCommand("scout", new float[]{4}, new float[]{-4}));
+            }
+            if (tick % 50 == 20) {
+                commandQueue.enqueue(new PushCommand(tick * 0.1f));
+            }
+            if (tick % 10 == 5) {
+                commandQueue.enqueue(new AttackCommand("unit-0", "unit-1"));
+                commandQueue.enqueue(new AttackCommand("unit-2", "unit-1"));
+            }
+            // Only touches state outside the simulation, so it is neither journaled nor a gap
+            ExternalCommand external = world -> { };
+            commandQueue.enqueue(external);
+
+            float delta = 0.016f + (tick % 3) * 0.001f;
+            commandQueue.process(recorded);
+            recorder.recordTick(delta);
+            recorded.setDelta(delta);
+            recorded.process();
+        }
+        recorder.stop();
+        // The attacks killed their target
+        assertThat(describe(recorded).size()).isEqualTo(103);
+
+        DirtyTracker replayedChanges = new DirtyTracker();
+        World replayed = newWorld(replayedChanges);
+        TemplateRegistry replayRegistry = new TemplateRegistry(new YamlService());
+        List<CommandCodec> codecs = List.of(
+                new SpawnBatchCommand.Codec(new EntityFactory(replayRegistry)),
+                new PrefabReloadCommand.Codec(replayRegistry),
+                new PushCommand.Codec(),
+                new AttackCommand.Codec());
+        PersistenceService replayedPersistence = new PersistenceService(new YamlService(), replayed, replayedChanges,
+                12, new SaveProgress());
+        ReplayResult result = new ReplayRunner(replayed, replayedPersistence, codecs)
+                .replay(journal);
+
+        assertThat(result.getTicks()).isEqualTo(TICKS);
+        assertThat(result.getCommands()).isEqualTo(47);
+        assertThat(result.isComplete()).isTrue();
+        assertThat(describe(replayed)).isEqualTo(describe(recorded));
+        assertThat(describe(replayed).stream().filter(state -> state.endsWith("health=65.0")).count()).isEqualTo(1L);
+    }
+
+    @Test
+    void testGapsMakeTheReplayIncomplete() throws Exception {
+        Path journal = Files.createTempFile("run", ".journal");
+        DirtyTracker recordedChanges = new DirtyTracker();
+        World recorded = newWorld(recordedChanges);
+        populate(recorded, 0);
+        populate(recorded, 1);
+        // Behaviour trees and attacks in progress are not in the starting snapshot
+        recorded.edit(recorded.create()).add(new AiBehavior(new FindTargetNode(new SpatialHashGrid())));
+        recorded.getMapper(AttackIntent.class).create(0).targetId = 1;
+        recorded.process();
+        // On cooldown from the first attack, so the second one is still pending
+        assertThat(recorded.getMapper(SwingTimer.class).has(0)).isTrue();
+        recorded.getMapper(AttackIntent.class).create(0).targetId = 1;
+
+        PersistenceService recordedPersistence = new PersistenceService(new YamlService(), recorded, recordedChanges,
+                12, new SaveProgress());
+        CommandRecorder recorder = new CommandRecorder(recorded, recordedPersistence, journal.toString());
+        WorldCommandQueue commandQueue = new WorldCommandQueue(recorder);
+        for (int tick = 0; tick < 10; tick++) {
+            if (tick % 5 == 0) {
+                // Changes the simulation without being journaled
+                commandQueue.enqueue(world -> world.getMapper(Stats.class).get(0).health -= 10);
+            }
+            commandQueue.process(recorded);
+            recorder.recordTick(0.016f);
+            recorded.setDelta(0.016f);
+            recorded.process();
+        }
+        recorder.stop();
+
+        DirtyTracker replayedChanges = new DirtyTracker();
+        World replayed = newWorld(replayedChanges);
+        PersistenceService replayedPersistence = new PersistenceService(new YamlService(), replayed, replayedChanges,
+                12, new SaveProgress());
+        ReplayResult result = new ReplayRunner(replayed, replayedPersistence,
+                List.of()).replay(journal);
+
+        assertThat(result.getTicks()).isEqualTo(10);
+        assertThat(result.getGaps()).isEqualTo(5);
+        assertThat(result.isComplete()).isFalse();
+        assertThat(describe(replayed)).isNotEqualTo(describe(recorded));
+    }
+
+    @Test
+    void testReplayedBodiesRejoinTheSpatialGrid() throws Exception {
+        Path journal = Files.createTempFile("run", ".journal");
+        DirtyTracker recordedChanges = new DirtyTracker();
+        World recorded = newBlastWorld(recordedChanges);
+        for (int i = 0; i < 100; i++) {
+            recorded.edit(populate(recorded, i)).add(new Body(0.5f)).add(new SpatialNode());
+        }
+        recorded.process();
+
+        PersistenceService recordedPersistence = new PersistenceService(new YamlService(), recorded, recordedChanges,
+                12, new SaveProgress());
+        CommandRecorder recorder = new CommandRecorder(recorded, recordedPersistence, journal.toString());
+        WorldCommandQueue commandQueue = new WorldCommandQueue(recorder);
+        for (int tick = 0; tick < 60; tick++) {
+            if (tick % 10 == 5) {
+                commandQueue.enqueue(new BlastCommand(30, 0, 6, 8));
+            }
+            commandQueue.process(recorded);
+            recorder.recordTick(0.016f);
+            recorded.setDelta(0.016f);
+            recorded.process();
+        }
+        recorder.stop();
+        // Overlapping blasts killed some units and damaged others
+        assertThat(describe(recorded).size()).isLessThan(100);
+
+        DirtyTracker replayedChanges = new DirtyTracker();
+        World replayed = newBlastWorld(replayedChanges);
+        PersistenceService replayedPersistence = new PersistenceService(new YamlService(), replayed, replayedChanges,
+                12, new SaveProgress());
+        ReplayResult result = new ReplayRunner(replayed, replayedPersistence,
+                List.of(new BlastCommand.Codec())).replay(journal);
+
+        assertThat(result.isComplete()).isTrue();
+        assertThat(describe(replayed)).isEqualTo(describe(recorded));
+    }
+
+    private static World newWorld(DirtyTracker dirtyTracker) {
+        TimerScheduler timerScheduler = new TimerScheduler();
+        DamageBuffer damageBuffer = new DamageBuffer();
+        HealthChangeTracker healthChangeTracker = new HealthChangeTracker();
+        return new World(new WorldConfigurationBuilder()
+                .with(new TimerSystem(timerScheduler))
+                .with(new MovementSystem(new MotionStore(), dirtyTracker))
+                .with(new BasicAttackSystem(damageBuffer, timerScheduler))
+                .with(new DamageSystem(damageBuffer, healthChangeTracker, dirtyTracker))
+                .with(new DeathSystem(healthChangeTracker, new ArrayList<>()))
+                .build());
+    }
+
+    private static World newBlastWorld(DirtyTracker dirtyTracker) {
+        SpatialHashGrid grid = new SpatialHashGrid();
+        ImpactBuffer impactBuffer = new ImpactBuffer();
+        DamageBuffer damageBuffer = new DamageBuffer();
+        HealthChangeTracker healthChangeTracker = new HealthChangeTracker();
+        return new World(new WorldConfigurationBuilder()
+                .with(new MovementSystem(new MotionStore(), dirtyTracker))
+                .with(new SpatialSystem(grid))
+                .with(new ProjectileSystem(impactBuffer))
+                .with(new AreaDamageSystem(grid, impactBuffer, damageBuffer))
+                .with(new DamageSystem(damageBuffer, healthChangeTracker, dirtyTracker))
+                .with(new DeathSystem(healthChangeTracker, new ArrayList<>()))
+                .build());
+    }
+
+    /**
+     * Creates a reload of a prefab as the prefab watcher would, by decoding its journal record.
+     */
+    private static JournaledCommand prefabReload(TemplateRegistry templateRegistry, String name, int health)
+            throws IOException {
+        byte[] yaml = String.join("\n",
+                "components:",
+                "  - type: com.ecs.component.Stats",
+                "    fields:",
+                "      health: " + health,
+                "      maxHealth: " + health).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(name);
+        out.writeInt(yaml.length);
+        out.write(yaml);
+        return new PrefabReloadCommand.Codec(templateRegistry)
+                .read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    private static int populate(World world, int i) {
+        int entityId = world.create();
+        world.edit(entityId)
+                .add(new Persistent())
+                .add(new Identity("unit-" + i))
+                .add(new Position(i, 0))
+                .add(new Velocity(0, i * 0.1f))
+                .add(new Stats(30))
+                .add(new CombatStats(4, 3, 2));
+        return entityId;
+    }
+
+    private static List<String> describe(World world) {
+        IntBag entities = world.getAspectSubscriptionManager().get(Aspect.all(Position.class)).getEntities();
+        List<String> states = new ArrayList<>(entities.size());
+        for (int n = 0; n < entities.size(); n++) {
+            int entityId = entities.get(n);
+            Position position = world.getMapper(Position.class).get(entityId);
+            Stats stats = world.getMapper(Stats.class).get(entityId);
+            states.add(position.x + "," + position.y + " health=" + (stats != null ? stats.health : null));
+        }
+        Collections.sort(states);
+        return states;
+    }
+
+    /**
+     * Sets a velocity on every positioned entity.
+     */
+    private static final class PushCommand implements JournaledCommand {
+        private final float dx;
+
+        PushCommand(float dx) {
+            this.dx = dx;
+        }
+
+        @Override
+        public void accept(World world) {
+            MovementSystem movementSystem = world.getSystem(MovementSystem.class);
+            IntBag entities = world.getAspectSubscriptionManager().get(Aspect.all(Position.class)).getEntities();
+            for (int n = 0; n < entities.size(); n++) {
+                int entityId = entities.get(n);
+                Velocity velocity = world.getMapper(Velocity.class).create(entityId);
+                movementSystem.setVelocity(entityId, dx, velocity.dy);
+            }
+        }
+
+        @Override
+        public int getTypeId() {
+            return 100;
+        }
+
+        @Override
+        public void write(DataOutput out) throws IOException {
+            out.writeFloat(dx);
+        }
+
+        static final class Codec implements CommandCodec {
+            @Override
+            public int getTypeId() {
+                return 100;
+            }
+
+            @Override
+            public JournaledCommand read(DataInput in) throws IOException {
+                return new PushCommand(in.readFloat());
+            }
+        }
+    }
+
+    /**
+     * Makes one named unit attack another.
+     */
+    private static final class AttackCommand implements JournaledCommand {
+        private final String attacker;
+        private final String target;
+
+        AttackCommand(String attacker, String target) {
+            this.attacker = attacker;
+            this.target = target;
+        }
+
+        @Override
+        public void accept(World world) {
+            int attackerId = find(world, attacker);
+            int targetId = find(world, target);
+            if (attackerId >= 0 && targetId >= 0) {
+                world.getMapper(AttackIntent.class).create(attackerId).targetId = targetId;
+            }
+        }
+
+        private static int find(World world, String id) {
+            IntBag entities = world.getAspectSubscriptionManager().get(Aspect.all(Identity.class)).getEntities();
+            for (int n = 0; n < entities.size(); n++) {
+                if (id.equals(world.getMapper(Identity.class).get(entities.get(n)).id)) {
+                    return entities.get(n);
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int getTypeId() {
+            return 101;
+        }
+
+        @Override
+        public void write(DataOutput out) throws IOException {
+            out.writeUTF(attacker);
+            out.writeUTF(target);
+        }
+
+        static final class Codec implements CommandCodec {
+            @Override
+            public int getTypeId() {
+                return 101;
+            }
+
+            @Override
+            public JournaledCommand read(DataInput in) throws IOException {
+                return new AttackCommand(in.readUTF(), in.readUTF());
+            }
+        }
+    }
+
+    /**
+     * Detonates a blast at a point, through a projectile aimed at its own launch position.
+     */
+    private static final class BlastCommand implements JournaledCommand {
+        private final float x;
+        private final float y;
+        private final float radius;
+        private final float damage;
+
+        BlastCommand(float x, float y, float radius, float damage) {
+            this.x = x;
+            this.y = y;
+            this.radius = radius;
+            this.damage = damage;
+        }
+
+        @Override
+        public void accept(World world) {
+            world.getSystem(ProjectileSystem.class).launch(-1, x, y, x, y, 0, radius, damage);
+        }
+
+        @Override
+        public int getTypeId() {
+            return 102;
+        }
+
+        @Override
+        public void write(DataOutput out) throws IOException {
+            out.writeFloat(x);
+            out.writeFloat(y);
+            out.writeFloat(radius);
+            out.writeFloat(damage);
+        }
+
+        static final class Codec implements CommandCodec {
+            @Override
+            public int getTypeId() {
+                return 102;
+            }
+
+            @Override
+            public JournaledCommand read(DataInput in) throws IOException {
+                return new BlastCommand(in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
+            }
+        }
+    }
+}
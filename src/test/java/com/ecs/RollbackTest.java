@@ -0,0 +1,121 @@
+package com.ecs;
+
+import com.artemis.Aspect;
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.artemis.utils.IntBag;
+import com.ecs.component.*;
+import com.ecs.persistence.DirtyTracker;
+import com.ecs.spatial.SpatialHashGrid;
+import com.ecs.storage.MotionStore;
+import com.ecs.system.MovementSystem;
+import com.ecs.system.PersistenceTrackingSystem;
+import com.ecs.system.RollbackSystem;
+import com.ecs.system.SpatialSystem;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for rolling the world back to in-memory snapshots.
+ */
+class RollbackTest {
+
+    private static final int ENTITY_COUNT = 1_000;
+
+    @Test
+    void testRestoreRollsBackMotionAndChurn() {
+        DirtyTracker dirtyTracker = new DirtyTracker();
+        SpatialHashGrid grid = new SpatialHashGrid();
+        MotionStore motionStore = new MotionStore();
+        RollbackSystem rollback = new RollbackSystem(8, 1, motionStore, dirtyTracker, grid);
+        World world = new World(new WorldConfigurationBuilder()
+                .with(new MovementSystem(motionStore, dirtyTracker))
+                .with(new SpatialSystem(grid))
+                .with(new PersistenceTrackingSystem(dirtyTracker))
+                .with(rollback)
+                .build());
+        populate(world, ENTITY_COUNT);
+        tick(world, 0.1f);
+        tick(world, 0.1f);
+        List<String> saved = describe(world);
+        long savedTick = rollback.getTick();
+
+        // Move, damage, delete and create entities over a few more ticks
+        IntBag entities = persistentEntities(world);
+        for (int n = 0; n < 100; n++) {
+            int entityId = entities.get(n * 3);
+            world.getMapper(Stats.class).get(entityId).health -= 10;
+            dirtyTracker.markChanged(entityId);
+            world.delete(entities.get(n * 3 + 1));
+        }
+        tick(world, 0.1f);
+        populate(world, 50);
+        tick(world, 0.1f);
+        assertThat(describe(world)).isNotEqualTo(saved);
+
+        int framesAgo = (int) (rollback.getTick() - savedTick);
+        assertThat(rollback.getFrameTick(framesAgo)).isEqualTo(savedTick);
+        rollback.restore(framesAgo);
+        assertThat(rollback.getTick()).isEqualTo(savedTick);
+        // A tick without time passing syncs the deleted and recreated entities
+        tick(world, 0f);
+        assertThat(describe(world)).isEqualTo(saved);
+
+        // Every spatial entity is findable at its restored position
+        IntBag nearby = new IntBag();
+        IntBag spatial = world.getAspectSubscriptionManager().get(Aspect.all(SpatialNode.class)).getEntities();
+        assertThat(spatial.size()).isEqualTo(ENTITY_COUNT);
+        for (int n = 0; n < spatial.size(); n++) {
+            int entityId = spatial.get(n);
+            Position position = world.getMapper(Position.class).get(entityId);
+            nearby.clear();
+            grid.getNearby(position.x, position.y, nearby);
+            assertThat(nearby.contains(entityId)).isTrue();
+        }
+    }
+
+    private static void populate(World world, int count) {
+        for (int i = 0; i < count; i++) {
+            int entityId = world.create();
+            world.edit(entityId)
+                    .add(new Persistent())
+                    .add(new Position(i * 3, -i))
+                    .add(new Velocity(i % 7, 5))
+                    .add(new Body(1.0f))
+                    .add(new SpatialNode())
+                    .add(new Stats(i % 100 + 1));
+        }
+        world.process();
+    }
+
+    private static void tick(World world, float delta) {
+        world.setDelta(delta);
+        world.process();
+    }
+
+    /**
+     * Lists the persisted state of each entity, sorted, since recreated entities get new IDs.
+     */
+    private static List<String> describe(World world) {
+        IntBag entities = persistentEntities(world);
+        List<String> states = new ArrayList<>(entities.size());
+        for (int n = 0; n < entities.size(); n++) {
+            int entityId = entities.get(n);
+            Position position = world.getMapper(Position.class).get(entityId);
+            Velocity velocity = world.getMapper(Velocity.class).get(entityId);
+            states.add(position.x + "," + position.y + " v=" + velocity.dx + "," + velocity.dy
+                    + " health=" + world.getMapper(Stats.class).get(entityId).health);
+        }
+        Collections.sort(states);
+        return states;
+    }
+
+    private static IntBag persistentEntities(World world) {
+        return world.getAspectSubscriptionManager().get(Aspect.all(Persistent.class)).getEntities();
+    }
+}
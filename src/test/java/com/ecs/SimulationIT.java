@@ -6,11 +6,20 @@ import com.ecs.ai.ChaseNode;
 import com.ecs.ai.CombatNode;
 import com.ecs.ai.FindTargetNode;
 import com.ecs.ai.SequenceNode;
+import com.ecs.combat.DamageBuffer;
+import com.ecs.combat.HealthChangeTracker;
+import com.ecs.combat.ImpactBuffer;
+import com.ecs.combat.TargetIndex;
 import com.ecs.component.*;
+import com.ecs.persistence.DirtyTracker;
 import com.ecs.spatial.SpatialHashGrid;
+import com.ecs.storage.MotionStore;
 import com.ecs.system.*;
+import com.ecs.timer.TimerScheduler;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -22,13 +31,20 @@ class SimulationIT {
     void testCombatSimulation() {
         // Create the world with all systems
         SpatialHashGrid grid = new SpatialHashGrid();
+        DamageBuffer damageBuffer = new DamageBuffer();
+        HealthChangeTracker healthChangeTracker = new HealthChangeTracker();
+        TargetIndex targetIndex = new TargetIndex();
+        TimerScheduler timerScheduler = new TimerScheduler();
+        DirtyTracker dirtyTracker = new DirtyTracker();
         
         World world = new World(new WorldConfigurationBuilder()
-                .with(new MovementSystem())
+                .with(new TimerSystem(timerScheduler))
+                .with(new MovementSystem(new MotionStore(), dirtyTracker))
                 .with(new SpatialSystem(grid))
-                .with(new AiSystem())
-                .with(new BasicAttackSystem())
-                .with(new DeathSystem())
+                .with(new AiSystem(targetIndex))
+                .with(new BasicAttackSystem(damageBuffer, timerScheduler))
+                .with(new DamageSystem(damageBuffer, healthChangeTracker, dirtyTracker))
+                .with(new DeathSystem(healthChangeTracker, new ArrayList<>()))
                 .build());
 
         // Create attacker entity
@@ -72,8 +88,8 @@ class SimulationIT {
                 int foundTarget = findTarget.getLastFoundTarget();
                 // Create sequence: chase → combat
                 SequenceNode chaseAndAttack = new SequenceNode(
-                    new ChaseNode(foundTarget, 0.5f), // Chase at 0.5 units per tick
-                    new CombatNode(foundTarget)
+                    new ChaseNode(targetIndex, foundTarget, 0.5f), // Chase at 0.5 units per tick
+                    new CombatNode(targetIndex, foundTarget)
                 );
                 world.edit(attacker).add(new AiBehavior(chaseAndAttack));
             }
@@ -83,5 +99,69 @@ class SimulationIT {
         assertThat(targetDied)
                 .as("Target should have died during simulation")
                 .isTrue();
+
+        // Assert that the death released the attacker's pursuit
+        assertThat(targetIndex.getPursuerCount(target))
+                .as("Dead target should have no pursuers left")
+                .isEqualTo(0);
+        assertThat(world.getMapper(AttackIntent.class).has(attacker))
+                .as("Attacker should not keep an intent on a dead target")
+                .isFalse();
+    }
+
+    @Test
+    void testProjectileAreaDamage() {
+        SpatialHashGrid grid = new SpatialHashGrid();
+        DamageBuffer damageBuffer = new DamageBuffer();
+        ImpactBuffer impactBuffer = new ImpactBuffer();
+        HealthChangeTracker healthChangeTracker = new HealthChangeTracker();
+        DirtyTracker dirtyTracker = new DirtyTracker();
+        ProjectileSystem projectileSystem = new ProjectileSystem(impactBuffer);
+
+        World world = new World(new WorldConfigurationBuilder()
+                .with(new MovementSystem(null, dirtyTracker))
+                .with(new SpatialSystem(grid))
+                .with(projectileSystem)
+                .with(new AreaDamageSystem(grid, impactBuffer, damageBuffer))
+                .with(new DamageSystem(damageBuffer, healthChangeTracker, dirtyTracker))
+                .with(new DeathSystem(healthChangeTracker, new ArrayList<>()))
+                .build());
+
+        // A cluster of units inside the blast and one unit outside it
+        int[] inside = new int[5];
+        for (int i = 0; i < inside.length; i++) {
+            inside[i] = world.create();
+            world.edit(inside[i])
+                    .add(new Position(100 + i, 100))
+                    .add(new Body(1.0f))
+                    .add(new SpatialNode(100 + i, 100))
+                    .add(new Stats(30));
+        }
+        int outside = world.create();
+        world.edit(outside)
+                .add(new Position(150, 100))
+                .add(new Body(1.0f))
+                .add(new SpatialNode(150, 100))
+                .add(new Stats(30));
+
+        // Two projectiles landing on the cluster in the same tick resolve in one batch
+        world.setDelta(0.016f);
+        world.process();
+        projectileSystem.launch(-1, 0, 100, 102, 100, 100, 10, 20);
+        projectileSystem.launch(-1, 200, 100, 102, 100, 100, 10, 20);
+
+        for (int i = 0; i < 200; i++) {
+            world.setDelta(0.016f);
+            world.process();
+        }
+
+        for (int entityId : inside) {
+            assertThat(world.getEntityManager().isActive(entityId))
+                    .as("Units inside the blast should have died")
+                    .isFalse();
+        }
+        assertThat(world.getMapper(Stats.class).get(outside).health)
+                .as("Unit outside the blast should be untouched")
+                .isEqualTo(30f);
     }
 }
@@ -0,0 +1,81 @@
+package com.ecs;
+
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.ecs.combat.HealthChangeTracker;
+import com.ecs.component.*;
+import com.ecs.core.WorldCommandQueue;
+import com.ecs.metrics.SimulationMetrics;
+import com.ecs.spatial.SpatialHashGrid;
+import com.ecs.system.DeathSystem;
+import com.ecs.system.SpatialSystem;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the simulation metrics registry and its JMX export.
+ */
+class SimulationMetricsTest {
+
+    @Test
+    void testSampledGaugesAreReadableThroughJmx() throws Exception {
+        SpatialHashGrid grid = new SpatialHashGrid();
+        HealthChangeTracker healthChangeTracker = new HealthChangeTracker();
+        WorldCommandQueue commandQueue = new WorldCommandQueue();
+        SimulationMetrics metrics = new SimulationMetrics(commandQueue, grid, 0);
+        World world = new World(new WorldConfigurationBuilder()
+                .with(new SpatialSystem(grid))
+                .with(new DeathSystem(healthChangeTracker, new ArrayList<>()))
+                .build());
+
+        // Three units in one cell and one far away
+        for (int i = 0; i < 4; i++) {
+            float x = i < 3 ? i : 1_000;
+            world.edit(world.create())
+                    .add(new Position(x, 0))
+                    .add(new Body(1.0f))
+                    .add(new SpatialNode())
+                    .add(new Stats(10))
+                    .add(new Persistent());
+        }
+        world.process();
+        metrics.recordTick(world, 1_000_000L, 0L);
+        int victim = world.create();
+        world.edit(victim).add(new Stats(10));
+        for (int i = 0; i < 5; i++) {
+            commandQueue.enqueue(w -> { });
+        }
+        assertThat(metrics.getCommandQueueDepth()).isEqualTo(5);
+
+        commandQueue.process(world);
+        world.getMapper(Stats.class).get(victim).health = 0;
+        healthChangeTracker.markChanged(victim);
+        world.process();
+        metrics.recordTick(world, 2_000_000L, 0L);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(SimulationMetrics.OBJECT_NAME);
+        metrics.registerMBean();
+        try {
+            assertThat(server.getAttribute(name, "EntityCount")).isEqualTo(4);
+            assertThat(server.getAttribute(name, "PersistentEntityCount")).isEqualTo(4);
+            assertThat(server.getAttribute(name, "CommandQueueDepth")).isEqualTo(0);
+            assertThat((Double) server.getAttribute(name, "CommandDrainRate") > 0).isTrue();
+            assertThat(server.getAttribute(name, "GridEntityCount")).isEqualTo(4);
+            assertThat(server.getAttribute(name, "GridCellCount")).isEqualTo(2);
+            assertThat(server.getAttribute(name, "GridMaxOccupancy")).isEqualTo(3);
+            assertThat(server.getAttribute(name, "GridAverageOccupancy")).isEqualTo(2.0);
+            assertThat(server.getAttribute(name, "MaxTickMillis")).isEqualTo(2.0);
+            assertThat((Double) server.getAttribute(name, "DeathRate") > 0).isTrue();
+        } finally {
+            metrics.unregisterMBean();
+        }
+        assertThat(server.isRegistered(name)).isFalse();
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecs;
+
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.ecs.combat.TargetIndex;
+import com.ecs.component.AttackIntent;
+import com.ecs.component.Stats;
+import com.ecs.system.AiSystem;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for invalidating target handles when entities leave the world.
+ */
+class TargetIndexTest {
+
+    @Test
+    void testDeletedEntitiesInvalidateHandlesAndPursuers() {
+        TargetIndex targetIndex = new TargetIndex();
+        World world = new World(new WorldConfigurationBuilder()
+                .with(new AiSystem(targetIndex))
+                .build());
+        int target = world.create();
+        world.edit(target).add(new Stats(100));
+        int pursuer = world.create();
+        world.edit(pursuer).add(new Stats(100));
+        int otherTarget = world.create();
+        world.edit(otherTarget).add(new Stats(100));
+        int otherPursuer = world.create();
+        world.process();
+
+        long handle = targetIndex.handle(target);
+        assertThat(targetIndex.track(pursuer, handle)).isTrue();
+        world.edit(pursuer).create(AttackIntent.class).targetId = target;
+        assertThat(targetIndex.track(otherPursuer, targetIndex.handle(otherTarget))).isTrue();
+
+        // Deleted directly, as a region unload or rollback does, rather than by dying
+        world.delete(target);
+        world.process();
+        assertThat(targetIndex.isValid(handle)).isFalse();
+        assertThat(targetIndex.getPursuerCount(target)).isEqualTo(0);
+        assertThat(world.getMapper(AttackIntent.class).has(pursuer)).isFalse();
+
+        // A recycled ID is not picked up through the old handle
+        int recycled = world.create();
+        world.process();
+        assertThat(recycled).isEqualTo(target);
+        assertThat(targetIndex.track(pursuer, handle)).isFalse();
+        assertThat(targetIndex.isValid(targetIndex.handle(recycled))).isTrue();
+
+        // Removed pursuers no longer count against their target
+        world.delete(otherPursuer);
+        world.process();
+        assertThat(targetIndex.getPursuerCount(otherTarget)).isEqualTo(0);
+    }
+}
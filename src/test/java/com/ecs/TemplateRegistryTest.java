@@ -0,0 +1,138 @@
+package com.ecs;
+
+import com.artemis.Component;
+import com.ecs.component.Body;
+import com.ecs.component.Stats;
+import com.ecs.registry.PrefabBundle;
+import com.ecs.registry.PrefabBundleCompiler;
+import com.ecs.registry.PrefabParser;
+import com.ecs.registry.TemplateRegistry;
+import com.ecs.service.YamlService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for prefab discovery and lazy template loading.
+ */
+class TemplateRegistryTest {
+
+    @Test
+    void testDiscoversClasspathAndExternalPrefabs() throws Exception {
+        Path dir = Files.createTempDirectory("prefabs");
+        Files.writeString(dir.resolve("brute.yml"), String.join("\n",
+                "components:",
+                "  - type: com.ecs.component.Stats",
+                "    fields:",
+                "      health: 250",
+                "      maxHealth: 250"));
+        Files.writeString(dir.resolve("notes.txt"), "not a prefab");
+
+        TemplateRegistry registry = new TemplateRegistry(new YamlService(), dir.toString());
+
+        assertThat(registry.getTemplateNames().contains("scout")).isTrue();
+        assertThat(registry.getTemplateNames().contains("brute")).isTrue();
+        assertThat(registry.getTemplateNames().contains("notes")).isFalse();
+
+        List<Component> scout = registry.getTemplate("scout");
+        assertThat(scout.size()).isEqualTo(2);
+        assertThat(((Stats) scout.get(0)).health).isEqualTo(40f);
+        assertThat(registry.getTemplate("scout") == scout)
+                .as("Parsed templates should be cached")
+                .isTrue();
+        assertThat(((Stats) registry.getTemplate("brute").get(0)).maxHealth).isEqualTo(250f);
+        assertThat(registry.getTemplate("missing")).isNull();
+    }
+
+    @Test
+    void testPrefabBundleRoundTrip() throws Exception {
+        Path dir = Files.createTempDirectory("prefabs");
+        Files.writeString(dir.resolve("tank.yml"), String.join("\n",
+                "components:",
+                "  - type: com.ecs.component.Stats",
+                "    fields:",
+                "      health: 500.5",
+                "  - type: com.ecs.component.Body",
+                "    fields:",
+                "      radius: 2"));
+        Path bundleFile = dir.resolve("out").resolve(PrefabBundle.RESOURCE);
+
+        assertThat(PrefabBundleCompiler.compile(dir, bundleFile)).isEqualTo(1);
+
+        PrefabBundle bundle;
+        try (InputStream stream = Files.newInputStream(bundleFile)) {
+            bundle = PrefabBundle.read(stream);
+        }
+        assertThat(bundle.contains("tank")).isTrue();
+        List<Component> tank = bundle.decode("tank");
+        assertThat(tank.size()).isEqualTo(2);
+        assertThat(((Stats) tank.get(0)).health).isEqualTo(500.5f);
+        assertThat(((Body) tank.get(1)).radius).isEqualTo(2f);
+        assertThat(bundle.decode("missing")).isNull();
+    }
+
+    @Test
+    void testBundleWinsOnlyForTheTemplatesItContains() throws Exception {
+        Path source = Files.createTempDirectory("prefabs");
+        Files.writeString(source.resolve("scout.yml"), String.join("\n",
+                "components:",
+                "  - type: com.ecs.component.Stats",
+                "    fields:",
+                "      health: 99"));
+        // A second classpath root with the bundle and a prefab the bundle does not know
+        Path classpath = Files.createTempDirectory("classpath");
+        PrefabBundleCompiler.compile(source, classpath.resolve(PrefabBundle.RESOURCE));
+        Files.createDirectories(classpath.resolve("prefabs"));
+        Files.writeString(classpath.resolve("prefabs").resolve("archer.yml"), String.join("\n",
+                "components:",
+                "  - type: com.ecs.component.Body",
+                "    fields:",
+                "      radius: 0.75"));
+        Path external = Files.createTempDirectory("external");
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classpath.toUri().toURL()},
+                getClass().getClassLoader())) {
+            TemplateRegistry registry = new TemplateRegistry(new YamlService(), external.toString(), classLoader);
+
+            assertThat(((Stats) registry.getTemplate("scout").get(0)).health).isEqualTo(99f);
+            assertThat(((Body) registry.getTemplate("archer").get(0)).radius).isEqualTo(0.75f);
+            assertThat(registry.getTemplateNames().size()).isEqualTo(2);
+
+            // Dropping an external override restores the bundled template
+            registry.registerTemplate("scout", List.of(new Stats(1)));
+            registry.removeOverride("scout");
+            assertThat(((Stats) registry.getTemplate("scout").get(0)).health).isEqualTo(99f);
+        }
+    }
+
+    @Test
+    void testStrictParserRejectsUnknownFields() {
+        String yaml = String.join("\n",
+                "components:",
+                "  - type: com.ecs.component.Stats",
+                "    fields:",
+                "      helth: 10");
+
+        assertThatThrownBy(() -> new PrefabParser(new YamlService(), true).parse("typo", stream(yaml)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("helth");
+        // The lenient parser keeps the component and skips the field
+        List<Component> template = new PrefabParser(new YamlService(), false).parse("typo", stream(yaml));
+        assertThat(template.size()).isEqualTo(1);
+        assertThat(((Stats) template.get(0)).health).isEqualTo(0f);
+    }
+
+    private static InputStream stream(String yaml) {
+        return new ByteArrayInputStream(yaml.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,141 @@
+package com.ecs;
+
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.artemis.utils.IntBag;
+import com.ecs.combat.DamageBuffer;
+import com.ecs.component.AttackIntent;
+import com.ecs.component.CombatStats;
+import com.ecs.component.SwingTimer;
+import com.ecs.system.BasicAttackSystem;
+import com.ecs.system.TimerSystem;
+import com.ecs.timer.TimerChannel;
+import com.ecs.timer.TimerScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the hierarchical timing wheel.
+ */
+class TimerSchedulerTest {
+
+    // Delays in wheel slots, on and around the span of each of the four levels
+    private static final long[] DELAYS = {
+            1, 2, 63, 64, 65, 127, 128, 4_095, 4_096, 4_097, 8_200,
+            262_143, 262_144, 262_145, 300_000
+    };
+
+    @Test
+    void testTimersExpireOnTheirSlotAcrossCascades() {
+        TimerScheduler scheduler = new TimerScheduler();
+        TimerChannel channel = scheduler.channel("test");
+        TimerChannel other = scheduler.channel("other");
+        assertThat(scheduler.channel("test")).isSameAs(channel);
+
+        for (int i = 0; i < DELAYS.length; i++) {
+            channel.schedule(i, delay(DELAYS[i]));
+        }
+        // Cancelled before firing, one on each level
+        int cancelledBase = 100;
+        long[] cancelled = {10, 1_000, 100_000, 280_000};
+        for (int i = 0; i < cancelled.length; i++) {
+            channel.schedule(cancelledBase + i, delay(cancelled[i]));
+        }
+        // Rescheduling replaces the pending timer
+        channel.schedule(200, delay(50));
+        channel.schedule(200, delay(5_000));
+        // Channels are independent
+        other.schedule(0, delay(70));
+
+        long[] expiredAt = new long[201];
+        Arrays.fill(expiredAt, -1);
+        long otherExpiredAt = -1;
+        long last = DELAYS[DELAYS.length - 1];
+        for (long tick = 1; tick <= last + 10; tick++) {
+            scheduler.advance(TimerScheduler.RESOLUTION_SECONDS);
+            assertThat(scheduler.getCurrentTick()).isEqualTo(tick);
+            IntBag expired = channel.getExpired();
+            for (int i = 0; i < expired.size(); i++) {
+                int entityId = expired.get(i);
+                assertThat(expiredAt[entityId]).as("Entity %d expired twice", entityId).isEqualTo(-1L);
+                expiredAt[entityId] = tick;
+            }
+            if (other.getExpired().size() > 0) {
+                otherExpiredAt = tick;
+            }
+
+            // Cancel the last two after they have cascaded down at least one level
+            if (tick == 70_000) {
+                assertThat(channel.isScheduled(cancelledBase + 2)).isTrue();
+                channel.cancel(cancelledBase + 2);
+            }
+            if (tick == 270_000) {
+                channel.cancel(cancelledBase + 3);
+            }
+            if (tick == 5) {
+                channel.cancel(cancelledBase);
+                channel.cancel(cancelledBase + 1);
+            }
+        }
+
+        for (int i = 0; i < DELAYS.length; i++) {
+            assertThat(expiredAt[i]).as("Expiry of a timer due after %d slots", DELAYS[i]).isEqualTo(DELAYS[i]);
+            assertThat(channel.isScheduled(i)).isFalse();
+        }
+        for (int i = 0; i < cancelled.length; i++) {
+            assertThat(expiredAt[cancelledBase + i]).isEqualTo(-1L);
+            assertThat(channel.isScheduled(cancelledBase + i)).isFalse();
+        }
+        assertThat(expiredAt[200]).isEqualTo(5_000L);
+        assertThat(otherExpiredAt).isEqualTo(70L);
+        assertThat(other.isScheduled(0)).isFalse();
+    }
+
+    @Test
+    void testRemovedEntitiesLoseTheirTimers() {
+        TimerScheduler scheduler = new TimerScheduler();
+        World world = new World(new WorldConfigurationBuilder()
+                .with(new TimerSystem(scheduler))
+                .with(new BasicAttackSystem(new DamageBuffer(), scheduler))
+                .build());
+        TimerChannel swing = scheduler.channel(BasicAttackSystem.SWING_CHANNEL);
+
+        int deleted = world.create();
+        world.process();
+        swing.schedule(deleted, 0.5f);
+        // Deleted directly, as a region unload or rollback does, rather than by dying
+        world.delete(deleted);
+        tick(world);
+        assertThat(swing.isScheduled(deleted)).isFalse();
+
+        // An attacker restored on cooldown without its timer gets the cooldown rescheduled
+        int restored = world.create();
+        assertThat(restored).isEqualTo(deleted);
+        world.edit(restored).add(new CombatStats(10, 2, 1));
+        world.edit(restored).create(AttackIntent.class);
+        world.edit(restored).create(SwingTimer.class).cooldown = 0.2f;
+        tick(world);
+        assertThat(swing.isScheduled(restored)).isTrue();
+        for (int i = 0; i < 30; i++) {
+            tick(world);
+        }
+        assertThat(world.getMapper(SwingTimer.class).has(restored)).isTrue();
+        assertThat(swing.isScheduled(restored)).isTrue();
+        assertThat(world.getMapper(AttackIntent.class).has(restored)).isFalse();
+    }
+
+    /**
+     * Gets a delay that rounds up to exactly the given number of slots.
+     */
+    private static float delay(long slots) {
+        return (slots - 0.5f) * TimerScheduler.RESOLUTION_SECONDS;
+    }
+
+    private static void tick(World world) {
+        world.setDelta(0.016f);
+        world.process();
+    }
+}
@@ -0,0 +1,85 @@
+package com.ecs;
+
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.ecs.component.Identity;
+import com.ecs.component.Position;
+import com.ecs.component.Stats;
+import com.ecs.view.WorldView;
+import com.ecs.view.WorldViewPublisher;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for publishing world views to reader threads.
+ */
+class WorldViewTest {
+
+    @Test
+    void testLeasedViewsStayUnchangedWhileLaterTicksPublish() throws Exception {
+        World world = new World(new WorldConfigurationBuilder().build());
+        WorldViewPublisher publisher = new WorldViewPublisher(0);
+        assertThat(publisher.acquire()).isNull();
+
+        int hero = world.create();
+        world.edit(hero).add(new Position(1, 2)).add(new Stats(50)).add(new Identity("hero"));
+        int marker = world.create();
+        world.edit(marker).add(new Position(3, 4));
+        tick(world, publisher);
+
+        WorldView held = publisher.acquire();
+        assertThat(held.getTick()).isEqualTo(1L);
+        assertThat(held.size()).isEqualTo(2);
+        int index = held.indexOf(hero);
+        assertThat(held.getX(index)).isEqualTo(1f);
+        assertThat(held.getY(index)).isEqualTo(2f);
+        assertThat(held.getHealth(index)).isEqualTo(50f);
+        assertThat(held.getIdentity(index)).isEqualTo("hero");
+        assertThat(Float.isNaN(held.getHealth(held.indexOf(marker)))).isTrue();
+        assertThat(held.getIdentity(held.indexOf(marker))).isNull();
+
+        // Later ticks publish newer views, run from another thread like the game loop
+        Thread loop = new Thread(() -> {
+            for (int i = 0; i < 10; i++) {
+                world.getMapper(Position.class).get(hero).x += 1;
+                tick(world, publisher);
+            }
+        });
+        loop.start();
+        loop.join();
+
+        assertThat(held.getX(index)).isEqualTo(1f);
+        held.close();
+        try (WorldView latest = publisher.acquire()) {
+            assertThat(latest.getTick()).isEqualTo(11L);
+            assertThat(latest.getX(latest.indexOf(hero))).isEqualTo(11f);
+        }
+    }
+
+    @Test
+    void testPublishRateLimitsViews() {
+        World world = new World(new WorldConfigurationBuilder().build());
+        WorldViewPublisher publisher = new WorldViewPublisher(2);
+        world.edit(world.create()).add(new Position(0, 0));
+
+        tick(world, publisher);
+        for (int i = 0; i < 4; i++) {
+            tick(world, publisher);
+        }
+        try (WorldView view = publisher.acquire()) {
+            // Published on the first tick and once half a second later
+            assertThat(view.getTick()).isEqualTo(5L);
+        }
+        tick(world, publisher);
+        try (WorldView view = publisher.acquire()) {
+            assertThat(view.getTick()).isEqualTo(5L);
+        }
+    }
+
+    private static void tick(World world, WorldViewPublisher publisher) {
+        world.setDelta(0.125f);
+        world.process();
+        publisher.publish(world);
+    }
+}
@@ -0,0 +1,35 @@
+package com.ecs.storage;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Motion kernel using the Vector API at the platform's preferred SIMD width.
+ * Only loaded through {@link MotionKernel#preferred()} when the incubator module is present.
+ */
+class VectorMotionKernel implements MotionKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public void integrate(float[] x, float[] y, float[] dx, float[] dy, int count, float delta) {
+        int i = 0;
+        int upperBound = SPECIES.loopBound(count);
+        for (; i < upperBound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, dx, i)
+                    .mul(delta)
+                    .add(FloatVector.fromArray(SPECIES, x, i))
+                    .intoArray(x, i);
+            FloatVector.fromArray(SPECIES, dy, i)
+                    .mul(delta)
+                    .add(FloatVector.fromArray(SPECIES, y, i))
+                    .intoArray(y, i);
+        }
+
+        // Scalar tail
+        for (; i < count; i++) {
+            x[i] += dx[i] * delta;
+            y[i] += dy[i] * delta;
+        }
+    }
+}